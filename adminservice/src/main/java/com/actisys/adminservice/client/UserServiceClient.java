@@ -1,9 +1,18 @@
 package com.actisys.adminservice.client;
 
 import com.actisys.common.user.UserDTO;
+import java.util.Collection;
+import java.util.Map;
 import reactor.core.publisher.Mono;
 
 public interface UserServiceClient {
 
   Mono<UserDTO> getUserById(Long userId);
+
+  /**
+   * Fetches the users in batches of {@code userservice.batch-size} ids.
+   *
+   * @return found users by id; unknown ids are absent
+   */
+  Mono<Map<Long, UserDTO>> getUsersByIds(Collection<Long> userIds);
 }
@@ -4,15 +4,23 @@ import com.actisys.adminservice.client.UserServiceClient;
 import com.actisys.adminservice.config.ServiceProperties.UserServiceProperties;
 import com.actisys.common.user.UserDTO;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
 public class UserServiceClientImpl implements UserServiceClient {
 
+  private static final int BATCH_CONCURRENCY = 4;
+
   private final WebClient webClient;
   private final UserServiceProperties properties;
 
@@ -34,4 +42,24 @@ public class UserServiceClientImpl implements UserServiceClient {
         .bodyToMono(UserDTO.class)
         .timeout(Duration.ofSeconds(5));
   }
+
+  @Override
+  public Mono<Map<Long, UserDTO>> getUsersByIds(Collection<Long> userIds) {
+    return Flux.fromIterable(userIds)
+        .filter(Objects::nonNull)
+        .distinct()
+        .buffer(properties.getBatchSize())
+        .flatMap(this::getUsersBatch, BATCH_CONCURRENCY)
+        .flatMapIterable(Map::entrySet)
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  private Mono<Map<Long, UserDTO>> getUsersBatch(List<Long> userIds) {
+    return webClient.post()
+        .uri(properties.getEndpoints().getGetUsersBatch())
+        .bodyValue(userIds)
+        .retrieve()
+        .bodyToMono(new ParameterizedTypeReference<Map<Long, UserDTO>>() {})
+        .timeout(Duration.ofSeconds(5));
+  }
 }
@@ -10,11 +10,13 @@ import org.springframework.context.annotation.Configuration;
 @Setter
 public class UserServiceProperties {
   private String host;
+  private int batchSize = 500;
   private Endpoints endpoints = new Endpoints();
 
   @Getter
   @Setter
   public static class Endpoints {
     private String getUser;
+    private String getUsersBatch;
   }
 }
@@ -4,15 +4,19 @@ import com.actisys.adminservice.client.PaymentServiceClient;
 import com.actisys.adminservice.client.ProductServiceClient;
 import com.actisys.adminservice.client.UserServiceClient;
 import com.actisys.adminservice.dto.orderDtos.AllOrderDTO;
+import com.actisys.adminservice.dto.orderDtos.OrderDTO;
 import com.actisys.adminservice.service.OrderService;
+import java.util.Collections;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class OrderServiceImpl implements OrderService {
 
   private final ProductServiceClient productServiceClient;
@@ -22,19 +26,19 @@ public class OrderServiceImpl implements OrderService {
   @Override
   public Mono<List<AllOrderDTO>> getAllOrders() {
     return productServiceClient.getAllOrders()
-        .flatMapMany(Flux::fromIterable)
-        .flatMap(order->
-            Mono.zip(
-                Mono.just(order),
-                paymentServiceClient.getPaymentById(order.getPaymentId()),
-                userServiceClient.getUserById(order.getUserId())
-            ).map(tuple -> AllOrderDTO.builder()
-                .order(tuple.getT1())
-                .payment(tuple.getT2())
-                .user(tuple.getT3())
-                .build()
+        .flatMap(orders -> userServiceClient.getUsersByIds(
+                orders.stream().map(OrderDTO::getUserId).toList())
+            .doOnError(error ->
+                log.warn("Failed to fetch users for orders: {}", error.getMessage())
             )
-        )
-        .collectList();
+            .onErrorReturn(Collections.emptyMap())
+            .flatMap(users -> Flux.fromIterable(orders)
+                .flatMap(order -> paymentServiceClient.getPaymentById(order.getPaymentId())
+                    .map(payment -> AllOrderDTO.builder()
+                        .order(order)
+                        .payment(payment)
+                        .user(users.get(order.getUserId()))
+                        .build()))
+                .collectList()));
   }
 }
@@ -7,11 +7,13 @@ import com.actisys.adminservice.client.ProductServiceClient;
 import com.actisys.adminservice.client.UserServiceClient;
 import com.actisys.adminservice.dto.orderDtos.OrderDTO;
 import com.actisys.adminservice.dto.paymentDtos.AllPaymentDTO;
+import com.actisys.adminservice.dto.paymentDtos.PaymentIDDTO;
 import com.actisys.adminservice.dto.sessionDtos.PCDTO;
 import com.actisys.adminservice.dto.sessionDtos.SessionDTO;
 import com.actisys.adminservice.service.PaymentService;
 import com.actisys.common.events.PaymentType;
 import com.actisys.common.user.UserDTO;
+import java.util.Collections;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,71 +35,78 @@ public class PaymentServiceImpl implements PaymentService {
   @Override
   public Mono<List<AllPaymentDTO>> getAllPayments() {
     return paymentServiceClient.getAllPayments()
-        .flatMapMany(Flux::fromIterable)
-        .flatMap(paymentDTO ->
-            userServiceClient.getUserById(paymentDTO.getUserId())
-                .onErrorResume(e -> Mono.just(createEmptyUserDTO(paymentDTO.getUserId())))
-                .flatMap(user -> {
-                  if (paymentDTO.getOrderId() == null || paymentDTO.getOrderId() <= 0) {
-                    return Mono.just(AllPaymentDTO.builder()
-                        .paymentDTO(paymentDTO)
-                        .userDTO(user)
-                        .build());
-                  }
-
-                  if (paymentDTO.getPaymentType() == PaymentType.BAR_BUY) {
-                    return productServiceClient.getOrderById(paymentDTO.getOrderId())
-                        .onErrorResume(e -> Mono.empty())
-                        .map(order -> AllPaymentDTO.builder()
-                            .paymentDTO(paymentDTO)
-                            .userDTO(user)
-                            .orderDTO(order)
-                            .build())
-                        .defaultIfEmpty(AllPaymentDTO.builder()
-                            .paymentDTO(paymentDTO)
-                            .userDTO(user)
-                            .build());
-                  }
-
-                  if (paymentDTO.getPaymentType() == PaymentType.BOOKING) {
-                    return billingServiceClient.getSessionById(paymentDTO.getOrderId())
-                        .onErrorResume(e -> Mono.empty())
-                        .flatMap(session -> {
-                          if (session.getPcId() == null) {
+        .flatMap(payments -> userServiceClient.getUsersByIds(
+                payments.stream().map(PaymentIDDTO::getUserId).toList())
+            .doOnError(error ->
+                log.warn("Failed to fetch users for payments: {}", error.getMessage())
+            )
+            .onErrorReturn(Collections.emptyMap())
+            .flatMap(users -> Flux.fromIterable(payments)
+                .flatMap(paymentDTO ->
+                    Mono.justOrEmpty(users.get(paymentDTO.getUserId()))
+                        .switchIfEmpty(
+                            Mono.fromSupplier(() -> createEmptyUserDTO(paymentDTO.getUserId())))
+                        .flatMap(user -> {
+                          if (paymentDTO.getOrderId() == null || paymentDTO.getOrderId() <= 0) {
                             return Mono.just(AllPaymentDTO.builder()
                                 .paymentDTO(paymentDTO)
                                 .userDTO(user)
-                                .sessionDTO(session)
                                 .build());
                           }
 
-                          return inventoryServiceClient.getPcById(session.getPcId())
-                              .onErrorResume(e -> Mono.empty())
-                              .map(pc -> AllPaymentDTO.builder()
-                                  .paymentDTO(paymentDTO)
-                                  .userDTO(user)
-                                  .sessionDTO(session)
-                                  .pcDTO(pc)
-                                  .build())
-                              .defaultIfEmpty(AllPaymentDTO.builder()
-                                  .paymentDTO(paymentDTO)
-                                  .userDTO(user)
-                                  .sessionDTO(session)
-                                  .build());
-                        })
-                        .defaultIfEmpty(AllPaymentDTO.builder()
-                            .paymentDTO(paymentDTO)
-                            .userDTO(user)
-                            .build());
-                  }
+                          if (paymentDTO.getPaymentType() == PaymentType.BAR_BUY) {
+                            return productServiceClient.getOrderById(paymentDTO.getOrderId())
+                                .onErrorResume(e -> Mono.empty())
+                                .map(order -> AllPaymentDTO.builder()
+                                    .paymentDTO(paymentDTO)
+                                    .userDTO(user)
+                                    .orderDTO(order)
+                                    .build())
+                                .defaultIfEmpty(AllPaymentDTO.builder()
+                                    .paymentDTO(paymentDTO)
+                                    .userDTO(user)
+                                    .build());
+                          }
 
-                  return Mono.just(AllPaymentDTO.builder()
-                      .paymentDTO(paymentDTO)
-                      .userDTO(user)
-                      .build());
-                })
-        )
-        .collectList();
+                          if (paymentDTO.getPaymentType() == PaymentType.BOOKING) {
+                            return billingServiceClient.getSessionById(paymentDTO.getOrderId())
+                                .onErrorResume(e -> Mono.empty())
+                                .flatMap(session -> {
+                                  if (session.getPcId() == null) {
+                                    return Mono.just(AllPaymentDTO.builder()
+                                        .paymentDTO(paymentDTO)
+                                        .userDTO(user)
+                                        .sessionDTO(session)
+                                        .build());
+                                  }
+
+                                  return inventoryServiceClient.getPcById(session.getPcId())
+                                      .onErrorResume(e -> Mono.empty())
+                                      .map(pc -> AllPaymentDTO.builder()
+                                          .paymentDTO(paymentDTO)
+                                          .userDTO(user)
+                                          .sessionDTO(session)
+                                          .pcDTO(pc)
+                                          .build())
+                                      .defaultIfEmpty(AllPaymentDTO.builder()
+                                          .paymentDTO(paymentDTO)
+                                          .userDTO(user)
+                                          .sessionDTO(session)
+                                          .build());
+                                })
+                                .defaultIfEmpty(AllPaymentDTO.builder()
+                                    .paymentDTO(paymentDTO)
+                                    .userDTO(user)
+                                    .build());
+                          }
+
+                          return Mono.just(AllPaymentDTO.builder()
+                              .paymentDTO(paymentDTO)
+                              .userDTO(user)
+                              .build());
+                        })
+                )
+                .collectList()));
   }
 
 
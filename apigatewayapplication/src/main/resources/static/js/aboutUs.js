@@ -59,6 +59,7 @@ async function fetchUserProfile() {
       username: userData.login || 'Пользователь',
       balance: userData.wallet || 0,
       avatar: avatarUrl, // Может быть null
+      avatarThumbnail: userData.photoThumbnails?.[128],
       email: userData.email
     };
 
@@ -123,7 +124,12 @@ async function renderAuth() {
       const hasValidAvatar = user.avatar && user.avatar.trim().length > 0;
 
       if (hasValidAvatar) {
-        avatar.src = user.avatar;
+        // Миниатюра может быть ещё не готова - тогда показываем оригинал
+        avatar.onerror = () => {
+          avatar.onerror = null;
+          avatar.src = user.avatar;
+        };
+        avatar.src = user.avatarThumbnail || user.avatar;
         avatar.style.display = 'block';
         if (avatar.parentElement) {
           avatar.parentElement.classList.remove('no-avatar');
@@ -13,6 +13,7 @@ let currentProduct = null;
 let currentTariff = null;
 let currentComputer = null;
 let currentCategoryFilter = 'all';
+const liveReloadTimers = new Map();
 
 
 
@@ -1200,12 +1201,13 @@ function renderProducts(products) {
     const statusText = isActive ? 'Активен' : 'Неактивен';
 
     const imagePath = product.photoPath
-        ? product.photoPath
+        ? product.photoThumbnails?.[256] || product.photoPath
         : 'https://via.placeholder.com/150';
+    const fallbackPath = product.photoPath || imagePath;
 
     return `
     <div class="product-card" data-product-id="${product.id}">
-      <img src="${imagePath}" alt="${product.name}" class="product-image">
+      <img src="${imagePath}" onerror="this.onerror=null; this.src='${fallbackPath}'" alt="${product.name}" class="product-image">
       <div class="product-info">
         <h3>${product.name}</h3>
         <p class="product-price">${(product.price || 0).toFixed(2)} BYN</p>
@@ -2456,6 +2458,36 @@ async function initOrdersSection() {
   });
 }
 
+// ========== LIVE OCCUPANCY ==========
+// Session statuses are patched in place from the billing stream,
+// new bookings and PC changes trigger one debounced reload of the affected table.
+function subscribeOccupancy() {
+  if (!window.EventSource) return;
+
+  const source = new EventSource('/api/v1/sessions/occupancy/stream');
+  source.addEventListener('occupancy', event => {
+    const delta = JSON.parse(event.data);
+
+    if (delta.sessionId == null) {
+      if (allComputers.length > 0) scheduleLiveReload(fetchAllComputers);
+      return;
+    }
+
+    const session = allSessions.find(s => s.sessionId === delta.sessionId);
+    if (session) {
+      session.status = delta.status;
+      renderSessions(allSessions);
+    } else if (allSessions.length > 0) {
+      scheduleLiveReload(fetchAllSessions);
+    }
+  });
+}
+
+function scheduleLiveReload(reload) {
+  clearTimeout(liveReloadTimers.get(reload));
+  liveReloadTimers.set(reload, setTimeout(reload, 2000));
+}
+
 async function init() {
   initNavigation();
   initModals();
@@ -2470,6 +2502,7 @@ async function init() {
   await fetchAllUsers();
   await fetchAllComputers();
   await initOrdersSection();
+  subscribeOccupancy();
 }
 
 document.addEventListener('DOMContentLoaded', init);
\ No newline at end of file
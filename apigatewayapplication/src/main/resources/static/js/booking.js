@@ -5,6 +5,8 @@ let currentUser = null;
 let tariffs = [];
 let userBonusCoins = 0;
 let usedBonusCoins = 0;
+let renderedPcs = [];
+let occupancyRefreshTimer = null;
 let bookingData = {
   tariff: null,
   date: null,
@@ -108,6 +110,7 @@ async function fetchUserProfile() {
       username: userData.login || 'Пользователь',
       balance: userData.wallet || 0,
       avatar: userData.photoPath || `https://i.pravatar.cc/100?img=${Math.floor(Math.random() * 70)}`,
+      avatarThumbnail: userData.photoThumbnails?.[128],
       id: userData.id,
       email: userData.email
     };
@@ -217,7 +220,12 @@ function renderAuth(user) {
 
     if (avatar) {
       if (user.avatar && user.avatar.trim().length > 0) {
-        avatar.src = user.avatar;
+        // Миниатюра может быть ещё не готова - тогда показываем оригинал
+        avatar.onerror = () => {
+          avatar.onerror = null;
+          avatar.src = user.avatar;
+        };
+        avatar.src = user.avatarThumbnail || user.avatar;
         avatar.style.display = 'block';
       } else {
         // Скрываем картинку и показываем placeholder
@@ -884,7 +892,7 @@ async function fetchAllPcs() {
   }
 }
 
-async function fetchAvailableSeats() {
+async function fetchAvailableSeats(allPcs) {
   if (!bookingData.date || !bookingData.startTime || !bookingData.endTime) {
     return new Set();
   }
@@ -897,11 +905,9 @@ async function fetchAvailableSeats() {
       return new Set();
     }
 
-    const startQueryDate = bookingData.date;
-    const endQueryDate = endDateTime.split('T')[0];
-
+    const pcIds = allPcs.map(pc => pc.id).join(',');
     const response = await fetch(
-        `/api/v1/sessions/sessionsForInfo?startDate=${startQueryDate}&endDate=${endQueryDate}`,
+        `/api/v1/sessions/freePcs?pcIds=${pcIds}&from=${startDateTime}&to=${endDateTime}`,
         {
           method: 'GET',
           headers: { 'Content-Type': 'application/json' },
@@ -911,25 +917,18 @@ async function fetchAvailableSeats() {
 
     if (!response.ok) throw new Error(`HTTP error! status: ${response.status}`);
 
-    const sessions = await response.json();
+    const freePcIds = new Set(await response.json());
     const occupiedPcIds = new Set();
 
-    const bookingStart = new Date(startDateTime);
-    const bookingEnd = new Date(endDateTime);
-
-    sessions.forEach(session => {
-      const sessionStart = new Date(session.startTime);
-      const sessionEnd = new Date(session.endTime);
-
-      const isOverlapping = sessionStart < bookingEnd && sessionEnd > bookingStart;
-      if (isOverlapping) {
-        occupiedPcIds.add(session.pcId);
+    allPcs.forEach(pc => {
+      if (!freePcIds.has(pc.id)) {
+        occupiedPcIds.add(pc.id);
       }
     });
 
     return occupiedPcIds;
   } catch (error) {
-    console.error('Error fetching sessions:', error);
+    console.error('Error fetching free PCs:', error);
     return new Set();
   }
 }
@@ -944,8 +943,9 @@ async function renderPCs() {
   try {
     const allPcs = await fetchAllPcs();
     if (allPcs.length === 0) return;
+    renderedPcs = allPcs;
 
-    const occupiedPcIds = await fetchAvailableSeats();
+    const occupiedPcIds = await fetchAvailableSeats(allPcs);
 
     qsa('.pc-seat').forEach(seat => seat.remove());
     qsa('.vip-room').forEach(room => room.remove());
@@ -966,6 +966,63 @@ async function renderPCs() {
   }
 }
 
+// Live occupancy: billing pushes a delta whenever a booking changes status
+// or a PC is enabled/disabled, the seat map is refreshed only when it is affected.
+function subscribeOccupancy() {
+  if (!window.EventSource) return;
+
+  const source = new EventSource('/api/v1/sessions/occupancy/stream');
+  source.addEventListener('occupancy', event => {
+    const delta = JSON.parse(event.data);
+    if (renderedPcs.length === 0 || !deltaAffectsSelection(delta)) return;
+
+    clearTimeout(occupancyRefreshTimer);
+    occupancyRefreshTimer = setTimeout(
+        () => delta.startTime ? refreshSeatAvailability() : renderPCs(), 300);
+  });
+}
+
+function deltaAffectsSelection(delta) {
+  if (!delta.startTime) return true;
+
+  const from = getStartDateTimeISO();
+  const to = getEndDateTimeISO();
+  if (!from || !to) return false;
+  return new Date(delta.startTime) < new Date(to) && new Date(delta.endTime) > new Date(from);
+}
+
+async function refreshSeatAvailability() {
+  const occupiedPcIds = await fetchAvailableSeats(renderedPcs);
+  let lostSeats = 0;
+
+  qsa('.pc-seat').forEach(seat => {
+    const occupied = occupiedPcIds.has(Number(seat.getAttribute('data-pc-id')));
+    if (occupied && seat.classList.contains('selected')) {
+      const index = bookingData.seats.indexOf(seat.getAttribute('data-seat'));
+      if (index > -1) {
+        bookingData.seats.splice(index, 1);
+        bookingData.pcsInfo.splice(index, 1);
+      }
+      seat.classList.remove('selected');
+      lostSeats++;
+    }
+    seat.classList.toggle('occupied', occupied);
+    seat.classList.toggle('available', !occupied);
+  });
+
+  const floor2Layout = qs('#floor2 .plan-layout');
+  qsa('.vip-room').forEach(room => room.remove());
+  const vipRooms = getVipRooms(renderedPcs, occupiedPcIds);
+  if (floor2Layout && vipRooms.length > 0) {
+    renderVipRooms(floor2Layout, vipRooms);
+  }
+
+  if (lostSeats > 0) {
+    showWarning('Выбранное место только что заняли, выберите другое');
+    updateBookingSummary();
+  }
+}
+
 function getVipRooms(allPcs, occupiedPcIds) {
   const vipPcs = allPcs.filter(pc => pc.room && pc.room.vip);
   const roomsMap = new Map();
@@ -1307,6 +1364,7 @@ async function initApp() {
   });
 
   updateBookingSummary();
+  subscribeOccupancy();
 }
 
 document.addEventListener('DOMContentLoaded', initApp);
@@ -78,6 +78,7 @@ async function fetchUserProfile() {
       username: userData.login,
       balance: userData.wallet || 0,
       avatar: finalAvatar,
+      avatarThumbnail: userData.photoThumbnails?.[128],
       email: userData.email
     };
 
@@ -148,6 +149,7 @@ async function fetchUserProfile() {
       username: userData.login,
       balance: userData.wallet || 0,
       avatar: finalAvatar, // Может быть null
+      avatarThumbnail: userData.photoThumbnails?.[128],
       email: userData.email
     };
 
@@ -187,7 +189,12 @@ function renderAuth(user) {
     if (avatarEl) {
       // Если есть валидная аватарка
       if (user.avatar && user.avatar.trim().length > 0) {
-        avatarEl.src = user.avatar;
+        // Миниатюра может быть ещё не готова - тогда показываем оригинал
+        avatarEl.onerror = () => {
+          avatarEl.onerror = null;
+          avatarEl.src = user.avatar;
+        };
+        avatarEl.src = user.avatarThumbnail || user.avatar;
         avatarEl.style.display = 'block';
         avatarEl.parentElement.classList.remove('no-avatar');
       } else {
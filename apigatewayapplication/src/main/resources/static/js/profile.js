@@ -75,7 +75,12 @@ function setInfo(profile) {
   const avatar = document.getElementById("profileAvatar");
   if (avatar) {
     if (finalAvatar) {
-      avatar.src = finalAvatar;
+      // Миниатюра может быть ещё не готова - тогда показываем оригинал
+      avatar.onerror = () => {
+        avatar.onerror = null;
+        avatar.src = finalAvatar;
+      };
+      avatar.src = (hasValidBackendAvatar && profile.photoThumbnails?.[256]) || finalAvatar;
       avatar.style.display = 'block';
       avatar.alt = "Аватар профиля";
       // Убираем иконку, если она есть
@@ -685,7 +690,7 @@ function renderProducts(productList) {
       <div class="product-card ${isOutOfStock ? 'out-of-stock' : ''}" 
            onclick="${!isOutOfStock ? `addToCart(${product.id})` : ''}"
            data-category="${product.category?.name || 'Другое'}">
-        <div class="product-image">${product.photoPath ? `<img src="${product.photoPath}" alt="${product.name}">` : `<i class="fas fa-box"></i>`}</div>
+        <div class="product-image">${product.photoPath ? `<img src="${product.photoThumbnails?.[256] || product.photoPath}" onerror="this.onerror=null; this.src='${product.photoPath}'" alt="${product.name}">` : `<i class="fas fa-box"></i>`}</div>
         <div class="product-info">
           <h4 class="product-name">${product.name}</h4>
           <span class="product-category">${product.category?.name || 'Другое'}</span>
@@ -0,0 +1,109 @@
+package com.actisys.billingservice.cache;
+
+import com.actisys.billingservice.client.InventoryServiceClient;
+import com.actisys.common.clientDtos.PcResponseDTO;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded local cache of PC specs fetched from inventory.
+ * Entries are refreshed in the background once they get older than the refresh interval
+ * and dropped when inventory publishes a change for the PC.
+ * The TTL only bounds staleness if such an event is lost.
+ * Search results are cached separately for a short time: a room's VIP flag
+ * can change without a PC event, so they are never kept longer than search-ttl-seconds.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PcInfoCache {
+
+  private final InventoryServiceClient inventoryServiceClient;
+
+  @Value("${billing.pc-cache.max-size:1000}")
+  private long maxSize;
+
+  @Value("${billing.pc-cache.ttl-minutes:60}")
+  private long ttlMinutes;
+
+  @Value("${billing.pc-cache.refresh-minutes:10}")
+  private long refreshMinutes;
+
+  @Value("${billing.pc-cache.search-ttl-seconds:60}")
+  private long searchTtlSeconds;
+
+  private LoadingCache<Long, PcResponseDTO> pcs;
+  private LoadingCache<PcSearch, List<Long>> searches;
+
+  @PostConstruct
+  public void init() {
+    pcs = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+        .refreshAfterWrite(Duration.ofMinutes(refreshMinutes))
+        .build(new InventoryLoader());
+    searches = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofSeconds(searchTtlSeconds))
+        .build(search -> inventoryServiceClient.searchPcIds(
+            search.vip(), search.gpu(), search.cpu()));
+  }
+
+  /**
+   * Returns cached PCs by id, fetching all missing ids from inventory in one call.
+   * Ids unknown to inventory are absent from the result.
+   */
+  public Map<Long, PcResponseDTO> getAll(Collection<Long> pcIds) {
+    return pcs.getAll(pcIds);
+  }
+
+  /**
+   * Ids of enabled PCs matching the room and hardware filters, see inventory's /pcs/search.
+   */
+  public List<Long> search(Boolean vip, String gpu, String cpu) {
+    return searches.get(new PcSearch(vip, normalize(gpu), normalize(cpu)));
+  }
+
+  public void invalidate(Long pcId) {
+    pcs.invalidate(pcId);
+    searches.invalidateAll();
+  }
+
+  private static String normalize(String part) {
+    return part == null || part.isBlank() ? null : part.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private record PcSearch(Boolean vip, String gpu, String cpu) {
+  }
+
+  private class InventoryLoader implements CacheLoader<Long, PcResponseDTO> {
+
+    @Override
+    public PcResponseDTO load(Long pcId) {
+      return loadAll(Set.of(pcId)).get(pcId);
+    }
+
+    @Override
+    public Map<Long, PcResponseDTO> loadAll(Set<? extends Long> pcIds) {
+      log.debug("Fetching {} PCs from inventory", pcIds.size());
+      List<PcResponseDTO> fetched = inventoryServiceClient.getPcInfoByIds(new ArrayList<>(pcIds));
+      return fetched.stream()
+          .collect(Collectors.toMap(PcResponseDTO::getId, Function.identity(), (a, b) -> a));
+    }
+  }
+}
@@ -13,4 +13,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 public interface InventoryServiceClient {
   @GetMapping("/api/v1/pcs/pcInfoByIds")
   List<PcResponseDTO> getPcInfoByIds(@RequestParam("ids") List<Long> ids);
+
+  @GetMapping("/api/v1/pcs/search")
+  List<Long> searchPcIds(
+      @RequestParam(value = "vip", required = false) Boolean vip,
+      @RequestParam(value = "gpu", required = false) String gpu,
+      @RequestParam(value = "cpu", required = false) String cpu);
 }
@@ -0,0 +1,50 @@
+package com.actisys.billingservice.consumer;
+
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDeltaDTO;
+import com.actisys.billingservice.index.PcScheduleIndex;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.stream.OccupancyStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Every replica serves its own SSE clients and keeps its own schedule index,
+ * so each one listens in its own consumer group.
+ * Session deltas are applied to the index before they are fanned out, so bookings made on
+ * other replicas show up in local availability checks. Deltas of a PC arrive in order and
+ * adding or removing a slot twice changes nothing, so once a session's last delta arrived
+ * every replica holds the same slot, including the one that made the change.
+ */
+@RequiredArgsConstructor
+@Component
+public class OccupancyEventConsumer {
+  private final OccupancyStream occupancyStream;
+  private final PcScheduleIndex pcScheduleIndex;
+
+  @KafkaListener(topics = "PC_OCCUPANCY_CHANGED", groupId = "billing-occupancy-${random.uuid}")
+  public void handleOccupancyChanged(OccupancyDeltaDTO delta) {
+    applyToIndex(delta);
+    occupancyStream.publish(delta);
+  }
+
+  private void applyToIndex(OccupancyDeltaDTO delta) {
+    // PC changes carry no session
+    if (delta.getSessionId() == null || delta.getStatus() == null
+        || delta.getStartTime() == null || delta.getEndTime() == null) {
+      return;
+    }
+    Session session = Session.builder()
+        .sessionId(delta.getSessionId())
+        .pcId(delta.getPcId())
+        .startTime(delta.getStartTime())
+        .endTime(delta.getEndTime())
+        .status(delta.getStatus())
+        .build();
+    if (PcScheduleIndex.OCCUPYING.contains(delta.getStatus())) {
+      pcScheduleIndex.add(session);
+    } else {
+      pcScheduleIndex.remove(session);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.actisys.billingservice.consumer;
+
+import com.actisys.billingservice.cache.PcInfoCache;
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDeltaDTO;
+import com.actisys.billingservice.stream.OccupancyStream;
+import com.actisys.common.events.inventory.PcChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Every replica keeps its own PC cache and SSE clients,
+ * so each one listens in its own consumer group.
+ */
+@RequiredArgsConstructor
+@Component
+@Slf4j
+public class PcEventConsumer {
+  private final PcInfoCache pcInfoCache;
+  private final OccupancyStream occupancyStream;
+
+  @KafkaListener(topics = "PC_CHANGED_EVENT", groupId = "billing-pc-cache-${random.uuid}")
+  public void handlePcChanged(PcChangedEvent event) {
+    log.info("PC changed event received for pc {}", event.getPcId());
+    pcInfoCache.invalidate(event.getPcId());
+    occupancyStream.publish(OccupancyDeltaDTO.builder()
+        .pcId(event.getPcId())
+        .enabled(event.isEnabled() && !event.isDeleted())
+        .build());
+  }
+}
@@ -1,16 +1,26 @@
 package com.actisys.billingservice.controller;
 
+import com.actisys.billingservice.dto.SessionDtos.CreateGroupSessionDTO;
 import com.actisys.billingservice.dto.SessionDtos.CreateSessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.FreeSlotDTO;
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDTO;
 import com.actisys.billingservice.dto.SessionDtos.SessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionFilterDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionPageDTO;
 import com.actisys.billingservice.dto.SessionDtos.SessionResponseDto;
 import com.actisys.billingservice.dto.SessionDtos.SessionsInfoDTO;
+import com.actisys.billingservice.dto.SessionDtos.SlotHoldDTO;
+import com.actisys.billingservice.model.SessionStatus;
 import com.actisys.billingservice.service.SessionService;
+import com.actisys.billingservice.stream.OccupancyStream;
 import com.actisys.common.clientDtos.SessionStatsDTO;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,6 +31,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SessionController {
   private final SessionService sessionService;
+  private final OccupancyStream occupancyStream;
 
   /**
    * This method returns all available pcs
@@ -39,6 +50,59 @@ public class SessionController {
     return ResponseEntity.ok(allSessions);
   }
 
+  /**
+   * Returns ids of PCs from pcIds that are free for the whole [from, to) range.
+   * Answered from the in-memory schedule index, so the booking page
+   * doesn't need to download sessions and intersect them itself.
+   * */
+  @GetMapping("/freePcs")
+  public ResponseEntity<List<Long>> getFreePcs(
+      @RequestParam List<Long> pcIds,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+    return ResponseEntity.ok(sessionService.getFreePcs(pcIds, from, to));
+  }
+
+  /**
+   * Earliest time a PC matching the room and hardware filters is free for the given hours,
+   * e.g. "the next free VIP PC for 3 hours" or "any RTX PC right now".
+   * */
+  @GetMapping("/freeSlots")
+  public ResponseEntity<List<FreeSlotDTO>> findEarliestFreeSlots(
+      @RequestParam(required = false) Boolean vip,
+      @RequestParam(required = false) String gpu,
+      @RequestParam(required = false) String cpu,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+      LocalDateTime from,
+      @RequestParam(defaultValue = "1") int hours,
+      @RequestParam(defaultValue = "10") int limit) {
+    return ResponseEntity.ok(
+        sessionService.findEarliestFreeSlots(vip, gpu, cpu, from, hours, limit));
+  }
+
+  /**
+   * Returns booked 15-minute slots of PCs for whole days [startDate, endDate]
+   * as one base64 bitmap per PC, see OccupancyDTO for the layout.
+   * Without pcIds only PCs that have bookings in the range are returned.
+   * */
+  @GetMapping("/occupancy")
+  public ResponseEntity<OccupancyDTO> getOccupancy(
+      @RequestParam(required = false) List<Long> pcIds,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+    return ResponseEntity.ok(sessionService.getOccupancy(pcIds, startDate, endDate));
+  }
+
+  /**
+   * Live occupancy changes as server-sent events named "occupancy",
+   * one OccupancyDeltaDTO per booking status or PC availability change.
+   * Clients load /occupancy or /freePcs once and apply the deltas on top.
+   * */
+  @GetMapping(value = "/occupancy/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamOccupancy() {
+    return occupancyStream.subscribe();
+  }
+
   @GetMapping("/mySessions")
   public ResponseEntity<List<SessionResponseDto>> getMySessions(
       @RequestHeader(value = "X-User-Id", required = false) String userId) {
@@ -46,6 +110,29 @@ public class SessionController {
     return ResponseEntity.ok(responseDto);
   }
 
+  /**
+   * Keyset-paginated history of the current user, newest first.
+   * Pass nextCursor of the previous response as cursor to get the next page
+   * */
+  @GetMapping("/mySessionsPage")
+  public ResponseEntity<SessionPageDTO<SessionResponseDto>> getMySessionsPage(
+      @RequestHeader(value = "X-User-Id", required = false) String userId,
+      @RequestParam(required = false) SessionStatus status,
+      @RequestParam(required = false) Long pcId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit) {
+    SessionFilterDTO filter = SessionFilterDTO.builder()
+        .status(status)
+        .pcId(pcId)
+        .from(from)
+        .to(to)
+        .build();
+    return ResponseEntity.ok(
+        sessionService.getUserSessionsPage(Long.parseLong(userId), filter, cursor, limit));
+  }
+
   @PutMapping("/cancelSession/{id}")
   public ResponseEntity<Void> cancelSession(@PathVariable("id") Long id) {
     sessionService.cancelSession(id);
@@ -58,6 +145,16 @@ public class SessionController {
     return ResponseEntity.ok(statsDTO);
   }
 
+  /**
+   * for admin microservice,
+   * recomputes aggregated stats of all users from sessions history
+   * */
+  @PostMapping("/stats/rebuild")
+  public ResponseEntity<Void> rebuildSessionStats() {
+    sessionService.rebuildUserStats();
+    return ResponseEntity.noContent().build();
+  }
+
   @PostMapping("/createSession")
   public ResponseEntity<SessionDTO> createSession(
           @RequestHeader(value = "X-User-Id", required = false) String userId,
@@ -66,6 +163,36 @@ public class SessionController {
     return ResponseEntity.ok(sessionDTO);
   }
 
+  /**
+   * Books several PCs for a team at once,
+   * either every PC is booked and paid by one order or none is.
+   * */
+  @PostMapping("/group")
+  public ResponseEntity<List<SessionDTO>> createGroupSession(
+          @RequestHeader(value = "X-User-Id", required = false) String userId,
+          @RequestBody CreateGroupSessionDTO createGroupSessionDTO) {
+    return ResponseEntity.ok(sessionService.createGroupSession(createGroupSessionDTO, userId));
+  }
+
+  /**
+   * Holds a PC for the user while they go through checkout.
+   * The hold expires by itself, no booking is created.
+   * */
+  @PostMapping("/holds")
+  public ResponseEntity<SlotHoldDTO> holdSlot(
+          @RequestHeader(value = "X-User-Id", required = false) String userId,
+          @RequestBody SlotHoldDTO slotHoldDTO) {
+    return ResponseEntity.ok(sessionService.holdSlot(slotHoldDTO, userId));
+  }
+
+  @DeleteMapping("/holds")
+  public ResponseEntity<Void> releaseSlot(
+          @RequestHeader(value = "X-User-Id", required = false) String userId,
+          @RequestBody SlotHoldDTO slotHoldDTO) {
+    sessionService.releaseSlot(slotHoldDTO, userId);
+    return ResponseEntity.noContent().build();
+  }
+
   /**
    * for admin microservice
    * */
@@ -75,6 +202,29 @@ public class SessionController {
     return ResponseEntity.ok(allSessions);
   }
 
+  /**
+   * for admin microservice,
+   * keyset-paginated listing of all sessions, newest first
+   * */
+  @GetMapping("/getSessionsPage")
+  public ResponseEntity<SessionPageDTO<SessionDTO>> getSessionsPage(
+      @RequestParam(required = false) SessionStatus status,
+      @RequestParam(required = false) Long pcId,
+      @RequestParam(required = false) Long userId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "50") int limit) {
+    SessionFilterDTO filter = SessionFilterDTO.builder()
+        .status(status)
+        .pcId(pcId)
+        .userId(userId)
+        .from(from)
+        .to(to)
+        .build();
+    return ResponseEntity.ok(sessionService.getSessionsPage(filter, cursor, limit));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<SessionDTO> getSession(@PathVariable("id") Long id) {
     return ResponseEntity.ok(sessionService.getSessionById(id));
@@ -2,7 +2,12 @@ package com.actisys.billingservice.controller;
 
 import com.actisys.billingservice.dto.TariffDtos.TariffDTO;
 import com.actisys.billingservice.dto.TariffDtos.CreateTariffDTO;
+import com.actisys.billingservice.dto.TariffDtos.QuoteDTO;
+import com.actisys.billingservice.dto.TariffDtos.QuoteRequestDTO;
 import com.actisys.billingservice.service.TariffService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -14,6 +19,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -29,8 +35,9 @@ public class TariffController {
   }
 
   @GetMapping("/getPopularTariff")
-  public ResponseEntity<List<TariffDTO>> getPopularTariff() {
-    List<TariffDTO> tariffList = tariffService.getPopularTariffs();
+  public ResponseEntity<List<TariffDTO>> getPopularTariff(
+      @RequestParam(defaultValue = "30") int days) {
+    List<TariffDTO> tariffList = tariffService.getPopularTariffs(days);
     return new ResponseEntity<>(tariffList, HttpStatus.OK);
   }
 
@@ -51,4 +58,12 @@ public class TariffController {
     tariffService.deleteTariff(id);
     return new ResponseEntity<>(HttpStatus.OK);
   }
+
+  @PostMapping("/quote")
+  public ResponseEntity<List<QuoteDTO>> quote(
+      @RequestBody @Size(max = TariffService.MAX_QUOTE_BATCH)
+      List<@NotNull @Valid QuoteRequestDTO> requests) {
+    List<QuoteDTO> quotes = tariffService.quote(requests);
+    return new ResponseEntity<>(quotes, HttpStatus.OK);
+  }
 }
@@ -0,0 +1,29 @@
+package com.actisys.billingservice.dto.SessionDtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@Builder
+public class CreateGroupSessionDTO {
+
+  @NotEmpty(message = "PC IDs are required")
+  private final List<Long> pcIds;
+
+  @NotNull(message = "Tariff ID is required")
+  private final Long tariffId;
+
+  @NotNull(message = "Start time is required")
+  private final LocalDateTime startTime;
+
+  private final LocalDateTime endTime;
+}
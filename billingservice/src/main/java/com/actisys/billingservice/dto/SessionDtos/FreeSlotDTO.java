@@ -0,0 +1,24 @@
+package com.actisys.billingservice.dto.SessionDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Earliest range in which a PC can be booked for the requested duration.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Builder
+public class FreeSlotDTO {
+
+  private final Long pcId;
+
+  private final LocalDateTime startTime;
+
+  private final LocalDateTime endTime;
+}
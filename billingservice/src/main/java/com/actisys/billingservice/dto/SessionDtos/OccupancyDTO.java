@@ -0,0 +1,26 @@
+package com.actisys.billingservice.dto.SessionDtos;
+
+import java.time.LocalDate;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Occupancy of PCs over whole days as 15-minute slot bitmaps.
+ * Bit i of a PC's bitmap (little-endian bytes, base64) is set when
+ * slot i counted from startDate 00:00 is booked, slotsPerDay slots per day.
+ * */
+
+@Getter
+@Builder
+@NoArgsConstructor(force = true)
+@AllArgsConstructor
+public class OccupancyDTO {
+  private final LocalDate startDate;
+  private final int days;
+  private final int slotMinutes;
+  private final int slotsPerDay;
+  private final Map<Long, String> pcs;
+}
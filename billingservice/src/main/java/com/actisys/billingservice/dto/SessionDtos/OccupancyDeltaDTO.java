@@ -0,0 +1,28 @@
+package com.actisys.billingservice.dto.SessionDtos;
+
+import com.actisys.billingservice.model.SessionStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change of PC occupancy pushed to live clients.
+ * A session change carries the session's PC, range and new status,
+ * a PC change only the PC and whether it can still be booked.
+ * */
+@Getter
+@Builder
+@NoArgsConstructor(force = true)
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OccupancyDeltaDTO {
+  private final Long pcId;
+  private final Long sessionId;
+  private final LocalDateTime startTime;
+  private final LocalDateTime endTime;
+  private final SessionStatus status;
+  private final Boolean enabled;
+}
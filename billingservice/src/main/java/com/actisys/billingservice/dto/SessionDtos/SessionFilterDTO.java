@@ -0,0 +1,23 @@
+package com.actisys.billingservice.dto.SessionDtos;
+
+import com.actisys.billingservice.model.SessionStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Optional filters of the session listing,
+ * null fields are not applied
+ * */
+
+@Getter
+@AllArgsConstructor
+@Builder
+public class SessionFilterDTO {
+  private final SessionStatus status;
+  private final Long pcId;
+  private final Long userId;
+  private final LocalDateTime from;
+  private final LocalDateTime to;
+}
@@ -0,0 +1,20 @@
+package com.actisys.billingservice.dto.SessionDtos;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paginated session listing.
+ * nextCursor is null on the last page, otherwise it
+ * has to be passed back to get the following page
+ * */
+
+@Getter
+@NoArgsConstructor(force = true)
+@AllArgsConstructor
+public class SessionPageDTO<T> {
+  private final List<T> items;
+  private final String nextCursor;
+}
@@ -0,0 +1,31 @@
+package com.actisys.billingservice.dto.SessionDtos;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exclusive, expiring right of one user to book a PC for a time range.
+ * expiresAt is only filled in responses.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Builder
+public class SlotHoldDTO {
+
+  @NotNull(message = "PC ID is required")
+  private final Long pcId;
+
+  @NotNull(message = "Start time is required")
+  private final LocalDateTime startTime;
+
+  @NotNull(message = "End time is required")
+  private final LocalDateTime endTime;
+
+  private final LocalDateTime expiresAt;
+}
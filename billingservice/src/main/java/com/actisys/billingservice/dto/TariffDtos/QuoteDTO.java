@@ -0,0 +1,19 @@
+package com.actisys.billingservice.dto.TariffDtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor(force = true)
+@AllArgsConstructor
+public class QuoteDTO {
+  private final Long tariffId;
+  private final LocalDateTime startTime;
+  private final LocalDateTime endTime;
+  private final BigDecimal totalCost;
+}
@@ -0,0 +1,23 @@
+package com.actisys.billingservice.dto.TariffDtos;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor(force = true)
+@AllArgsConstructor
+public class QuoteRequestDTO {
+  @NotNull(message = "Tariff ID is required")
+  private final Long tariffId;
+
+  @NotNull(message = "Start time is required")
+  private final LocalDateTime startTime;
+
+  @NotNull(message = "End time is required")
+  private final LocalDateTime endTime;
+}
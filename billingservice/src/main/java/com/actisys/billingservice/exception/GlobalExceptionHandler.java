@@ -1,10 +1,13 @@
 package com.actisys.billingservice.exception;
 
 import com.actisys.common.dto.ErrorResponse;
+import java.util.stream.Collectors;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -26,10 +29,37 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
   }
 
+  @ExceptionHandler(SessionOverlapException.class)
+  public ResponseEntity<ErrorResponse> handleSessionOverlapException(SessionOverlapException e) {
+    ErrorResponse error = new ErrorResponse("PC ALREADY BOOKED", e.getMessage());
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
+  @ExceptionHandler(SlotHeldException.class)
+  public ResponseEntity<ErrorResponse> handleSlotHeldException(SlotHeldException e) {
+    ErrorResponse error = new ErrorResponse("SLOT ON HOLD", e.getMessage());
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
   @ExceptionHandler(OrderNotFoundException.class)
   public ResponseEntity<ErrorResponse> handleOrderNotFoundException(OrderNotFoundException e) {
     ErrorResponse error = new ErrorResponse("ORDER NOT FOUND", e.getMessage());
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
   }
-}
 
+  @ExceptionHandler(HandlerMethodValidationException.class)
+  public ResponseEntity<ErrorResponse> handleHandlerMethodValidationException(
+      HandlerMethodValidationException e) {
+    String message = e.getAllErrors().stream()
+        .map(MessageSourceResolvable::getDefaultMessage)
+        .collect(Collectors.joining("; "));
+    ErrorResponse error = new ErrorResponse("INVALID REQUEST", message);
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException e) {
+    ErrorResponse error = new ErrorResponse("INVALID REQUEST", e.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+}
@@ -0,0 +1,14 @@
+package com.actisys.billingservice.exception;
+
+import java.util.Collection;
+
+public class SessionOverlapException extends RuntimeException {
+
+  public SessionOverlapException(Long pcId) {
+    super("PC with id " + pcId + " is already booked for the requested time");
+  }
+
+  public SessionOverlapException(Collection<Long> pcIds) {
+    super("PCs with ids " + pcIds + " are already booked for the requested time");
+  }
+}
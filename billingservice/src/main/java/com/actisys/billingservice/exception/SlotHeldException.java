@@ -0,0 +1,8 @@
+package com.actisys.billingservice.exception;
+
+public class SlotHeldException extends RuntimeException {
+
+  public SlotHeldException(Long pcId) {
+    super("PC with id " + pcId + " is on hold by another user for the requested time");
+  }
+}
@@ -0,0 +1,204 @@
+package com.actisys.billingservice.index;
+
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.repository.SessionRepository;
+import com.actisys.billingservice.util.OccupancyBitmap;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory schedule of every PC: booked slots sorted by start time.
+ * Warmed from the database on startup and kept current by the session service and by the
+ * occupancy deltas of other replicas, so availability checks never touch the session table.
+ * Next to the slots it keeps a 15-minute occupancy bitmap per PC and day,
+ * recomputed only for the days a booking touches.
+ * Only ranges starting after {@link #coveredFrom()} can be answered from the index.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PcScheduleIndex {
+
+  public static final Set<SessionStatus> OCCUPYING = EnumSet.of(
+      SessionStatus.PENDING,
+      SessionStatus.PAID,
+      SessionStatus.IN_PROGRESS,
+      SessionStatus.COMPLETED);
+
+  private final SessionRepository sessionRepository;
+
+  private final Map<Long, NavigableSet<Slot>> slotsByPc = new ConcurrentHashMap<>();
+  private final Map<Long, Map<LocalDate, BitSet>> occupancyByPc = new ConcurrentHashMap<>();
+  private final AtomicLong longestSlotMinutes = new AtomicLong();
+
+  @Value("${billing.index.retention-hours:24}")
+  private long retentionHours;
+
+  private volatile LocalDateTime coveredFrom = LocalDateTime.MAX;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+    List<Session> sessions = sessionRepository.findAllByStatusInAndEndTimeAfter(OCCUPYING, cutoff);
+    sessions.forEach(this::add);
+    coveredFrom = cutoff;
+    log.info("PC schedule index warmed with {} sessions", sessions.size());
+  }
+
+  public void add(Session session) {
+    if (session.getEndTime() == null) {
+      return;
+    }
+    NavigableSet<Slot> slots =
+        slotsByPc.computeIfAbsent(session.getPcId(), id -> new ConcurrentSkipListSet<>());
+    slots.add(new Slot(session.getStartTime(), session.getEndTime(), session.getSessionId()));
+    long minutes = Duration.between(session.getStartTime(), session.getEndTime()).toMinutes();
+    longestSlotMinutes.accumulateAndGet(minutes, Math::max);
+    refreshOccupancy(session.getPcId(), slots, session.getStartTime(), session.getEndTime());
+  }
+
+  public void remove(Session session) {
+    NavigableSet<Slot> slots = slotsByPc.get(session.getPcId());
+    if (slots != null) {
+      slots.remove(new Slot(session.getStartTime(), session.getEndTime(), session.getSessionId()));
+      refreshOccupancy(session.getPcId(), slots, session.getStartTime(), session.getEndTime());
+    }
+  }
+
+  public LocalDateTime coveredFrom() {
+    return coveredFrom;
+  }
+
+  /**
+   * @return true if no indexed slot of the PC intersects [from, to)
+   */
+  public boolean isFree(Long pcId, LocalDateTime from, LocalDateTime to) {
+    NavigableSet<Slot> slots = slotsByPc.get(pcId);
+    if (slots == null) {
+      return true;
+    }
+    Slot lower = new Slot(from.minusMinutes(longestSlotMinutes.get()), from, Long.MIN_VALUE);
+    Slot upper = new Slot(to, to, Long.MIN_VALUE);
+    for (Slot slot : slots.subSet(lower, true, upper, false)) {
+      if (slot.end().isAfter(from)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Earliest start in [from, until) at which the PC stays free for the whole duration.
+   * Walks the PC's slots in start order beginning with the last one that may still
+   * be running at from, and stops at the first gap that is long enough.
+   *
+   * @return the earliest free start, or null if the PC has no such gap before until
+   */
+  public LocalDateTime earliestFree(Long pcId, LocalDateTime from, Duration duration,
+      LocalDateTime until) {
+    LocalDateTime candidate = from;
+    NavigableSet<Slot> slots = slotsByPc.get(pcId);
+    if (slots != null) {
+      Slot lower = new Slot(from.minusMinutes(longestSlotMinutes.get()), from, Long.MIN_VALUE);
+      for (Slot slot : slots.tailSet(lower, true)) {
+        if (!slot.start().isBefore(candidate.plus(duration)) || !candidate.isBefore(until)) {
+          break;
+        }
+        if (slot.end().isAfter(candidate)) {
+          candidate = slot.end();
+        }
+      }
+    }
+    return candidate.isBefore(until) ? candidate : null;
+  }
+
+  public List<Long> freePcs(Collection<Long> pcIds, LocalDateTime from, LocalDateTime to) {
+    return pcIds.stream()
+        .distinct()
+        .filter(pcId -> isFree(pcId, from, to))
+        .toList();
+  }
+
+  /**
+   * @return occupancy bitmap of the PC for the day, null if nothing is booked that day.
+   * The returned bitset must not be modified.
+   */
+  public BitSet occupancy(Long pcId, LocalDate day) {
+    Map<LocalDate, BitSet> days = occupancyByPc.get(pcId);
+    return days == null ? null : days.get(day);
+  }
+
+  public Set<Long> indexedPcIds() {
+    return occupancyByPc.keySet();
+  }
+
+  /**
+   * Rebuilds the bitmaps of every day intersecting [start, end) from the PC's slots.
+   * Bitmaps are replaced rather than modified, so readers never see a half-updated day.
+   */
+  private void refreshOccupancy(Long pcId, NavigableSet<Slot> slots,
+      LocalDateTime start, LocalDateTime end) {
+    synchronized (slots) {
+      Map<LocalDate, BitSet> days =
+          occupancyByPc.computeIfAbsent(pcId, id -> new ConcurrentHashMap<>());
+      for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end);
+          day = day.plusDays(1)) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        BitSet bits = new BitSet(OccupancyBitmap.SLOTS_PER_DAY);
+        Slot lower = new Slot(dayStart.minusMinutes(longestSlotMinutes.get()), dayStart,
+            Long.MIN_VALUE);
+        Slot upper = new Slot(dayEnd, dayEnd, Long.MIN_VALUE);
+        for (Slot slot : slots.subSet(lower, true, upper, false)) {
+          OccupancyBitmap.mark(bits, dayStart, OccupancyBitmap.SLOTS_PER_DAY,
+              slot.start(), slot.end());
+        }
+        if (bits.isEmpty()) {
+          days.remove(day);
+        } else {
+          days.put(day, bits);
+        }
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${billing.index.prune-interval-ms:3600000}")
+  public void prune() {
+    LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+    slotsByPc.values().forEach(slots -> slots.removeIf(slot -> slot.end().isBefore(cutoff)));
+    occupancyByPc.values().forEach(days ->
+        days.keySet().removeIf(day -> day.isBefore(cutoff.toLocalDate())));
+    if (coveredFrom.isBefore(cutoff)) {
+      coveredFrom = cutoff;
+    }
+  }
+
+  private record Slot(LocalDateTime start, LocalDateTime end, Long sessionId)
+      implements Comparable<Slot> {
+
+    @Override
+    public int compareTo(Slot other) {
+      int byStart = start.compareTo(other.start);
+      return byStart != 0 ? byStart : sessionId.compareTo(other.sessionId);
+    }
+  }
+}
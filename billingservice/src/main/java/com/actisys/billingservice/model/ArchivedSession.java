@@ -0,0 +1,20 @@
+package com.actisys.billingservice.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Session row as stored in session_archive after its partition was dropped.
+ */
+public record ArchivedSession(
+    Long sessionId,
+    Long userId,
+    Long pcId,
+    Long paymentId,
+    Long tariffId,
+    LocalDateTime startTime,
+    LocalDateTime endTime,
+    BigDecimal totalCost,
+    SessionStatus status
+) {
+}
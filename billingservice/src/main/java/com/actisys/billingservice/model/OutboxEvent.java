@@ -0,0 +1,48 @@
+package com.actisys.billingservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.*;
+
+@Entity
+@Table(name = "outbox_event")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+
+  @Column(name = "topic", nullable = false, length = 100)
+  private String topic;
+
+  @Column(name = "event_key", length = 100)
+  private String eventKey;
+
+  @Column(name = "payload_type", nullable = false)
+  private String payloadType;
+
+  @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+  private String payload;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "sent_at")
+  private LocalDateTime sentAt;
+
+  /**
+   * Set for events that can never be published, e.g. an unreadable payload.
+   * The relay skips them; clearing it queues the event again.
+   */
+  @Column(name = "failed_at")
+  private LocalDateTime failedAt;
+
+  @Column(name = "last_error", length = 500)
+  private String lastError;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Entity
@@ -15,8 +16,17 @@ import java.time.LocalDateTime;
 @Builder
 public class Session {
 
+  /**
+   * Longest bookable session. Lets range queries bound start_time from below,
+   * so they only touch the partitions that can hold matching rows.
+   * Enforced in the database by ck_session_max_duration.
+   */
+  public static final Duration MAX_DURATION = Duration.ofHours(24);
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_id_seq")
+  @SequenceGenerator(name = "session_id_seq", sequenceName = "session_session_id_seq",
+      allocationSize = 50)
   @Column(name = "session_id")
   private Long sessionId;
 
@@ -45,4 +55,11 @@ public class Session {
   @Enumerated(EnumType.STRING)
   @Column(name = "status", nullable = false, length = 50)
   private SessionStatus status;
+
+  /**
+   * Shared by sessions booked together by one group booking, null for single bookings.
+   * The whole group is paid by one order whose id is the id of its first session.
+   */
+  @Column(name = "booking_group_id")
+  private Long bookingGroupId;
 }
\ No newline at end of file
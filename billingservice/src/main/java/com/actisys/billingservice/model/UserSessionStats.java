@@ -0,0 +1,24 @@
+package com.actisys.billingservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "user_session_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSessionStats {
+
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(name = "total_sessions", nullable = false)
+  private int totalSessions;
+
+  @Column(name = "total_minutes", nullable = false)
+  private long totalMinutes;
+}
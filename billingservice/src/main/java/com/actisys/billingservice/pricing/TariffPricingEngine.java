@@ -0,0 +1,84 @@
+package com.actisys.billingservice.pricing;
+
+import com.actisys.billingservice.exception.TariffNotFoundException;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.repository.TariffRepository;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prices sessions in fixed-point cents without touching the database.
+ * Every tariff is compiled once into its hourly rate in cents, rounded the same way
+ * the BigDecimal calculation always did, so quotes and booked sessions match to the cent:
+ * rate = round(price / hours), hours = round(minutes / 60, 2), cost = round(rate * hours).
+ * The snapshot is rebuilt after local tariff changes and periodically to pick up
+ * changes made through other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TariffPricingEngine {
+
+  private final TariffRepository tariffRepository;
+
+  private volatile Map<Long, Rate> rates = Map.of();
+
+  @Scheduled(fixedDelayString = "${billing.pricing.reload-interval-ms:60000}")
+  public void reload() {
+    rates = tariffRepository.findAll().stream()
+        .filter(tariff -> tariff.getHours() > 0)
+        .collect(Collectors.toUnmodifiableMap(Tariff::getTariffId, Rate::of));
+    log.debug("Pricing engine loaded {} tariffs", rates.size());
+  }
+
+  /**
+   * @return cost in cents of using the tariff over [start, end)
+   */
+  public long quoteCents(Long tariffId, LocalDateTime start, LocalDateTime end) {
+    Rate rate = rates.get(tariffId);
+    if (rate == null) {
+      throw new TariffNotFoundException(tariffId);
+    }
+    return rate.costCents(minutesBetween(start, end));
+  }
+
+  /**
+   * Prices a tariff that was just read from the database, e.g. the one a session
+   * is being booked with, so a snapshot that is still stale can't affect the charge.
+   */
+  public long costCents(Tariff tariff, LocalDateTime start, LocalDateTime end) {
+    return Rate.of(tariff).costCents(minutesBetween(start, end));
+  }
+
+  private static long minutesBetween(LocalDateTime start, LocalDateTime end) {
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("Session end time cannot be before start time");
+    }
+    return Duration.between(start, end).toMinutes();
+  }
+
+  private record Rate(long centsPerHour) {
+
+    static Rate of(Tariff tariff) {
+      long priceCents = tariff.getPrice().movePointRight(2)
+          .setScale(0, RoundingMode.HALF_UP).longValueExact();
+      return new Rate(divideHalfUp(priceCents, tariff.getHours()));
+    }
+
+    long costCents(long minutes) {
+      long hundredthsOfHour = divideHalfUp(minutes * 100, 60);
+      return divideHalfUp(Math.multiplyExact(centsPerHour, hundredthsOfHour), 100);
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+      return (2 * dividend + divisor) / (2 * divisor);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.actisys.billingservice.producer;
+
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDeltaDTO;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.util.TransactionUtils;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Broadcasts session occupancy changes to every billing replica once they are committed,
+ * each replica then pushes them to its own SSE clients.
+ * These are live-view hints only, so they skip the outbox: a lost delta is
+ * repaired when the client reconnects and reloads the occupancy.
+ */
+@RequiredArgsConstructor
+@Component
+@Slf4j
+public class OccupancyEventProducer {
+
+  public static final String OCCUPANCY_CHANGED_TOPIC = "PC_OCCUPANCY_CHANGED";
+
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+
+  public void publish(Session session) {
+    publish(session.getSessionId(), session.getPcId(), session.getStartTime(),
+        session.getEndTime(), session.getStatus());
+  }
+
+  public void publish(Long sessionId, Long pcId, LocalDateTime startTime, LocalDateTime endTime,
+      SessionStatus status) {
+    OccupancyDeltaDTO delta = OccupancyDeltaDTO.builder()
+        .pcId(pcId)
+        .sessionId(sessionId)
+        .startTime(startTime)
+        .endTime(endTime)
+        .status(status)
+        .build();
+    TransactionUtils.afterCommit(() -> kafkaTemplate
+        .send(OCCUPANCY_CHANGED_TOPIC, String.valueOf(pcId), delta)
+        .whenComplete((result, e) -> {
+          if (e != null) {
+            log.warn("Failed to publish occupancy change of pc {}", pcId, e);
+          }
+        }));
+  }
+}
@@ -0,0 +1,35 @@
+package com.actisys.billingservice.producer;
+
+import com.actisys.billingservice.util.TransactionUtils;
+import com.actisys.common.events.session.SessionCompletedEvent;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells other services that a user's session stats changed, once the completion is committed.
+ * Consumers only use it to drop cached stats, which also expire on their own,
+ * so it skips the outbox like the occupancy deltas.
+ */
+@RequiredArgsConstructor
+@Component
+@Slf4j
+public class SessionEventProducer {
+
+  public static final String SESSION_COMPLETED_TOPIC = "SESSION_COMPLETED_EVENT";
+
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+
+  public void publishCompleted(Collection<Long> userIds) {
+    TransactionUtils.afterCommit(() -> userIds.forEach(userId -> kafkaTemplate
+        .send(SESSION_COMPLETED_TOPIC, String.valueOf(userId),
+            SessionCompletedEvent.builder().userId(userId).build())
+        .whenComplete((result, e) -> {
+          if (e != null) {
+            log.warn("Failed to publish session completion of user {}", userId, e);
+          }
+        })));
+  }
+}
@@ -0,0 +1,40 @@
+package com.actisys.billingservice.repository;
+
+import com.actisys.billingservice.model.OutboxEvent;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  /**
+   * Tries to take the transaction-scoped relay lock (lock class 2 = outbox),
+   * so only one instance publishes at a time and events keep their order.
+   */
+  @Query(value = "SELECT pg_try_advisory_xact_lock(2, 0)", nativeQuery = true)
+  boolean tryLockRelay();
+
+  List<OutboxEvent> findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(Limit limit);
+
+  @Modifying
+  @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+  int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+  @Modifying
+  @Query("UPDATE OutboxEvent e SET e.failedAt = :failedAt, e.lastError = :error WHERE e.id = :id")
+  int markFailed(@Param("id") Long id, @Param("failedAt") LocalDateTime failedAt,
+      @Param("error") String error);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :before")
+  int deleteSentBefore(@Param("before") LocalDateTime before);
+}
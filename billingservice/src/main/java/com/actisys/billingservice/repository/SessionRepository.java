@@ -1,27 +1,225 @@
 package com.actisys.billingservice.repository;
 
+import com.actisys.billingservice.dto.SessionDtos.SessionsInfoDTO;
 import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.repository.projection.SessionRow;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * The session table is range-partitioned on start_time, and its primary key is
+ * (session_id, start_time). Queries that bound start_time only scan the matching partitions.
+ * Lookups by session id alone, like findById, can't be pruned: they probe the primary key
+ * index of every partition, one per retained month plus the ones created ahead.
+ */
 @Repository
-public interface SessionRepository extends JpaRepository<Session, Long> {
+public interface SessionRepository extends JpaRepository<Session, Long>,
+    JpaSpecificationExecutor<Session> {
+
+  String COUNT_FINISHED_INTO_STATS =
+      "INSERT INTO user_session_stats (user_id, total_sessions, total_minutes) " +
+      "SELECT user_id, COUNT(*), " +
+      "SUM(CAST(EXTRACT(EPOCH FROM (end_time - start_time)) AS BIGINT) / 60) " +
+      "FROM finished GROUP BY user_id " +
+      "ON CONFLICT (user_id) DO UPDATE SET " +
+      "total_sessions = user_session_stats.total_sessions + EXCLUDED.total_sessions, " +
+      "total_minutes = user_session_stats.total_minutes + EXCLUDED.total_minutes";
 
   @Query("SELECT s FROM Session s WHERE s.userId = :userId " +
       "AND s.endTime IS NOT NULL " +
       "AND s.status = 'COMPLETED'")
   List<Session> findAllByUserIdAndEndTimeIsNotNull(Long userId);
 
-  @Query("SELECT s FROM Session s WHERE " +
-      "s.startTime < :endOfDay AND s.endTime > :startOfDay")
-  List<Session> findSessionsIntersectingDay(
+  /**
+   * Sessions intersecting [startOfDay, endOfDay). No session is longer than
+   * {@link Session#MAX_DURATION}, so only partitions from that long before the range are scanned.
+   */
+  default List<Session> findSessionsIntersectingDay(LocalDateTime startOfDay,
+      LocalDateTime endOfDay) {
+    return findSessionsIntersecting(startOfDay.minus(Session.MAX_DURATION), startOfDay, endOfDay);
+  }
+
+  @Query("SELECT s FROM Session s WHERE s.startTime > :earliestStart " +
+      "AND s.startTime < :endOfDay AND s.endTime > :startOfDay")
+  List<Session> findSessionsIntersecting(
+      @Param("earliestStart") LocalDateTime earliestStart,
+      @Param("startOfDay") LocalDateTime startOfDay,
+      @Param("endOfDay") LocalDateTime endOfDay
+  );
+
+  /**
+   * Same range as {@link #findSessionsIntersectingDay}, selected straight into DTOs.
+   */
+  default List<SessionsInfoDTO> findSessionInfosIntersectingDay(LocalDateTime startOfDay,
+      LocalDateTime endOfDay) {
+    return findSessionInfosIntersecting(startOfDay.minus(Session.MAX_DURATION), startOfDay,
+        endOfDay);
+  }
+
+  @Query("SELECT new com.actisys.billingservice.dto.SessionDtos.SessionsInfoDTO(" +
+      "s.pcId, s.startTime, s.endTime) FROM Session s WHERE s.startTime > :earliestStart " +
+      "AND s.startTime < :endOfDay AND s.endTime > :startOfDay")
+  List<SessionsInfoDTO> findSessionInfosIntersecting(
+      @Param("earliestStart") LocalDateTime earliestStart,
       @Param("startOfDay") LocalDateTime startOfDay,
       @Param("endOfDay") LocalDateTime endOfDay
   );
 
+  /**
+   * Every session with its tariff in a single joined select.
+   */
+  @Query("SELECT new com.actisys.billingservice.repository.projection.SessionRow(" +
+      "s.sessionId, s.userId, s.pcId, t.tariffId, t.name, t.price, t.isVip, t.hours, " +
+      "s.startTime, s.endTime, s.totalCost, s.status) FROM Session s JOIN s.tariff t")
+  List<SessionRow> findAllRows();
+
   List<Session> findAllByUserId(Long userId);
+
+  default boolean existsOverlapping(Long pcId, Collection<SessionStatus> statuses,
+      LocalDateTime startTime, LocalDateTime endTime) {
+    return existsOverlappingSince(pcId, statuses, startTime.minus(Session.MAX_DURATION),
+        startTime, endTime);
+  }
+
+  @Query("SELECT COUNT(s) > 0 FROM Session s WHERE s.pcId = :pcId " +
+      "AND s.status IN :statuses AND s.startTime > :earliestStart " +
+      "AND s.startTime < :endTime AND s.endTime > :startTime")
+  boolean existsOverlappingSince(
+      @Param("pcId") Long pcId,
+      @Param("statuses") Collection<SessionStatus> statuses,
+      @Param("earliestStart") LocalDateTime earliestStart,
+      @Param("startTime") LocalDateTime startTime,
+      @Param("endTime") LocalDateTime endTime
+  );
+
+  /**
+   * PCs among pcIds with an active booking intersecting [startTime, endTime), in one query.
+   */
+  default List<Long> findOverlappingPcIds(Collection<Long> pcIds,
+      Collection<SessionStatus> statuses, LocalDateTime startTime, LocalDateTime endTime) {
+    return findOverlappingPcIdsSince(pcIds, statuses, startTime.minus(Session.MAX_DURATION),
+        startTime, endTime);
+  }
+
+  @Query("SELECT DISTINCT s.pcId FROM Session s WHERE s.pcId IN :pcIds " +
+      "AND s.status IN :statuses AND s.startTime > :earliestStart " +
+      "AND s.startTime < :endTime AND s.endTime > :startTime")
+  List<Long> findOverlappingPcIdsSince(
+      @Param("pcIds") Collection<Long> pcIds,
+      @Param("statuses") Collection<SessionStatus> statuses,
+      @Param("earliestStart") LocalDateTime earliestStart,
+      @Param("startTime") LocalDateTime startTime,
+      @Param("endTime") LocalDateTime endTime
+  );
+
+  /**
+   * Takes a transaction-scoped Postgres advisory lock for the PC (lock class 1 = booking),
+   * serializing bookings of the same PC across all service instances.
+   */
+  @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(1, CAST(:pcId AS INTEGER))",
+      nativeQuery = true)
+  Integer lockPcForBooking(@Param("pcId") Long pcId);
+
+  /**
+   * Same booking locks as {@link #lockPcForBooking} for several PCs in one round trip,
+   * taken in ascending PC id order so concurrent group bookings cannot deadlock.
+   */
+  @Query(value = "SELECT COUNT(*) FROM (" +
+      "SELECT pg_advisory_xact_lock(1, CAST(pc_id AS INTEGER)) FROM (" +
+      "SELECT DISTINCT pc_id FROM unnest(ARRAY[:pcIds]) AS ids(pc_id) ORDER BY pc_id" +
+      ") ordered) locked", nativeQuery = true)
+  Long lockPcsForBooking(@Param("pcIds") Collection<Long> pcIds);
+
+  @Query(value = "SELECT nextval('session_booking_group_seq')", nativeQuery = true)
+  Long nextBookingGroupId();
+
+  List<Session> findAllByBookingGroupIdAndStartTime(Long bookingGroupId, LocalDateTime startTime);
+
+  List<Session> findAllByStatusInAndEndTimeAfter(Collection<SessionStatus> statuses,
+      LocalDateTime endTime);
+
+  /**
+   * Sessions in one of the given statuses whose start or end falls into [from, to).
+   * Used by the lifecycle scheduler to plan upcoming status transitions.
+   */
+  default List<Session> findTransitionsBetween(Collection<SessionStatus> statuses,
+      LocalDateTime from, LocalDateTime to) {
+    return findTransitionsBetween(statuses, from.minus(Session.MAX_DURATION), from, to);
+  }
+
+  @Query("SELECT s FROM Session s WHERE s.status IN :statuses " +
+      "AND s.startTime >= :earliestStart AND s.startTime < :to AND (" +
+      "s.startTime >= :from OR (s.endTime >= :from AND s.endTime < :to))")
+  List<Session> findTransitionsBetween(
+      @Param("statuses") Collection<SessionStatus> statuses,
+      @Param("earliestStart") LocalDateTime earliestStart,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to
+  );
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE Session s SET s.status = :target " +
+      "WHERE s.sessionId = :sessionId AND s.status IN :expected")
+  int updateStatusIfIn(
+      @Param("sessionId") Long sessionId,
+      @Param("expected") Collection<SessionStatus> expected,
+      @Param("target") SessionStatus target
+  );
+
+  default int markStarted(Collection<SessionStatus> expected, SessionStatus target,
+      LocalDateTime now) {
+    return markStarted(expected, target, now.minus(Session.MAX_DURATION), now);
+  }
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE Session s SET s.status = :target WHERE s.status IN :expected " +
+      "AND s.startTime > :earliestStart AND s.startTime <= :now AND s.endTime > :now")
+  int markStarted(
+      @Param("expected") Collection<SessionStatus> expected,
+      @Param("target") SessionStatus target,
+      @Param("earliestStart") LocalDateTime earliestStart,
+      @Param("now") LocalDateTime now
+  );
+
+  /**
+   * Completes one paid or running session and adds it to the owner's aggregated stats
+   * in the same statement.
+   *
+   * @return the owner's id if the session was completed,
+   * empty if it was not in a finishable status
+   */
+  @Transactional
+  @Query(value = "WITH finished AS (" +
+      "UPDATE session SET status = 'COMPLETED' " +
+      "WHERE session_id = :sessionId AND status IN ('PAID', 'IN_PROGRESS') " +
+      "RETURNING user_id, start_time, end_time), " +
+      "stats AS (" + COUNT_FINISHED_INTO_STATS + " RETURNING user_id) " +
+      "SELECT CAST(user_id AS BIGINT) FROM stats", nativeQuery = true)
+  List<Long> completeSession(@Param("sessionId") Long sessionId);
+
+  /**
+   * Completes every paid or running session that has already ended
+   * and adds them to the owners' aggregated stats.
+   *
+   * @return ids of the users whose stats changed
+   */
+  @Transactional
+  @Query(value = "WITH finished AS (" +
+      "UPDATE session SET status = 'COMPLETED' " +
+      "WHERE status IN ('PAID', 'IN_PROGRESS') AND end_time <= :now " +
+      "RETURNING user_id, start_time, end_time), " +
+      "stats AS (" + COUNT_FINISHED_INTO_STATS + " RETURNING user_id) " +
+      "SELECT CAST(user_id AS BIGINT) FROM stats", nativeQuery = true)
+  List<Long> completeFinishedSessions(@Param("now") LocalDateTime now);
 }
@@ -0,0 +1,59 @@
+package com.actisys.billingservice.repository;
+
+import com.actisys.billingservice.dto.SessionDtos.SessionFilterDTO;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.util.SessionCursor;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class SessionSpecifications {
+
+  public static final Sort NEWEST_FIRST =
+      Sort.by(Sort.Order.desc("startTime"), Sort.Order.desc("sessionId"));
+
+  private SessionSpecifications() {
+  }
+
+  /**
+   * Sessions matching the filter that come after the cursor in {@link #NEWEST_FIRST} order,
+   * with tariff fetched in the same query.
+   */
+  public static Specification<Session> page(SessionFilterDTO filter, SessionCursor cursor) {
+    return (root, query, cb) -> {
+      if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+        root.fetch("tariff", JoinType.LEFT);
+      }
+
+      List<Predicate> predicates = new ArrayList<>();
+      if (filter.getStatus() != null) {
+        predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+      }
+      if (filter.getPcId() != null) {
+        predicates.add(cb.equal(root.get("pcId"), filter.getPcId()));
+      }
+      if (filter.getUserId() != null) {
+        predicates.add(cb.equal(root.get("userId"), filter.getUserId()));
+      }
+      if (filter.getFrom() != null) {
+        predicates.add(cb.greaterThanOrEqualTo(root.get("startTime"), filter.getFrom()));
+      }
+      if (filter.getTo() != null) {
+        predicates.add(cb.lessThan(root.get("startTime"), filter.getTo()));
+      }
+      if (cursor != null) {
+        // the redundant upper bound lets Postgres use it as an index range condition
+        predicates.add(cb.lessThanOrEqualTo(root.get("startTime"), cursor.startTime()));
+        predicates.add(cb.or(
+            cb.lessThan(root.get("startTime"), cursor.startTime()),
+            cb.and(
+                cb.equal(root.get("startTime"), cursor.startTime()),
+                cb.lessThan(root.get("sessionId"), cursor.sessionId()))));
+      }
+      return cb.and(predicates.toArray(new Predicate[0]));
+    };
+  }
+}
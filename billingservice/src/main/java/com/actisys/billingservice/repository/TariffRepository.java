@@ -1,10 +1,12 @@
 package com.actisys.billingservice.repository;
 
 import com.actisys.billingservice.model.Tariff;
+import java.time.LocalDate;
 import java.util.List;
-import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,12 +14,30 @@ public interface TariffRepository extends JpaRepository<Tariff,Long> {
 
   boolean existsByName(String name);
 
-  @Query("SELECT s.tariff FROM Session s " +
-      "GROUP BY s.tariff " +
-      "ORDER BY COUNT(s.tariff) DESC")
-  List<Tariff> findPopularTariffs(Limit limit);
+  /**
+   * Tariffs ranked by bookings of sessions starting on or after the given day,
+   * read from the per-day counters instead of the session table.
+   */
+  @Query(value = "SELECT t.* FROM tariff t JOIN (" +
+      "SELECT tariff_id, SUM(bookings) AS total FROM tariff_daily_bookings " +
+      "WHERE day >= :since GROUP BY tariff_id HAVING SUM(bookings) > 0) b " +
+      "ON b.tariff_id = t.tariff_id " +
+      "ORDER BY b.total DESC, t.tariff_id LIMIT :limit", nativeQuery = true)
+  List<Tariff> findPopularTariffs(@Param("since") LocalDate since, @Param("limit") int limit);
 
   List<Tariff> findFirst3By();
 
-
+  /**
+   * Adds delta to the tariff's booking counter for the day, creating the row if needed.
+   */
+  @Modifying
+  @Query(value = "INSERT INTO tariff_daily_bookings (day, tariff_id, bookings) " +
+      "VALUES (:day, :tariffId, :delta) " +
+      "ON CONFLICT (day, tariff_id) DO UPDATE SET " +
+      "bookings = tariff_daily_bookings.bookings + EXCLUDED.bookings", nativeQuery = true)
+  void addBookings(
+      @Param("tariffId") Long tariffId,
+      @Param("day") LocalDate day,
+      @Param("delta") int delta
+  );
 }
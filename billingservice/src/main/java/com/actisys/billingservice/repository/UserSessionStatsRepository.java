@@ -0,0 +1,36 @@
+package com.actisys.billingservice.repository;
+
+import com.actisys.billingservice.model.UserSessionStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserSessionStatsRepository extends JpaRepository<UserSessionStats, Long> {
+
+  @Modifying
+  @Query(value = "LOCK TABLE user_session_stats IN EXCLUSIVE MODE", nativeQuery = true)
+  void lockForRebuild();
+
+  @Modifying
+  @Query(value = "DELETE FROM user_session_stats", nativeQuery = true)
+  void clear();
+
+  /**
+   * Aggregates completed sessions from the session table and from the archived months.
+   * A single statement reads one snapshot, so a partition archived meanwhile is counted once.
+   */
+  @Modifying
+  @Query(value = "INSERT INTO user_session_stats (user_id, total_sessions, total_minutes) " +
+      "SELECT user_id, SUM(sessions), SUM(minutes) FROM (" +
+      "SELECT user_id, COUNT(*) AS sessions, " +
+      "SUM(CAST(EXTRACT(EPOCH FROM (end_time - start_time)) AS BIGINT) / 60) AS minutes " +
+      "FROM session WHERE status = 'COMPLETED' AND end_time IS NOT NULL " +
+      "GROUP BY user_id " +
+      "UNION ALL " +
+      "SELECT user_id, completed_sessions, completed_minutes FROM session_archive " +
+      "WHERE completed_sessions > 0) history " +
+      "GROUP BY user_id", nativeQuery = true)
+  int insertFromHistory();
+}
@@ -0,0 +1,25 @@
+package com.actisys.billingservice.repository.projection;
+
+import com.actisys.billingservice.model.SessionStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a session joined with its tariff, selected in one statement
+ * without hydrating either entity.
+ */
+public record SessionRow(
+    Long sessionId,
+    Long userId,
+    Long pcId,
+    Long tariffId,
+    String tariffName,
+    BigDecimal tariffPrice,
+    Boolean tariffVip,
+    int tariffHours,
+    LocalDateTime startTime,
+    LocalDateTime endTime,
+    BigDecimal totalCost,
+    SessionStatus status
+) {
+}
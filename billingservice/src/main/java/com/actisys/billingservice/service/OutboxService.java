@@ -0,0 +1,25 @@
+package com.actisys.billingservice.service;
+
+public interface OutboxService {
+
+  /**
+   * Stores an event in the outbox table as part of the caller's transaction.
+   * It is published to Kafka by the relay only if that transaction commits.
+   *
+   * @param topic Kafka topic
+   * @param key record key, events with the same key keep their order
+   * @param event payload, serialized as JSON
+   */
+  void enqueue(String topic, String key, Object event);
+
+  /**
+   * Publishes unsent outbox events in batches and marks the delivered ones as sent.
+   * Delivery is at-least-once: an event may be sent again if marking it fails.
+   */
+  void relay();
+
+  /**
+   * Deletes sent events older than the retention period.
+   */
+  void purgeSent();
+}
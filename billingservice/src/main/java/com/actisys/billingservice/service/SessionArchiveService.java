@@ -0,0 +1,40 @@
+package com.actisys.billingservice.service;
+
+import com.actisys.billingservice.model.Session;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SessionArchiveService {
+
+  /**
+   * Creates monthly session partitions from the current month up to the configured
+   * number of months ahead, then archives partitions older than the retention horizon.
+   * Runs on one instance at a time.
+   */
+  void maintainPartitions();
+
+  /**
+   * Reads a user's sessions from the archive.
+   * The returned sessions are detached and must not be saved.
+   *
+   * @param userId user identifier
+   * @return archived sessions, newest month first
+   */
+  List<Session> findArchivedSessions(Long userId);
+
+  /**
+   * Every archived session of the user started before the returned time.
+   *
+   * @param userId user identifier
+   * @return start of the month after the user's newest archived month, null without archive
+   */
+  LocalDateTime findArchivedUntil(Long userId);
+
+  /**
+   * Counts the completed sessions of archive rows written before the archive kept
+   * their totals, so the stats rebuild can read every archived month from SQL.
+   *
+   * @return number of archive rows filled in
+   */
+  int fillMissingCompletedTotals();
+}
@@ -0,0 +1,20 @@
+package com.actisys.billingservice.service;
+
+import com.actisys.billingservice.model.Session;
+
+public interface SessionLifecycleService {
+
+  /**
+   * Plans PAID -> IN_PROGRESS -> COMPLETED transitions for a freshly paid session.
+   * Transitions outside the currently loaded window are picked up by the next reload.
+   *
+   * @param session paid session
+   */
+  void schedule(Session session);
+
+  /**
+   * Completes overdue transitions in bulk and loads transitions
+   * due within the next window into the delay queue.
+   */
+  void reload();
+}
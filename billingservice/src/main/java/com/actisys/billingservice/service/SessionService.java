@@ -1,18 +1,26 @@
 package com.actisys.billingservice.service;
 
+import com.actisys.billingservice.dto.SessionDtos.CreateGroupSessionDTO;
 import com.actisys.billingservice.dto.SessionDtos.CreateSessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.FreeSlotDTO;
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDTO;
 import com.actisys.billingservice.dto.SessionDtos.SessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionFilterDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionPageDTO;
 import com.actisys.billingservice.dto.SessionDtos.SessionResponseDto;
 import com.actisys.billingservice.dto.SessionDtos.SessionsInfoDTO;
+import com.actisys.billingservice.dto.SessionDtos.SlotHoldDTO;
 import com.actisys.common.clientDtos.SessionStatsDTO;
 import com.actisys.common.events.OperationType;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface SessionService {
 
   /**
-   * Calculates user gaming statistics from completed sessions.
+   * Returns user gaming statistics from the user_session_stats aggregate,
+   * which is maintained whenever a session is completed.
    * Returns total sessions count and total gaming hours.
    *
    * @param userId user identifier
@@ -20,6 +28,12 @@ public interface SessionService {
    */
   SessionStatsDTO getUserStats(Long userId);
 
+  /**
+   * Recomputes user_session_stats for all users from completed sessions history,
+   * archived months included.
+   */
+  void rebuildUserStats();
+
   /**
    * Retrieves sessions overlapping specified date range for reporting.
    *
@@ -29,18 +43,77 @@ public interface SessionService {
    */
   List<SessionsInfoDTO> getSessionsInRange(LocalDateTime rangeStart, LocalDateTime rangeEnd);
 
+  /**
+   * Filters the given PCs down to those without bookings or live checkout holds
+   * intersecting [from, to).
+   * Served from the in-memory schedule index, falls back to the database for old ranges.
+   *
+   * @param pcIds candidate PC identifiers
+   * @param from start of requested range
+   * @param to end of requested range (exclusive)
+   * @return identifiers of free PCs
+   */
+  List<Long> getFreePcs(List<Long> pcIds, LocalDateTime from, LocalDateTime to);
+
+  /**
+   * Finds the earliest ranges in which enabled PCs matching the filters can be booked.
+   * Matching PCs come from inventory, each one's first long enough gap from the schedule index,
+   * so the cost grows with the number of matching PCs, not with the number of sessions.
+   * PCs whose earliest gap is under a checkout hold are left out.
+   *
+   * @param vip required VIP flag of the PC's room, or null for any room
+   * @param gpu part of the GPU name, or null
+   * @param cpu part of the CPU name, or null
+   * @param from earliest acceptable start, or null for now
+   * @param hours booking duration
+   * @param limit maximum number of slots, at most 50
+   * @return at most one slot per PC, ordered by start time and PC id
+   */
+  List<FreeSlotDTO> findEarliestFreeSlots(Boolean vip, String gpu, String cpu,
+      LocalDateTime from, int hours, int limit);
+
+  /**
+   * Builds 15-minute occupancy bitmaps of PCs for the days [startDate, endDate].
+   * Days covered by the schedule index are copied from its per-day bitmaps,
+   * older days are computed from the database.
+   *
+   * @param pcIds PCs to include, or null for every PC booked in the range
+   * @param startDate first day of the range
+   * @param endDate last day of the range (inclusive), at most 62 days after startDate
+   * @return bitmaps by PC identifier
+   */
+  OccupancyDTO getOccupancy(List<Long> pcIds, LocalDate startDate, LocalDate endDate);
+
   /**
    * Gets user sessions enriched with PC details from inventory service.
-   * Includes tariff, times, cost and status for each session.
+   * Includes tariff, times, cost and status for each session,
+   * sessions from archived partitions included.
    *
    * @param userId user identifier
    * @return list of user sessions with PC information
    */
   List<SessionResponseDto> getUserSessions(Long userId);
 
+  /**
+   * Gets one page of user sessions, newest first, enriched with PC details.
+   * Like {@link #getUserSessions}, pages that reach back to archived months include
+   * the archived sessions.
+   *
+   * @param userId user identifier
+   * @param filter optional status, PC and start time filters
+   * @param cursor token from the previous page, null for the first page
+   * @param limit page size
+   * @return page of user sessions with cursor of the next page
+   */
+  SessionPageDTO<SessionResponseDto> getUserSessionsPage(Long userId, SessionFilterDTO filter,
+      String cursor, int limit);
+
   /**
    * Cancels session and triggers money refund via Kafka event.
    * Sets session status to CANCELLED and publishes RefundMoneyEvent.
+   * A session of a group booking cancels every pending or paid session of the group,
+   * each refunded on its own; sessions without a confirmed payment are refunded
+   * by {@link #updateStatus} if the payment still goes through.
    *
    * @param id session identifier to cancel
    */
@@ -49,6 +122,7 @@ public interface SessionService {
   /**
    * Creates new gaming session with cost calculation based on tariff and duration.
    * Calculates total cost using tariff hourly rate, publishes CreateOrderEvent.
+   * Rejects the booking with SessionOverlapException if the PC is taken for that time.
    *
    * @param createSessionDTO session data with PC, tariff and time range
    * @param userId string representation of user ID
@@ -56,9 +130,44 @@ public interface SessionService {
    */
   SessionDTO createSession(CreateSessionDTO createSessionDTO, String userId);
 
+  /**
+   * Books several PCs for the same time range as one group, all or nothing.
+   * All sessions are inserted in one transaction and paid by a single CreateOrderEvent
+   * for the summed cost, so a team gets one payment instead of one per PC.
+   * Rejects the whole group with SessionOverlapException naming every PC that is taken.
+   *
+   * @param createGroupSessionDTO PCs, tariff and time range shared by the group
+   * @param userId string representation of user ID
+   * @return created sessions in ascending PC id order
+   */
+  List<SessionDTO> createGroupSession(CreateGroupSessionDTO createGroupSessionDTO, String userId);
+
+  /**
+   * Holds a free PC for the user during checkout, so other users cannot book
+   * the range until the hold expires or is released.
+   * createSession takes the same hold itself, it is kept until the payment result arrives.
+   *
+   * @param slotHoldDTO PC and time range to hold
+   * @param userId string representation of user ID
+   * @return the hold with its expiry time
+   */
+  SlotHoldDTO holdSlot(SlotHoldDTO slotHoldDTO, String userId);
+
+  /**
+   * Releases a checkout hold of the user before it expires.
+   *
+   * @param slotHoldDTO PC and time range of the hold
+   * @param userId string representation of user ID
+   */
+  void releaseSlot(SlotHoldDTO slotHoldDTO, String userId);
+
   /**
    * Updates session status based on payment operation result.
    * Sets PAID for SUCCESS, ERROR for failed payments.
+   * The result applies to the whole group booking of the session, whatever the status
+   * of the session itself. Group sessions cancelled while the payment was pending
+   * are refunded; results for groups with nothing left to settle are ignored as duplicates.
+   * Paid sessions are handed over to the lifecycle scheduler.
    *
    * @param orderId session identifier
    * @param status payment operation result
@@ -72,6 +181,16 @@ public interface SessionService {
    */
   List<SessionDTO> getAllSessions();
 
+  /**
+   * Retrieves one page of sessions for administrative purposes, newest first.
+   *
+   * @param filter optional status, PC, user and start time filters
+   * @param cursor token from the previous page, null for the first page
+   * @param limit page size
+   * @return page of sessions with cursor of the next page
+   */
+  SessionPageDTO<SessionDTO> getSessionsPage(SessionFilterDTO filter, String cursor, int limit);
+
   /**
    * Returns session by sessionId
    *
@@ -0,0 +1,42 @@
+package com.actisys.billingservice.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+public interface SlotHoldService {
+
+  /**
+   * Gives the user an exclusive hold on the PC for [start, end) until the checkout window ends.
+   * Holding a range again refreshes its expiry, holds of the same user never conflict.
+   *
+   * @param userId user taking the hold
+   * @param pcId held PC
+   * @param start start of the held range
+   * @param end end of the held range (exclusive)
+   * @return time the hold expires at
+   * @throws com.actisys.billingservice.exception.SlotHeldException if another user holds
+   *     an intersecting range of the PC
+   */
+  LocalDateTime hold(Long userId, Long pcId, LocalDateTime start, LocalDateTime end);
+
+  /**
+   * Drops the hold, does nothing if it already expired.
+   *
+   * @param userId user owning the hold
+   * @param pcId held PC
+   * @param start start of the held range
+   * @param end end of the held range (exclusive)
+   */
+  void release(Long userId, Long pcId, LocalDateTime start, LocalDateTime end);
+
+  /**
+   * Finds the PCs with a live hold of any user intersecting [from, to), in one round trip.
+   *
+   * @param pcIds candidate PC identifiers
+   * @param from start of requested range
+   * @param to end of requested range (exclusive)
+   * @return identifiers of held PCs
+   */
+  Set<Long> findHeldPcIds(Collection<Long> pcIds, LocalDateTime from, LocalDateTime to);
+}
@@ -1,11 +1,15 @@
 package com.actisys.billingservice.service;
 
 import com.actisys.billingservice.dto.TariffDtos.CreateTariffDTO;
+import com.actisys.billingservice.dto.TariffDtos.QuoteDTO;
+import com.actisys.billingservice.dto.TariffDtos.QuoteRequestDTO;
 import com.actisys.billingservice.dto.TariffDtos.TariffDTO;
 import java.util.List;
 
 public interface TariffService {
 
+  int MAX_QUOTE_BATCH = 500;
+
   /**
    * Retrieves all available tariffs from cache.
    * Uses "all" key for efficient repeated access.
@@ -42,10 +46,23 @@ public interface TariffService {
   void deleteTariff(Long id);
 
   /**
-   * Returns top 3 popular tariffs, supplements with random if less than 3 available.
-   * Cached with "top3" key for frontend performance.
+   * Returns top 3 tariffs by bookings over the last days, supplements with random
+   * if less than 3 available. Reads the per-day booking counters, so the cost
+   * doesn't grow with the session history.
+   * Cached with "top3:{days}" key for frontend performance.
    *
+   * @param days size of the ranking window, from 1 to 365
    * @return list of up to 3 most popular tariffs
    */
-  List<TariffDTO> getPopularTariffs();
+  List<TariffDTO> getPopularTariffs(int days);
+
+  /**
+   * Prices a batch of (tariff, start, end) tuples from the in-memory pricing engine.
+   * Quotes are in the same order as the requests and match what booking would charge.
+   *
+   * @param requests tariffs and time ranges to price, at most {@link #MAX_QUOTE_BATCH} per call
+   * @return list of quotes with total cost
+   * @throws IllegalArgumentException if the batch is too large or a request misses a field
+   */
+  List<QuoteDTO> quote(List<QuoteRequestDTO> requests);
 }
@@ -0,0 +1,161 @@
+package com.actisys.billingservice.service.impl;
+
+import com.actisys.billingservice.model.OutboxEvent;
+import com.actisys.billingservice.repository.OutboxEventRepository;
+import com.actisys.billingservice.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transactional outbox: events are written to outbox_event together with the change
+ * that caused them and relayed to Kafka afterwards, so a crash or broker outage
+ * can delay an event but never lose it.
+ * The relay sends a whole batch before waiting for acknowledgements
+ * and marks the acknowledged rows in one update. Only the acknowledged prefix of a batch
+ * is marked, so after a failed send that event and everything after it are sent again
+ * and no key ever sees a later event go through without an earlier one.
+ * Delivery is therefore at least once and every consumer must tolerate duplicates;
+ * the payment service creates one payment per booking and the wallet ledger applies
+ * each payment once. Events whose payload can't be read are marked failed and skipped
+ * instead of blocking the outbox.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${billing.outbox.batch-size:200}")
+  private int batchSize;
+
+  @Value("${billing.outbox.send-timeout-ms:3000}")
+  private long sendTimeoutMs;
+
+  @Value("${billing.outbox.retention-days:7}")
+  private long retentionDays;
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueue(String topic, String key, Object event) {
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize event for topic " + topic, e);
+    }
+    outboxEventRepository.save(OutboxEvent.builder()
+        .topic(topic)
+        .eventKey(key)
+        .payloadType(event.getClass().getName())
+        .payload(payload)
+        .createdAt(LocalDateTime.now())
+        .build());
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${billing.outbox.relay-interval-ms:500}")
+  public void relay() {
+    Integer published;
+    do {
+      published = transactionTemplate.execute(status -> publishBatch());
+    } while (published != null && published == batchSize);
+  }
+
+  @Override
+  @Scheduled(cron = "${billing.outbox.purge-cron:0 0 4 * * *}")
+  public void purgeSent() {
+    int deleted = outboxEventRepository.deleteSentBefore(
+        LocalDateTime.now().minusDays(retentionDays));
+    log.info("Purged {} sent outbox events", deleted);
+  }
+
+  /**
+   * @return number of events handled, 0 if another instance holds the relay
+   * or a send failed, which ends the current drain
+   */
+  private int publishBatch() {
+    if (!outboxEventRepository.tryLockRelay()) {
+      return 0;
+    }
+    List<OutboxEvent> events =
+        outboxEventRepository.findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(Limit.of(batchSize));
+    if (events.isEmpty()) {
+      return 0;
+    }
+
+    List<OutboxEvent> sending = new ArrayList<>(events.size());
+    List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+    for (OutboxEvent event : events) {
+      Object payload;
+      try {
+        payload = payloadOf(event);
+      } catch (IllegalStateException e) {
+        log.error("Setting aside unreadable outbox event {}", event.getId(), e);
+        outboxEventRepository.markFailed(event.getId(), LocalDateTime.now(), errorOf(e));
+        continue;
+      }
+      sending.add(event);
+      try {
+        sends.add(kafkaTemplate.send(event.getTopic(), event.getEventKey(), payload));
+      } catch (RuntimeException e) {
+        sends.add(CompletableFuture.failedFuture(e));
+        break;
+      }
+    }
+
+    // one deadline for the whole batch: the relay lock and its connection are held meanwhile
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+    List<Long> sentIds = new ArrayList<>(sends.size());
+    for (int i = 0; i < sends.size(); i++) {
+      try {
+        sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        sentIds.add(sending.get(i).getId());
+      } catch (ExecutionException | TimeoutException e) {
+        log.warn("Failed to publish outbox event {} to {}, will retry it and the {} after it",
+            sending.get(i).getId(), sending.get(i).getTopic(), sending.size() - i - 1, e);
+        break;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    if (!sentIds.isEmpty()) {
+      outboxEventRepository.markSent(sentIds, LocalDateTime.now());
+    }
+    return sentIds.size() == sending.size() ? events.size() : 0;
+  }
+
+  private Object payloadOf(OutboxEvent event) {
+    try {
+      return objectMapper.readValue(event.getPayload(), Class.forName(event.getPayloadType()));
+    } catch (JsonProcessingException | ClassNotFoundException e) {
+      throw new IllegalStateException("Cannot read outbox event " + event.getId(), e);
+    }
+  }
+
+  private String errorOf(Exception e) {
+    String error = String.valueOf(e.getCause() != null ? e.getCause() : e);
+    return error.length() > 500 ? error.substring(0, 500) : error;
+  }
+}
@@ -0,0 +1,238 @@
+package com.actisys.billingservice.service.impl;
+
+import com.actisys.billingservice.model.ArchivedSession;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.repository.TariffRepository;
+import com.actisys.billingservice.service.SessionArchiveService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the monthly partitions of the session table.
+ * Future partitions are created ahead of time, so bookings never land in session_default.
+ * Partitions older than the retention horizon are moved into session_archive
+ * as one gzip-compressed JSON array per user and month, then detached and dropped.
+ * Each archive row also keeps the count and played minutes of its completed sessions,
+ * so user stats can still be rebuilt in SQL once the sessions left the session table.
+ * The archive lives in the billing database rather than on local disk,
+ * so every replica can serve it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionArchiveServiceImpl implements SessionArchiveService {
+
+  private static final DateTimeFormatter PARTITION_NAME =
+      DateTimeFormatter.ofPattern("'session_y'yyyy'm'MM");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final TariffRepository tariffRepository;
+
+  @Value("${billing.partitions.months-ahead:3}")
+  private int monthsAhead;
+
+  @Value("${billing.partitions.retention-months:12}")
+  private int retentionMonths;
+
+  @Override
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${billing.partitions.maintenance-cron:0 30 3 * * *}")
+  public void maintainPartitions() {
+    transactionTemplate.executeWithoutResult(status -> {
+      // lock class 3 = partition maintenance
+      Boolean locked = jdbcTemplate.queryForObject(
+          "SELECT pg_try_advisory_xact_lock(3, 0)", Boolean.class);
+      if (!Boolean.TRUE.equals(locked)) {
+        return;
+      }
+      createUpcomingPartitions();
+      archiveExpiredPartitions();
+    });
+  }
+
+  @Override
+  public List<Session> findArchivedSessions(Long userId) {
+    List<ArchivedSession> archived = jdbcTemplate.query(
+            "SELECT payload FROM session_archive WHERE user_id = ? ORDER BY month DESC",
+            (rs, rowNum) -> rs.getBytes("payload"), userId).stream()
+        .flatMap(payload -> decode(payload).stream())
+        .toList();
+    if (archived.isEmpty()) {
+      return List.of();
+    }
+
+    Map<Long, Tariff> tariffs = tariffRepository.findAllById(
+            archived.stream().map(ArchivedSession::tariffId).distinct().toList()).stream()
+        .collect(Collectors.toMap(Tariff::getTariffId, Function.identity()));
+    return archived.stream()
+        .map(session -> Session.builder()
+            .sessionId(session.sessionId())
+            .userId(session.userId())
+            .pcId(session.pcId())
+            .paymentId(session.paymentId())
+            .tariff(tariffs.get(session.tariffId()))
+            .startTime(session.startTime())
+            .endTime(session.endTime())
+            .totalCost(session.totalCost())
+            .status(session.status())
+            .build())
+        .toList();
+  }
+
+  @Override
+  public LocalDateTime findArchivedUntil(Long userId) {
+    LocalDate newestMonth = jdbcTemplate.queryForObject(
+        "SELECT MAX(month) FROM session_archive WHERE user_id = ?", LocalDate.class, userId);
+    return newestMonth == null ? null : newestMonth.plusMonths(1).atStartOfDay();
+  }
+
+  @Override
+  public int fillMissingCompletedTotals() {
+    List<Object[]> totals = new ArrayList<>();
+    jdbcTemplate.query(
+        "SELECT user_id, month, payload FROM session_archive WHERE completed_sessions IS NULL",
+        (RowCallbackHandler) rs -> {
+          List<ArchivedSession> completed = decode(rs.getBytes("payload")).stream()
+              .filter(session -> session.status() == SessionStatus.COMPLETED
+                  && session.endTime() != null)
+              .toList();
+          totals.add(new Object[]{completed.size(),
+              completed.stream().mapToLong(this::playedMinutes).sum(),
+              rs.getLong("user_id"), rs.getDate("month")});
+        });
+    if (!totals.isEmpty()) {
+      jdbcTemplate.batchUpdate("UPDATE session_archive SET completed_sessions = ?, " +
+          "completed_minutes = ? WHERE user_id = ? AND month = ?", totals);
+    }
+    return totals.size();
+  }
+
+  private void createUpcomingPartitions() {
+    YearMonth current = YearMonth.now();
+    for (int i = 0; i <= monthsAhead; i++) {
+      LocalDate monthStart = current.plusMonths(i).atDay(1);
+      Boolean created = jdbcTemplate.queryForObject(
+          "SELECT create_session_partition(?)", Boolean.class, monthStart);
+      if (Boolean.TRUE.equals(created)) {
+        log.info("Created session partition for {}", current.plusMonths(i));
+      }
+    }
+  }
+
+  private void archiveExpiredPartitions() {
+    YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+    List<String> partitions = jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'session' AND c.relname LIKE 'session\\_y%' " +
+            "ORDER BY c.relname", String.class);
+    for (String partition : partitions) {
+      YearMonth month = YearMonth.parse(partition, PARTITION_NAME);
+      if (month.isBefore(oldestKept)) {
+        archivePartition(partition, month);
+      }
+    }
+  }
+
+  private void archivePartition(String partition, YearMonth month) {
+    List<ArchivedSession> sessions = jdbcTemplate.query(
+        "SELECT session_id, user_id, pc_id, payment_id, tariff_id, start_time, end_time, " +
+            "total_cost, status FROM \"" + partition + "\"", this::toArchivedSession);
+    Map<Long, List<ArchivedSession>> byUser = sessions.stream()
+        .collect(Collectors.groupingBy(ArchivedSession::userId));
+
+    List<Object[]> rows = new ArrayList<>(byUser.size());
+    byUser.forEach((userId, userSessions) ->
+        rows.add(new Object[]{userId, month.atDay(1), userSessions.size(), encode(userSessions)}));
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO session_archive (user_id, month, session_count, completed_sessions, " +
+            "completed_minutes, payload) VALUES (?, ?, ?, 0, 0, ?)", rows);
+    // totals for the stats rebuild, computed like it computes them for live sessions
+    jdbcTemplate.update(
+        "UPDATE session_archive a SET completed_sessions = c.sessions, " +
+            "completed_minutes = c.minutes " +
+            "FROM (SELECT user_id, COUNT(*) AS sessions, " +
+            "SUM(CAST(EXTRACT(EPOCH FROM (end_time - start_time)) AS BIGINT) / 60) AS minutes " +
+            "FROM \"" + partition + "\" WHERE status = 'COMPLETED' AND end_time IS NOT NULL " +
+            "GROUP BY user_id) c " +
+            "WHERE a.user_id = c.user_id AND a.month = ?", month.atDay(1));
+
+    jdbcTemplate.execute("ALTER TABLE session DETACH PARTITION \"" + partition + "\"");
+    jdbcTemplate.execute("DROP TABLE \"" + partition + "\"");
+    log.info("Archived {} sessions of {} for {} users", sessions.size(), month, byUser.size());
+  }
+
+  private ArchivedSession toArchivedSession(ResultSet rs, int rowNum) throws SQLException {
+    return new ArchivedSession(
+        rs.getLong("session_id"),
+        rs.getLong("user_id"),
+        rs.getLong("pc_id"),
+        rs.getObject("payment_id", Long.class),
+        rs.getLong("tariff_id"),
+        rs.getTimestamp("start_time").toLocalDateTime(),
+        rs.getTimestamp("end_time") == null ? null : rs.getTimestamp("end_time").toLocalDateTime(),
+        rs.getBigDecimal("total_cost"),
+        SessionStatus.valueOf(rs.getString("status")));
+  }
+
+  // same as CAST(EXTRACT(EPOCH FROM (end_time - start_time)) AS BIGINT) / 60, the cast rounds
+  private long playedMinutes(ArchivedSession session) {
+    Duration played = Duration.between(session.startTime(), session.endTime());
+    return (played.getSeconds() + (played.getNano() >= 500_000_000 ? 1 : 0)) / 60;
+  }
+
+  private byte[] encode(List<ArchivedSession> sessions) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+      objectMapper.writeValue(gzip, sessions);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private List<ArchivedSession> decode(byte[] payload) {
+    CollectionType type = objectMapper.getTypeFactory()
+        .constructCollectionType(List.class, ArchivedSession.class);
+    try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+      return objectMapper.readValue(gzip, type);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.actisys.billingservice.service.impl;
+
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.producer.OccupancyEventProducer;
+import com.actisys.billingservice.producer.SessionEventProducer;
+import com.actisys.billingservice.repository.SessionRepository;
+import com.actisys.billingservice.service.SessionLifecycleService;
+import com.actisys.billingservice.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moves sessions PAID -> IN_PROGRESS -> COMPLETED at their start/end instants,
+ * so read paths never have to write statuses themselves.
+ * Transitions of the next window are kept in a delay queue drained by a single worker,
+ * anything that became overdue in between (restart, late payment) is fixed by a bulk update on reload.
+ * Completing a session also adds it to the owner's user_session_stats row in the same statement
+ * and announces the changed stats to other services.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionLifecycleServiceImpl implements SessionLifecycleService {
+
+  private static final Set<SessionStatus> STARTABLE = EnumSet.of(SessionStatus.PAID);
+  private static final Set<SessionStatus> FINISHABLE =
+      EnumSet.of(SessionStatus.PAID, SessionStatus.IN_PROGRESS);
+
+  private final SessionRepository sessionRepository;
+  private final OccupancyEventProducer occupancyEventProducer;
+  private final SessionEventProducer sessionEventProducer;
+
+  private final DelayQueue<StatusTransition> transitions = new DelayQueue<>();
+  private final Set<StatusTransition> queued = ConcurrentHashMap.newKeySet();
+
+  @Value("${billing.lifecycle.window-minutes:30}")
+  private long windowMinutes;
+
+  private volatile LocalDateTime loadedUntil = LocalDateTime.MIN;
+  private Thread worker;
+
+  @PostConstruct
+  public void start() {
+    worker = new Thread(this::drain, "session-lifecycle");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @PreDestroy
+  public void stop() {
+    worker.interrupt();
+  }
+
+  @Override
+  public void schedule(Session session) {
+    TransactionUtils.afterCommit(() -> enqueue(session));
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${billing.lifecycle.reload-interval-ms:60000}")
+  public void reload() {
+    LocalDateTime now = LocalDateTime.now();
+    int started = sessionRepository.markStarted(STARTABLE, SessionStatus.IN_PROGRESS, now);
+    List<Long> finishedUsers = sessionRepository.completeFinishedSessions(now);
+    if (!finishedUsers.isEmpty()) {
+      sessionEventProducer.publishCompleted(finishedUsers);
+    }
+    if (started > 0 || !finishedUsers.isEmpty()) {
+      log.info("Caught up overdue sessions: {} started, completed for {} users",
+          started, finishedUsers.size());
+    }
+
+    LocalDateTime horizon = now.plusMinutes(windowMinutes);
+    List<Session> upcoming = sessionRepository.findTransitionsBetween(FINISHABLE, now, horizon);
+    loadedUntil = horizon;
+    upcoming.forEach(this::enqueue);
+    log.debug("Loaded {} sessions with transitions until {}", upcoming.size(), horizon);
+  }
+
+  private void enqueue(Session session) {
+    LocalDateTime until = loadedUntil;
+    if (session.getStatus() == SessionStatus.PAID && session.getStartTime().isBefore(until)) {
+      offer(new StatusTransition(session.getSessionId(), session.getPcId(),
+          session.getStartTime(), session.getEndTime(), session.getStartTime(),
+          SessionStatus.IN_PROGRESS));
+    }
+    if (session.getEndTime() != null && session.getEndTime().isBefore(until)) {
+      offer(new StatusTransition(session.getSessionId(), session.getPcId(),
+          session.getStartTime(), session.getEndTime(), session.getEndTime(),
+          SessionStatus.COMPLETED));
+    }
+  }
+
+  private void offer(StatusTransition transition) {
+    if (queued.add(transition)) {
+      transitions.offer(transition);
+    }
+  }
+
+  private void drain() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        StatusTransition transition = transitions.take();
+        queued.remove(transition);
+        apply(transition);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (RuntimeException e) {
+        log.error("Failed to apply session status transition", e);
+      }
+    }
+  }
+
+  private void apply(StatusTransition transition) {
+    boolean updated;
+    if (transition.target() == SessionStatus.IN_PROGRESS) {
+      updated = sessionRepository.updateStatusIfIn(transition.sessionId(), STARTABLE,
+          SessionStatus.IN_PROGRESS) > 0;
+    } else {
+      List<Long> finishedUsers = sessionRepository.completeSession(transition.sessionId());
+      updated = !finishedUsers.isEmpty();
+      if (updated) {
+        sessionEventProducer.publishCompleted(finishedUsers);
+      }
+    }
+    if (updated) {
+      log.info("Session {} status changed to {}", transition.sessionId(), transition.target());
+      occupancyEventProducer.publish(transition.sessionId(), transition.pcId(),
+          transition.startTime(), transition.endTime(), transition.target());
+    }
+  }
+
+  private record StatusTransition(Long sessionId, Long pcId, LocalDateTime startTime,
+      LocalDateTime endTime, LocalDateTime at, SessionStatus target) implements Delayed {
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(Duration.between(LocalDateTime.now(), at));
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return at.compareTo(((StatusTransition) other).at);
+    }
+  }
+}
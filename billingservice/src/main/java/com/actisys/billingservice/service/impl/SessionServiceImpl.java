@@ -1,22 +1,44 @@
 package com.actisys.billingservice.service.impl;
 
 
-import com.actisys.billingservice.client.InventoryServiceClient;
+import com.actisys.billingservice.cache.PcInfoCache;
+import com.actisys.billingservice.dto.SessionDtos.CreateGroupSessionDTO;
 import com.actisys.billingservice.dto.SessionDtos.CreateSessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.FreeSlotDTO;
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDTO;
 import com.actisys.billingservice.dto.SessionDtos.SessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionFilterDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionPageDTO;
 import com.actisys.billingservice.dto.SessionDtos.SessionResponseDto;
 import com.actisys.billingservice.dto.SessionDtos.SessionsInfoDTO;
+import com.actisys.billingservice.dto.SessionDtos.SlotHoldDTO;
+import com.actisys.billingservice.dto.TariffDtos.TariffDTO;
 import com.actisys.billingservice.exception.OrderNotFoundException;
 import com.actisys.billingservice.exception.SessionNotFoundException;
+import com.actisys.billingservice.exception.SessionOverlapException;
 import com.actisys.billingservice.exception.TariffNotFoundException;
+import com.actisys.billingservice.index.PcScheduleIndex;
 import com.actisys.billingservice.mapper.SessionMapper;
 import com.actisys.billingservice.mapper.TariffMapper;
 import com.actisys.billingservice.model.Session;
 import com.actisys.billingservice.model.SessionStatus;
 import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.pricing.TariffPricingEngine;
+import com.actisys.billingservice.producer.OccupancyEventProducer;
 import com.actisys.billingservice.repository.SessionRepository;
+import com.actisys.billingservice.repository.SessionSpecifications;
 import com.actisys.billingservice.repository.TariffRepository;
+import com.actisys.billingservice.repository.UserSessionStatsRepository;
+import com.actisys.billingservice.repository.projection.SessionRow;
+import com.actisys.billingservice.service.SessionLifecycleService;
+import com.actisys.billingservice.service.OutboxService;
+import com.actisys.billingservice.service.SessionArchiveService;
 import com.actisys.billingservice.service.SessionService;
+import com.actisys.billingservice.service.SlotHoldService;
+import com.actisys.billingservice.util.OccupancyBitmap;
+import com.actisys.billingservice.util.SessionCursor;
+import com.actisys.billingservice.util.StripedLocks;
+import com.actisys.billingservice.util.TransactionUtils;
 import com.actisys.common.clientDtos.PcResponseDTO;
 import com.actisys.common.clientDtos.SessionStatsDTO;
 import com.actisys.common.events.OperationType;
@@ -25,67 +47,293 @@ import com.actisys.common.events.user.RefundMoneyEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SessionServiceImpl implements SessionService {
 
+  private static final Set<SessionStatus> CANCELLABLE =
+      EnumSet.of(SessionStatus.PENDING, SessionStatus.PAID);
+
+  private static final int MAX_PAGE_SIZE = 200;
+  private static final int MAX_OCCUPANCY_DAYS = 62;
+  private static final int MAX_GROUP_SIZE = 20;
+  private static final int MAX_FREE_SLOTS = 50;
+  private static final int FREE_SLOT_SEARCH_DAYS = 14;
+
   private final SessionRepository sessionRepository;
   private final SessionMapper sessionMapper;
-  private final InventoryServiceClient inventoryServiceClient;
-  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final PcInfoCache pcInfoCache;
   private final TariffMapper tariffMapper;
   private final TariffRepository tariffRepository;
+  private final UserSessionStatsRepository userSessionStatsRepository;
+  private final SessionLifecycleService sessionLifecycleService;
+  private final PcScheduleIndex pcScheduleIndex;
+  private final TransactionTemplate transactionTemplate;
+  private final TariffPricingEngine tariffPricingEngine;
+  private final OutboxService outboxService;
+  private final SessionArchiveService sessionArchiveService;
+  private final SlotHoldService slotHoldService;
+  private final OccupancyEventProducer occupancyEventProducer;
+  private final StripedLocks pcBookingLocks = new StripedLocks(64);
 
   @Override
+  @Transactional(readOnly = true)
   public SessionStatsDTO getUserStats(Long userId) {
-    List<Session> sessions = sessionRepository.findAllByUserIdAndEndTimeIsNotNull(userId);
-    updateSessionsStatuses(sessions);
-    int totalSessions = sessions.size();
-
-    double totalHours = sessions.stream()
-        .mapToDouble(s -> Duration.between(s.getStartTime(), s.getEndTime())
-            .toMinutes() / 60.0)
-        .sum();
-    return new SessionStatsDTO(totalSessions, totalHours);
+    return userSessionStatsRepository.findById(userId)
+        .map(stats -> new SessionStatsDTO(stats.getTotalSessions(),
+            stats.getTotalMinutes() / 60.0))
+        .orElseGet(() -> new SessionStatsDTO(0, 0));
+  }
+
+  @Override
+  @Transactional
+  public void rebuildUserStats() {
+    userSessionStatsRepository.lockForRebuild();
+    int filled = sessionArchiveService.fillMissingCompletedTotals();
+    if (filled > 0) {
+      log.info("Counted completed sessions of {} archived months", filled);
+    }
+    userSessionStatsRepository.clear();
+    int users = userSessionStatsRepository.insertFromHistory();
+    log.info("Rebuilt session stats for {} users", users);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<SessionsInfoDTO> getSessionsInRange(LocalDateTime rangeStart,
       LocalDateTime rangeEnd) {
-    List<Session> allSessionForRange = sessionRepository.findSessionsIntersectingDay(rangeStart, rangeEnd);
+    return sessionRepository.findSessionInfosIntersectingDay(rangeStart, rangeEnd);
+  }
 
-    updateSessionsStatuses(allSessionForRange);
+  @Override
+  @Transactional(readOnly = true)
+  public List<Long> getFreePcs(List<Long> pcIds, LocalDateTime from, LocalDateTime to) {
+    if (!to.isAfter(from)) {
+      throw new IllegalArgumentException("Range end must be after range start");
+    }
+    List<Long> freePcIds;
+    if (!from.isBefore(pcScheduleIndex.coveredFrom())) {
+      freePcIds = pcScheduleIndex.freePcs(pcIds, from, to);
+    } else {
+      Set<Long> busyPcIds = sessionRepository.findSessionsIntersectingDay(from, to).stream()
+          .filter(session -> PcScheduleIndex.OCCUPYING.contains(session.getStatus()))
+          .map(Session::getPcId)
+          .collect(Collectors.toSet());
+      freePcIds = pcIds.stream()
+          .distinct()
+          .filter(pcId -> !busyPcIds.contains(pcId))
+          .toList();
+    }
 
-    return allSessionForRange.stream().map(sessionMapper::toInfoDTO).collect(Collectors.toList());
+    Set<Long> heldPcIds = slotHoldService.findHeldPcIds(freePcIds, from, to);
+    return freePcIds.stream()
+        .filter(pcId -> !heldPcIds.contains(pcId))
+        .toList();
   }
 
   @Override
-  public List<SessionResponseDto> getUserSessions(Long userId) {
-    List<Session> sessions = sessionRepository.findAllByUserId(userId);
+  public List<FreeSlotDTO> findEarliestFreeSlots(Boolean vip, String gpu, String cpu,
+      LocalDateTime from, int hours, int limit) {
+    if (hours < 1 || hours > Session.MAX_DURATION.toHours()) {
+      throw new IllegalArgumentException("Duration must be between 1 and "
+          + Session.MAX_DURATION.toHours() + " hours");
+    }
+    if (limit < 1 || limit > MAX_FREE_SLOTS) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_FREE_SLOTS);
+    }
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+    LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+    if (start.isBefore(pcScheduleIndex.coveredFrom())) {
+      throw new IllegalStateException("PC schedule index is not warmed up yet");
+    }
+    Duration duration = Duration.ofHours(hours);
+    LocalDateTime until = start.plusDays(FREE_SLOT_SEARCH_DAYS);
+
+    List<FreeSlotDTO> candidates = new ArrayList<>();
+    for (Long pcId : pcInfoCache.search(vip, gpu, cpu)) {
+      LocalDateTime slotStart = pcScheduleIndex.earliestFree(pcId, start, duration, until);
+      if (slotStart != null) {
+        candidates.add(new FreeSlotDTO(pcId, slotStart, slotStart.plus(duration)));
+      }
+    }
+    candidates.sort(Comparator.comparing(FreeSlotDTO::getStartTime)
+        .thenComparing(FreeSlotDTO::getPcId));
+
+    List<FreeSlotDTO> result = new ArrayList<>(limit);
+    for (int i = 0; i < candidates.size() && result.size() < limit; i += limit) {
+      List<FreeSlotDTO> batch = candidates.subList(i, Math.min(i + limit, candidates.size()));
+      Set<Long> heldPcIds = findHeldPcIds(batch);
+      batch.stream()
+          .filter(slot -> !heldPcIds.contains(slot.getPcId()))
+          .limit(limit - result.size())
+          .forEach(result::add);
+    }
+    return result;
+  }
+
+  /**
+   * PCs of the slots that are under a live checkout hold, one lookup per distinct start.
+   */
+  private Set<Long> findHeldPcIds(List<FreeSlotDTO> slots) {
+    Map<LocalDateTime, List<FreeSlotDTO>> byStart = slots.stream()
+        .collect(Collectors.groupingBy(FreeSlotDTO::getStartTime));
+    Set<Long> heldPcIds = new HashSet<>();
+    byStart.forEach((slotStart, sameStart) -> heldPcIds.addAll(slotHoldService.findHeldPcIds(
+        sameStart.stream().map(FreeSlotDTO::getPcId).toList(),
+        slotStart, sameStart.get(0).getEndTime())));
+    return heldPcIds;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public OccupancyDTO getOccupancy(List<Long> pcIds, LocalDate startDate, LocalDate endDate) {
+    long requestedDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+    if (requestedDays < 1 || requestedDays > MAX_OCCUPANCY_DAYS) {
+      throw new IllegalArgumentException(
+          "Occupancy range must be between 1 and " + MAX_OCCUPANCY_DAYS + " days");
+    }
+    int days = (int) requestedDays;
+    int slotCount = days * OccupancyBitmap.SLOTS_PER_DAY;
+    LocalDateTime origin = startDate.atStartOfDay();
+    Map<Long, BitSet> bitmaps = new HashMap<>();
+    if (pcIds != null) {
+      pcIds.forEach(pcId -> bitmaps.put(pcId, new BitSet(slotCount)));
+    }
+
+    LocalDateTime coveredFrom = pcScheduleIndex.coveredFrom();
+    int uncoveredDays = 0;
+    while (uncoveredDays < days
+        && startDate.plusDays(uncoveredDays).atStartOfDay().isBefore(coveredFrom)) {
+      uncoveredDays++;
+    }
+    if (uncoveredDays > 0) {
+      LocalDateTime uncoveredEnd = startDate.plusDays(uncoveredDays).atStartOfDay();
+      int uncoveredSlots = uncoveredDays * OccupancyBitmap.SLOTS_PER_DAY;
+      for (Session session : sessionRepository.findSessionsIntersectingDay(origin, uncoveredEnd)) {
+        if (!PcScheduleIndex.OCCUPYING.contains(session.getStatus())
+            || (pcIds != null && !bitmaps.containsKey(session.getPcId()))) {
+          continue;
+        }
+        OccupancyBitmap.mark(bitmaps.computeIfAbsent(session.getPcId(), id -> new BitSet()),
+            origin, uncoveredSlots, session.getStartTime(), session.getEndTime());
+      }
+    }
 
-    updateSessionsStatuses(sessions);
+    Collection<Long> indexedPcIds = pcIds != null ? pcIds : pcScheduleIndex.indexedPcIds();
+    for (int dayOffset = uncoveredDays; dayOffset < days; dayOffset++) {
+      LocalDate day = startDate.plusDays(dayOffset);
+      int base = dayOffset * OccupancyBitmap.SLOTS_PER_DAY;
+      for (Long pcId : indexedPcIds) {
+        BitSet dayBits = pcScheduleIndex.occupancy(pcId, day);
+        if (dayBits == null) {
+          continue;
+        }
+        BitSet bits = bitmaps.computeIfAbsent(pcId, id -> new BitSet(slotCount));
+        for (int slot = dayBits.nextSetBit(0); slot >= 0; slot = dayBits.nextSetBit(slot + 1)) {
+          bits.set(base + slot);
+        }
+      }
+    }
+
+    Map<Long, String> encoded = new HashMap<>();
+    bitmaps.forEach((pcId, bits) -> encoded.put(pcId, OccupancyBitmap.encode(bits)));
+    return OccupancyDTO.builder()
+        .startDate(startDate)
+        .days(days)
+        .slotMinutes(OccupancyBitmap.SLOT_MINUTES)
+        .slotsPerDay(OccupancyBitmap.SLOTS_PER_DAY)
+        .pcs(encoded)
+        .build();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<SessionResponseDto> getUserSessions(Long userId) {
+    List<Session> sessions = new ArrayList<>(sessionRepository.findAllByUserId(userId));
+    sessions.addAll(sessionArchiveService.findArchivedSessions(userId));
 
     if(sessions.isEmpty()) {
       log.debug("No sessions found for user: {}", userId);
       return List.of();
     }
 
+    return toResponseDtos(sessions);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public SessionPageDTO<SessionResponseDto> getUserSessionsPage(Long userId,
+      SessionFilterDTO filter, String cursor, int limit) {
+    SessionFilterDTO userFilter = SessionFilterDTO.builder()
+        .status(filter.getStatus())
+        .pcId(filter.getPcId())
+        .userId(userId)
+        .from(filter.getFrom())
+        .to(filter.getTo())
+        .build();
+    List<Session> sessions = findPage(userFilter, cursor, limit);
+    LocalDateTime archivedUntil = sessionArchiveService.findArchivedUntil(userId);
+    // a page ending after every archived session can't contain any of them
+    if (archivedUntil != null && (sessions.size() <= limit
+        || sessions.get(sessions.size() - 1).getStartTime().isBefore(archivedUntil))) {
+      sessions = withArchivedSessions(sessions, userFilter, cursor, limit);
+    }
+    return new SessionPageDTO<>(toResponseDtos(sessions.stream().limit(limit).toList()),
+        nextCursor(sessions, limit));
+  }
+
+  /**
+   * Merges the user's archived sessions that match the filter into a page read from the
+   * session table. The page holds every live session newer than its last one,
+   * so the first limit + 1 of the merged list are exactly the next page.
+   */
+  private List<Session> withArchivedSessions(List<Session> sessions, SessionFilterDTO filter,
+      String cursor, int limit) {
+    SessionCursor after = cursor == null || cursor.isBlank() ? null : SessionCursor.decode(cursor);
+    List<Session> archived = sessionArchiveService.findArchivedSessions(filter.getUserId()).stream()
+        .filter(session -> matches(session, filter, after))
+        .toList();
+    return Stream.concat(sessions.stream(), archived.stream())
+        .sorted(Comparator.comparing(Session::getStartTime)
+            .thenComparing(Session::getSessionId)
+            .reversed())
+        .limit(limit + 1L)
+        .toList();
+  }
+
+  // the conditions of SessionSpecifications.page, for sessions that are no longer in the table
+  private static boolean matches(Session session, SessionFilterDTO filter, SessionCursor after) {
+    LocalDateTime start = session.getStartTime();
+    return (filter.getStatus() == null || filter.getStatus() == session.getStatus())
+        && (filter.getPcId() == null || filter.getPcId().equals(session.getPcId()))
+        && (filter.getFrom() == null || !start.isBefore(filter.getFrom()))
+        && (filter.getTo() == null || start.isBefore(filter.getTo()))
+        && (after == null || start.isBefore(after.startTime())
+            || (start.isEqual(after.startTime()) && session.getSessionId() < after.sessionId()));
+  }
+
+  private List<SessionResponseDto> toResponseDtos(List<Session> sessions) {
+    if (sessions.isEmpty()) {
+      return List.of();
+    }
+
     Set<Long> pcIds = sessions.stream().map(Session::getPcId).collect(Collectors.toSet());
-    List<PcResponseDTO> pcs = inventoryServiceClient.getPcInfoByIds(new ArrayList<>(pcIds));
-    Map<Long, PcResponseDTO> pcMap = pcs.stream().collect(Collectors.toMap(PcResponseDTO::getId,
-        pc -> pc));
+    Map<Long, PcResponseDTO> pcMap = pcInfoCache.getAll(pcIds);
 
     return sessions.stream()
         .map(session -> SessionResponseDto.builder()
@@ -100,51 +348,93 @@ public class SessionServiceImpl implements SessionService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Loads limit + 1 sessions after the cursor, the extra row only tells whether a next page exists.
+   */
+  private List<Session> findPage(SessionFilterDTO filter, String cursor, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    SessionCursor after = cursor == null || cursor.isBlank() ? null : SessionCursor.decode(cursor);
+    return sessionRepository.findBy(SessionSpecifications.page(filter, after),
+        query -> query.sortBy(SessionSpecifications.NEWEST_FIRST).limit(limit + 1).all());
+  }
+
+  private String nextCursor(List<Session> sessions, int limit) {
+    return sessions.size() > limit ? SessionCursor.of(sessions.get(limit - 1)).encode() : null;
+  }
+
   @Override
   @Transactional
   public void cancelSession(Long id) {
     Session session = sessionRepository.findById(id).orElseThrow(()->
         new SessionNotFoundException(id));
-    session = updateSessionStatusBasedOnTime(session);
-    if (session.getStatus() == SessionStatus.IN_PROGRESS) {
+    LocalDateTime now = LocalDateTime.now();
+    if (session.getStatus() == SessionStatus.IN_PROGRESS
+        || (now.isAfter(session.getStartTime()) && now.isBefore(session.getEndTime()))) {
       throw new IllegalStateException("Cannot cancel session that is in progress");
     }
-    if (session.getStatus() == SessionStatus.COMPLETED) {
+    if (session.getStatus() == SessionStatus.COMPLETED || now.isAfter(session.getEndTime())) {
       throw new IllegalStateException("Cannot cancel completed session");
     }
+    if (!CANCELLABLE.contains(session.getStatus())) {
+      throw new IllegalStateException("Cannot cancel session in status " + session.getStatus());
+    }
+
+    // a group is paid as one booking, so it is cancelled as one
+    List<Session> cancelled = groupOf(session).stream()
+        .filter(member -> CANCELLABLE.contains(member.getStatus()))
+        .toList();
+    cancelled.forEach(member -> member.setStatus(SessionStatus.CANCELLED));
+    sessionRepository.saveAll(cancelled);
+    tariffRepository.addBookings(session.getTariff().getTariffId(),
+        session.getStartTime().toLocalDate(), -cancelled.size());
+    TransactionUtils.afterCommit(() -> cancelled.forEach(member -> {
+      pcScheduleIndex.remove(member);
+      releaseHold(member);
+    }));
+    cancelled.forEach(occupancyEventProducer::publish);
+
+    for (Session member : cancelled) {
+      if (member.getPaymentId() == null) {
+        // not confirmed yet: if the payment still goes through, updateStatus refunds it
+        log.info("Session {} cancelled before its payment was confirmed",
+            member.getSessionId());
+      } else {
+        enqueueRefund(member);
+      }
+    }
+  }
 
-    session.setStatus(SessionStatus.CANCELLED);
-    sessionRepository.save(session);
+  /**
+   * The session together with the other sessions of its group booking, if any.
+   */
+  private List<Session> groupOf(Session session) {
+    return session.getBookingGroupId() == null
+        ? List.of(session)
+        : sessionRepository.findAllByBookingGroupIdAndStartTime(session.getBookingGroupId(),
+            session.getStartTime());
+  }
 
+  private void enqueueRefund(Session session) {
     RefundMoneyEvent refundMoneyEvent = new RefundMoneyEvent();
     refundMoneyEvent.setUserId(session.getUserId());
     refundMoneyEvent.setPaymentId(session.getPaymentId());
+    refundMoneyEvent.setSessionId(session.getSessionId());
     refundMoneyEvent.setAmount(session.getTotalCost());
-    kafkaTemplate.send("REFUND_MONEYS_EVENT", refundMoneyEvent);
+    outboxService.enqueue("REFUND_MONEYS_EVENT", String.valueOf(session.getUserId()),
+        refundMoneyEvent);
   }
 
   @Override
   public SessionDTO createSession(CreateSessionDTO createSessionDTO, String userId) {
-    LocalDateTime now = LocalDateTime.now();
-    if (createSessionDTO.getStartTime().isBefore(now)) {
-      throw new IllegalArgumentException("Session start time cannot be in the past");
-    }
-
-    if (createSessionDTO.getEndTime().isBefore(createSessionDTO.getStartTime())) {
-      throw new IllegalArgumentException("Session end time cannot be before start time");
-    }
+    validateBookingRange(createSessionDTO.getStartTime(), createSessionDTO.getEndTime());
 
     Tariff tariff = tariffRepository.findById(createSessionDTO.getTariffId()).orElseThrow(() ->
         new TariffNotFoundException(createSessionDTO.getTariffId()));
 
-    long minutes = Duration
-        .between(createSessionDTO.getStartTime(), createSessionDTO.getEndTime()).toMinutes();
-    BigDecimal hours = BigDecimal.valueOf(minutes)
-        .divide(BigDecimal.valueOf(60), 2, RoundingMode.HALF_UP);
-    BigDecimal pricePerHour = tariff.getPrice()
-        .divide(BigDecimal.valueOf(tariff.getHours()), 2, RoundingMode.HALF_UP);
-
-    BigDecimal totalCost = pricePerHour.multiply(hours).setScale(2, RoundingMode.HALF_UP);
+    BigDecimal totalCost = BigDecimal.valueOf(tariffPricingEngine.costCents(tariff,
+        createSessionDTO.getStartTime(), createSessionDTO.getEndTime()), 2);
 
     Session session = Session.builder()
         .pcId(createSessionDTO.getPcId())
@@ -156,102 +446,287 @@ public class SessionServiceImpl implements SessionService {
         .status(SessionStatus.PENDING)
         .build();
 
-    Session savedSession = sessionRepository.save(session);
-
-    CreateOrderEvent createOrderEvent = new CreateOrderEvent();
-    createOrderEvent.setOrderId(savedSession.getSessionId());
-    createOrderEvent.setUserId(savedSession.getUserId());
-    createOrderEvent.setAmount(savedSession.getTotalCost());
-
-    kafkaTemplate.send("CREATE_BOOKING", createOrderEvent);
+    slotHoldService.hold(session.getUserId(), session.getPcId(), session.getStartTime(),
+        session.getEndTime());
+    Session savedSession = null;
+    try {
+      savedSession = saveWithoutOverlap(session);
+    } finally {
+      // whatever failed, the slot must not stay held until the hold expires
+      if (savedSession == null) {
+        releaseHold(session);
+      }
+    }
+    pcScheduleIndex.add(savedSession);
+    occupancyEventProducer.publish(savedSession);
 
     return sessionMapper.toDTO(savedSession);
   }
 
   @Override
-  @Transactional
-  public void updateStatus(Long paymentId, Long orderId, OperationType status) {
-    Session session = sessionRepository.findById(orderId).orElseThrow(()->
-        new OrderNotFoundException(orderId));
-    session.setPaymentId(paymentId);
-    if (status == OperationType.ERROR) {
-      session.setStatus(SessionStatus.ERROR);
-    } else {
-      session.setStatus(SessionStatus.PAID);
+  public List<SessionDTO> createGroupSession(CreateGroupSessionDTO createGroupSessionDTO,
+      String userId) {
+    List<Long> requestedPcIds = createGroupSessionDTO.getPcIds();
+    if (requestedPcIds == null || requestedPcIds.isEmpty()) {
+      throw new IllegalArgumentException("Group booking needs at least one PC");
     }
+    List<Long> pcIds = requestedPcIds.stream().distinct().sorted().toList();
+    if (pcIds.size() != requestedPcIds.size()) {
+      throw new IllegalArgumentException("Group booking contains duplicate PCs");
+    }
+    if (pcIds.size() > MAX_GROUP_SIZE) {
+      throw new IllegalArgumentException("Group booking cannot include more than "
+          + MAX_GROUP_SIZE + " PCs");
+    }
+    validateBookingRange(createGroupSessionDTO.getStartTime(), createGroupSessionDTO.getEndTime());
 
-    sessionRepository.save(session);
+    Map<Long, PcResponseDTO> pcs = pcInfoCache.getAll(pcIds);
+    List<Long> unknownPcIds = pcIds.stream().filter(pcId -> !pcs.containsKey(pcId)).toList();
+    if (!unknownPcIds.isEmpty()) {
+      throw new IllegalArgumentException("Unknown PCs: " + unknownPcIds);
+    }
 
-    if (status == OperationType.SUCCESS) {
-      updateSessionStatusBasedOnTime(session);
+    Tariff tariff = tariffRepository.findById(createGroupSessionDTO.getTariffId())
+        .orElseThrow(() -> new TariffNotFoundException(createGroupSessionDTO.getTariffId()));
+    BigDecimal costPerPc = BigDecimal.valueOf(tariffPricingEngine.costCents(tariff,
+        createGroupSessionDTO.getStartTime(), createGroupSessionDTO.getEndTime()), 2);
+
+    List<Session> sessions = pcIds.stream()
+        .map(pcId -> Session.builder()
+            .pcId(pcId)
+            .userId(Long.valueOf(userId))
+            .tariff(tariff)
+            .totalCost(costPerPc)
+            .startTime(createGroupSessionDTO.getStartTime())
+            .endTime(createGroupSessionDTO.getEndTime())
+            .status(SessionStatus.PENDING)
+            .build())
+        .toList();
+
+    List<Session> heldSessions = new ArrayList<>(sessions.size());
+    List<Session> savedSessions = null;
+    try {
+      for (Session session : sessions) {
+        slotHoldService.hold(session.getUserId(), session.getPcId(), session.getStartTime(),
+            session.getEndTime());
+        heldSessions.add(session);
+      }
+      savedSessions = saveGroupWithoutOverlap(sessions);
+    } finally {
+      if (savedSessions == null) {
+        heldSessions.forEach(this::releaseHold);
+      }
     }
+    savedSessions.forEach(pcScheduleIndex::add);
+    savedSessions.forEach(occupancyEventProducer::publish);
+
+    return savedSessions.stream().map(sessionMapper::toDTO).toList();
   }
 
   @Override
-  public List<SessionDTO> getAllSessions() {
-    List<Session> sessions = sessionRepository.findAll();
-    updateSessionsStatuses(sessions);
-    return sessions.stream().map(sessionMapper::toDTO).collect(Collectors.toList());
+  public SlotHoldDTO holdSlot(SlotHoldDTO slotHoldDTO, String userId) {
+    validateBookingRange(slotHoldDTO.getStartTime(), slotHoldDTO.getEndTime());
+    if (!slotHoldDTO.getStartTime().isBefore(pcScheduleIndex.coveredFrom())
+        && !pcScheduleIndex.isFree(slotHoldDTO.getPcId(), slotHoldDTO.getStartTime(),
+            slotHoldDTO.getEndTime())) {
+      throw new SessionOverlapException(slotHoldDTO.getPcId());
+    }
+
+    LocalDateTime expiresAt = slotHoldService.hold(Long.valueOf(userId), slotHoldDTO.getPcId(),
+        slotHoldDTO.getStartTime(), slotHoldDTO.getEndTime());
+    return SlotHoldDTO.builder()
+        .pcId(slotHoldDTO.getPcId())
+        .startTime(slotHoldDTO.getStartTime())
+        .endTime(slotHoldDTO.getEndTime())
+        .expiresAt(expiresAt)
+        .build();
   }
 
   @Override
-  public SessionDTO getSessionById(Long id) {
-    Session session = sessionRepository.findById(id)
-        .orElseThrow(() -> new SessionNotFoundException(id));
-    log.info(session.toString() + " with id {}", id);
-    session = updateSessionStatusBasedOnTime(session);
-    log.info(session.toString());
-    return sessionMapper.toDTO(session);
+  public void releaseSlot(SlotHoldDTO slotHoldDTO, String userId) {
+    slotHoldService.release(Long.valueOf(userId), slotHoldDTO.getPcId(),
+        slotHoldDTO.getStartTime(), slotHoldDTO.getEndTime());
   }
 
-  private Session updateSessionStatusBasedOnTime(Session session){
-    LocalDateTime now = LocalDateTime.now();
-    if(now.isAfter(session.getStartTime()) && now.isBefore(session.getEndTime())){
-      session.setStatus(SessionStatus.IN_PROGRESS);
-    }else if(now.isAfter(session.getEndTime())){
-      session.setStatus(SessionStatus.COMPLETED);
-    } else {
-      return session;
-    }
-    return sessionRepository.save(session);
+  private void releaseHold(Session session) {
+    slotHoldService.release(session.getUserId(), session.getPcId(), session.getStartTime(),
+        session.getEndTime());
   }
 
-  private void updateSessionsStatuses(List<Session> sessions) {
-    LocalDateTime now = LocalDateTime.now();
-    List<Session> sessionsToUpdate = new ArrayList<>();
-
-    for (Session session : sessions) {
-      if (session.getStatus() == SessionStatus.COMPLETED ||
-          session.getStatus() == SessionStatus.CANCELLED ||
-          session.getStatus() == SessionStatus.ERROR ||
-          session.getStatus() == SessionStatus.REFUNDED ||
-          session.getStatus() == SessionStatus.NOT_SHOW) {
-        continue;
-      }
+  private void validateBookingRange(LocalDateTime startTime, LocalDateTime endTime) {
+    if (startTime.isBefore(LocalDateTime.now())) {
+      throw new IllegalArgumentException("Session start time cannot be in the past");
+    }
 
-      SessionStatus newStatus = null;
+    if (endTime.isBefore(startTime)) {
+      throw new IllegalArgumentException("Session end time cannot be before start time");
+    }
 
-      if(now.isAfter(session.getStartTime()) && now.isBefore(session.getEndTime())){
-        if (session.getStatus() != SessionStatus.IN_PROGRESS) {
-          newStatus = SessionStatus.IN_PROGRESS;
+    if (startTime.plus(Session.MAX_DURATION).isBefore(endTime)) {
+      throw new IllegalArgumentException("Session cannot be longer than "
+          + Session.MAX_DURATION.toHours() + " hours");
+    }
+  }
+
+  /**
+   * Saves the session unless another active booking of the same PC intersects it.
+   * Same-PC bookings queue on a local striped lock first, so waiters don't hold
+   * DB connections, then on a Postgres advisory lock shared by all instances.
+   * The booking is counted towards its tariff's popularity and its CREATE_BOOKING event
+   * is put into the outbox in the same transaction.
+   */
+  private Session saveWithoutOverlap(Session session) {
+    Long pcId = session.getPcId();
+    Lock pcLock = pcBookingLocks.get(pcId);
+    pcLock.lock();
+    try {
+      return transactionTemplate.execute(status -> {
+        sessionRepository.lockPcForBooking(pcId);
+        if (sessionRepository.existsOverlapping(pcId, PcScheduleIndex.OCCUPYING,
+            session.getStartTime(), session.getEndTime())) {
+          throw new SessionOverlapException(pcId);
         }
-      } else if(now.isAfter(session.getEndTime())){
-        if (session.getStatus() != SessionStatus.COMPLETED) {
-          newStatus = SessionStatus.COMPLETED;
+        Session savedSession = sessionRepository.save(session);
+        tariffRepository.addBookings(session.getTariff().getTariffId(),
+            session.getStartTime().toLocalDate(), 1);
+
+        CreateOrderEvent createOrderEvent = new CreateOrderEvent();
+        createOrderEvent.setOrderId(savedSession.getSessionId());
+        createOrderEvent.setUserId(savedSession.getUserId());
+        createOrderEvent.setAmount(savedSession.getTotalCost());
+        outboxService.enqueue("CREATE_BOOKING", String.valueOf(savedSession.getUserId()),
+            createOrderEvent);
+        return savedSession;
+      });
+    } finally {
+      pcLock.unlock();
+    }
+  }
+
+  /**
+   * Group version of {@link #saveWithoutOverlap}: takes the local and advisory locks of all PCs
+   * in a fixed order, checks them for overlaps with one query and inserts every session
+   * as one JDBC batch. The group gets a shared booking_group_id and a single CREATE_BOOKING
+   * event for the summed cost, ordered under the id of its first session.
+   */
+  private List<Session> saveGroupWithoutOverlap(List<Session> sessions) {
+    Session first = sessions.get(0);
+    List<Long> pcIds = sessions.stream().map(Session::getPcId).toList();
+    List<Lock> pcLocks = pcBookingLocks.getAll(pcIds);
+    pcLocks.forEach(Lock::lock);
+    try {
+      return transactionTemplate.execute(status -> {
+        sessionRepository.lockPcsForBooking(pcIds);
+        List<Long> busyPcIds = sessionRepository.findOverlappingPcIds(pcIds,
+            PcScheduleIndex.OCCUPYING, first.getStartTime(), first.getEndTime());
+        if (!busyPcIds.isEmpty()) {
+          throw new SessionOverlapException(busyPcIds);
         }
-      }
+        Long bookingGroupId = sessionRepository.nextBookingGroupId();
+        sessions.forEach(session -> session.setBookingGroupId(bookingGroupId));
+        List<Session> savedSessions = sessionRepository.saveAll(sessions);
+        tariffRepository.addBookings(first.getTariff().getTariffId(),
+            first.getStartTime().toLocalDate(), savedSessions.size());
+
+        CreateOrderEvent createOrderEvent = new CreateOrderEvent();
+        createOrderEvent.setOrderId(savedSessions.get(0).getSessionId());
+        createOrderEvent.setUserId(first.getUserId());
+        createOrderEvent.setAmount(savedSessions.stream()
+            .map(Session::getTotalCost)
+            .reduce(BigDecimal.ZERO, BigDecimal::add));
+        outboxService.enqueue("CREATE_BOOKING", String.valueOf(first.getUserId()),
+            createOrderEvent);
+        return savedSessions;
+      });
+    } finally {
+      pcLocks.forEach(Lock::unlock);
+    }
+  }
 
-      if (newStatus != null) {
-        log.info("Session {} status changed from {} to {}",
-            session.getSessionId(), session.getStatus(), newStatus);
-        session.setStatus(newStatus);
-        sessionsToUpdate.add(session);
+  @Override
+  @Transactional
+  public void updateStatus(Long paymentId, Long orderId, OperationType status) {
+    Session session = sessionRepository.findById(orderId).orElseThrow(()->
+        new OrderNotFoundException(orderId));
+    // routed by group rather than by the lead's status: the lead may have been cancelled
+    List<Session> group = groupOf(session);
+    List<Session> paidSessions = group.stream()
+        .filter(member -> member.getStatus() == SessionStatus.PENDING)
+        .toList();
+    List<Session> cancelledUnpaid = group.stream()
+        .filter(member -> member.getStatus() == SessionStatus.CANCELLED
+            && member.getPaymentId() == null)
+        .toList();
+    if (paidSessions.isEmpty() && cancelledUnpaid.isEmpty()) {
+      log.warn("Ignoring payment result {} for session {} in status {}",
+          status, orderId, session.getStatus());
+      return;
+    }
+    // cancelled while the payment was pending: the charge covered them too, give it back
+    for (Session cancelled : cancelledUnpaid) {
+      cancelled.setPaymentId(paymentId);
+      if (status == OperationType.SUCCESS) {
+        enqueueRefund(cancelled);
       }
     }
+    sessionRepository.saveAll(cancelledUnpaid);
+
+    for (Session paidSession : paidSessions) {
+      paidSession.setPaymentId(paymentId);
+      if (status == OperationType.ERROR) {
+        paidSession.setStatus(SessionStatus.ERROR);
+      } else {
+        paidSession.setStatus(SessionStatus.PAID);
+      }
+    }
+
+    sessionRepository.saveAll(paidSessions);
 
-    if (!sessionsToUpdate.isEmpty()) {
-      sessionRepository.saveAll(sessionsToUpdate);
-      log.info("Saved {} updated sessions to database", sessionsToUpdate.size());
+    if (status == OperationType.SUCCESS) {
+      paidSessions.forEach(sessionLifecycleService::schedule);
+    } else {
+      TransactionUtils.afterCommit(() -> paidSessions.forEach(pcScheduleIndex::remove));
     }
+    // the checkout is over either way, a paid session now occupies the slot by itself
+    TransactionUtils.afterCommit(() -> paidSessions.forEach(this::releaseHold));
+    paidSessions.forEach(occupancyEventProducer::publish);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<SessionDTO> getAllSessions() {
+    return sessionRepository.findAllRows().stream()
+        .map(this::toSessionDto)
+        .collect(Collectors.toList());
+  }
+
+  private SessionDTO toSessionDto(SessionRow row) {
+    TariffDTO tariff = TariffDTO.builder()
+        .tariffId(row.tariffId())
+        .name(row.tariffName())
+        .price(row.tariffPrice())
+        .isVip(Boolean.TRUE.equals(row.tariffVip()))
+        .hours(row.tariffHours())
+        .build();
+    return new SessionDTO(row.sessionId(), row.userId(), row.pcId(), tariff, row.startTime(),
+        row.endTime(), row.totalCost(), row.status());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public SessionPageDTO<SessionDTO> getSessionsPage(SessionFilterDTO filter, String cursor,
+      int limit) {
+    List<Session> sessions = findPage(filter, cursor, limit);
+    return new SessionPageDTO<>(
+        sessions.stream().limit(limit).map(sessionMapper::toDTO).toList(),
+        nextCursor(sessions, limit));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public SessionDTO getSessionById(Long id) {
+    Session session = sessionRepository.findById(id)
+        .orElseThrow(() -> new SessionNotFoundException(id));
+    return sessionMapper.toDTO(session);
   }
 }
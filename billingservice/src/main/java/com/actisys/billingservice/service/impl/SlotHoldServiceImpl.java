@@ -0,0 +1,102 @@
+package com.actisys.billingservice.service.impl;
+
+import com.actisys.billingservice.exception.SlotHeldException;
+import com.actisys.billingservice.service.SlotHoldService;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Checkout holds kept in Redis, one sorted set of holds per PC scored by expiry.
+ * Acquiring and querying run as Lua scripts, so the conflict check and the write are atomic
+ * across replicas, and expired holds disappear by themselves without touching the database.
+ * Holds only shorten the race for a slot, the database overlap check stays authoritative,
+ * so Redis being unavailable lets bookings through instead of failing them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotHoldServiceImpl implements SlotHoldService {
+
+  private static final String KEY_PREFIX = "billing:slot-holds:";
+
+  private static final RedisScript<Long> ACQUIRE = RedisScript.of(
+      new ClassPathResource("redis/acquire-slot-hold.lua"), Long.class);
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> FIND_HELD = RedisScript.of(
+      new ClassPathResource("redis/find-held-pcs.lua"), List.class);
+
+  private final StringRedisTemplate redisTemplate;
+
+  @Value("${billing.holds.ttl-seconds:600}")
+  private long ttlSeconds;
+
+  @Override
+  public LocalDateTime hold(Long userId, Long pcId, LocalDateTime start, LocalDateTime end) {
+    Long expiresAt;
+    try {
+      expiresAt = redisTemplate.execute(ACQUIRE, List.of(key(pcId)), String.valueOf(userId),
+          epochSecond(start), epochSecond(end), String.valueOf(ttlSeconds * 1000));
+    } catch (DataAccessException e) {
+      log.warn("Slot hold for pc {} skipped, Redis is unavailable", pcId, e);
+      return LocalDateTime.now().plusSeconds(ttlSeconds);
+    }
+    if (expiresAt == null || expiresAt == 0) {
+      throw new SlotHeldException(pcId);
+    }
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault());
+  }
+
+  @Override
+  public void release(Long userId, Long pcId, LocalDateTime start, LocalDateTime end) {
+    try {
+      redisTemplate.opsForZSet().remove(key(pcId),
+          userId + ":" + epochSecond(start) + ":" + epochSecond(end));
+    } catch (DataAccessException e) {
+      log.warn("Slot hold for pc {} not released, it will expire", pcId, e);
+    }
+  }
+
+  @Override
+  public Set<Long> findHeldPcIds(Collection<Long> pcIds, LocalDateTime from, LocalDateTime to) {
+    if (pcIds.isEmpty()) {
+      return Set.of();
+    }
+    List<Long> candidates = List.copyOf(pcIds);
+    List<?> positions;
+    try {
+      positions = redisTemplate.execute(FIND_HELD,
+          candidates.stream().map(this::key).toList(), epochSecond(from), epochSecond(to));
+    } catch (DataAccessException e) {
+      log.warn("Slot holds ignored, Redis is unavailable", e);
+      return Set.of();
+    }
+    if (positions == null) {
+      return Set.of();
+    }
+    return positions.stream()
+        .map(position -> candidates.get(((Number) position).intValue() - 1))
+        .collect(Collectors.toSet());
+  }
+
+  private String key(Long pcId) {
+    return KEY_PREFIX + pcId;
+  }
+
+  private String epochSecond(LocalDateTime time) {
+    return String.valueOf(time.toEpochSecond(ZoneOffset.UTC));
+  }
+}
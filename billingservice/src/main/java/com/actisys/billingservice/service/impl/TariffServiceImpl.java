@@ -1,13 +1,19 @@
 package com.actisys.billingservice.service.impl;
 
 import com.actisys.billingservice.dto.TariffDtos.CreateTariffDTO;
+import com.actisys.billingservice.dto.TariffDtos.QuoteDTO;
+import com.actisys.billingservice.dto.TariffDtos.QuoteRequestDTO;
 import com.actisys.billingservice.dto.TariffDtos.TariffDTO;
 import com.actisys.billingservice.exception.TariffAlreadyExistsException;
 import com.actisys.billingservice.exception.TariffNotFoundException;
 import com.actisys.billingservice.mapper.TariffMapper;
 import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.pricing.TariffPricingEngine;
 import com.actisys.billingservice.repository.TariffRepository;
 import com.actisys.billingservice.service.TariffService;
+import com.actisys.billingservice.util.TransactionUtils;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -15,7 +21,6 @@ import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +30,9 @@ public class TariffServiceImpl implements TariffService {
 
   private final TariffRepository tariffRepository;
   private final TariffMapper tariffMapper;
+  private final TariffPricingEngine tariffPricingEngine;
+
+  private static final int MAX_POPULARITY_DAYS = 365;
 
   @Override
   @Cacheable(value = "allTariffs", key = "'all'")
@@ -47,6 +55,7 @@ public class TariffServiceImpl implements TariffService {
         .hours(tariffForCreateDTO.getHours())
         .build();
     Tariff createdTariff = tariffRepository.save(tariff);
+    TransactionUtils.afterCommit(tariffPricingEngine::reload);
     return tariffMapper.toDTO(createdTariff);
   }
 
@@ -64,7 +73,9 @@ public class TariffServiceImpl implements TariffService {
     tariff.setPrice(updatedTariff.getPrice());
     tariff.setIsVip(updatedTariff.isVip());
     tariff.setHours(updatedTariff.getHours());
-    return tariffMapper.toDTO(tariffRepository.save(tariff));
+    Tariff savedTariff = tariffRepository.save(tariff);
+    TransactionUtils.afterCommit(tariffPricingEngine::reload);
+    return tariffMapper.toDTO(savedTariff);
   }
 
   @Override
@@ -74,12 +85,18 @@ public class TariffServiceImpl implements TariffService {
     Tariff tariff = tariffRepository.findById(id)
         .orElseThrow(() -> new TariffNotFoundException(id));
     tariffRepository.delete(tariff);
+    TransactionUtils.afterCommit(tariffPricingEngine::reload);
   }
 
   @Override
-  @Cacheable(value = "allTariffs", key = "'top3'")
-  public List<TariffDTO> getPopularTariffs() {
-    List<Tariff> tariffs = tariffRepository.findPopularTariffs(Limit.of(3));
+  @Cacheable(value = "allTariffs", key = "'top3:' + #days")
+  public List<TariffDTO> getPopularTariffs(int days) {
+    if (days < 1 || days > MAX_POPULARITY_DAYS) {
+      throw new IllegalArgumentException(
+          "Popularity window must be between 1 and " + MAX_POPULARITY_DAYS + " days");
+    }
+    LocalDate since = LocalDate.now().minusDays(days - 1);
+    List<Tariff> tariffs = tariffRepository.findPopularTariffs(since, 3);
     if(tariffs.size() < 3){
       Set<Tariff> uniqueTariffs = new LinkedHashSet<>(tariffs);
       uniqueTariffs.addAll(tariffRepository.findFirst3By());
@@ -89,4 +106,26 @@ public class TariffServiceImpl implements TariffService {
     }
     return tariffs.stream().map(tariffMapper::toDTO).collect(Collectors.toList());
   }
+
+  @Override
+  public List<QuoteDTO> quote(List<QuoteRequestDTO> requests) {
+    if (requests.size() > MAX_QUOTE_BATCH) {
+      throw new IllegalArgumentException("At most " + MAX_QUOTE_BATCH + " quotes per request");
+    }
+    for (QuoteRequestDTO request : requests) {
+      if (request == null || request.getTariffId() == null || request.getStartTime() == null
+          || request.getEndTime() == null) {
+        throw new IllegalArgumentException("Every quote needs a tariff, a start and an end time");
+      }
+    }
+    return requests.stream()
+        .map(request -> QuoteDTO.builder()
+            .tariffId(request.getTariffId())
+            .startTime(request.getStartTime())
+            .endTime(request.getEndTime())
+            .totalCost(BigDecimal.valueOf(tariffPricingEngine.quoteCents(request.getTariffId(),
+                request.getStartTime(), request.getEndTime()), 2))
+            .build())
+        .toList();
+  }
 }
@@ -0,0 +1,197 @@
+package com.actisys.billingservice.stream;
+
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDeltaDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans occupancy deltas out to every SSE connection open on this replica.
+ * Each delta is serialized once and queued by a single dispatcher thread into a bounded
+ * backlog per client; a pool of sender threads drains each backlog in order, one client
+ * at a time. A slow browser therefore only occupies one sender and never delays the others,
+ * and a client whose backlog fills up is disconnected, EventSource reconnects and resyncs.
+ * The dispatcher sends a comment when nothing happened for a heartbeat interval,
+ * which keeps proxies from closing idle streams and drops clients that went away.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OccupancyStream {
+
+  private static final int MAX_PENDING = 10_000;
+  private static final int MAX_BACKLOG = 1_000;
+
+  // never a serialized delta, those are JSON objects
+  private static final String PING = "";
+
+  private final ObjectMapper objectMapper;
+
+  private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+  private final BlockingQueue<String> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+
+  @Value("${billing.occupancy-stream.timeout-ms:1800000}")
+  private long timeoutMs;
+
+  @Value("${billing.occupancy-stream.heartbeat-ms:15000}")
+  private long heartbeatMs;
+
+  @Value("${billing.occupancy-stream.sender-threads:8}")
+  private int senderThreads;
+
+  private Thread dispatcher;
+  private ExecutorService senders;
+
+  @PostConstruct
+  public void start() {
+    AtomicInteger senderCount = new AtomicInteger();
+    senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+      Thread sender = new Thread(runnable, "occupancy-sender-" + senderCount.incrementAndGet());
+      sender.setDaemon(true);
+      return sender;
+    });
+    dispatcher = new Thread(this::dispatch, "occupancy-stream");
+    dispatcher.setDaemon(true);
+    dispatcher.start();
+  }
+
+  @PreDestroy
+  public void stop() {
+    dispatcher.interrupt();
+    senders.shutdownNow();
+    subscribers.keySet().forEach(SseEmitter::complete);
+  }
+
+  /**
+   * Opens a stream for one client. It ends after the configured timeout,
+   * EventSource then reconnects by itself.
+   */
+  public SseEmitter subscribe() {
+    SseEmitter emitter = createEmitter(timeoutMs);
+    emitter.onCompletion(() -> subscribers.remove(emitter));
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(e -> subscribers.remove(emitter));
+    subscribers.put(emitter, new Subscriber(emitter));
+    return emitter;
+  }
+
+  /**
+   * Queues the delta for every client connected to this replica.
+   * Deltas are dropped when clients fall too far behind, they resync on reconnect.
+   */
+  public void publish(OccupancyDeltaDTO delta) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    try {
+      if (!pending.offer(objectMapper.writeValueAsString(delta))) {
+        log.warn("Occupancy stream is full, dropping delta for pc {}", delta.getPcId());
+      }
+    } catch (JsonProcessingException e) {
+      log.error("Failed to serialize occupancy delta for pc {}", delta.getPcId(), e);
+    }
+  }
+
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  protected SseEmitter createEmitter(long timeoutMs) {
+    return new SseEmitter(timeoutMs);
+  }
+
+  private void dispatch() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        String data = pending.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+        for (Subscriber subscriber : subscribers.values()) {
+          subscriber.enqueue(data == null ? PING : data);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void disconnect(SseEmitter emitter, Throwable cause) {
+    subscribers.remove(emitter);
+    if (cause == null) {
+      emitter.complete();
+    } else {
+      emitter.completeWithError(cause);
+    }
+  }
+
+  /**
+   * Backlog of one client, drained by at most one sender at a time so its events stay in order.
+   */
+  private class Subscriber {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<String> backlog = new ArrayBlockingQueue<>(MAX_BACKLOG);
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    void enqueue(String data) {
+      if (!backlog.offer(data)) {
+        log.warn("Occupancy stream client fell {} events behind, disconnecting it", MAX_BACKLOG);
+        disconnect(emitter, null);
+        return;
+      }
+      if (draining.compareAndSet(false, true)) {
+        try {
+          senders.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+          draining.set(false);
+        }
+      }
+    }
+
+    private void drain() {
+      do {
+        String data;
+        while ((data = backlog.poll()) != null) {
+          if (!send(data)) {
+            backlog.clear();
+            return;
+          }
+        }
+        draining.set(false);
+        // an event queued after the last poll but before the flag was cleared
+      } while (!backlog.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private boolean send(String data) {
+      try {
+        emitter.send(PING.equals(data)
+            ? SseEmitter.event().comment("ping")
+            : SseEmitter.event().name("occupancy").data(data));
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        disconnect(emitter, e);
+        return false;
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.actisys.billingservice.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.BitSet;
+
+/**
+ * Occupancy of a PC as a bitset of 15-minute slots counted from some origin:
+ * bit i is set when anything is booked in [origin + 15i min, origin + 15(i + 1) min).
+ */
+public final class OccupancyBitmap {
+
+  public static final int SLOT_MINUTES = 15;
+  public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+  private static final long SLOT_SECONDS = SLOT_MINUTES * 60L;
+
+  private OccupancyBitmap() {
+  }
+
+  /**
+   * Sets every slot touched by [start, end) that lies within the first slotCount slots.
+   */
+  public static void mark(BitSet bits, LocalDateTime origin, int slotCount,
+      LocalDateTime start, LocalDateTime end) {
+    long first = Math.floorDiv(Duration.between(origin, start).toSeconds(), SLOT_SECONDS);
+    long last = -Math.floorDiv(-Duration.between(origin, end).toSeconds(), SLOT_SECONDS);
+    int from = (int) Math.max(0, first);
+    int to = (int) Math.min(slotCount, last);
+    if (from < to) {
+      bits.set(from, to);
+    }
+  }
+
+  /**
+   * Little-endian bytes of the bitset in base64, trailing empty bytes are omitted.
+   */
+  public static String encode(BitSet bits) {
+    return Base64.getEncoder().encodeToString(bits.toByteArray());
+  }
+}
@@ -0,0 +1,37 @@
+package com.actisys.billingservice.util;
+
+import com.actisys.billingservice.model.Session;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (start_time DESC, session_id DESC) ordering,
+ * passed to clients as an opaque url-safe token.
+ */
+public record SessionCursor(LocalDateTime startTime, Long sessionId) {
+
+  private static final String SEPARATOR = "|";
+
+  public static SessionCursor of(Session session) {
+    return new SessionCursor(session.getStartTime(), session.getSessionId());
+  }
+
+  public static SessionCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(SEPARATOR);
+      return new SessionCursor(LocalDateTime.parse(raw.substring(0, separator)),
+          Long.valueOf(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid session cursor: " + token);
+    }
+  }
+
+  public String encode() {
+    String raw = startTime + SEPARATOR + sessionId;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
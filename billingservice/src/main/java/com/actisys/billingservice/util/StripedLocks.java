@@ -0,0 +1,43 @@
+package com.actisys.billingservice.util;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by hash of the key, so unrelated keys
+ * rarely contend while memory stays bounded.
+ */
+public final class StripedLocks {
+
+  private final Lock[] locks;
+
+  public StripedLocks(int stripes) {
+    locks = new Lock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  public Lock get(long key) {
+    return locks[stripe(key)];
+  }
+
+  /**
+   * Distinct locks of the given keys in stripe order. Callers taking several locks
+   * acquire them in this order, so two of them can never wait on each other.
+   */
+  public List<Lock> getAll(Collection<Long> keys) {
+    return keys.stream()
+        .map(this::stripe)
+        .distinct()
+        .sorted()
+        .map(stripe -> locks[stripe])
+        .toList();
+  }
+
+  private int stripe(long key) {
+    return Math.floorMod(Long.hashCode(key), locks.length);
+  }
+}
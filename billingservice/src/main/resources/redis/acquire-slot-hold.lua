@@ -0,0 +1,22 @@
+-- Holds of one PC live in a sorted set scored by their expiry time in ms,
+-- members are "userId:startEpochSecond:endEpochSecond".
+-- KEYS[1] = holds of the PC, ARGV = userId, start, end, ttl in ms.
+-- Returns the expiry time of the hold, or 0 if another user holds an intersecting range.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)
+
+local rangeStart = tonumber(ARGV[2])
+local rangeEnd = tonumber(ARGV[3])
+for _, hold in ipairs(redis.call('ZRANGE', KEYS[1], 0, -1)) do
+  local user, holdStart, holdEnd = string.match(hold, '^(%d+):(%-?%d+):(%-?%d+)$')
+  if user ~= ARGV[1] and tonumber(holdStart) < rangeEnd and tonumber(holdEnd) > rangeStart then
+    return 0
+  end
+end
+
+local expiresAt = now + tonumber(ARGV[4])
+redis.call('ZADD', KEYS[1], expiresAt, ARGV[1] .. ':' .. ARGV[2] .. ':' .. ARGV[3])
+local latest = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')
+redis.call('PEXPIREAT', KEYS[1], latest[2])
+return expiresAt
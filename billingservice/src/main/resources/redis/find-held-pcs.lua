@@ -0,0 +1,18 @@
+-- KEYS = holds of the candidate PCs, ARGV = range start, range end in epoch seconds.
+-- Returns 1-based positions of the keys with a live hold intersecting the range.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local rangeStart = tonumber(ARGV[1])
+local rangeEnd = tonumber(ARGV[2])
+local held = {}
+for i, key in ipairs(KEYS) do
+  for _, hold in ipairs(redis.call('ZRANGEBYSCORE', key, '(' .. now, '+inf')) do
+    local holdStart, holdEnd = string.match(hold, '^%d+:(%-?%d+):(%-?%d+)$')
+    if tonumber(holdStart) < rangeEnd and tonumber(holdEnd) > rangeStart then
+      table.insert(held, i)
+      break
+    end
+  end
+end
+return held
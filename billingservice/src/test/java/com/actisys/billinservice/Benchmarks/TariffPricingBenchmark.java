@@ -0,0 +1,91 @@
+package com.actisys.billinservice.Benchmarks;
+
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.pricing.TariffPricingEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices one session with the fixed-point engine and with the BigDecimal division
+ * that createSession used before it, over the same random tariffs and durations.
+ * Run with -Dtest=TariffPricingBenchmark -Dbenchmark=true.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TariffPricingBenchmark {
+
+  private static final int INPUTS = 1024;
+  private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+  private final TariffPricingEngine pricingEngine = new TariffPricingEngine(null);
+
+  private Tariff[] tariffs;
+  private LocalDateTime[] ends;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    tariffs = new Tariff[INPUTS];
+    ends = new LocalDateTime[INPUTS];
+    for (int i = 0; i < INPUTS; i++) {
+      tariffs[i] = Tariff.builder()
+          .tariffId((long) i)
+          .price(BigDecimal.valueOf(random.nextInt(1_000_000), 2))
+          .hours(1 + random.nextInt(24))
+          .build();
+      ends[i] = START.plusMinutes(15 + random.nextInt(60 * 24));
+    }
+  }
+
+  @Benchmark
+  public long fixedPoint() {
+    int i = next++ & (INPUTS - 1);
+    return pricingEngine.costCents(tariffs[i], START, ends[i]);
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimal() {
+    int i = next++ & (INPUTS - 1);
+    Tariff tariff = tariffs[i];
+    long minutes = Duration.between(START, ends[i]).toMinutes();
+    BigDecimal hours = BigDecimal.valueOf(minutes)
+        .divide(BigDecimal.valueOf(60), 2, RoundingMode.HALF_UP);
+    BigDecimal pricePerHour = tariff.getPrice()
+        .divide(BigDecimal.valueOf(tariff.getHours()), 2, RoundingMode.HALF_UP);
+    return pricePerHour.multiply(hours).setScale(2, RoundingMode.HALF_UP);
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void run() throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(TariffPricingBenchmark.class.getName())
+        .build()).run();
+  }
+}
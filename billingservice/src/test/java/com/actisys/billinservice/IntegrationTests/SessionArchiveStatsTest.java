@@ -0,0 +1,154 @@
+package com.actisys.billinservice.IntegrationTests;
+
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.model.UserSessionStats;
+import com.actisys.billingservice.repository.SessionRepository;
+import com.actisys.billingservice.repository.UserSessionStatsRepository;
+import com.actisys.billingservice.service.SessionArchiveService;
+import com.actisys.billingservice.service.impl.SessionArchiveServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Archives an expired partition and rebuilds user stats on the real schema:
+ * sessions moved to session_archive must still be counted.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Import(SessionArchiveServiceImpl.class)
+class SessionArchiveStatsTest {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @SpringBootConfiguration
+  @EntityScan(basePackageClasses = Session.class)
+  @EnableJpaRepositories(basePackageClasses = SessionRepository.class)
+  static class Config {
+
+    @Bean
+    ObjectMapper objectMapper() {
+      return new ObjectMapper().findAndRegisterModules();
+    }
+  }
+
+  @Autowired
+  private SessionArchiveService sessionArchiveService;
+
+  @Autowired
+  private UserSessionStatsRepository userSessionStatsRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  // far enough back for any retention horizon
+  private final LocalDateTime archivedMonth = LocalDateTime.of(2020, 1, 1, 0, 0);
+  private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+  private Tariff tariff;
+
+  @BeforeEach
+  void setUp() {
+    tariff = entityManager.persistAndFlush(Tariff.builder()
+        .name("Standard")
+        .price(BigDecimal.valueOf(5))
+        .isVip(false)
+        .hours(1)
+        .build());
+    jdbcTemplate.queryForObject("SELECT create_session_partition(?)", Boolean.class,
+        archivedMonth.toLocalDate());
+    jdbcTemplate.queryForObject("SELECT create_session_partition(?)", Boolean.class,
+        YearMonth.from(now).atDay(1));
+
+    insertSession(7L, archivedMonth.plusDays(3), 90, "COMPLETED");
+    insertSession(7L, archivedMonth.plusDays(4), 31, "COMPLETED");
+    insertSession(7L, archivedMonth.plusDays(5), 60, "CANCELLED");
+    insertSession(8L, archivedMonth.plusDays(6), 120, "COMPLETED");
+    insertSession(7L, now.minusHours(3), 45, "COMPLETED");
+  }
+
+  @Test
+  void rebuild_shouldCountSessionsOfArchivedPartitions() {
+    sessionArchiveService.maintainPartitions();
+
+    assertEquals(0, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM session WHERE start_time < ?", Integer.class,
+        Timestamp.valueOf(archivedMonth.plusMonths(1))));
+    assertEquals(2, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM session_archive", Integer.class));
+
+    rebuild();
+
+    assertStats(7L, 3, 90 + 31 + 45);
+    assertStats(8L, 1, 120);
+  }
+
+  @Test
+  void rebuild_whenArchiveRowsPredateTheirTotals_shouldCountThemFromPayload() {
+    sessionArchiveService.maintainPartitions();
+    jdbcTemplate.update(
+        "UPDATE session_archive SET completed_sessions = NULL, completed_minutes = NULL");
+
+    assertEquals(2, sessionArchiveService.fillMissingCompletedTotals());
+    rebuild();
+
+    assertStats(7L, 3, 90 + 31 + 45);
+    assertStats(8L, 1, 120);
+    assertEquals(0, sessionArchiveService.fillMissingCompletedTotals());
+  }
+
+  private void rebuild() {
+    userSessionStatsRepository.clear();
+    userSessionStatsRepository.insertFromHistory();
+    entityManager.clear();
+  }
+
+  private void assertStats(Long userId, int sessions, long minutes) {
+    UserSessionStats stats = userSessionStatsRepository.findById(userId).orElseThrow();
+    assertEquals(sessions, stats.getTotalSessions());
+    assertEquals(minutes, stats.getTotalMinutes());
+  }
+
+  private void insertSession(Long userId, LocalDateTime start, int minutes, String status) {
+    jdbcTemplate.update("INSERT INTO session (user_id, pc_id, tariff_id, start_time, end_time, "
+            + "total_cost, status) VALUES (?, 1, ?, ?, ?, 5, ?)",
+        userId, tariff.getTariffId(), Timestamp.valueOf(start),
+        Timestamp.valueOf(start.plusMinutes(minutes)), status);
+  }
+}
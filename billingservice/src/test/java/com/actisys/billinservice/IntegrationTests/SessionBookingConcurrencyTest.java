@@ -0,0 +1,190 @@
+package com.actisys.billinservice.IntegrationTests;
+
+import com.actisys.billingservice.cache.PcInfoCache;
+import com.actisys.billingservice.dto.SessionDtos.CreateSessionDTO;
+import com.actisys.billingservice.exception.SessionOverlapException;
+import com.actisys.billingservice.index.PcScheduleIndex;
+import com.actisys.billingservice.mapper.SessionMapperImpl;
+import com.actisys.billingservice.mapper.TariffMapperImpl;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.pricing.TariffPricingEngine;
+import com.actisys.billingservice.producer.OccupancyEventProducer;
+import com.actisys.billingservice.repository.SessionRepository;
+import com.actisys.billingservice.repository.TariffRepository;
+import com.actisys.billingservice.service.OutboxService;
+import com.actisys.billingservice.service.SessionArchiveService;
+import com.actisys.billingservice.service.SessionLifecycleService;
+import com.actisys.billingservice.service.SessionService;
+import com.actisys.billingservice.service.SlotHoldService;
+import com.actisys.billingservice.service.impl.SessionServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books the same PCs concurrently through two service instances, standing in for two replicas.
+ * Each instance has its own local lock stripes, so only the Postgres advisory lock
+ * keeps their check-then-insert from interleaving. Overlaps are looked for in SQL.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({SessionServiceImpl.class, SessionMapperImpl.class, TariffMapperImpl.class,
+    TariffPricingEngine.class})
+class SessionBookingConcurrencyTest {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @SpringBootConfiguration
+  @EntityScan(basePackageClasses = Session.class)
+  @EnableJpaRepositories(basePackageClasses = SessionRepository.class)
+  static class Config {
+  }
+
+  @MockitoBean
+  private PcInfoCache pcInfoCache;
+
+  @MockitoBean
+  private SessionLifecycleService sessionLifecycleService;
+
+  @MockitoBean
+  private PcScheduleIndex pcScheduleIndex;
+
+  @MockitoBean
+  private OutboxService outboxService;
+
+  @MockitoBean
+  private SessionArchiveService sessionArchiveService;
+
+  @MockitoBean
+  private SlotHoldService slotHoldService;
+
+  @MockitoBean
+  private OccupancyEventProducer occupancyEventProducer;
+
+  @Autowired
+  private SessionService sessionService;
+
+  @Autowired
+  private AutowireCapableBeanFactory beanFactory;
+
+  @Autowired
+  private TariffRepository tariffRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Tariff tariff;
+
+  @BeforeEach
+  void setUp() {
+    tariff = tariffRepository.save(Tariff.builder()
+        .name("Standard")
+        .price(BigDecimal.valueOf(5))
+        .isVip(false)
+        .hours(1)
+        .build());
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM session");
+    jdbcTemplate.update("DELETE FROM tariff_daily_bookings");
+    tariffRepository.deleteAll();
+  }
+
+  @Test
+  void createSession_whenBookedConcurrentlyOnTwoInstances_shouldNeverOverlap() throws Exception {
+    SessionService otherInstance = (SessionService) beanFactory.createBean(
+        SessionServiceImpl.class, AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR, false);
+    List<SessionService> instances = List.of(sessionService, otherInstance);
+
+    int pcCount = 4;
+    int attempts = 1000;
+    LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    ExecutorService executor = Executors.newFixedThreadPool(24);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    AtomicInteger rejected = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < attempts; i++) {
+      SessionService instance = instances.get(i % 2);
+      long pcId = 1 + random.nextInt(pcCount);
+      LocalDateTime start = base.plusMinutes(15L * random.nextInt(96));
+      LocalDateTime end = start.plusMinutes(15L * (1 + random.nextInt(12)));
+      CreateSessionDTO dto = CreateSessionDTO.builder()
+          .pcId(pcId)
+          .tariffId(tariff.getTariffId())
+          .startTime(start)
+          .endTime(end)
+          .build();
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        try {
+          instance.createSession(dto, "1");
+        } catch (SessionOverlapException e) {
+          rejected.incrementAndGet();
+        }
+        return null;
+      }));
+    }
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    Integer booked = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM session", Integer.class);
+    assertEquals(attempts, booked + rejected.get());
+    assertTrue(booked >= pcCount, "every PC should get at least one booking");
+
+    List<String> overlaps = jdbcTemplate.queryForList(
+        "SELECT a.session_id || ' and ' || b.session_id FROM session a " +
+            "JOIN session b ON a.pc_id = b.pc_id AND a.session_id < b.session_id " +
+            "AND a.start_time < b.end_time AND b.start_time < a.end_time", String.class);
+    assertEquals(List.of(), overlaps, "overlapping sessions");
+  }
+}
@@ -0,0 +1,118 @@
+package com.actisys.billinservice.IntegrationTests;
+
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the session completion statements against the real schema: their native results
+ * are not converted by Spring Data, so the selected user ids must already be BIGINT.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class SessionCompletionQueryTest {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @SpringBootConfiguration
+  @EntityScan(basePackageClasses = Session.class)
+  @EnableJpaRepositories(basePackageClasses = SessionRepository.class)
+  static class Config {
+  }
+
+  @Autowired
+  private SessionRepository sessionRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+  private Tariff tariff;
+
+  @BeforeEach
+  void setUp() {
+    tariff = entityManager.persist(Tariff.builder()
+        .name("Standard")
+        .price(BigDecimal.valueOf(5))
+        .isVip(false)
+        .hours(1)
+        .build());
+  }
+
+  @Test
+  void completeFinishedSessions_shouldReturnUserIdsAsLongs() {
+    persistSession(7L, now.minusHours(3), SessionStatus.PAID);
+    persistSession(8L, now.minusHours(2), SessionStatus.IN_PROGRESS);
+    persistSession(9L, now.plusHours(1), SessionStatus.PAID);
+    entityManager.flush();
+
+    List<Long> userIds = sessionRepository.completeFinishedSessions(now);
+
+    assertEquals(2, userIds.size());
+    assertTrue(userIds.stream().allMatch(Long.class::isInstance));
+    assertEquals(List.of(7L, 8L), userIds.stream().sorted().toList());
+  }
+
+  @Test
+  void completeSession_shouldReturnOwnerIdAsLong() {
+    Session session = persistSession(7L, now.minusHours(2), SessionStatus.PAID);
+    entityManager.flush();
+
+    List<Long> userIds = sessionRepository.completeSession(session.getSessionId());
+
+    assertEquals(List.of(7L), userIds);
+    assertInstanceOf(Long.class, userIds.get(0));
+  }
+
+  @Test
+  void completeSession_whenNotFinishable_shouldReturnNothing() {
+    Session session = persistSession(7L, now.minusHours(2), SessionStatus.CANCELLED);
+    entityManager.flush();
+
+    assertTrue(sessionRepository.completeSession(session.getSessionId()).isEmpty());
+  }
+
+  private Session persistSession(Long userId, LocalDateTime start, SessionStatus status) {
+    return entityManager.persist(Session.builder()
+        .userId(userId)
+        .pcId(1L)
+        .tariff(tariff)
+        .startTime(start)
+        .endTime(start.plusHours(1))
+        .totalCost(tariff.getPrice())
+        .status(status)
+        .build());
+  }
+}
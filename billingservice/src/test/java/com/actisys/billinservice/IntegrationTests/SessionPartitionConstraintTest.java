@@ -0,0 +1,75 @@
+package com.actisys.billinservice.IntegrationTests;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the 24 hour cap the partitioned queries rely on holds in every partition,
+ * including the ones created by create_session_partition after the migration.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class SessionPartitionConstraintTest {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @SpringBootConfiguration
+  static class Config {
+  }
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final LocalDateTime now = LocalDateTime.of(2030, 6, 15, 10, 0);
+
+  @Test
+  void insert_whenLongerThan24Hours_shouldBeRejected() {
+    insertSession(now, now.plusHours(24));
+
+    assertThrows(DataIntegrityViolationException.class,
+        () -> insertSession(now, now.plusHours(24).plusMinutes(1)));
+  }
+
+  @Test
+  void createSessionPartition_shouldCarryTheDurationCheck() {
+    LocalDateTime month = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+        "SELECT create_session_partition(DATE '2100-01-01')", Boolean.class));
+
+    insertSession(month.plusDays(1), month.plusDays(1).plusHours(2));
+    assertEquals(1, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM session_y2100m01", Integer.class));
+    assertThrows(DataIntegrityViolationException.class,
+        () -> insertSession(month.plusDays(2), month.plusDays(4)));
+  }
+
+  private void insertSession(LocalDateTime start, LocalDateTime end) {
+    jdbcTemplate.update("INSERT INTO session (user_id, pc_id, tariff_id, start_time, end_time, "
+            + "total_cost, status) VALUES (7, 1, 1, ?, ?, 5, 'PAID')",
+        Timestamp.valueOf(start), Timestamp.valueOf(end));
+  }
+}
@@ -0,0 +1,158 @@
+package com.actisys.billinservice.IntegrationTests;
+
+import com.actisys.billingservice.cache.PcInfoCache;
+import com.actisys.billingservice.dto.SessionDtos.SessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionsInfoDTO;
+import com.actisys.billingservice.index.PcScheduleIndex;
+import com.actisys.billingservice.mapper.SessionMapperImpl;
+import com.actisys.billingservice.mapper.TariffMapperImpl;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.pricing.TariffPricingEngine;
+import com.actisys.billingservice.producer.OccupancyEventProducer;
+import com.actisys.billingservice.repository.SessionRepository;
+import com.actisys.billingservice.service.OutboxService;
+import com.actisys.billingservice.service.SessionArchiveService;
+import com.actisys.billingservice.service.SessionLifecycleService;
+import com.actisys.billingservice.service.SessionService;
+import com.actisys.billingservice.service.SlotHoldService;
+import com.actisys.billingservice.service.impl.SessionServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements behind the session list endpoints against a real schema,
+ * so a lazy tariff load sneaking back into the read path fails the build.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Import({SessionServiceImpl.class, SessionMapperImpl.class, TariffMapperImpl.class})
+class SessionReadStatementCountTest {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @SpringBootConfiguration
+  @EntityScan(basePackageClasses = Session.class)
+  @EnableJpaRepositories(basePackageClasses = SessionRepository.class)
+  static class Config {
+  }
+
+  @MockitoBean
+  private PcInfoCache pcInfoCache;
+
+  @MockitoBean
+  private SessionLifecycleService sessionLifecycleService;
+
+  @MockitoBean
+  private PcScheduleIndex pcScheduleIndex;
+
+  @MockitoBean
+  private TariffPricingEngine tariffPricingEngine;
+
+  @MockitoBean
+  private OutboxService outboxService;
+
+  @MockitoBean
+  private SessionArchiveService sessionArchiveService;
+
+  @MockitoBean
+  private SlotHoldService slotHoldService;
+
+  @MockitoBean
+  private OccupancyEventProducer occupancyEventProducer;
+
+  @Autowired
+  private SessionService sessionService;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private final LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < 3; i++) {
+      Tariff tariff = entityManager.persist(Tariff.builder()
+          .name("Tariff " + i)
+          .price(BigDecimal.valueOf(5 + i))
+          .isVip(i == 2)
+          .hours(1)
+          .build());
+      for (int j = 0; j < 4; j++) {
+        LocalDateTime start = base.plusHours(2L * j);
+        entityManager.persist(Session.builder()
+            .userId(7L)
+            .pcId((long) i + 1)
+            .tariff(tariff)
+            .startTime(start)
+            .endTime(start.plusHours(1))
+            .totalCost(tariff.getPrice())
+            .status(SessionStatus.PAID)
+            .build());
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void getAllSessions_shouldLoadSessionsWithTariffsInOneStatement() {
+    List<SessionDTO> result = sessionService.getAllSessions();
+
+    assertEquals(12, result.size());
+    assertTrue(result.stream().allMatch(session -> session.getTariff().getName() != null));
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(0, statistics.getEntityLoadCount());
+  }
+
+  @Test
+  void getSessionsInRange_shouldSelectInOneStatement() {
+    List<SessionsInfoDTO> result = sessionService.getSessionsInRange(base, base.plusHours(3));
+
+    assertEquals(6, result.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(0, statistics.getEntityLoadCount());
+  }
+}
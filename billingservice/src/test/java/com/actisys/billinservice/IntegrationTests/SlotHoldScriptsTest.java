@@ -0,0 +1,122 @@
+package com.actisys.billinservice.IntegrationTests;
+
+import com.actisys.billingservice.exception.SlotHeldException;
+import com.actisys.billingservice.service.impl.SlotHoldServiceImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the slot hold Lua scripts against Redis: conflict detection, expiry of stale holds
+ * and the lookup of held PCs.
+ */
+@Testcontainers
+class SlotHoldScriptsTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 18, 0);
+  private static final LocalDateTime END = START.plusHours(2);
+
+  @Container
+  static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine")
+      .withExposedPorts(6379);
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate redisTemplate;
+
+  private SlotHoldServiceImpl slotHoldService;
+
+  @BeforeAll
+  static void connect() {
+    connectionFactory = new LettuceConnectionFactory(
+        new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redisTemplate = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void disconnect() {
+    connectionFactory.destroy();
+  }
+
+  @BeforeEach
+  void setUp() {
+    redisTemplate.execute((RedisCallback<Object>) connection -> {
+      connection.serverCommands().flushAll();
+      return null;
+    });
+    slotHoldService = new SlotHoldServiceImpl(redisTemplate);
+    ReflectionTestUtils.setField(slotHoldService, "ttlSeconds", 600L);
+  }
+
+  @Test
+  void hold_whenAnotherUserHoldsIntersectingRange_shouldThrowException() {
+    slotHoldService.hold(7L, 1L, START, END);
+
+    assertThrows(SlotHeldException.class,
+        () -> slotHoldService.hold(8L, 1L, START.plusHours(1), END.plusHours(1)));
+  }
+
+  @Test
+  void hold_shouldAllowSameUserAdjacentRangesAndOtherPcs() {
+    LocalDateTime expiresAt = slotHoldService.hold(7L, 1L, START, END);
+
+    assertTrue(expiresAt.isAfter(LocalDateTime.now().plusMinutes(9)));
+    assertDoesNotThrow(() -> slotHoldService.hold(7L, 1L, START, END));
+    assertDoesNotThrow(() -> slotHoldService.hold(8L, 1L, END, END.plusHours(1)));
+    assertDoesNotThrow(() -> slotHoldService.hold(8L, 2L, START, END));
+    assertTrue(redisTemplate.getExpire("billing:slot-holds:1") > 0);
+  }
+
+  @Test
+  void hold_whenOtherHoldExpired_shouldDropItAndSucceed() {
+    long expired = System.currentTimeMillis() - 1_000;
+    redisTemplate.opsForZSet().add("billing:slot-holds:1",
+        "7:" + epochSecond(START) + ":" + epochSecond(END), expired);
+
+    assertDoesNotThrow(() -> slotHoldService.hold(8L, 1L, START, END));
+    assertEquals(Set.of("8:" + epochSecond(START) + ":" + epochSecond(END)),
+        redisTemplate.opsForZSet().range("billing:slot-holds:1", 0, -1));
+  }
+
+  @Test
+  void release_shouldFreeTheSlotForOthers() {
+    slotHoldService.hold(7L, 1L, START, END);
+
+    slotHoldService.release(7L, 1L, START, END);
+
+    assertDoesNotThrow(() -> slotHoldService.hold(8L, 1L, START, END));
+  }
+
+  @Test
+  void findHeldPcIds_shouldReturnOnlyLiveIntersectingHolds() {
+    slotHoldService.hold(7L, 1L, START, END);
+    slotHoldService.hold(7L, 2L, END, END.plusHours(1));
+    redisTemplate.opsForZSet().add("billing:slot-holds:3",
+        "7:" + epochSecond(START) + ":" + epochSecond(END), System.currentTimeMillis() - 1_000);
+
+    Set<Long> held = slotHoldService.findHeldPcIds(List.of(1L, 2L, 3L, 4L), START, END);
+
+    assertEquals(Set.of(1L), held);
+  }
+
+  private String epochSecond(LocalDateTime time) {
+    return String.valueOf(time.toEpochSecond(ZoneOffset.UTC));
+  }
+}
@@ -0,0 +1,83 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.consumer.OccupancyEventConsumer;
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDeltaDTO;
+import com.actisys.billingservice.index.PcScheduleIndex;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.repository.SessionRepository;
+import com.actisys.billingservice.stream.OccupancyStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OccupancyEventConsumerTest {
+
+  private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+  private PcScheduleIndex index;
+  private OccupancyStream occupancyStream;
+  private OccupancyEventConsumer consumer;
+
+  @BeforeEach
+  void setUp() {
+    index = new PcScheduleIndex(mock(SessionRepository.class));
+    occupancyStream = mock(OccupancyStream.class);
+    consumer = new OccupancyEventConsumer(occupancyStream, index);
+  }
+
+  @Test
+  void handleOccupancyChanged_whenBookedOnAnotherReplica_shouldOccupyLocalIndex() {
+    OccupancyDeltaDTO delta = delta(SessionStatus.PENDING);
+
+    consumer.handleOccupancyChanged(delta);
+
+    assertFalse(index.isFree(1L, BASE.plusMinutes(30), BASE.plusHours(1)));
+    assertNotNull(index.occupancy(1L, BASE.toLocalDate()));
+    verify(occupancyStream).publish(delta);
+  }
+
+  @Test
+  void handleOccupancyChanged_whenCancelledOnAnotherReplica_shouldFreeLocalIndex() {
+    consumer.handleOccupancyChanged(delta(SessionStatus.PAID));
+
+    consumer.handleOccupancyChanged(delta(SessionStatus.CANCELLED));
+
+    assertTrue(index.isFree(1L, BASE, BASE.plusHours(2)));
+    assertNull(index.occupancy(1L, BASE.toLocalDate()));
+  }
+
+  @Test
+  void handleOccupancyChanged_whenDeliveredTwice_shouldKeepOneSlot() {
+    consumer.handleOccupancyChanged(delta(SessionStatus.PAID));
+    consumer.handleOccupancyChanged(delta(SessionStatus.PAID));
+
+    consumer.handleOccupancyChanged(delta(SessionStatus.CANCELLED));
+
+    assertTrue(index.isFree(1L, BASE, BASE.plusHours(2)));
+  }
+
+  @Test
+  void handleOccupancyChanged_whenPcDisabled_shouldOnlyFanOut() {
+    OccupancyDeltaDTO delta = OccupancyDeltaDTO.builder().pcId(1L).enabled(false).build();
+
+    consumer.handleOccupancyChanged(delta);
+
+    assertTrue(index.indexedPcIds().isEmpty());
+    verify(occupancyStream).publish(delta);
+  }
+
+  private OccupancyDeltaDTO delta(SessionStatus status) {
+    return OccupancyDeltaDTO.builder()
+        .pcId(1L)
+        .sessionId(42L)
+        .startTime(BASE)
+        .endTime(BASE.plusHours(2))
+        .status(status)
+        .build();
+  }
+}
@@ -0,0 +1,115 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDeltaDTO;
+import com.actisys.billingservice.stream.OccupancyStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyStreamTest {
+
+  private final Deque<SseEmitter> nextEmitters = new ArrayDeque<>();
+  private OccupancyStream occupancyStream;
+
+  @BeforeEach
+  void setUp() {
+    occupancyStream = new OccupancyStream(new ObjectMapper().findAndRegisterModules()) {
+      @Override
+      protected SseEmitter createEmitter(long timeoutMs) {
+        return nextEmitters.poll();
+      }
+    };
+    ReflectionTestUtils.setField(occupancyStream, "timeoutMs", 60_000L);
+    ReflectionTestUtils.setField(occupancyStream, "heartbeatMs", 60_000L);
+    ReflectionTestUtils.setField(occupancyStream, "senderThreads", 2);
+    occupancyStream.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    occupancyStream.stop();
+  }
+
+  @Test
+  void publish_whenOneClientIsStuck_shouldStillReachTheOthers() throws Exception {
+    CountDownLatch unblock = new CountDownLatch(1);
+    RecordingEmitter stuck = new RecordingEmitter(unblock);
+    RecordingEmitter fast = new RecordingEmitter(null);
+    nextEmitters.add(stuck);
+    nextEmitters.add(fast);
+    occupancyStream.subscribe();
+    occupancyStream.subscribe();
+
+    occupancyStream.publish(OccupancyDeltaDTO.builder().pcId(1L).build());
+    occupancyStream.publish(OccupancyDeltaDTO.builder().pcId(2L).build());
+
+    assertNotNull(fast.sent.poll(5, TimeUnit.SECONDS));
+    assertNotNull(fast.sent.poll(5, TimeUnit.SECONDS));
+    unblock.countDown();
+    assertNotNull(stuck.sent.poll(5, TimeUnit.SECONDS));
+    assertNotNull(stuck.sent.poll(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void publish_whenSendFails_shouldDropTheClient() throws Exception {
+    FailingEmitter broken = new FailingEmitter();
+    nextEmitters.add(broken);
+    occupancyStream.subscribe();
+
+    occupancyStream.publish(OccupancyDeltaDTO.builder().pcId(1L).build());
+
+    assertTrue(broken.attempted.await(5, TimeUnit.SECONDS));
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (occupancyStream.subscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, occupancyStream.subscriberCount());
+  }
+
+  private static class RecordingEmitter extends SseEmitter {
+
+    private final CountDownLatch unblock;
+    private final BlockingQueue<SseEventBuilder> sent = new LinkedBlockingQueue<>();
+
+    RecordingEmitter(CountDownLatch unblock) {
+      this.unblock = unblock;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (unblock != null) {
+        try {
+          unblock.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+      }
+      sent.add(builder);
+    }
+  }
+
+  private static class FailingEmitter extends SseEmitter {
+
+    private final CountDownLatch attempted = new CountDownLatch(1);
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      attempted.countDown();
+      throw new IOException("broken pipe");
+    }
+  }
+}
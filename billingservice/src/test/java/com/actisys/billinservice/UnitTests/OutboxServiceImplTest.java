@@ -0,0 +1,156 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.model.OutboxEvent;
+import com.actisys.billingservice.repository.OutboxEventRepository;
+import com.actisys.billingservice.service.impl.OutboxServiceImpl;
+import com.actisys.common.events.order.CreateOrderEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxServiceImplTest {
+
+  @Mock
+  private OutboxEventRepository outboxEventRepository;
+
+  @Mock
+  private KafkaTemplate<String, Object> kafkaTemplate;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private OutboxServiceImpl outboxService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    outboxService = new OutboxServiceImpl(outboxEventRepository, kafkaTemplate, objectMapper,
+        transactionTemplate);
+    ReflectionTestUtils.setField(outboxService, "batchSize", 200);
+    ReflectionTestUtils.setField(outboxService, "sendTimeoutMs", 1000L);
+
+    when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+        invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+  }
+
+  @Test
+  void enqueue_shouldStoreSerializedEvent() {
+    outboxService.enqueue("CREATE_BOOKING", "7", orderEvent(1L));
+
+    ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+    verify(outboxEventRepository).save(saved.capture());
+    assertEquals("CREATE_BOOKING", saved.getValue().getTopic());
+    assertEquals("7", saved.getValue().getEventKey());
+    assertEquals(CreateOrderEvent.class.getName(), saved.getValue().getPayloadType());
+    assertNull(saved.getValue().getSentAt());
+    verifyNoInteractions(kafkaTemplate);
+  }
+
+  @Test
+  void relay_shouldPublishBatchWithKeysAndMarkSent() throws Exception {
+    when(outboxEventRepository.findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(any()))
+        .thenReturn(List.of(stored(1L, orderEvent(10L)), stored(2L, orderEvent(11L))));
+    when(kafkaTemplate.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    outboxService.relay();
+
+    ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+    verify(kafkaTemplate, times(2)).send(eq("CREATE_BOOKING"), eq("7"), payloads.capture());
+    assertInstanceOf(CreateOrderEvent.class, payloads.getAllValues().get(0));
+    assertEquals(11L, ((CreateOrderEvent) payloads.getAllValues().get(1)).getOrderId());
+    verify(outboxEventRepository).markSent(eq(List.of(1L, 2L)), any());
+  }
+
+  @Test
+  void relay_whenSendFails_shouldLeaveEventUnsent() throws Exception {
+    when(outboxEventRepository.findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(any()))
+        .thenReturn(List.of(stored(1L, orderEvent(10L)), stored(2L, orderEvent(11L))));
+    when(kafkaTemplate.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+    outboxService.relay();
+
+    verify(outboxEventRepository).markSent(eq(List.of(1L)), any());
+  }
+
+  @Test
+  void relay_whenEarlierSendFails_shouldNotMarkLaterEvents() throws Exception {
+    when(outboxEventRepository.findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(any()))
+        .thenReturn(List.of(stored(1L, orderEvent(10L)), stored(2L, orderEvent(11L))));
+    when(kafkaTemplate.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    outboxService.relay();
+
+    verify(outboxEventRepository, never()).markSent(any(), any());
+  }
+
+  @Test
+  void relay_whenPayloadUnreadable_shouldSetEventAsideAndPublishTheRest() throws Exception {
+    OutboxEvent poison = OutboxEvent.builder()
+        .id(1L)
+        .topic("CREATE_BOOKING")
+        .eventKey("7")
+        .payloadType("com.actisys.Missing")
+        .payload("{}")
+        .build();
+    when(outboxEventRepository.findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(any()))
+        .thenReturn(List.of(poison, stored(2L, orderEvent(11L))))
+        .thenReturn(List.of());
+    when(kafkaTemplate.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    outboxService.relay();
+
+    verify(outboxEventRepository).markFailed(eq(1L), any(), contains("ClassNotFoundException"));
+    verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+    verify(outboxEventRepository).markSent(eq(List.of(2L)), any());
+  }
+
+  @Test
+  void relay_whenAnotherInstanceRelays_shouldNotPublish() {
+    when(outboxEventRepository.tryLockRelay()).thenReturn(false);
+
+    outboxService.relay();
+
+    verify(outboxEventRepository, never()).findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(any());
+    verifyNoInteractions(kafkaTemplate);
+  }
+
+  private CreateOrderEvent orderEvent(Long orderId) {
+    CreateOrderEvent event = new CreateOrderEvent();
+    event.setOrderId(orderId);
+    event.setUserId(7L);
+    event.setAmount(BigDecimal.TEN);
+    return event;
+  }
+
+  private OutboxEvent stored(Long id, Object event) throws Exception {
+    return OutboxEvent.builder()
+        .id(id)
+        .topic("CREATE_BOOKING")
+        .eventKey("7")
+        .payloadType(event.getClass().getName())
+        .payload(objectMapper.writeValueAsString(event))
+        .build();
+  }
+}
@@ -0,0 +1,61 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.cache.PcInfoCache;
+import com.actisys.billingservice.client.InventoryServiceClient;
+import com.actisys.common.clientDtos.PcResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class PcInfoCacheTest {
+
+  @Mock
+  private InventoryServiceClient inventoryServiceClient;
+
+  private PcInfoCache pcInfoCache;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(inventoryServiceClient.getPcInfoByIds(anyList())).thenAnswer(invocation ->
+        invocation.<List<Long>>getArgument(0).stream()
+            .map(id -> PcResponseDTO.builder().id(id).build())
+            .toList());
+
+    pcInfoCache = new PcInfoCache(inventoryServiceClient);
+    ReflectionTestUtils.setField(pcInfoCache, "maxSize", 100L);
+    ReflectionTestUtils.setField(pcInfoCache, "ttlMinutes", 60L);
+    ReflectionTestUtils.setField(pcInfoCache, "refreshMinutes", 10L);
+    pcInfoCache.init();
+  }
+
+  @Test
+  void getAll_shouldFetchOnlyMissingIdsInOneCall() {
+    pcInfoCache.getAll(List.of(1L, 2L));
+
+    Map<Long, PcResponseDTO> result = pcInfoCache.getAll(List.of(1L, 2L, 3L));
+
+    assertEquals(3, result.size());
+    verify(inventoryServiceClient).getPcInfoByIds(argThat(ids -> ids.size() == 2));
+    verify(inventoryServiceClient).getPcInfoByIds(List.of(3L));
+  }
+
+  @Test
+  void invalidate_shouldRefetchPc() {
+    pcInfoCache.getAll(List.of(1L));
+
+    pcInfoCache.invalidate(1L);
+    pcInfoCache.getAll(List.of(1L));
+
+    verify(inventoryServiceClient, times(2)).getPcInfoByIds(List.of(1L));
+  }
+}
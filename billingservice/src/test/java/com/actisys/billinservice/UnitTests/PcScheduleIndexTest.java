@@ -0,0 +1,155 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.index.PcScheduleIndex;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PcScheduleIndexTest {
+
+  private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+  private PcScheduleIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new PcScheduleIndex(mock(SessionRepository.class));
+  }
+
+  @Test
+  void isFree_whenNoSessionsForPc_shouldReturnTrue() {
+    assertTrue(index.isFree(1L, BASE, BASE.plusHours(1)));
+  }
+
+  @Test
+  void isFree_whenRangeOverlapsBooking_shouldReturnFalse() {
+    index.add(session(1L, 1L, BASE, BASE.plusHours(2)));
+
+    assertFalse(index.isFree(1L, BASE.plusHours(1), BASE.plusHours(3)));
+    assertFalse(index.isFree(1L, BASE.minusHours(1), BASE.plusMinutes(1)));
+    assertFalse(index.isFree(1L, BASE.plusMinutes(30), BASE.plusMinutes(90)));
+  }
+
+  @Test
+  void isFree_whenRangeTouchesBookingEdges_shouldReturnTrue() {
+    index.add(session(1L, 1L, BASE, BASE.plusHours(2)));
+
+    assertTrue(index.isFree(1L, BASE.minusHours(1), BASE));
+    assertTrue(index.isFree(1L, BASE.plusHours(2), BASE.plusHours(3)));
+  }
+
+  @Test
+  void isFree_whenLongBookingStartedEarlier_shouldReturnFalse() {
+    index.add(session(1L, 1L, BASE, BASE.plusHours(10)));
+    index.add(session(2L, 1L, BASE.plusHours(11), BASE.plusHours(12)));
+
+    assertFalse(index.isFree(1L, BASE.plusHours(5), BASE.plusHours(6)));
+  }
+
+  @Test
+  void remove_shouldReleaseSlot() {
+    Session session = session(1L, 1L, BASE, BASE.plusHours(2));
+    index.add(session);
+
+    index.remove(session);
+
+    assertTrue(index.isFree(1L, BASE, BASE.plusHours(2)));
+  }
+
+  @Test
+  void freePcs_shouldReturnOnlyPcsWithoutOverlaps() {
+    index.add(session(1L, 1L, BASE, BASE.plusHours(2)));
+    index.add(session(2L, 2L, BASE.plusHours(3), BASE.plusHours(4)));
+
+    List<Long> result = index.freePcs(List.of(1L, 2L, 3L), BASE, BASE.plusHours(2));
+
+    assertEquals(List.of(2L, 3L), result);
+  }
+
+  @Test
+  void earliestFree_whenPcHasNoBookings_shouldReturnFrom() {
+    assertEquals(BASE, index.earliestFree(1L, BASE, Duration.ofHours(3), BASE.plusDays(1)));
+  }
+
+  @Test
+  void earliestFree_shouldSkipGapsShorterThanDuration() {
+    index.add(session(1L, 1L, BASE.minusHours(1), BASE.plusHours(1)));
+    index.add(session(2L, 1L, BASE.plusHours(2), BASE.plusHours(3)));
+    index.add(session(3L, 1L, BASE.plusHours(5), BASE.plusHours(6)));
+
+    assertEquals(BASE.plusHours(1),
+        index.earliestFree(1L, BASE, Duration.ofHours(1), BASE.plusDays(1)));
+    assertEquals(BASE.plusHours(3),
+        index.earliestFree(1L, BASE, Duration.ofHours(2), BASE.plusDays(1)));
+    assertEquals(BASE.plusHours(6),
+        index.earliestFree(1L, BASE, Duration.ofHours(3), BASE.plusDays(1)));
+  }
+
+  @Test
+  void earliestFree_whenNoGapBeforeUntil_shouldReturnNull() {
+    index.add(session(1L, 1L, BASE, BASE.plusHours(10)));
+
+    assertNull(index.earliestFree(1L, BASE, Duration.ofHours(1), BASE.plusHours(10)));
+  }
+
+  @Test
+  void occupancy_shouldMarkEveryTouchedQuarterHour() {
+    index.add(session(1L, 1L, BASE.plusMinutes(5), BASE.plusMinutes(40)));
+
+    BitSet bits = index.occupancy(1L, BASE.toLocalDate());
+
+    assertEquals(bitsOf(40, 41, 42), bits);
+  }
+
+  @Test
+  void occupancy_whenSessionCrossesMidnight_shouldSplitBetweenDays() {
+    LocalDateTime lateEvening = BASE.withHour(23);
+    index.add(session(1L, 1L, lateEvening, lateEvening.plusHours(2)));
+
+    assertEquals(bitsOf(92, 93, 94, 95), index.occupancy(1L, BASE.toLocalDate()));
+    assertEquals(bitsOf(0, 1, 2, 3), index.occupancy(1L, BASE.toLocalDate().plusDays(1)));
+  }
+
+  @Test
+  void occupancy_whenSessionRemoved_shouldKeepSlotsSharedWithOtherSessions() {
+    Session first = session(1L, 1L, BASE, BASE.plusMinutes(20));
+    Session second = session(2L, 1L, BASE.plusMinutes(25), BASE.plusMinutes(45));
+    index.add(first);
+    index.add(second);
+
+    index.remove(first);
+
+    assertEquals(bitsOf(41, 42), index.occupancy(1L, BASE.toLocalDate()));
+    index.remove(second);
+    assertNull(index.occupancy(1L, BASE.toLocalDate()));
+  }
+
+  private BitSet bitsOf(int... slots) {
+    BitSet bits = new BitSet();
+    for (int slot : slots) {
+      bits.set(slot);
+    }
+    return bits;
+  }
+
+  private Session session(Long id, Long pcId, LocalDateTime start, LocalDateTime end) {
+    return Session.builder()
+        .sessionId(id)
+        .pcId(pcId)
+        .userId(1L)
+        .startTime(start)
+        .endTime(end)
+        .status(SessionStatus.PAID)
+        .build();
+  }
+}
@@ -0,0 +1,127 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.model.ArchivedSession;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.repository.TariffRepository;
+import com.actisys.billingservice.service.impl.SessionArchiveServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SessionArchiveServiceImplTest {
+
+  private static final DateTimeFormatter PARTITION_NAME =
+      DateTimeFormatter.ofPattern("'session_y'yyyy'm'MM");
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @Mock
+  private TariffRepository tariffRepository;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @InjectMocks
+  private SessionArchiveServiceImpl sessionArchiveService;
+
+  @Captor
+  private ArgumentCaptor<List<Object[]>> archiveRows;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(sessionArchiveService, "monthsAhead", 3);
+    ReflectionTestUtils.setField(sessionArchiveService, "retentionMonths", 12);
+
+    doAnswer(invocation -> {
+      invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+      return null;
+    }).when(transactionTemplate).executeWithoutResult(any());
+  }
+
+  @Test
+  void maintainPartitions_shouldCreateUpcomingMonths() {
+    when(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(3, 0)", Boolean.class))
+        .thenReturn(true);
+
+    sessionArchiveService.maintainPartitions();
+
+    verify(jdbcTemplate, times(4))
+        .queryForObject(eq("SELECT create_session_partition(?)"), eq(Boolean.class), any());
+  }
+
+  @Test
+  void maintainPartitions_whenLockHeldElsewhere_shouldDoNothing() {
+    when(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(3, 0)", Boolean.class))
+        .thenReturn(false);
+
+    sessionArchiveService.maintainPartitions();
+
+    verify(jdbcTemplate, never())
+        .queryForObject(eq("SELECT create_session_partition(?)"), eq(Boolean.class), any());
+    verify(jdbcTemplate, never()).execute(anyString());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void maintainPartitions_shouldArchiveOnlyExpiredPartitionsAndReadThemBack() {
+    String expired = YearMonth.now().minusMonths(13).format(PARTITION_NAME);
+    String kept = YearMonth.now().minusMonths(2).format(PARTITION_NAME);
+    LocalDateTime start = YearMonth.now().minusMonths(13).atDay(3).atTime(18, 0);
+    ArchivedSession archived = new ArchivedSession(11L, 7L, 2L, 5L, 1L,
+        start, start.plusHours(2), BigDecimal.valueOf(10), SessionStatus.COMPLETED);
+    when(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(3, 0)", Boolean.class))
+        .thenReturn(true);
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+        .thenReturn(List.of(expired, kept));
+    when(jdbcTemplate.query(contains(expired), any(RowMapper.class)))
+        .thenReturn(List.of(archived));
+
+    sessionArchiveService.maintainPartitions();
+
+    verify(jdbcTemplate, never()).query(contains(kept), any(RowMapper.class));
+    verify(jdbcTemplate).execute("ALTER TABLE session DETACH PARTITION \"" + expired + "\"");
+    verify(jdbcTemplate).execute("DROP TABLE \"" + expired + "\"");
+    verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO session_archive"),
+        archiveRows.capture());
+    Object[] row = archiveRows.getValue().get(0);
+    assertEquals(7L, row[0]);
+    assertEquals(1, row[2]);
+
+    Tariff tariff = Tariff.builder().tariffId(1L).name("Standard").build();
+    when(jdbcTemplate.query(startsWith("SELECT payload"), any(RowMapper.class), eq(7L)))
+        .thenReturn(List.of(row[3]));
+    when(tariffRepository.findAllById(List.of(1L))).thenReturn(List.of(tariff));
+
+    List<Session> result = sessionArchiveService.findArchivedSessions(7L);
+
+    assertEquals(1, result.size());
+    assertEquals(11L, result.get(0).getSessionId());
+    assertEquals(start, result.get(0).getStartTime());
+    assertEquals(SessionStatus.COMPLETED, result.get(0).getStatus());
+    assertSame(tariff, result.get(0).getTariff());
+  }
+}
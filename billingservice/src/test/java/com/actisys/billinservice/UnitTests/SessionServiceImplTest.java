@@ -0,0 +1,632 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.cache.PcInfoCache;
+import com.actisys.billingservice.dto.SessionDtos.CreateGroupSessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.CreateSessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.FreeSlotDTO;
+import com.actisys.billingservice.dto.SessionDtos.OccupancyDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionFilterDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionPageDTO;
+import com.actisys.billingservice.dto.SessionDtos.SessionResponseDto;
+import com.actisys.billingservice.exception.SessionOverlapException;
+import com.actisys.billingservice.exception.SlotHeldException;
+import com.actisys.billingservice.index.PcScheduleIndex;
+import com.actisys.billingservice.mapper.SessionMapper;
+import com.actisys.billingservice.mapper.TariffMapper;
+import com.actisys.billingservice.model.Session;
+import com.actisys.billingservice.model.SessionStatus;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.model.UserSessionStats;
+import com.actisys.billingservice.pricing.TariffPricingEngine;
+import com.actisys.billingservice.producer.OccupancyEventProducer;
+import com.actisys.billingservice.repository.SessionRepository;
+import com.actisys.billingservice.repository.TariffRepository;
+import com.actisys.billingservice.repository.UserSessionStatsRepository;
+import com.actisys.billingservice.service.OutboxService;
+import com.actisys.billingservice.service.SessionArchiveService;
+import com.actisys.billingservice.service.SessionLifecycleService;
+import com.actisys.billingservice.service.SlotHoldService;
+import com.actisys.billingservice.service.impl.SessionServiceImpl;
+import com.actisys.common.clientDtos.PcResponseDTO;
+import com.actisys.common.clientDtos.SessionStatsDTO;
+import com.actisys.common.events.OperationType;
+import com.actisys.common.events.order.CreateOrderEvent;
+import com.actisys.common.events.user.RefundMoneyEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SessionServiceImplTest {
+
+  @Mock
+  private SessionRepository sessionRepository;
+
+  @Mock
+  private SessionMapper sessionMapper;
+
+  @Mock
+  private PcInfoCache pcInfoCache;
+
+  @Mock
+  private TariffMapper tariffMapper;
+
+  @Mock
+  private TariffRepository tariffRepository;
+
+  @Mock
+  private UserSessionStatsRepository userSessionStatsRepository;
+
+  @Mock
+  private SessionLifecycleService sessionLifecycleService;
+
+  @Mock
+  private PcScheduleIndex pcScheduleIndex;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @Spy
+  private TariffPricingEngine tariffPricingEngine = new TariffPricingEngine(null);
+
+  @Mock
+  private OutboxService outboxService;
+
+  @Mock
+  private SessionArchiveService sessionArchiveService;
+
+  @Mock
+  private SlotHoldService slotHoldService;
+
+  @Mock
+  private OccupancyEventProducer occupancyEventProducer;
+
+  @InjectMocks
+  private SessionServiceImpl sessionService;
+
+  private final List<Session> storedSessions = new CopyOnWriteArrayList<>();
+  private final AtomicLong sessionIds = new AtomicLong();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+
+    Tariff tariff = Tariff.builder()
+        .tariffId(1L)
+        .name("Standard")
+        .price(BigDecimal.valueOf(5))
+        .isVip(false)
+        .hours(1)
+        .build();
+    when(tariffRepository.findById(1L)).thenReturn(Optional.of(tariff));
+
+    when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+        invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+    when(sessionRepository.existsOverlapping(anyLong(), anyCollection(), any(), any()))
+        .thenAnswer(invocation -> {
+          Long pcId = invocation.getArgument(0);
+          LocalDateTime start = invocation.getArgument(2);
+          LocalDateTime end = invocation.getArgument(3);
+          return storedSessions.stream().anyMatch(s -> s.getPcId().equals(pcId)
+              && s.getStartTime().isBefore(end) && s.getEndTime().isAfter(start));
+        });
+
+    when(sessionRepository.save(any(Session.class))).thenAnswer(invocation -> {
+      Session session = invocation.getArgument(0);
+      session.setSessionId(sessionIds.incrementAndGet());
+      storedSessions.add(session);
+      return session;
+    });
+
+    when(sessionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Session> sessions = invocation.getArgument(0);
+      sessions.forEach(session -> {
+        if (session.getSessionId() == null) {
+          session.setSessionId(sessionIds.incrementAndGet());
+          storedSessions.add(session);
+        }
+      });
+      return sessions;
+    });
+
+    when(sessionRepository.findOverlappingPcIds(anyCollection(), anyCollection(), any(), any()))
+        .thenAnswer(invocation -> {
+          Collection<Long> pcIds = invocation.getArgument(0);
+          LocalDateTime start = invocation.getArgument(2);
+          LocalDateTime end = invocation.getArgument(3);
+          return storedSessions.stream()
+              .filter(s -> pcIds.contains(s.getPcId()))
+              .filter(s -> s.getStartTime().isBefore(end) && s.getEndTime().isAfter(start))
+              .map(Session::getPcId)
+              .distinct()
+              .toList();
+        });
+    when(sessionRepository.nextBookingGroupId()).thenReturn(100L);
+    when(pcInfoCache.getAll(anyCollection())).thenAnswer(invocation -> {
+      Collection<Long> pcIds = invocation.getArgument(0);
+      Map<Long, PcResponseDTO> pcs = new HashMap<>();
+      pcIds.stream().filter(pcId -> pcId < 100)
+          .forEach(pcId -> pcs.put(pcId, PcResponseDTO.builder().id(pcId).build()));
+      return pcs;
+    });
+  }
+
+  @Test
+  void createSession_shouldPersistAndPublishBooking() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+    sessionService.createSession(bookingFor(1L, start, start.plusHours(2)), "7");
+
+    assertEquals(1, storedSessions.size());
+    assertEquals(0, BigDecimal.valueOf(10).compareTo(storedSessions.get(0).getTotalCost()));
+    verify(sessionRepository).lockPcForBooking(1L);
+    verify(tariffRepository).addBookings(1L, start.toLocalDate(), 1);
+    verify(pcScheduleIndex).add(storedSessions.get(0));
+    verify(outboxService).enqueue(eq("CREATE_BOOKING"), eq("7"), any(CreateOrderEvent.class));
+    verify(occupancyEventProducer).publish(storedSessions.get(0));
+  }
+
+  @Test
+  void createSession_whenPcAlreadyBooked_shouldThrowException() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    sessionService.createSession(bookingFor(1L, start, start.plusHours(2)), "7");
+
+    assertThrows(SessionOverlapException.class, () -> sessionService.createSession(
+        bookingFor(1L, start.plusHours(1), start.plusHours(3)), "8"));
+    assertEquals(1, storedSessions.size());
+    verify(outboxService, times(1)).enqueue(eq("CREATE_BOOKING"), any(), any());
+  }
+
+  @Test
+  void createSession_whenSlotHeldByAnotherUser_shouldNotTouchDatabase() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    when(slotHoldService.hold(7L, 1L, start, start.plusHours(2)))
+        .thenThrow(new SlotHeldException(1L));
+
+    assertThrows(SlotHeldException.class, () -> sessionService.createSession(
+        bookingFor(1L, start, start.plusHours(2)), "7"));
+    verify(sessionRepository, never()).lockPcForBooking(anyLong());
+    verify(sessionRepository, never()).save(any());
+  }
+
+  @Test
+  void createSession_whenPcAlreadyBooked_shouldReleaseHold() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    sessionService.createSession(bookingFor(1L, start, start.plusHours(2)), "7");
+
+    assertThrows(SessionOverlapException.class, () -> sessionService.createSession(
+        bookingFor(1L, start, start.plusHours(2)), "8"));
+    verify(slotHoldService).release(8L, 1L, start, start.plusHours(2));
+    verify(slotHoldService, never()).release(eq(7L), anyLong(), any(), any());
+  }
+
+  @Test
+  void createSession_whenSaveFails_shouldReleaseHold() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    doThrow(new DataAccessResourceFailureException("connection lost"))
+        .when(sessionRepository).save(any(Session.class));
+
+    assertThrows(DataAccessResourceFailureException.class, () -> sessionService.createSession(
+        bookingFor(1L, start, start.plusHours(2)), "7"));
+    verify(slotHoldService).release(7L, 1L, start, start.plusHours(2));
+  }
+
+  @Test
+  void createSession_whenLongerThanMaxDuration_shouldThrowException() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+    assertThrows(IllegalArgumentException.class, () -> sessionService.createSession(
+        bookingFor(1L, start, start.plus(Session.MAX_DURATION).plusMinutes(1)), "7"));
+    assertTrue(storedSessions.isEmpty());
+  }
+
+  @Test
+  void createGroupSession_shouldBookAllPcsWithOneOrder() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+    List<SessionDTO> result = sessionService.createGroupSession(
+        groupBookingFor(List.of(3L, 1L, 2L), start, start.plusHours(2)), "7");
+
+    assertEquals(3, result.size());
+    assertEquals(List.of(1L, 2L, 3L), storedSessions.stream().map(Session::getPcId).toList());
+    assertTrue(storedSessions.stream().allMatch(s -> s.getBookingGroupId().equals(100L)));
+    verify(sessionRepository).lockPcsForBooking(List.of(1L, 2L, 3L));
+    verify(tariffRepository).addBookings(1L, start.toLocalDate(), 3);
+    ArgumentCaptor<CreateOrderEvent> order = ArgumentCaptor.forClass(CreateOrderEvent.class);
+    verify(outboxService, times(1)).enqueue(eq("CREATE_BOOKING"), eq("7"), order.capture());
+    assertEquals(storedSessions.get(0).getSessionId(), order.getValue().getOrderId());
+    assertEquals(0, BigDecimal.valueOf(30).compareTo(order.getValue().getAmount()));
+  }
+
+  @Test
+  void createGroupSession_whenAnyPcBooked_shouldBookNone() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    sessionService.createSession(bookingFor(2L, start, start.plusHours(1)), "8");
+
+    SessionOverlapException exception = assertThrows(SessionOverlapException.class,
+        () -> sessionService.createGroupSession(
+            groupBookingFor(List.of(1L, 2L, 3L), start, start.plusHours(2)), "7"));
+
+    assertTrue(exception.getMessage().contains("[2]"));
+    assertEquals(1, storedSessions.size());
+    verify(sessionRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void createGroupSession_whenSaveFails_shouldReleaseEveryHold() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    doThrow(new DataAccessResourceFailureException("connection lost"))
+        .when(sessionRepository).saveAll(anyList());
+
+    assertThrows(DataAccessResourceFailureException.class, () -> sessionService.createGroupSession(
+        groupBookingFor(List.of(1L, 2L), start, start.plusHours(2)), "7"));
+    verify(slotHoldService).release(7L, 1L, start, start.plusHours(2));
+    verify(slotHoldService).release(7L, 2L, start, start.plusHours(2));
+  }
+
+  @Test
+  void createGroupSession_whenPcUnknownOrDuplicated_shouldThrowException() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+    assertThrows(IllegalArgumentException.class, () -> sessionService.createGroupSession(
+        groupBookingFor(List.of(1L, 100L), start, start.plusHours(1)), "7"));
+    assertThrows(IllegalArgumentException.class, () -> sessionService.createGroupSession(
+        groupBookingFor(List.of(1L, 1L), start, start.plusHours(1)), "7"));
+    assertTrue(storedSessions.isEmpty());
+  }
+
+  @Test
+  void updateStatus_whenGroupPaid_shouldMarkEveryPendingSession() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    Session lead = groupSession(1L, start, SessionStatus.PENDING);
+    Session member = groupSession(2L, start, SessionStatus.PENDING);
+    Session cancelled = groupSession(3L, start, SessionStatus.CANCELLED);
+    when(sessionRepository.findById(1L)).thenReturn(Optional.of(lead));
+    when(sessionRepository.findAllByBookingGroupIdAndStartTime(100L, start))
+        .thenReturn(List.of(lead, member, cancelled));
+
+    sessionService.updateStatus(10L, 1L, OperationType.SUCCESS);
+
+    assertEquals(SessionStatus.PAID, lead.getStatus());
+    assertEquals(SessionStatus.PAID, member.getStatus());
+    assertEquals(10L, member.getPaymentId());
+    assertEquals(SessionStatus.CANCELLED, cancelled.getStatus());
+    verify(sessionLifecycleService).schedule(lead);
+    verify(sessionLifecycleService).schedule(member);
+    verify(sessionLifecycleService, never()).schedule(cancelled);
+  }
+
+  @Test
+  void updateStatus_whenLeadCancelledWhilePending_shouldPayMembersAndRefundLead() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    Session lead = groupSession(1L, start, SessionStatus.CANCELLED);
+    lead.setTotalCost(BigDecimal.valueOf(5));
+    Session member = groupSession(2L, start, SessionStatus.PENDING);
+    when(sessionRepository.findById(1L)).thenReturn(Optional.of(lead));
+    when(sessionRepository.findAllByBookingGroupIdAndStartTime(100L, start))
+        .thenReturn(List.of(lead, member));
+
+    sessionService.updateStatus(10L, 1L, OperationType.SUCCESS);
+
+    assertEquals(SessionStatus.PAID, member.getStatus());
+    assertEquals(SessionStatus.CANCELLED, lead.getStatus());
+    assertEquals(10L, lead.getPaymentId());
+    verify(sessionLifecycleService).schedule(member);
+    verify(outboxService).enqueue(eq("REFUND_MONEYS_EVENT"), eq("7"),
+        argThat(event -> event instanceof RefundMoneyEvent refund
+            && refund.getSessionId() == 1L && refund.getPaymentId() == 10L));
+  }
+
+  @Test
+  void updateStatus_whenGroupAlreadySettled_shouldIgnoreResult() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    Session lead = groupSession(1L, start, SessionStatus.PAID);
+    lead.setPaymentId(10L);
+    when(sessionRepository.findById(1L)).thenReturn(Optional.of(lead));
+    when(sessionRepository.findAllByBookingGroupIdAndStartTime(100L, start))
+        .thenReturn(List.of(lead));
+
+    sessionService.updateStatus(10L, 1L, OperationType.SUCCESS);
+
+    verify(sessionLifecycleService, never()).schedule(any());
+    verify(outboxService, never()).enqueue(any(), any(), any());
+  }
+
+  @Test
+  void cancelSession_whenGroupMember_shouldCancelAndRefundWholeGroup() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    Tariff tariff = Tariff.builder().tariffId(1L).build();
+    Session lead = groupSession(1L, start, SessionStatus.PAID);
+    Session member = groupSession(2L, start, SessionStatus.PAID);
+    Session done = groupSession(3L, start, SessionStatus.CANCELLED);
+    for (Session session : List.of(lead, member, done)) {
+      session.setTariff(tariff);
+      session.setPaymentId(10L);
+      session.setTotalCost(BigDecimal.valueOf(5));
+    }
+    when(sessionRepository.findById(2L)).thenReturn(Optional.of(member));
+    when(sessionRepository.findAllByBookingGroupIdAndStartTime(100L, start))
+        .thenReturn(List.of(lead, member, done));
+
+    sessionService.cancelSession(2L);
+
+    assertEquals(SessionStatus.CANCELLED, lead.getStatus());
+    assertEquals(SessionStatus.CANCELLED, member.getStatus());
+    verify(tariffRepository).addBookings(1L, start.toLocalDate(), -2);
+    ArgumentCaptor<Object> refunds = ArgumentCaptor.forClass(Object.class);
+    verify(outboxService, times(2)).enqueue(eq("REFUND_MONEYS_EVENT"), eq("7"),
+        refunds.capture());
+    assertEquals(Set.of(1L, 2L), refunds.getAllValues().stream()
+        .map(refund -> ((RefundMoneyEvent) refund).getSessionId())
+        .collect(Collectors.toSet()));
+  }
+
+  @Test
+  void cancelSession_whenPending_shouldNotRefund() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    Session session = groupSession(1L, start, SessionStatus.PENDING);
+    session.setBookingGroupId(null);
+    session.setTariff(Tariff.builder().tariffId(1L).build());
+    when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+
+    sessionService.cancelSession(1L);
+
+    assertEquals(SessionStatus.CANCELLED, session.getStatus());
+    verify(outboxService, never()).enqueue(eq("REFUND_MONEYS_EVENT"), any(), any());
+  }
+
+  @Test
+  void getFreePcs_shouldSkipHeldPcs() {
+    LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+    when(pcScheduleIndex.coveredFrom()).thenReturn(LocalDateTime.now().minusDays(1));
+    when(pcScheduleIndex.freePcs(List.of(1L, 2L, 3L), from, from.plusHours(1)))
+        .thenReturn(List.of(1L, 3L));
+    when(slotHoldService.findHeldPcIds(List.of(1L, 3L), from, from.plusHours(1)))
+        .thenReturn(Set.of(3L));
+
+    assertEquals(List.of(1L),
+        sessionService.getFreePcs(List.of(1L, 2L, 3L), from, from.plusHours(1)));
+  }
+
+  @Test
+  void findEarliestFreeSlots_shouldOrderByStartAndSkipHeldPcs() {
+    LocalDateTime from = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+    Duration threeHours = Duration.ofHours(3);
+    when(pcScheduleIndex.coveredFrom()).thenReturn(LocalDateTime.now().minusDays(1));
+    when(pcInfoCache.search(true, "rtx", null)).thenReturn(List.of(1L, 2L, 3L, 4L));
+    when(pcScheduleIndex.earliestFree(eq(1L), eq(from), eq(threeHours), any()))
+        .thenReturn(from.plusHours(2));
+    when(pcScheduleIndex.earliestFree(eq(2L), eq(from), eq(threeHours), any()))
+        .thenReturn(from);
+    when(pcScheduleIndex.earliestFree(eq(3L), eq(from), eq(threeHours), any()))
+        .thenReturn(from);
+    when(pcScheduleIndex.earliestFree(eq(4L), eq(from), eq(threeHours), any()))
+        .thenReturn(null);
+    when(slotHoldService.findHeldPcIds(List.of(2L, 3L), from, from.plusHours(3)))
+        .thenReturn(Set.of(2L));
+
+    List<FreeSlotDTO> result =
+        sessionService.findEarliestFreeSlots(true, "rtx", null, from, 3, 2);
+
+    assertEquals(List.of(3L, 1L), result.stream().map(FreeSlotDTO::getPcId).toList());
+    assertEquals(from, result.get(0).getStartTime());
+    assertEquals(from.plusHours(5), result.get(1).getEndTime());
+  }
+
+  @Test
+  void findEarliestFreeSlots_whenDurationTooLong_shouldThrow() {
+    assertThrows(IllegalArgumentException.class,
+        () -> sessionService.findEarliestFreeSlots(null, null, null, null, 25, 10));
+    verifyNoInteractions(pcInfoCache);
+  }
+
+  @Test
+  void updateStatus_whenPaymentFailed_shouldReleaseHold() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    Session session = Session.builder().sessionId(5L).pcId(1L).userId(7L)
+        .startTime(start).endTime(start.plusHours(1)).status(SessionStatus.PENDING).build();
+    when(sessionRepository.findById(5L)).thenReturn(Optional.of(session));
+
+    sessionService.updateStatus(10L, 5L, OperationType.ERROR);
+
+    assertEquals(SessionStatus.ERROR, session.getStatus());
+    verify(pcScheduleIndex).remove(session);
+    verify(slotHoldService).release(7L, 1L, start, start.plusHours(1));
+    verify(occupancyEventProducer).publish(session);
+  }
+
+  @Test
+  void getUserStats_shouldReadAggregate() {
+    when(userSessionStatsRepository.findById(7L)).thenReturn(Optional.of(
+        UserSessionStats.builder().userId(7L).totalSessions(3).totalMinutes(270).build()));
+
+    SessionStatsDTO result = sessionService.getUserStats(7L);
+
+    assertEquals(3, result.getTotalSessions());
+    assertEquals(4.5, result.getTotalGameHour());
+    verify(sessionRepository, never()).findAllByUserIdAndEndTimeIsNotNull(anyLong());
+  }
+
+  @Test
+  void getUserStats_whenNoCompletedSessions_shouldReturnZeros() {
+    when(userSessionStatsRepository.findById(7L)).thenReturn(Optional.empty());
+
+    SessionStatsDTO result = sessionService.getUserStats(7L);
+
+    assertEquals(0, result.getTotalSessions());
+    assertEquals(0.0, result.getTotalGameHour());
+  }
+
+  @Test
+  void updateStatus_whenSessionAlreadyPaid_shouldIgnoreDuplicate() {
+    Session session = Session.builder()
+        .sessionId(5L)
+        .pcId(1L)
+        .userId(7L)
+        .status(SessionStatus.COMPLETED)
+        .build();
+    when(sessionRepository.findById(5L)).thenReturn(Optional.of(session));
+
+    sessionService.updateStatus(10L, 5L, OperationType.SUCCESS);
+
+    assertEquals(SessionStatus.COMPLETED, session.getStatus());
+    verify(sessionLifecycleService, never()).schedule(any());
+  }
+
+  @Test
+  void getUserSessions_shouldIncludeArchivedSessions() {
+    Session recent = Session.builder().sessionId(2L).pcId(1L).userId(7L)
+        .status(SessionStatus.PAID).build();
+    Session archived = Session.builder().sessionId(1L).pcId(1L).userId(7L)
+        .status(SessionStatus.COMPLETED).build();
+    when(sessionRepository.findAllByUserId(7L)).thenReturn(List.of(recent));
+    when(sessionArchiveService.findArchivedSessions(7L)).thenReturn(List.of(archived));
+    when(pcInfoCache.getAll(any())).thenReturn(Map.of());
+
+    List<SessionResponseDto> result = sessionService.getUserSessions(7L);
+
+    assertEquals(List.of(2L, 1L), result.stream().map(SessionResponseDto::getSessionId).toList());
+  }
+
+  @Test
+  void getUserSessionsPage_whenPageReachesArchivedMonths_shouldMergeArchivedSessions() {
+    LocalDateTime liveStart = LocalDateTime.of(2026, 3, 10, 12, 0);
+    LocalDateTime archivedStart = LocalDateTime.of(2025, 1, 20, 12, 0);
+    Session live = Session.builder().sessionId(30L).pcId(1L).userId(7L)
+        .startTime(liveStart).status(SessionStatus.COMPLETED).build();
+    Session archivedNewer = Session.builder().sessionId(20L).pcId(1L).userId(7L)
+        .startTime(archivedStart).status(SessionStatus.COMPLETED).build();
+    Session archivedOlder = Session.builder().sessionId(10L).pcId(1L).userId(7L)
+        .startTime(archivedStart.minusDays(5)).status(SessionStatus.COMPLETED).build();
+    Session archivedOtherPc = Session.builder().sessionId(15L).pcId(2L).userId(7L)
+        .startTime(archivedStart.minusDays(1)).status(SessionStatus.COMPLETED).build();
+    doReturn(List.of(live)).when(sessionRepository).findBy(any(Specification.class), any());
+    when(sessionArchiveService.findArchivedUntil(7L))
+        .thenReturn(LocalDateTime.of(2025, 2, 1, 0, 0));
+    when(sessionArchiveService.findArchivedSessions(7L))
+        .thenReturn(List.of(archivedNewer, archivedOlder, archivedOtherPc));
+
+    SessionPageDTO<SessionResponseDto> first = sessionService.getUserSessionsPage(7L,
+        SessionFilterDTO.builder().pcId(1L).build(), null, 2);
+
+    assertEquals(List.of(30L, 20L),
+        first.getItems().stream().map(SessionResponseDto::getSessionId).toList());
+    assertNotNull(first.getNextCursor());
+
+    doReturn(List.of()).when(sessionRepository).findBy(any(Specification.class), any());
+
+    SessionPageDTO<SessionResponseDto> second = sessionService.getUserSessionsPage(7L,
+        SessionFilterDTO.builder().pcId(1L).build(), first.getNextCursor(), 2);
+
+    assertEquals(List.of(10L),
+        second.getItems().stream().map(SessionResponseDto::getSessionId).toList());
+    assertNull(second.getNextCursor());
+  }
+
+  @Test
+  void getUserSessionsPage_whenPageEndsAfterArchivedMonths_shouldNotReadArchive() {
+    LocalDateTime start = LocalDateTime.of(2026, 3, 10, 12, 0);
+    List<Session> live = List.of(
+        Session.builder().sessionId(3L).pcId(1L).userId(7L).startTime(start).build(),
+        Session.builder().sessionId(2L).pcId(1L).userId(7L).startTime(start.minusDays(1)).build());
+    doReturn(live).when(sessionRepository).findBy(any(Specification.class), any());
+    when(sessionArchiveService.findArchivedUntil(7L))
+        .thenReturn(LocalDateTime.of(2025, 2, 1, 0, 0));
+
+    SessionPageDTO<SessionResponseDto> page = sessionService.getUserSessionsPage(7L,
+        SessionFilterDTO.builder().build(), null, 1);
+
+    assertEquals(List.of(3L),
+        page.getItems().stream().map(SessionResponseDto::getSessionId).toList());
+    verify(sessionArchiveService, never()).findArchivedSessions(any());
+  }
+
+  @Test
+  void rebuildUserStats_shouldCountLegacyArchiveRowsBeforeAggregating() {
+    sessionService.rebuildUserStats();
+
+    InOrder inOrder = inOrder(userSessionStatsRepository, sessionArchiveService);
+    inOrder.verify(userSessionStatsRepository).lockForRebuild();
+    inOrder.verify(sessionArchiveService).fillMissingCompletedTotals();
+    inOrder.verify(userSessionStatsRepository).clear();
+    inOrder.verify(userSessionStatsRepository).insertFromHistory();
+  }
+
+  @Test
+  void getOccupancy_shouldConcatenateDaysFromIndex() {
+    LocalDate day = LocalDate.now().plusDays(1);
+    BitSet secondDay = new BitSet();
+    secondDay.set(0);
+    secondDay.set(95);
+    when(pcScheduleIndex.coveredFrom()).thenReturn(LocalDateTime.now().minusDays(1));
+    when(pcScheduleIndex.occupancy(1L, day.plusDays(1))).thenReturn(secondDay);
+
+    OccupancyDTO result = sessionService.getOccupancy(List.of(1L, 2L), day, day.plusDays(1));
+
+    BitSet expected = new BitSet();
+    expected.set(96);
+    expected.set(191);
+    assertEquals(2, result.getDays());
+    assertEquals(Base64.getEncoder().encodeToString(expected.toByteArray()),
+        result.getPcs().get(1L));
+    assertEquals("", result.getPcs().get(2L));
+    verify(sessionRepository, never()).findSessionsIntersectingDay(any(), any());
+  }
+
+  @Test
+  void getOccupancy_whenRangeTooLong_shouldThrowException() {
+    LocalDate day = LocalDate.now();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> sessionService.getOccupancy(null, day, day.plusDays(62)));
+  }
+
+  private CreateGroupSessionDTO groupBookingFor(List<Long> pcIds, LocalDateTime start,
+      LocalDateTime end) {
+    return CreateGroupSessionDTO.builder()
+        .pcIds(pcIds)
+        .tariffId(1L)
+        .startTime(start)
+        .endTime(end)
+        .build();
+  }
+
+  private Session groupSession(Long id, LocalDateTime start, SessionStatus status) {
+    return Session.builder()
+        .sessionId(id)
+        .pcId(id)
+        .userId(7L)
+        .startTime(start)
+        .endTime(start.plusHours(1))
+        .status(status)
+        .bookingGroupId(100L)
+        .build();
+  }
+
+  private CreateSessionDTO bookingFor(Long pcId, LocalDateTime start, LocalDateTime end) {
+    return CreateSessionDTO.builder()
+        .pcId(pcId)
+        .tariffId(1L)
+        .startTime(start)
+        .endTime(end)
+        .build();
+  }
+}
@@ -0,0 +1,97 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.exception.SlotHeldException;
+import com.actisys.billingservice.service.impl.SlotHoldServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SlotHoldServiceImplTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 18, 0);
+  private static final LocalDateTime END = START.plusHours(2);
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  @Mock
+  private ZSetOperations<String, String> zSetOperations;
+
+  @InjectMocks
+  private SlotHoldServiceImpl slotHoldService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(slotHoldService, "ttlSeconds", 600L);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void hold_shouldPassRangeAndTtlToScript() {
+    when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenReturn(1_000L);
+
+    slotHoldService.hold(7L, 1L, START, END);
+
+    verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("billing:slot-holds:1")),
+        eq("7"), eq(epochSecond(START)), eq(epochSecond(END)), eq("600000"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void hold_whenHeldByAnotherUser_shouldThrowException() {
+    when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenReturn(0L);
+
+    assertThrows(SlotHeldException.class, () -> slotHoldService.hold(7L, 1L, START, END));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void hold_whenRedisUnavailable_shouldLetBookingThrough() {
+    when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenThrow(new RedisConnectionFailureException("down"));
+
+    assertNotNull(slotHoldService.hold(7L, 1L, START, END));
+  }
+
+  @Test
+  void release_shouldRemoveHoldMember() {
+    when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+    slotHoldService.release(7L, 1L, START, END);
+
+    verify(zSetOperations).remove("billing:slot-holds:1",
+        "7:" + epochSecond(START) + ":" + epochSecond(END));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void findHeldPcIds_shouldMapScriptPositionsToPcIds() {
+    when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenReturn(List.of(2L, 3L));
+
+    Set<Long> result = slotHoldService.findHeldPcIds(List.of(4L, 5L, 6L), START, END);
+
+    assertEquals(Set.of(5L, 6L), result);
+  }
+
+  private String epochSecond(LocalDateTime time) {
+    return String.valueOf(time.toEpochSecond(ZoneOffset.UTC));
+  }
+}
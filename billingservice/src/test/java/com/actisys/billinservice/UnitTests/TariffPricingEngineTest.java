@@ -0,0 +1,96 @@
+package com.actisys.billinservice.UnitTests;
+
+import com.actisys.billingservice.exception.TariffNotFoundException;
+import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.pricing.TariffPricingEngine;
+import com.actisys.billingservice.repository.TariffRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TariffPricingEngineTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+  @Mock
+  private TariffRepository tariffRepository;
+
+  private TariffPricingEngine pricingEngine;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    pricingEngine = new TariffPricingEngine(tariffRepository);
+  }
+
+  @Test
+  void costCents_shouldMatchBigDecimalCalculation() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      Tariff tariff = tariff(1L, BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+          1 + random.nextInt(24));
+      LocalDateTime end = START.plusMinutes(random.nextInt(60 * 24 * 7));
+
+      long cents = pricingEngine.costCents(tariff, START, end);
+
+      assertEquals(bigDecimalCost(tariff, START, end), BigDecimal.valueOf(cents, 2),
+          "price " + tariff.getPrice() + ", hours " + tariff.getHours() + ", end " + end);
+    }
+  }
+
+  @Test
+  void quoteCents_shouldUseReloadedTariffs() {
+    when(tariffRepository.findAll()).thenReturn(List.of(tariff(1L, new BigDecimal("150.00"), 3)));
+    pricingEngine.reload();
+
+    assertEquals(7500, pricingEngine.quoteCents(1L, START, START.plusHours(1).plusMinutes(30)));
+  }
+
+  @Test
+  void quoteCents_whenTariffUnknown_shouldThrowException() {
+    when(tariffRepository.findAll()).thenReturn(List.of());
+    pricingEngine.reload();
+
+    assertThrows(TariffNotFoundException.class,
+        () -> pricingEngine.quoteCents(1L, START, START.plusHours(1)));
+  }
+
+  @Test
+  void quoteCents_whenEndBeforeStart_shouldThrowException() {
+    when(tariffRepository.findAll()).thenReturn(List.of(tariff(1L, new BigDecimal("5.00"), 1)));
+    pricingEngine.reload();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> pricingEngine.quoteCents(1L, START, START.minusMinutes(1)));
+  }
+
+  private BigDecimal bigDecimalCost(Tariff tariff, LocalDateTime start, LocalDateTime end) {
+    long minutes = Duration.between(start, end).toMinutes();
+    BigDecimal hours = BigDecimal.valueOf(minutes)
+        .divide(BigDecimal.valueOf(60), 2, RoundingMode.HALF_UP);
+    BigDecimal pricePerHour = tariff.getPrice()
+        .divide(BigDecimal.valueOf(tariff.getHours()), 2, RoundingMode.HALF_UP);
+    return pricePerHour.multiply(hours).setScale(2, RoundingMode.HALF_UP);
+  }
+
+  private Tariff tariff(Long id, BigDecimal price, int hours) {
+    return Tariff.builder()
+        .tariffId(id)
+        .name("Tariff " + id)
+        .price(price)
+        .isVip(false)
+        .hours(hours)
+        .build();
+  }
+}
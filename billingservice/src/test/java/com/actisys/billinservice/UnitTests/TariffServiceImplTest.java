@@ -1,19 +1,23 @@
 package com.actisys.billinservice.UnitTests;
 
 import com.actisys.billingservice.dto.TariffDtos.CreateTariffDTO;
+import com.actisys.billingservice.dto.TariffDtos.QuoteDTO;
+import com.actisys.billingservice.dto.TariffDtos.QuoteRequestDTO;
 import com.actisys.billingservice.dto.TariffDtos.TariffDTO;
 import com.actisys.billingservice.exception.TariffAlreadyExistsException;
 import com.actisys.billingservice.exception.TariffNotFoundException;
 import com.actisys.billingservice.mapper.TariffMapper;
 import com.actisys.billingservice.model.Tariff;
+import com.actisys.billingservice.pricing.TariffPricingEngine;
 import com.actisys.billingservice.repository.TariffRepository;
 import com.actisys.billingservice.service.impl.TariffServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +32,9 @@ class TariffServiceImplTest {
   @Mock
   private TariffMapper tariffMapper;
 
+  @Mock
+  private TariffPricingEngine tariffPricingEngine;
+
   @InjectMocks
   private TariffServiceImpl tariffService;
 
@@ -124,6 +131,7 @@ class TariffServiceImplTest {
     verify(tariffRepository).existsByName("Standard");
     verify(tariffRepository).save(any(Tariff.class));
     verify(tariffMapper).toDTO(testTariff);
+    verify(tariffPricingEngine).reload();
   }
 
   @Test
@@ -264,6 +272,7 @@ class TariffServiceImplTest {
 
     verify(tariffRepository).findById(1L);
     verify(tariffRepository).delete(testTariff);
+    verify(tariffPricingEngine).reload();
   }
 
   @Test
@@ -311,19 +320,19 @@ class TariffServiceImplTest {
         .build();
 
     List<Tariff> popularTariffs = Arrays.asList(testTariff, tariff2, tariff3);
-    when(tariffRepository.findPopularTariffs(Limit.of(3))).thenReturn(popularTariffs);
+    when(tariffRepository.findPopularTariffs(any(LocalDate.class), eq(3))).thenReturn(popularTariffs);
     when(tariffMapper.toDTO(testTariff)).thenReturn(testTariffDto);
     when(tariffMapper.toDTO(tariff2)).thenReturn(dto2);
     when(tariffMapper.toDTO(tariff3)).thenReturn(dto3);
 
-    List<TariffDTO> result = tariffService.getPopularTariffs();
+    List<TariffDTO> result = tariffService.getPopularTariffs(30);
 
     assertNotNull(result);
     assertEquals(3, result.size());
     assertEquals("Standard", result.get(0).getName());
     assertEquals("Premium", result.get(1).getName());
     assertEquals("Basic", result.get(2).getName());
-    verify(tariffRepository).findPopularTariffs(Limit.of(3));
+    verify(tariffRepository).findPopularTariffs(any(LocalDate.class), eq(3));
     verify(tariffRepository, never()).findFirst3By();
     verify(tariffMapper, times(3)).toDTO(any(Tariff.class));
   }
@@ -378,7 +387,7 @@ class TariffServiceImplTest {
         .hours(1)
         .build();
 
-    when(tariffRepository.findPopularTariffs(Limit.of(3)))
+    when(tariffRepository.findPopularTariffs(any(LocalDate.class), eq(3)))
         .thenReturn(Collections.singletonList(popularTariff));
     when(tariffRepository.findFirst3By())
         .thenReturn(Arrays.asList(popularTariff, additionalTariff1, additionalTariff2));
@@ -386,11 +395,11 @@ class TariffServiceImplTest {
     when(tariffMapper.toDTO(additionalTariff1)).thenReturn(additionalDto1);
     when(tariffMapper.toDTO(additionalTariff2)).thenReturn(additionalDto2);
 
-    List<TariffDTO> result = tariffService.getPopularTariffs();
+    List<TariffDTO> result = tariffService.getPopularTariffs(30);
 
     assertNotNull(result);
     assertEquals(3, result.size());
-    verify(tariffRepository).findPopularTariffs(Limit.of(3));
+    verify(tariffRepository).findPopularTariffs(any(LocalDate.class), eq(3));
     verify(tariffRepository).findFirst3By();
     verify(tariffMapper, times(3)).toDTO(any(Tariff.class));
   }
@@ -405,17 +414,17 @@ class TariffServiceImplTest {
     TariffDTO dto2 = TariffDTO.builder().tariffId(2L).name("T2").price(BigDecimal.valueOf(100)).isVip(false).hours(1).build();
     TariffDTO dto3 = TariffDTO.builder().tariffId(3L).name("T3").price(BigDecimal.valueOf(100)).isVip(false).hours(1).build();
 
-    when(tariffRepository.findPopularTariffs(Limit.of(3))).thenReturn(Collections.emptyList());
+    when(tariffRepository.findPopularTariffs(any(LocalDate.class), eq(3))).thenReturn(Collections.emptyList());
     when(tariffRepository.findFirst3By()).thenReturn(Arrays.asList(tariff1, tariff2, tariff3));
     when(tariffMapper.toDTO(tariff1)).thenReturn(dto1);
     when(tariffMapper.toDTO(tariff2)).thenReturn(dto2);
     when(tariffMapper.toDTO(tariff3)).thenReturn(dto3);
 
-    List<TariffDTO> result = tariffService.getPopularTariffs();
+    List<TariffDTO> result = tariffService.getPopularTariffs(30);
 
     assertNotNull(result);
     assertEquals(3, result.size());
-    verify(tariffRepository).findPopularTariffs(Limit.of(3));
+    verify(tariffRepository).findPopularTariffs(any(LocalDate.class), eq(3));
     verify(tariffRepository).findFirst3By();
   }
 
@@ -469,7 +478,7 @@ class TariffServiceImplTest {
         .hours(1)
         .build();
 
-    when(tariffRepository.findPopularTariffs(Limit.of(3)))
+    when(tariffRepository.findPopularTariffs(any(LocalDate.class), eq(3)))
         .thenReturn(Arrays.asList(popularTariff, additionalTariff1));
     when(tariffRepository.findFirst3By())
         .thenReturn(Arrays.asList(popularTariff, additionalTariff1, additionalTariff2));
@@ -477,11 +486,66 @@ class TariffServiceImplTest {
     when(tariffMapper.toDTO(additionalTariff1)).thenReturn(additionalDto1);
     when(tariffMapper.toDTO(additionalTariff2)).thenReturn(additionalDto2);
 
-    List<TariffDTO> result = tariffService.getPopularTariffs();
+    List<TariffDTO> result = tariffService.getPopularTariffs(30);
 
     assertNotNull(result);
     assertEquals(3, result.size());
-    verify(tariffRepository).findPopularTariffs(Limit.of(3));
+    verify(tariffRepository).findPopularTariffs(any(LocalDate.class), eq(3));
     verify(tariffRepository).findFirst3By();
   }
+
+  @Test
+  void getPopularTariffs_shouldRankWithinWindow() {
+    when(tariffRepository.findPopularTariffs(any(LocalDate.class), eq(3)))
+        .thenReturn(List.of(testTariff));
+    when(tariffRepository.findFirst3By()).thenReturn(List.of(testTariff));
+    when(tariffMapper.toDTO(testTariff)).thenReturn(testTariffDto);
+
+    tariffService.getPopularTariffs(7);
+
+    verify(tariffRepository).findPopularTariffs(LocalDate.now().minusDays(6), 3);
+  }
+
+  @Test
+  void getPopularTariffs_whenWindowOutOfRange_shouldThrowException() {
+    assertThrows(IllegalArgumentException.class, () -> tariffService.getPopularTariffs(0));
+    assertThrows(IllegalArgumentException.class, () -> tariffService.getPopularTariffs(366));
+    verify(tariffRepository, never()).findPopularTariffs(any(), anyInt());
+  }
+
+  @Test
+  void quote_shouldPriceEveryRequestInOrder() {
+    LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+    when(tariffPricingEngine.quoteCents(1L, start, start.plusHours(2))).thenReturn(20000L);
+    when(tariffPricingEngine.quoteCents(2L, start, start.plusMinutes(30))).thenReturn(1250L);
+
+    List<QuoteDTO> result = tariffService.quote(List.of(
+        QuoteRequestDTO.builder().tariffId(1L).startTime(start).endTime(start.plusHours(2)).build(),
+        QuoteRequestDTO.builder().tariffId(2L).startTime(start).endTime(start.plusMinutes(30))
+            .build()));
+
+    assertEquals(2, result.size());
+    assertEquals(new BigDecimal("200.00"), result.get(0).getTotalCost());
+    assertEquals(new BigDecimal("12.50"), result.get(1).getTotalCost());
+    assertEquals(2L, result.get(1).getTariffId());
+  }
+
+  @Test
+  void quote_whenBatchTooLarge_shouldThrowException() {
+    List<QuoteRequestDTO> requests = Collections.nCopies(501, QuoteRequestDTO.builder().build());
+
+    assertThrows(IllegalArgumentException.class, () -> tariffService.quote(requests));
+    verifyNoInteractions(tariffPricingEngine);
+  }
+
+  @Test
+  void quote_whenRequestMissesField_shouldThrowException() {
+    LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+    List<QuoteRequestDTO> requests = List.of(
+        QuoteRequestDTO.builder().tariffId(1L).startTime(start).endTime(start.plusHours(1)).build(),
+        QuoteRequestDTO.builder().startTime(start).endTime(start.plusHours(1)).build());
+
+    assertThrows(IllegalArgumentException.class, () -> tariffService.quote(requests));
+    verifyNoInteractions(tariffPricingEngine);
+  }
 }
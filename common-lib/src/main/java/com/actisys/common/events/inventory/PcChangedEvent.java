@@ -0,0 +1,18 @@
+package com.actisys.common.events.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PcChangedEvent {
+  private Long pcId;
+  private boolean enabled;
+  private boolean deleted;
+}
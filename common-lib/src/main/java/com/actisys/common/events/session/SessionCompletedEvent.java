@@ -0,0 +1,20 @@
+package com.actisys.common.events.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Published by billing when sessions of a user are completed
+ * and the user's session stats changed.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionCompletedEvent {
+  private Long userId;
+}
@@ -16,4 +16,5 @@ public class RefundMoneyEvent {
   private Long userId;
   private Long paymentId;
   private BigDecimal amount;
+  private Long sessionId;
 }
@@ -0,0 +1,292 @@
+package com.actisys.common.storage;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+/**
+ * Uploads photos to S3 without holding them in heap.
+ * The multipart body is moved to a temp file and streamed to S3 from there;
+ * the caller only waits for the original. Thumbnails fitting {@link #THUMBNAIL_SIZES}
+ * are rendered on the thumbnail executor and stored next to the original
+ * as {@code <original key>_<size>.jpg}, see {@link #thumbnailOf}.
+ * Thumbnails are best effort: they are not awaited nor retried, and are skipped for
+ * files that aren't images or when the thumbnail queue is full. Only the original's URL
+ * is returned; DTOs expose the thumbnail URLs through {@link #thumbnailsOf} and clients
+ * fall back to the original when one is missing. {@link #deletePhoto} removes the original
+ * together with its thumbnails.
+ * Works against any S3-compatible endpoint, e.g. a local MinIO.
+ */
+@Slf4j
+public class PhotoUploadPipeline implements AutoCloseable {
+
+  public static final List<Integer> THUMBNAIL_SIZES = List.of(512, 256, 128);
+
+  private static final String THUMBNAIL_CONTENT_TYPE = "image/jpeg";
+  private static final long UPLOAD_TIMEOUT_SECONDS = 30;
+
+  private final S3AsyncClient s3Client;
+  private final String bucket;
+  private final String publicBaseUrl;
+  private final ExecutorService thumbnailExecutor;
+
+  /**
+   * @param publicBaseUrl URL prefix the stored keys are served from, ending with a slash
+   * @param thumbnailExecutor runs thumbnail rendering; shut down by {@link #close()}
+   */
+  public PhotoUploadPipeline(S3AsyncClient s3Client, String bucket, String publicBaseUrl,
+      ExecutorService thumbnailExecutor) {
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+    this.publicBaseUrl = publicBaseUrl;
+    this.thumbnailExecutor = thumbnailExecutor;
+  }
+
+  /**
+   * Thumbnail of the given size stored next to a photo uploaded by this pipeline;
+   * maps both the photo's URL and its key.
+   */
+  public static String thumbnailOf(String photo, int size) {
+    return photo + "_" + size + ".jpg";
+  }
+
+  /**
+   * Thumbnail URLs of a photo by size, largest first; empty when there is no photo.
+   */
+  public static Map<Integer, String> thumbnailsOf(String photo) {
+    Map<Integer, String> thumbnails = new LinkedHashMap<>();
+    if (photo != null && !photo.isBlank()) {
+      THUMBNAIL_SIZES.forEach(size -> thumbnails.put(size, thumbnailOf(photo, size)));
+    }
+    return thumbnails;
+  }
+
+  /**
+   * Stores the original under {@code keyPrefix} and schedules its thumbnails.
+   *
+   * @return public URL of the original
+   */
+  public String upload(String keyPrefix, MultipartFile file) {
+    String key = keyPrefix + UUID.randomUUID() + "-" + file.getOriginalFilename();
+    Path spooled = spool(file);
+    try {
+      put(PutObjectRequest.builder()
+          .bucket(bucket)
+          .key(key)
+          .contentType(file.getContentType())
+          .contentLength(file.getSize())
+          .build(), AsyncRequestBody.fromFile(spooled));
+    } catch (RuntimeException e) {
+      delete(spooled);
+      throw e;
+    }
+
+    try {
+      thumbnailExecutor.execute(() -> {
+        try {
+          uploadThumbnails(key, spooled);
+        } finally {
+          delete(spooled);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      log.warn("Thumbnail queue is full, skipping thumbnails of {}", key);
+      delete(spooled);
+    }
+    return publicBaseUrl + key;
+  }
+
+  /**
+   * Deletes a photo returned by {@link #upload} and its thumbnails without waiting for S3.
+   * Failures are only logged, a failed delete leaves an orphan but never fails the caller.
+   * URLs served from elsewhere are ignored.
+   */
+  public void deletePhoto(String photoUrl) {
+    if (photoUrl == null || photoUrl.isBlank()) {
+      return;
+    }
+    if (!photoUrl.startsWith(publicBaseUrl)) {
+      log.warn("Photo URL {} does not belong to bucket {}", photoUrl, bucket);
+      return;
+    }
+
+    String key = photoUrl.substring(publicBaseUrl.length());
+    deleteObject(key);
+    THUMBNAIL_SIZES.forEach(size -> deleteObject(thumbnailOf(key, size)));
+  }
+
+  @Override
+  public void close() {
+    thumbnailExecutor.shutdown();
+  }
+
+  private Path spool(MultipartFile file) {
+    try {
+      Path spooled = Files.createTempFile("photo-upload-", null);
+      file.transferTo(spooled);
+      return spooled;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read uploaded photo", e);
+    }
+  }
+
+  private void put(PutObjectRequest request, AsyncRequestBody body) {
+    try {
+      s3Client.putObject(request, body).get(UPLOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while uploading " + request.key(), e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new IllegalStateException("Failed to upload " + request.key(), e);
+    }
+    log.info("Uploaded {} to bucket {}", request.key(), bucket);
+  }
+
+  private void deleteObject(String key) {
+    s3Client.deleteObject(DeleteObjectRequest.builder()
+            .bucket(bucket)
+            .key(key)
+            .build())
+        .whenComplete((response, e) -> {
+          if (e != null) {
+            log.error("Failed to delete photo {}: {}", key, e.getMessage(), e);
+          } else {
+            log.info("Deleted photo from bucket {} with key {}", bucket, key);
+          }
+        });
+  }
+
+  private void uploadThumbnails(String key, Path original) {
+    BufferedImage image;
+    try {
+      image = decode(original, THUMBNAIL_SIZES.get(0));
+    } catch (IOException e) {
+      log.warn("Failed to read {} for thumbnails: {}", key, e.getMessage());
+      return;
+    }
+    if (image == null) {
+      log.warn("{} is not a readable image, skipping thumbnails", key);
+      return;
+    }
+
+    List<CompletableFuture<?>> uploads = new ArrayList<>(THUMBNAIL_SIZES.size());
+    for (int size : THUMBNAIL_SIZES) {
+      byte[] thumbnail;
+      try {
+        thumbnail = encodeJpeg(scaleToFit(image, size));
+      } catch (IOException e) {
+        log.warn("Failed to render {}px thumbnail of {}: {}", size, key, e.getMessage());
+        continue;
+      }
+      String thumbnailKey = thumbnailOf(key, size);
+      uploads.add(s3Client.putObject(PutObjectRequest.builder()
+              .bucket(bucket)
+              .key(thumbnailKey)
+              .contentType(THUMBNAIL_CONTENT_TYPE)
+              .contentLength((long) thumbnail.length)
+              .build(), AsyncRequestBody.fromBytes(thumbnail))
+          .whenComplete((response, e) -> {
+            if (e != null) {
+              log.warn("Failed to upload thumbnail {}", thumbnailKey, e);
+            }
+          }));
+    }
+    CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+        .whenComplete((result, e) -> {
+          if (e == null) {
+            log.debug("Uploaded {} thumbnails of {}", uploads.size(), key);
+          }
+        });
+  }
+
+  /**
+   * Decodes the image, skipping source pixels so that it is no larger than needed
+   * for a thumbnail of maxSize: full-size photos are never expanded in memory.
+   *
+   * @return the image, or null if no reader understands the format
+   */
+  private BufferedImage decode(Path file, int maxSize) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+      Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+      if (readers == null || !readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+        // keep at least twice the target resolution so downscaling stays smooth
+        int subsampling = Math.max(1, longestEdge / (maxSize * 2));
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private BufferedImage scaleToFit(BufferedImage image, int size) {
+    double scale = Math.min(1.0,
+        (double) size / Math.max(image.getWidth(), image.getHeight()));
+    int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+    int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+    // JPEG has no alpha, transparent areas become white
+    BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = scaled.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+          RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+    } finally {
+      graphics.dispose();
+    }
+    return scaled;
+  }
+
+  private byte[] encodeJpeg(BufferedImage image) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    if (!ImageIO.write(image, "jpg", bytes)) {
+      throw new IOException("No JPEG writer available");
+    }
+    return bytes.toByteArray();
+  }
+
+  private void delete(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Failed to delete temp file {}: {}", file, e.getMessage());
+    }
+  }
+}
@@ -44,6 +44,14 @@ public class PcController {
     return ResponseEntity.ok(responseDTOS);
   }
 
+  @GetMapping("/search")
+  public ResponseEntity<List<Long>> searchPcIds(
+      @RequestParam(required = false) Boolean vip,
+      @RequestParam(required = false) String gpu,
+      @RequestParam(required = false) String cpu) {
+    return ResponseEntity.ok(pcService.searchPcIds(vip, gpu, cpu));
+  }
+
   @PutMapping("/disablePs/{id}")
   public ResponseEntity<PCDTO> disablePs(@PathVariable Long id) {
     PCDTO dto = pcService.disablePs(id);
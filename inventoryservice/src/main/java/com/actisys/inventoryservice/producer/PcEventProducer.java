@@ -0,0 +1,28 @@
+package com.actisys.inventoryservice.producer;
+
+import com.actisys.common.events.inventory.PcChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Publishes PC changes to Kafka once the change is committed,
+ * so consumers refetching the PC never see the old state.
+ */
+@RequiredArgsConstructor
+@Component
+@Slf4j
+public class PcEventProducer {
+
+  public static final String PC_CHANGED_TOPIC = "PC_CHANGED_EVENT";
+
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPcChanged(PcChangedEvent event) {
+    log.info("Publishing PC changed event for pc {}", event.getPcId());
+    kafkaTemplate.send(PC_CHANGED_TOPIC, String.valueOf(event.getPcId()), event);
+  }
+}
@@ -4,10 +4,27 @@ import com.actisys.inventoryservice.model.PC;
 import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PcRepository extends JpaRepository<PC, Long> {
 
   List<PC> findAllByIdIn(Collection<Long> ids);
+
+  /**
+   * Ids of enabled PCs in rooms with one of the given VIP flags
+   * whose lower-cased GPU and CPU match the LIKE patterns.
+   */
+  @Query("SELECT p.id FROM PC p JOIN p.room r WHERE p.isEnabled = true " +
+      "AND r.isVip IN :vipFlags " +
+      "AND LOWER(p.gpu) LIKE :gpuPattern ESCAPE '\\' " +
+      "AND LOWER(p.cpu) LIKE :cpuPattern ESCAPE '\\' " +
+      "ORDER BY p.id")
+  List<Long> findEnabledIdsMatching(
+      @Param("vipFlags") Collection<Boolean> vipFlags,
+      @Param("gpuPattern") String gpuPattern,
+      @Param("cpuPattern") String cpuPattern
+  );
 }
@@ -57,6 +57,17 @@ public interface PcService {
    */
   List<PcResponseDTO> getPcsByIds(List<Long> ids);
 
+  /**
+   * Finds enabled PCs by room and hardware attributes.
+   * GPU and CPU are matched as case-insensitive substrings, null filters match every PC.
+   *
+   * @param vip required VIP flag of the PC's room, or null for any room
+   * @param gpu part of the GPU name, or null
+   * @param cpu part of the CPU name, or null
+   * @return matching PC identifiers in ascending order
+   */
+  List<Long> searchPcIds(Boolean vip, String gpu, String cpu);
+
   /**
    * Disables PC by setting enabled flag to false.
    *
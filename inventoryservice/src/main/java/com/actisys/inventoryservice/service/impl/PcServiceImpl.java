@@ -1,6 +1,7 @@
 package com.actisys.inventoryservice.service.impl;
 
 import com.actisys.common.clientDtos.PcResponseDTO;
+import com.actisys.common.events.inventory.PcChangedEvent;
 import com.actisys.inventoryservice.dto.PCDTO;
 import com.actisys.inventoryservice.dto.PcCreateDTO;
 import com.actisys.inventoryservice.dto.PcInfoDTO;
@@ -14,8 +15,10 @@ import com.actisys.inventoryservice.repository.PcRepository;
 import com.actisys.inventoryservice.repository.RoomRepository;
 import com.actisys.inventoryservice.service.PcService;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +29,7 @@ public class PcServiceImpl implements PcService {
   private final PcRepository pcRepository;
   private final PcMapper pcMapper;
   private final RoomRepository roomRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Override
   public List<PcInfoDTO> getAllPc() {
@@ -54,7 +58,9 @@ public class PcServiceImpl implements PcService {
     pc.setMonitor(pcUpdateDTO.getMonitor());
     pc.setOccupied(pcUpdateDTO.getIsOccupied());
     pc.setEnabled(pcUpdateDTO.getIsEnabled());
-    return pcMapper.toDTO(pcRepository.save(pc));
+    PC updatedPc = pcRepository.save(pc);
+    publishChanged(updatedPc);
+    return pcMapper.toDTO(updatedPc);
   }
 
   @Override
@@ -64,6 +70,7 @@ public class PcServiceImpl implements PcService {
       throw new PcNotFoundException(id);
     }
     pcRepository.deleteById(id);
+    eventPublisher.publishEvent(PcChangedEvent.builder().pcId(id).deleted(true).build());
   }
 
   @Override
@@ -78,17 +85,47 @@ public class PcServiceImpl implements PcService {
     return pcs.stream().map(pcMapper::toResponseDto).collect(Collectors.toList());
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public List<Long> searchPcIds(Boolean vip, String gpu, String cpu) {
+    List<Boolean> vipFlags = vip == null ? List.of(true, false) : List.of(vip);
+    return pcRepository.findEnabledIdsMatching(vipFlags, containsPattern(gpu),
+        containsPattern(cpu));
+  }
+
   @Override
   public PCDTO disablePs(Long id) {
     PC pc = pcRepository.findById(id).orElseThrow(()->new PcNotFoundException(id));
     pc.setEnabled(false);
-    return pcMapper.toDTO(pcRepository.save(pc));
+    PC disabledPc = pcRepository.save(pc);
+    publishChanged(disabledPc);
+    return pcMapper.toDTO(disabledPc);
   }
 
   @Override
   public PCDTO activatePs(Long id) {
     PC pc = pcRepository.findById(id).orElseThrow(()->new PcNotFoundException(id));
     pc.setEnabled(true);
-    return pcMapper.toDTO(pcRepository.save(pc));
+    PC activatedPc = pcRepository.save(pc);
+    publishChanged(activatedPc);
+    return pcMapper.toDTO(activatedPc);
+  }
+
+  private String containsPattern(String part) {
+    if (part == null || part.isBlank()) {
+      return "%";
+    }
+    String escaped = part.trim().toLowerCase(Locale.ROOT)
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+    return "%" + escaped + "%";
+  }
+
+  private void publishChanged(PC pc) {
+    eventPublisher.publishEvent(PcChangedEvent.builder()
+        .pcId(pc.getId())
+        .enabled(pc.isEnabled())
+        .build());
   }
 }
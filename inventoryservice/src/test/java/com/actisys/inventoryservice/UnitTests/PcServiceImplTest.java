@@ -1,6 +1,7 @@
 package com.actisys.inventoryservice.UnitTests;
 
 import com.actisys.common.clientDtos.PcResponseDTO;
+import com.actisys.common.events.inventory.PcChangedEvent;
 import com.actisys.inventoryservice.dto.PCDTO;
 import com.actisys.inventoryservice.dto.PcCreateDTO;
 import com.actisys.inventoryservice.dto.PcInfoDTO;
@@ -17,6 +18,7 @@ import com.actisys.inventoryservice.service.impl.PcServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -37,6 +39,9 @@ class PcServiceImplTest {
   @Mock
   private RoomRepository roomRepository;
 
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks
   private PcServiceImpl pcService;
 
@@ -286,6 +291,10 @@ class PcServiceImplTest {
     // then
     verify(pcRepository).existsById(1L);
     verify(pcRepository).deleteById(1L);
+    ArgumentCaptor<PcChangedEvent> event = ArgumentCaptor.forClass(PcChangedEvent.class);
+    verify(eventPublisher).publishEvent(event.capture());
+    assertEquals(1L, event.getValue().getPcId());
+    assertTrue(event.getValue().isDeleted());
   }
 
   @Test
@@ -393,6 +402,34 @@ class PcServiceImplTest {
     verify(pcRepository).findAllByIdIn(ids);
   }
 
+  // ---------- searchPcIds ----------
+
+  @Test
+  void searchPcIds_shouldMatchAttributesAsLowerCaseSubstrings() {
+    // given
+    when(pcRepository.findEnabledIdsMatching(List.of(true), "%rtx%", "%"))
+        .thenReturn(List.of(1L, 3L));
+
+    // when
+    List<Long> result = pcService.searchPcIds(true, " RTX ", null);
+
+    // then
+    assertEquals(List.of(1L, 3L), result);
+  }
+
+  @Test
+  void searchPcIds_withoutVipFilter_shouldMatchAnyRoom() {
+    // given
+    when(pcRepository.findEnabledIdsMatching(anyList(), anyString(), anyString()))
+        .thenReturn(List.of());
+
+    // when
+    pcService.searchPcIds(null, "50%_off", "");
+
+    // then
+    verify(pcRepository).findEnabledIdsMatching(List.of(true, false), "%50\\%\\_off%", "%");
+  }
+
   // ---------- disablePs ----------
 
   @Test
@@ -412,6 +449,7 @@ class PcServiceImplTest {
     verify(pcRepository).findById(1L);
     verify(pcRepository).save(testPc);
     verify(pcMapper).toDTO(testPc);
+    verify(eventPublisher).publishEvent(any(PcChangedEvent.class));
   }
 
   @Test
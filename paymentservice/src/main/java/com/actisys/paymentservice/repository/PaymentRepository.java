@@ -1,10 +1,13 @@
 package com.actisys.paymentservice.repository;
 
+import com.actisys.common.events.PaymentType;
 import com.actisys.paymentservice.model.Payment;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment,Long> {
 
+    Optional<Payment> findByOrderIdAndPaymentType(Long orderId, PaymentType paymentType);
 }
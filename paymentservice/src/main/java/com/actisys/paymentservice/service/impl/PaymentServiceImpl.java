@@ -15,11 +15,14 @@ import com.actisys.paymentservice.model.PaymentStatus;
 import com.actisys.paymentservice.repository.PaymentRepository;
 import com.actisys.paymentservice.service.PaymentService;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
@@ -33,8 +36,19 @@ public class PaymentServiceImpl implements PaymentService {
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final PaymentMapper paymentMapper;
 
+    /**
+     * Creates the payment of an order once. Order events are delivered at least once,
+     * so a redelivery finds the payment created for the same order and type instead of
+     * inserting another one. While that payment is unsettled its wallet event is sent again,
+     * the wallet ledger applies each payment only once.
+     */
     @Override
     public PaymentDTO createPayment(CreatePaymentDTO createPaymentDTO) {
+        Optional<Payment> existing = findOrderPayment(createPaymentDTO);
+        if (existing.isPresent()) {
+            return redeliver(existing.get());
+        }
+
         PaymentDTO paymentDTO = new PaymentDTO();
         paymentDTO.setAmount(createPaymentDTO.getAmount());
         paymentDTO.setUserId(createPaymentDTO.getUserId());
@@ -44,16 +58,15 @@ public class PaymentServiceImpl implements PaymentService {
         paymentDTO.setStatus(PaymentStatus.CREATED);
 
         Payment savedEntity = paymentMapper.toEntity(paymentDTO);
-        paymentRepository.save(savedEntity);
-
-        CreateWalletEvent createWalletEvent = new CreateWalletEvent();
-        createWalletEvent.setCost(createPaymentDTO.getAmount());
-        createWalletEvent.setUserId(createPaymentDTO.getUserId());
-        createWalletEvent.setPaymentId(savedEntity.getPaymentId());
-        createWalletEvent.setPaymentType(createPaymentDTO.getPaymentType());
-
-        kafkaTemplate.send("CREATE_WALLET_EVENT", createWalletEvent);
+        try {
+            paymentRepository.save(savedEntity);
+        } catch (DataIntegrityViolationException e) {
+            // the same order was delivered concurrently and the other delivery won
+            return redeliver(findOrderPayment(createPaymentDTO).orElseThrow(() -> e));
+        }
 
+        sendWalletEvent(savedEntity.getPaymentId(), createPaymentDTO.getUserId(),
+            createPaymentDTO.getAmount(), createPaymentDTO.getPaymentType());
 
         return paymentDTO;
     }
@@ -100,7 +113,8 @@ public class PaymentServiceImpl implements PaymentService {
         createWalletEvent.setCost(savedPayment.getAmount());
         createWalletEvent.setUserId(savedPayment.getUserId());
         createWalletEvent.setPaymentId(savedPayment.getPaymentId());
-        kafkaTemplate.send("CREATE_WALLET_REPLENISHMENT_EVENT", createWalletEvent);
+        kafkaTemplate.send("CREATE_WALLET_REPLENISHMENT_EVENT",
+            String.valueOf(createWalletEvent.getUserId()), createWalletEvent);
         return paymentMapper.toDto(payment);
     }
 
@@ -124,6 +138,37 @@ public class PaymentServiceImpl implements PaymentService {
             .collect(Collectors.toList());
     }
 
+    private Optional<Payment> findOrderPayment(CreatePaymentDTO createPaymentDTO) {
+        if (createPaymentDTO.getOrderId() == null) {
+            return Optional.empty();
+        }
+        return paymentRepository.findByOrderIdAndPaymentType(createPaymentDTO.getOrderId(),
+            createPaymentDTO.getPaymentType());
+    }
+
+    private PaymentDTO redeliver(Payment payment) {
+        log.info("Payment {} already exists for order {} ({}), not creating another",
+            payment.getPaymentId(), payment.getOrderId(), payment.getPaymentType());
+        // a settled payment already got its wallet answer
+        if (payment.getStatus() == PaymentStatus.CREATED) {
+            sendWalletEvent(payment.getPaymentId(), payment.getUserId(), payment.getAmount(),
+                payment.getPaymentType());
+        }
+        return paymentMapper.toDto(payment);
+    }
+
+    private void sendWalletEvent(Long paymentId, Long userId, BigDecimal cost,
+        PaymentType paymentType) {
+        CreateWalletEvent createWalletEvent = new CreateWalletEvent();
+        createWalletEvent.setCost(cost);
+        createWalletEvent.setUserId(userId);
+        createWalletEvent.setPaymentId(paymentId);
+        createWalletEvent.setPaymentType(paymentType);
+
+        kafkaTemplate.send("CREATE_WALLET_EVENT",
+            String.valueOf(createWalletEvent.getUserId()), createWalletEvent);
+    }
+
     private PaymentStatus statusHandler(OperationType operationType){
         return operationType ==  OperationType.ERROR ? PaymentStatus.FAILED : PaymentStatus.PAID;
     }
@@ -5,14 +5,17 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.actisys.common.events.OperationType;
 import com.actisys.common.events.PaymentType;
+import com.actisys.common.events.order.CreateOrderEvent;
 import com.actisys.common.events.payment.CreatePaymentEvent;
 import com.actisys.common.events.user.CreateWalletEvent;
+import com.actisys.paymentservice.consumer.BookingEventConsumer;
 import com.actisys.paymentservice.dto.CreatePaymentDTO;
 import com.actisys.paymentservice.dto.CreateReplenishment;
 import com.actisys.paymentservice.dto.PaymentDTO;
@@ -25,12 +28,14 @@ import com.actisys.paymentservice.service.impl.PaymentServiceImpl;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.core.KafkaTemplate;
 
 class PaymentServiceImplTest {
@@ -78,7 +83,8 @@ class PaymentServiceImplTest {
 
     ArgumentCaptor<CreateWalletEvent> eventCaptor =
             ArgumentCaptor.forClass(CreateWalletEvent.class);
-    verify(kafkaTemplate).send(eq("CREATE_WALLET_EVENT"), eventCaptor.capture());
+    verify(kafkaTemplate).send(eq("CREATE_WALLET_EVENT"),
+            eq(String.valueOf(request.getUserId())), eventCaptor.capture());
 
     CreateWalletEvent sentEvent = eventCaptor.getValue();
     assertEquals(request.getAmount(), sentEvent.getCost());
@@ -87,6 +93,106 @@ class PaymentServiceImplTest {
     assertEquals(request.getPaymentType(), sentEvent.getPaymentType());
   }
 
+  @Test
+  void createPayment_whenBookingDeliveredTwice_shouldCreateOnePaymentAndResendItsEvent() {
+    CreateOrderEvent event = new CreateOrderEvent();
+    event.setOrderId(20L);
+    event.setUserId(10L);
+    event.setAmount(BigDecimal.valueOf(100));
+
+    AtomicReference<Payment> stored = new AtomicReference<>();
+    when(paymentMapper.toEntity(any(PaymentDTO.class))).thenAnswer(invocation -> {
+      PaymentDTO dto = invocation.getArgument(0);
+      Payment payment = new Payment();
+      payment.setAmount(dto.getAmount());
+      payment.setUserId(dto.getUserId());
+      payment.setOrderId(dto.getOrderId());
+      payment.setPaymentType(dto.getPaymentType());
+      payment.setStatus(dto.getStatus());
+      return payment;
+    });
+    when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+      Payment payment = invocation.getArgument(0);
+      payment.setPaymentId(1L);
+      stored.set(payment);
+      return payment;
+    });
+    when(paymentRepository.findByOrderIdAndPaymentType(20L, PaymentType.BOOKING))
+        .thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+    when(paymentMapper.toDto(any(Payment.class))).thenReturn(new PaymentDTO());
+
+    BookingEventConsumer consumer = new BookingEventConsumer(paymentService);
+    consumer.handleCreateBooking(event);
+    consumer.handleCreateBooking(event);
+
+    verify(paymentRepository, times(1)).save(any(Payment.class));
+
+    ArgumentCaptor<CreateWalletEvent> eventCaptor =
+            ArgumentCaptor.forClass(CreateWalletEvent.class);
+    verify(kafkaTemplate, times(2)).send(eq("CREATE_WALLET_EVENT"), eq("10"),
+            eventCaptor.capture());
+    for (CreateWalletEvent sentEvent : eventCaptor.getAllValues()) {
+      assertEquals(1L, sentEvent.getPaymentId());
+      assertEquals(event.getAmount(), sentEvent.getCost());
+      assertEquals(PaymentType.BOOKING, sentEvent.getPaymentType());
+    }
+  }
+
+  @Test
+  void createPayment_whenExistingPaymentSettled_shouldNotSendWalletEventAgain() {
+    CreatePaymentDTO request = new CreatePaymentDTO();
+    request.setAmount(BigDecimal.valueOf(100));
+    request.setUserId(10L);
+    request.setOrderId(20L);
+    request.setPaymentType(PaymentType.BOOKING);
+
+    Payment paid = new Payment();
+    paid.setPaymentId(1L);
+    paid.setOrderId(20L);
+    paid.setPaymentType(PaymentType.BOOKING);
+    paid.setStatus(PaymentStatus.PAID);
+
+    when(paymentRepository.findByOrderIdAndPaymentType(20L, PaymentType.BOOKING))
+        .thenReturn(Optional.of(paid));
+    when(paymentMapper.toDto(paid)).thenReturn(new PaymentDTO());
+
+    paymentService.createPayment(request);
+
+    verify(paymentRepository, never()).save(any());
+    verifyNoInteractions(kafkaTemplate);
+  }
+
+  @Test
+  void createPayment_whenConcurrentDeliveryInsertedFirst_shouldResendItsPayment() {
+    CreatePaymentDTO request = new CreatePaymentDTO();
+    request.setAmount(BigDecimal.valueOf(100));
+    request.setUserId(10L);
+    request.setOrderId(20L);
+    request.setPaymentType(PaymentType.BOOKING);
+
+    Payment winner = new Payment();
+    winner.setPaymentId(7L);
+    winner.setUserId(10L);
+    winner.setAmount(BigDecimal.valueOf(100));
+    winner.setOrderId(20L);
+    winner.setPaymentType(PaymentType.BOOKING);
+    winner.setStatus(PaymentStatus.CREATED);
+
+    when(paymentMapper.toEntity(any(PaymentDTO.class))).thenReturn(new Payment());
+    when(paymentRepository.save(any(Payment.class)))
+        .thenThrow(new DataIntegrityViolationException("uq_payment_order_type"));
+    when(paymentRepository.findByOrderIdAndPaymentType(20L, PaymentType.BOOKING))
+        .thenReturn(Optional.empty(), Optional.of(winner));
+    when(paymentMapper.toDto(winner)).thenReturn(new PaymentDTO());
+
+    paymentService.createPayment(request);
+
+    ArgumentCaptor<CreateWalletEvent> eventCaptor =
+            ArgumentCaptor.forClass(CreateWalletEvent.class);
+    verify(kafkaTemplate).send(eq("CREATE_WALLET_EVENT"), eq("10"), eventCaptor.capture());
+    assertEquals(7L, eventCaptor.getValue().getPaymentId());
+  }
+
   @Test
   void updateStatus_whenPaymentNotFound_shouldThrow() {
     when(paymentRepository.findById(1L)).thenReturn(Optional.empty());
@@ -251,7 +357,7 @@ class PaymentServiceImplTest {
     ArgumentCaptor<CreateWalletEvent> eventCaptor =
             ArgumentCaptor.forClass(CreateWalletEvent.class);
     verify(kafkaTemplate).send(eq("CREATE_WALLET_REPLENISHMENT_EVENT"),
-            eventCaptor.capture());
+            eq(String.valueOf(userId)), eventCaptor.capture());
 
     CreateWalletEvent sentEvent = eventCaptor.getValue();
     assertEquals(request.getReplenishmentAmount(), sentEvent.getCost());
@@ -1,6 +1,8 @@
 package com.actisys.productservice.dto.ProductDtos;
 
+import com.actisys.common.storage.PhotoUploadPipeline;
 import com.actisys.productservice.dto.CategoryDTO;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +10,7 @@ import jakarta.validation.constraints.Size;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 @Getter
 @Setter
@@ -35,4 +38,10 @@ public class ProductDTO {
   private Boolean active;
 
   private CategoryDTO category;
+
+  /** Thumbnails of photoPath by size for product cards; one may not be rendered yet. */
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public Map<Integer, String> getPhotoThumbnails() {
+    return PhotoUploadPipeline.thumbnailsOf(photoPath);
+  }
 }
@@ -8,6 +8,9 @@ public interface ProductPhotoStorageService {
      * Uploads product photo to Yandex S3 bucket and returns public access URL.
      * Generates unique key with productId prefix and original filename suffix.
      * Uses content-type from uploaded file for proper storage.
+     * Thumbnails are rendered in the background and are not part of the result:
+     * ProductDTO exposes their URLs as photoThumbnails, they may be missing,
+     * so clients fall back to the original.
      *
      * @param productId identifier of product the photo belongs to
      * @param file MultipartFile containing photo data
@@ -19,6 +22,7 @@ public interface ProductPhotoStorageService {
      * Deletes product photo from Yandex S3 bucket by public URL.
      * Extracts bucket and key from URL, validates bucket ownership before deletion.
      * Ignores invalid or empty URLs silently.
+     * Thumbnails of the photo are deleted with it; deletes are not awaited, failures are logged.
      *
      * @param photoUrl full public URL of photo to delete
      */
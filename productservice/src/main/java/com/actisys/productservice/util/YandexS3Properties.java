@@ -14,4 +14,17 @@ public class YandexS3Properties {
     private String bucket;
     private String accessKey;
     private String secretKey;
+    /** URL prefix objects are served from; defaults to the bucket's Yandex Cloud host. */
+    private String publicUrl;
+    /** Path-style addressing, needed by local stand-ins such as MinIO. */
+    private boolean pathStyleAccess;
+    private int thumbnailThreads = 2;
+    private int thumbnailQueueCapacity = 50;
+
+    public String publicBaseUrl() {
+        String url = publicUrl != null && !publicUrl.isBlank()
+                ? publicUrl
+                : "https://" + bucket + ".storage.yandexcloud.net";
+        return url.endsWith("/") ? url : url + "/";
+    }
 }
@@ -0,0 +1,123 @@
+package com.actisys.productservice.UnitTests;
+
+import com.actisys.common.storage.PhotoUploadPipeline;
+import com.actisys.productservice.service.impl.ProductPhotoStorageServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductPhotoStorageServiceImpl Unit Tests")
+class ProductPhotoStorageServiceImplTest {
+
+  private static final String BASE_URL = "http://localhost:9000/vpclub/";
+
+  @Mock
+  private S3AsyncClient s3AsyncClient;
+
+  private ExecutorService thumbnailExecutor;
+  private ProductPhotoStorageServiceImpl storageService;
+
+  @BeforeEach
+  void setUp() {
+    thumbnailExecutor = Executors.newSingleThreadExecutor();
+    storageService = new ProductPhotoStorageServiceImpl(
+        new PhotoUploadPipeline(s3AsyncClient, "vpclub", BASE_URL, thumbnailExecutor));
+  }
+
+  @Test
+  @DisplayName("uploadProductPhoto - should store the photo under the product prefix")
+  void uploadProductPhoto_ShouldUseProductPrefix() throws Exception {
+    // Given
+    when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+        .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+    MockMultipartFile file = new MockMultipartFile("file", "cola.png", "image/png",
+        "not an image".getBytes());
+
+    // When
+    String url = storageService.uploadProductPhoto(7L, file);
+    thumbnailExecutor.shutdown();
+    assertTrue(thumbnailExecutor.awaitTermination(10, TimeUnit.SECONDS));
+
+    // Then
+    assertTrue(url.startsWith(BASE_URL + "product/7/"));
+    assertTrue(url.endsWith("-cola.png"));
+  }
+
+  @Test
+  @DisplayName("deleteProductPhoto - should delete the original and every thumbnail by key")
+  void deleteProductPhoto_ShouldDeleteOriginalAndThumbnails() {
+    // Given
+    acceptDeletes();
+    String key = "product/7/1b2c-cola.png";
+
+    // When
+    storageService.deleteProductPhoto(BASE_URL + key);
+
+    // Then
+    List<DeleteObjectRequest> requests = captureDeletes(4);
+    assertEquals(List.of(key, key + "_512.jpg", key + "_256.jpg", key + "_128.jpg"),
+        requests.stream().map(DeleteObjectRequest::key).toList());
+    requests.forEach(request -> assertEquals("vpclub", request.bucket()));
+  }
+
+  @Test
+  @DisplayName("deleteProductPhoto - a failed delete should not stop the others")
+  void deleteProductPhoto_WhenOneDeleteFails_ShouldDeleteTheRest() {
+    // Given
+    when(s3AsyncClient.deleteObject(any(DeleteObjectRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("S3 down")))
+        .thenReturn(CompletableFuture.completedFuture(DeleteObjectResponse.builder().build()));
+
+    // When
+    storageService.deleteProductPhoto(BASE_URL + "product/7/1b2c-cola.png");
+
+    // Then
+    captureDeletes(4);
+  }
+
+  @Test
+  @DisplayName("deleteProductPhoto - should ignore URLs outside the bucket and empty URLs")
+  void deleteProductPhoto_WhenForeignOrBlankUrl_ShouldDeleteNothing() {
+    // When
+    storageService.deleteProductPhoto("https://example.com/product/7/cola.png");
+    storageService.deleteProductPhoto(" ");
+    storageService.deleteProductPhoto(null);
+
+    // Then
+    verify(s3AsyncClient, never()).deleteObject(any(DeleteObjectRequest.class));
+  }
+
+  private void acceptDeletes() {
+    when(s3AsyncClient.deleteObject(any(DeleteObjectRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(DeleteObjectResponse.builder().build()));
+  }
+
+  private List<DeleteObjectRequest> captureDeletes(int count) {
+    ArgumentCaptor<DeleteObjectRequest> requests =
+        ArgumentCaptor.forClass(DeleteObjectRequest.class);
+    verify(s3AsyncClient, times(count)).deleteObject(requests.capture());
+    return requests.getAllValues();
+  }
+}
@@ -0,0 +1,122 @@
+package com.actisys.userservice.cache;
+
+import com.actisys.userservice.dto.UserResponseDtos.UserAllProfileDTO;
+import com.actisys.userservice.util.TransactionUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Full profiles together with their billing session stats, one Redis entry per user.
+ * Entries are dropped when the user changes or billing reports completed sessions.
+ * Concurrent misses for the same user on one replica share a single load,
+ * and a load that was overtaken by an eviction is returned but not stored.
+ * Profiles loaded without session stats (billing unavailable) are not stored either.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProfileCache {
+
+  private static final String KEY_PREFIX = "users:profile:";
+
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+
+  private final Map<Long, CompletableFuture<UserAllProfileDTO>> loading =
+      new ConcurrentHashMap<>();
+
+  @Value("${users.profile-cache.ttl-minutes:10}")
+  private long ttlMinutes;
+
+  /**
+   * @return the cached profile, or the result of loader shared with concurrent callers
+   */
+  public Mono<UserAllProfileDTO> get(Long userId, Supplier<Mono<UserAllProfileDTO>> loader) {
+    return Mono.fromCallable(() -> read(userId))
+        .switchIfEmpty(Mono.defer(() -> Mono.fromFuture(load(userId, loader), true)));
+  }
+
+  public void evict(Long userId) {
+    evictAll(List.of(userId));
+  }
+
+  public void evictAll(Collection<Long> userIds) {
+    TransactionUtils.afterCommit(() -> {
+      userIds.forEach(loading::remove);
+      try {
+        redisTemplate.delete(userIds.stream().map(this::key).toList());
+      } catch (DataAccessException e) {
+        log.warn("Failed to evict {} profiles from cache: {}", userIds.size(), e.getMessage());
+      }
+    });
+  }
+
+  private CompletableFuture<UserAllProfileDTO> load(Long userId,
+      Supplier<Mono<UserAllProfileDTO>> loader) {
+    CompletableFuture<UserAllProfileDTO> created = new CompletableFuture<>();
+    CompletableFuture<UserAllProfileDTO> running = loading.putIfAbsent(userId, created);
+    if (running != null) {
+      return running;
+    }
+    created.whenComplete((profile, e) -> {
+      // only the load still registered here was not overtaken by an eviction
+      if (loading.remove(userId, created) && profile != null
+          && profile.getSessionStats() != null) {
+        write(userId, profile);
+      }
+    });
+    try {
+      loader.get().subscribe(created::complete, created::completeExceptionally,
+          () -> created.complete(null));
+    } catch (RuntimeException e) {
+      created.completeExceptionally(e);
+    }
+    return created;
+  }
+
+  private UserAllProfileDTO read(Long userId) {
+    String value;
+    try {
+      value = redisTemplate.opsForValue().get(key(userId));
+    } catch (DataAccessException e) {
+      log.warn("Profile cache unavailable, loading profile {}: {}", userId, e.getMessage());
+      return null;
+    }
+    if (value == null) {
+      return null;
+    }
+    try {
+      return objectMapper.readValue(value, UserAllProfileDTO.class);
+    } catch (JsonProcessingException e) {
+      log.warn("Ignoring unreadable profile cache entry: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private void write(Long userId, UserAllProfileDTO profile) {
+    try {
+      redisTemplate.opsForValue().set(key(userId), objectMapper.writeValueAsString(profile),
+          Duration.ofMinutes(ttlMinutes));
+    } catch (JsonProcessingException | DataAccessException e) {
+      log.warn("Failed to cache profile {}: {}", userId, e.getMessage());
+    }
+  }
+
+  private String key(Long userId) {
+    return KEY_PREFIX + userId;
+  }
+}
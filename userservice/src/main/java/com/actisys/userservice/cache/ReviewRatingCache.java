@@ -0,0 +1,178 @@
+package com.actisys.userservice.cache;
+
+import com.actisys.userservice.dto.ReviewResponseDtos.RatingSummaryDTO;
+import com.actisys.userservice.util.TransactionUtils;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Visible review counts by stars, kept in one Redis hash shared by all replicas.
+ * Review changes adjust the counts in place once their transaction commits,
+ * so the summary is never recomputed while it is cached. A missing hash is rebuilt
+ * from the database on the next read. Every change is counted as in flight from before
+ * its commit until its adjustment is applied, and bumps a version when applied; a rebuild
+ * is only cached if no change was in flight or applied while it loaded, so it can neither
+ * miss a change nor count one twice. Redis failures fall back to the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewRatingCache {
+
+  private static final String KEY = "reviews:rating";
+  private static final String VERSION_KEY = "reviews:rating:version";
+  private static final String IN_FLIGHT_KEY = "reviews:rating:in-flight";
+  private static final List<String> KEYS = List.of(KEY, VERSION_KEY, IN_FLIGHT_KEY);
+
+  // outlives any review transaction, so a replica dying mid-change doesn't block rebuilds
+  private static final Duration IN_FLIGHT_TTL = Duration.ofMinutes(5);
+
+  private static final RedisScript<Long> TRACK = new DefaultRedisScript<>(
+      "local count = redis.call('INCR', KEYS[1]) "
+          + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+          + "return count", Long.class);
+
+  // counts are only adjusted while loaded, a partial hash would pass for a full one
+  private static final RedisScript<Long> APPLY = new DefaultRedisScript<>(
+      "if redis.call('EXISTS', KEYS[1]) == 1 then "
+          + "redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2]) end "
+          + "redis.call('INCR', KEYS[2]) "
+          + "if redis.call('DECR', KEYS[3]) <= 0 then redis.call('DEL', KEYS[3]) end "
+          + "return 1", Long.class);
+
+  // a rebuild never overwrites counts, nor stores counts that a change may have outdated
+  private static final RedisScript<Long> LOAD = new DefaultRedisScript<>(
+      "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+          + "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[2] then return 0 end "
+          + "if tonumber(redis.call('GET', KEYS[3]) or '0') > 0 then return 0 end "
+          + "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+          + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+          + "return 1", Long.class);
+
+  private static final RedisScript<Long> INVALIDATE = new DefaultRedisScript<>(
+      "redis.call('DEL', KEYS[1]) "
+          + "redis.call('INCR', KEYS[2]) "
+          + "return 1", Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+
+  @Value("${reviews.rating-cache.ttl-minutes:60}")
+  private long ttlMinutes;
+
+  /**
+   * @param loader counts visible reviews by stars in the database
+   */
+  public RatingSummaryDTO get(Supplier<Map<Integer, Long>> loader) {
+    Map<Integer, Long> counts = read();
+    if (counts == null) {
+      String version = version();
+      counts = loader.get();
+      if (version != null) {
+        write(counts, version);
+      }
+    }
+    return RatingSummaryDTO.of(counts);
+  }
+
+  /**
+   * Adds delta to the number of visible reviews with the given stars once the current
+   * transaction commits. Must be called before the change is committed.
+   */
+  public void increment(int stars, long delta) {
+    boolean tracked = track();
+    TransactionUtils.afterCompletion(committed -> {
+      if (!tracked) {
+        invalidate();
+        return;
+      }
+      try {
+        redisTemplate.execute(APPLY, KEYS, String.valueOf(stars),
+            String.valueOf(committed ? delta : 0));
+      } catch (DataAccessException e) {
+        log.warn("Failed to update rating summary, evicting it: {}", e.getMessage());
+        invalidate();
+      }
+    });
+  }
+
+  private boolean track() {
+    try {
+      redisTemplate.execute(TRACK, List.of(IN_FLIGHT_KEY),
+          String.valueOf(IN_FLIGHT_TTL.toSeconds()));
+      return true;
+    } catch (DataAccessException e) {
+      log.warn("Failed to track rating summary change, it will be evicted: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  private Map<Integer, Long> read() {
+    Map<Object, Object> entries;
+    try {
+      entries = redisTemplate.opsForHash().entries(KEY);
+    } catch (DataAccessException e) {
+      log.warn("Rating cache unavailable, counting reviews in the database: {}", e.getMessage());
+      return null;
+    }
+    if (entries.isEmpty()) {
+      return null;
+    }
+    Map<Integer, Long> counts = new HashMap<>();
+    try {
+      entries.forEach((stars, count) ->
+          counts.put(Integer.valueOf((String) stars), Long.valueOf((String) count)));
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring unreadable rating cache entry: {}", e.getMessage());
+      return null;
+    }
+    return counts;
+  }
+
+  /**
+   * @return the current version, or null if Redis is unavailable and the rebuild is not cached
+   */
+  private String version() {
+    try {
+      String version = redisTemplate.opsForValue().get(VERSION_KEY);
+      return version == null ? "0" : version;
+    } catch (DataAccessException e) {
+      return null;
+    }
+  }
+
+  private void write(Map<Integer, Long> counts, String version) {
+    List<String> args = new ArrayList<>();
+    args.add(String.valueOf(Duration.ofMinutes(ttlMinutes).toSeconds()));
+    args.add(version);
+    // every rating is stored, so the hash exists even without reviews
+    RatingSummaryDTO.of(counts).getHistogram().forEach((stars, count) -> {
+      args.add(String.valueOf(stars));
+      args.add(String.valueOf(count));
+    });
+    try {
+      redisTemplate.execute(LOAD, KEYS, args.toArray());
+    } catch (DataAccessException e) {
+      log.warn("Failed to cache rating summary: {}", e.getMessage());
+    }
+  }
+
+  private void invalidate() {
+    try {
+      redisTemplate.execute(INVALIDATE, KEYS);
+    } catch (DataAccessException ignored) {
+      // the entry expires with its TTL
+    }
+  }
+}
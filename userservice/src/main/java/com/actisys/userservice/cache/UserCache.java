@@ -0,0 +1,180 @@
+package com.actisys.userservice.cache;
+
+import com.actisys.common.user.UserDTO;
+import com.actisys.userservice.util.TransactionUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user entries in Redis, shared by all replicas.
+ * Mutations write the new state through once their transaction commits,
+ * so a change to one user never throws away the entries of the others.
+ * Entries loaded on a miss are only added if absent: a reader that loaded the row
+ * before a concurrent change committed must not overwrite the written-through state.
+ * Redis failures are logged and treated as misses; the database stays authoritative.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserCache {
+
+  private static final String KEY_PREFIX = "users:user:";
+
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+
+  @Value("${users.cache.ttl-minutes:30}")
+  private long ttlMinutes;
+
+  public Optional<UserDTO> get(Long userId) {
+    try {
+      return Optional.ofNullable(redisTemplate.opsForValue().get(key(userId)))
+          .map(this::deserialize);
+    } catch (DataAccessException e) {
+      log.warn("User cache unavailable, reading user {} from the database: {}", userId,
+          e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * @return cached users by id; ids that are not cached are absent
+   */
+  public Map<Long, UserDTO> getAll(List<Long> userIds) {
+    Map<Long, UserDTO> users = new HashMap<>();
+    if (userIds.isEmpty()) {
+      return users;
+    }
+    try {
+      List<String> values = redisTemplate.opsForValue()
+          .multiGet(userIds.stream().map(this::key).toList());
+      for (int i = 0; values != null && i < userIds.size(); i++) {
+        UserDTO user = values.get(i) == null ? null : deserialize(values.get(i));
+        if (user != null) {
+          users.put(userIds.get(i), user);
+        }
+      }
+    } catch (DataAccessException e) {
+      log.warn("User cache unavailable, reading {} users from the database: {}", userIds.size(),
+          e.getMessage());
+    }
+    return users;
+  }
+
+  /**
+   * Stores the user once the current transaction commits. The user is serialized right away,
+   * so later changes to the DTO (e.g. for the response) are not cached.
+   */
+  public void put(UserDTO user) {
+    String value = serialize(user);
+    TransactionUtils.afterCommit(() -> write(Map.of(key(user.getId()), value), false));
+  }
+
+  public void putAll(Collection<UserDTO> users) {
+    Map<String, String> values = serialize(users);
+    TransactionUtils.afterCommit(() -> write(values, false));
+  }
+
+  /**
+   * Caches users read from the database after a miss, keeping entries that are already there.
+   */
+  public void putIfAbsent(UserDTO user) {
+    putAllIfAbsent(List.of(user));
+  }
+
+  public void putAllIfAbsent(Collection<UserDTO> users) {
+    Map<String, String> values = serialize(users);
+    TransactionUtils.afterCommit(() -> write(values, true));
+  }
+
+  public void evict(Long userId) {
+    evictAll(List.of(userId));
+  }
+
+  public void evictAll(Collection<Long> userIds) {
+    List<String> keys = userIds.stream().map(this::key).toList();
+    TransactionUtils.afterCommit(() -> {
+      try {
+        redisTemplate.delete(keys);
+      } catch (DataAccessException e) {
+        log.warn("Failed to evict {} users from cache: {}", keys.size(), e.getMessage());
+      }
+    });
+  }
+
+  private void write(Map<String, String> values, boolean onlyIfAbsent) {
+    if (values.isEmpty()) {
+      return;
+    }
+    Duration ttl = Duration.ofMinutes(ttlMinutes);
+    try {
+      redisTemplate.executePipelined(new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> stringOperations =
+              (RedisOperations<String, String>) operations;
+          values.forEach((key, value) -> {
+            if (onlyIfAbsent) {
+              stringOperations.opsForValue().setIfAbsent(key, value, ttl);
+            } else {
+              stringOperations.opsForValue().set(key, value, ttl);
+            }
+          });
+          return null;
+        }
+      });
+    } catch (DataAccessException e) {
+      log.warn("Failed to cache {} users, evicting them: {}", values.size(), e.getMessage());
+      try {
+        redisTemplate.delete(values.keySet());
+      } catch (DataAccessException ignored) {
+        // entries expire with their TTL
+      }
+    }
+  }
+
+  private String key(Long userId) {
+    return KEY_PREFIX + userId;
+  }
+
+  private Map<String, String> serialize(Collection<UserDTO> users) {
+    Map<String, String> values = new HashMap<>();
+    users.forEach(user -> values.put(key(user.getId()), serialize(user)));
+    return values;
+  }
+
+  private String serialize(UserDTO user) {
+    try {
+      return objectMapper.writeValueAsString(user);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize user " + user.getId(), e);
+    }
+  }
+
+  /**
+   * @return the cached user, or null if the entry can't be read (treated as a miss)
+   */
+  private UserDTO deserialize(String value) {
+    try {
+      return objectMapper.readValue(value, UserDTO.class);
+    } catch (JsonProcessingException e) {
+      log.warn("Ignoring unreadable user cache entry: {}", e.getMessage());
+      return null;
+    }
+  }
+}
@@ -51,8 +51,8 @@ public class CacheConfig {
     GenericJackson2JsonRedisSerializer serializer =
         new GenericJackson2JsonRedisSerializer(redisObjectMapper());
 
-    RedisCacheConfiguration allUsersConfig = RedisCacheConfiguration.defaultCacheConfig()
-        .entryTtl(Duration.ofMinutes(30))
+    RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
+        .entryTtl(Duration.ofMinutes(10))
         .serializeKeysWith(
             RedisSerializationContext.SerializationPair.fromSerializer(
                 new StringRedisSerializer()
@@ -64,8 +64,7 @@ public class CacheConfig {
         .disableCachingNullValues();
 
     return RedisCacheManager.builder(connectionFactory)
-        .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10)))
-        .withCacheConfiguration("allUsers", allUsersConfig)
+        .cacheDefaults(defaultConfig)
         .transactionAware()
         .build();
   }
@@ -0,0 +1,33 @@
+package com.actisys.userservice.configuration;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Wallet topics are keyed by userId; their partition count bounds how many
+ * wallet consumer threads can work in parallel.
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+  @Value("${users.wallet-topics.partitions:6}")
+  private int partitions;
+
+  @Bean
+  public NewTopic createWalletTopic() {
+    return TopicBuilder.name("CREATE_WALLET_EVENT").partitions(partitions).build();
+  }
+
+  @Bean
+  public NewTopic createWalletReplenishmentTopic() {
+    return TopicBuilder.name("CREATE_WALLET_REPLENISHMENT_EVENT").partitions(partitions).build();
+  }
+
+  @Bean
+  public NewTopic refundMoneysTopic() {
+    return TopicBuilder.name("REFUND_MONEYS_EVENT").partitions(partitions).build();
+  }
+}
@@ -1,5 +1,6 @@
 package com.actisys.userservice.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -13,9 +14,13 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+  /**
+   * Hashes with the configured cost. Hashes with a lower cost are upgraded on the next login.
+   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      @Value("${users.password-hashing.bcrypt-strength:10}") int strength) {
+    return new BCryptPasswordEncoder(strength);
   }
 
   @Bean
@@ -1,5 +1,6 @@
 package com.actisys.userservice.configuration;
 
+import com.actisys.common.storage.PhotoUploadPipeline;
 import com.actisys.userservice.util.YandexS3Properties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -7,26 +8,39 @@ import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 
 import java.net.URI;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableConfigurationProperties(YandexS3Properties.class)
 public class YandexS3Config {
 
     @Bean
-    public S3Client s3Client(YandexS3Properties props) {
+    public S3AsyncClient s3AsyncClient(YandexS3Properties props) {
         AwsBasicCredentials awsCreds = AwsBasicCredentials.create(
                 props.getAccessKey(),
                 props.getSecretKey()
         );
 
-        return S3Client.builder()
+        return S3AsyncClient.builder()
                 .endpointOverride(URI.create(props.getEndpoint()))
                 .credentialsProvider(StaticCredentialsProvider.create(awsCreds))
                 .region(Region.of(props.getRegion()))
+                .forcePathStyle(props.isPathStyleAccess())
                 .build();
     }
-}
 
+    @Bean
+    public PhotoUploadPipeline photoUploadPipeline(S3AsyncClient s3AsyncClient, YandexS3Properties props) {
+        ThreadPoolExecutor thumbnailExecutor = new ThreadPoolExecutor(
+                props.getThumbnailThreads(), props.getThumbnailThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(props.getThumbnailQueueCapacity()));
+        return new PhotoUploadPipeline(s3AsyncClient, props.getBucket(), props.publicBaseUrl(),
+                thumbnailExecutor);
+    }
+}
@@ -9,7 +9,9 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -39,4 +41,28 @@ public class KafkaConsumerConfig {
     factory.setConsumerFactory(consumerFactory());
     return factory;
   }
+
+  /**
+   * Batch listeners for the wallet topics, one consumer thread per concurrency slot.
+   * Partitions beyond the concurrency are shared between the threads.
+   * Failed operations are answered by the listener itself, so a poll only fails when its
+   * statuses can't be published; it is then redelivered with backoff until they are,
+   * never skipped, as the wallet ledger makes reapplying it harmless.
+   */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, Object> walletBatchListenerFactory(
+      @Value("${users.wallet-consumer.concurrency:3}") int concurrency,
+      @Value("${users.wallet-consumer.max-poll-records:200}") int maxPollRecords) {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+        new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory());
+    factory.setBatchListener(true);
+    factory.setConcurrency(concurrency);
+    ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
+    backOff.setMaxInterval(30_000L);
+    factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+    factory.getContainerProperties().getKafkaConsumerProperties()
+        .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+    return factory;
+  }
 }
@@ -25,6 +25,7 @@ public class KafkaProducerConfig {
     props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
     props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
     props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+    props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
     return new DefaultKafkaProducerFactory<>(props);
   }
 
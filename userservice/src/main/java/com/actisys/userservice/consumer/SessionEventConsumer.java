@@ -0,0 +1,25 @@
+package com.actisys.userservice.consumer;
+
+import com.actisys.common.events.session.SessionCompletedEvent;
+import com.actisys.userservice.cache.ProfileCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached full profiles whose session stats were changed by billing.
+ */
+@RequiredArgsConstructor
+@Component
+@Slf4j
+public class SessionEventConsumer {
+
+    private final ProfileCache profileCache;
+
+    @KafkaListener(topics = "SESSION_COMPLETED_EVENT", groupId = "user-service-group")
+    public void handleSessionCompleted(SessionCompletedEvent event) {
+        log.debug("SESSION COMPLETED: user {}", event.getUserId());
+        profileCache.evict(event.getUserId());
+    }
+}
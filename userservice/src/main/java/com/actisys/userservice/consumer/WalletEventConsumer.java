@@ -1,35 +1,107 @@
 package com.actisys.userservice.consumer;
 
+import com.actisys.common.events.OperationType;
 import com.actisys.common.events.user.CreateWalletEvent;
 import com.actisys.common.events.user.RefundMoneyEvent;
+import com.actisys.common.events.user.WithdrawEvent;
+import com.actisys.userservice.dto.WalletOperation;
 import com.actisys.userservice.service.UserService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+/**
+ * Applies wallet events a poll at a time. Records are grouped by user; each user's
+ * operations are applied in record order in one transaction, and the statuses of the
+ * whole poll are published together. Producers key these topics by userId, so all events
+ * of a user land in one partition and stay ordered, while different users are spread
+ * over the listener threads.
+ * If a group fails, its operations are retried one at a time so that only the failing
+ * ones are answered with ERROR and the rest of the poll is unaffected.
+ * If publishing the statuses fails the poll is redelivered; groups that were already
+ * committed are then skipped by the wallet ledger and only their statuses are sent again.
+ */
 @RequiredArgsConstructor
 @Component
 @Slf4j
 public class WalletEventConsumer {
+
     private final UserService userService;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @KafkaListener(
+        topics = {"CREATE_WALLET_EVENT", "CREATE_WALLET_REPLENISHMENT_EVENT", "REFUND_MONEYS_EVENT"},
+        groupId = "user-service-group",
+        containerFactory = "walletBatchListenerFactory")
+    public void handleWalletEvents(List<ConsumerRecord<String, Object>> records) {
+        log.info("WALLET EVENTS: {} records", records.size());
+        Map<Long, List<WalletOperation>> operationsByUser = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            WalletOperation operation = toOperation(record);
+            if (operation != null) {
+                operationsByUser.computeIfAbsent(operation.userId(), id -> new ArrayList<>())
+                    .add(operation);
+            }
+        }
 
-    @KafkaListener(topics = "CREATE_WALLET_EVENT", groupId = "user-service-group")
-    public void handleCreateWalletEvent(CreateWalletEvent createWalletEvent) {
-        log.info("WALLET_CREATE EVENT: {}", createWalletEvent);
-        userService.withdrawMoney(createWalletEvent);
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        operationsByUser.forEach((userId, operations) -> {
+            for (WithdrawEvent result : apply(userId, operations)) {
+                // without a payment there is nothing for the payment service to update
+                if (result.getPaymentId() != null) {
+                    sends.add(kafkaTemplate.send("WALLET_EVENT", String.valueOf(userId), result));
+                }
+            }
+        });
+        // offsets are committed only once every status is acknowledged
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
     }
 
-    @KafkaListener(topics = "CREATE_WALLET_REPLENISHMENT_EVENT", groupId = "user-service-group")
-    public void handleCreateWalletReplenishmentEvent(CreateWalletEvent createWalletEvent) {
-         log.info("WALLET_CREATE_REPLENISHMENT_EVENT: {}", createWalletEvent);
-         userService.replenishmentMoney(createWalletEvent);
+    private List<WithdrawEvent> apply(Long userId, List<WalletOperation> operations) {
+        try {
+            return userService.applyWalletOperations(operations);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply {} wallet operations of user {}", operations.size(), userId, e);
+        }
+        if (operations.size() == 1) {
+            return List.of(failed(operations.get(0)));
+        }
+        // the group was rolled back as a whole, isolate the operations that fail on their own
+        List<WithdrawEvent> results = new ArrayList<>(operations.size());
+        for (WalletOperation operation : operations) {
+            try {
+                results.addAll(userService.applyWalletOperations(List.of(operation)));
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {} of payment {} for user {}", operation.type(),
+                    operation.paymentId(), userId, e);
+                results.add(failed(operation));
+            }
+        }
+        return results;
     }
 
-    @KafkaListener(topics = "REFUND_MONEYS_EVENT", groupId = "user-service-group")
-    public void handleRefundMoneyEvent(RefundMoneyEvent refundMoneyEvent) {
-       log.info("WALLET_REFUND_MONEYS_EVENT: {}", refundMoneyEvent);
-       userService.refundMoneys(refundMoneyEvent);
+    private WithdrawEvent failed(WalletOperation operation) {
+        return new WithdrawEvent(operation.paymentId(), OperationType.ERROR);
     }
 
+    private WalletOperation toOperation(ConsumerRecord<String, Object> record) {
+        return switch (record.topic()) {
+            case "CREATE_WALLET_EVENT" -> WalletOperation.withdrawal((CreateWalletEvent) record.value());
+            case "CREATE_WALLET_REPLENISHMENT_EVENT" ->
+                WalletOperation.replenishment((CreateWalletEvent) record.value());
+            case "REFUND_MONEYS_EVENT" -> WalletOperation.refund((RefundMoneyEvent) record.value());
+            default -> {
+                log.warn("Unexpected wallet event on topic {}", record.topic());
+                yield null;
+            }
+        };
+    }
 }
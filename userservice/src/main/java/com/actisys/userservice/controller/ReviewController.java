@@ -1,8 +1,11 @@
 package com.actisys.userservice.controller;
 
 import com.actisys.userservice.dto.ReviewResponseDtos.CreateReviewDTO;
+import com.actisys.userservice.dto.ReviewResponseDtos.RatingSummaryDTO;
 import com.actisys.userservice.dto.ReviewResponseDtos.ReviewDTO;
+import com.actisys.userservice.dto.ReviewResponseDtos.ReviewPageDTO;
 import com.actisys.userservice.service.ReviewService;
+import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +18,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -27,13 +31,26 @@ public class ReviewController {
 
   @GetMapping("/getAllReviews")
   public ResponseEntity<List<ReviewDTO>> allReviews(){
-    log.info("getAllReviews" + reviewService.getAllReviews());
-    return ResponseEntity.ok(reviewService.getAllReviews());
+    List<ReviewDTO> reviews = reviewService.getAllReviews();
+    log.info("getAllReviews: {} reviews", reviews.size());
+    return ResponseEntity.ok(reviews);
+  }
+
+  @GetMapping("/visible")
+  public ResponseEntity<ReviewPageDTO> visibleReviews(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size) {
+    return ResponseEntity.ok(reviewService.getVisibleReviews(page, size));
+  }
+
+  @GetMapping("/rating")
+  public ResponseEntity<RatingSummaryDTO> ratingSummary() {
+    return ResponseEntity.ok(reviewService.getRatingSummary());
   }
 
   @PostMapping("/addReview")
   public ResponseEntity<ReviewDTO> addReview(
-      @RequestBody CreateReviewDTO createReviewDTO,
+      @RequestBody @Valid CreateReviewDTO createReviewDTO,
       @RequestHeader(value = "X-User-Id", required = false) String userId){
     return ResponseEntity.ok(reviewService.addReview(createReviewDTO, Long.parseLong(userId)));
   }
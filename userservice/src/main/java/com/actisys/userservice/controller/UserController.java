@@ -2,17 +2,21 @@ package com.actisys.userservice.controller;
 
 import com.actisys.common.user.UserDTO;
 import com.actisys.userservice.dto.UpdateCoinsRequest;
+import com.actisys.userservice.dto.UserResponseDtos.UserPageDTO;
 import com.actisys.userservice.service.UserService;
 import java.util.List;
+import java.util.Map;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -32,6 +36,14 @@ public class UserController {
     return new ResponseEntity<>(usersList, HttpStatus.OK);
   }
 
+  @GetMapping("/page")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<UserPageDTO> getUsersPage(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "50") int size) {
+    return ResponseEntity.ok(userService.getUsersPage(page, size));
+  }
+
   @PutMapping("/blockUser/{id}")
   @PreAuthorize("hasRole('ADMIN')")
   public ResponseEntity<UserDTO> blockUser(@PathVariable Long id) {
@@ -60,6 +72,11 @@ public class UserController {
     return ResponseEntity.noContent().build();
   }
 
+  @PostMapping("/batch")
+  public ResponseEntity<Map<Long, UserDTO>> getUsersByIds(@RequestBody List<Long> ids) {
+    return ResponseEntity.ok(userService.getUsersByIds(ids));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<UserDTO> getUser(@PathVariable Long id) {
     UserDTO user = userService.getUser(id);
@@ -1,5 +1,7 @@
 package com.actisys.userservice.dto.ReviewResponseDtos;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.*;
 
 @Setter
@@ -9,5 +11,7 @@ import lombok.*;
 @Builder
 public class CreateReviewDTO {
   private String reviewText;
+  @Min(value = RatingSummaryDTO.MIN_STARS, message = "Stars must be between 1 and 5")
+  @Max(value = RatingSummaryDTO.MAX_STARS, message = "Stars must be between 1 and 5")
   private int stars;
 }
@@ -0,0 +1,44 @@
+package com.actisys.userservice.dto.ReviewResponseDtos;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Rating of the club over visible reviews.
+ * The histogram maps stars to the number of visible reviews with that rating.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RatingSummaryDTO {
+  public static final int MIN_STARS = 1;
+  public static final int MAX_STARS = 5;
+
+  private long count;
+  private double average;
+  private Map<Integer, Long> histogram;
+
+  /**
+   * Builds the summary from review counts by stars; ratings without reviews are reported as 0.
+   */
+  public static RatingSummaryDTO of(Map<Integer, Long> counts) {
+    Map<Integer, Long> histogram = new TreeMap<>();
+    for (int stars = MIN_STARS; stars <= MAX_STARS; stars++) {
+      histogram.put(stars, 0L);
+    }
+    long count = 0;
+    long total = 0;
+    for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+      long reviews = Math.max(0, entry.getValue());
+      histogram.put(entry.getKey(), reviews);
+      count += reviews;
+      total += entry.getKey() * reviews;
+    }
+    double average = count == 0 ? 0 : Math.round(total * 100.0 / count) / 100.0;
+    return new RatingSummaryDTO(count, average, Collections.unmodifiableMap(histogram));
+  }
+}
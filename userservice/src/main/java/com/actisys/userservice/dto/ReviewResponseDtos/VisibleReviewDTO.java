@@ -0,0 +1,32 @@
+package com.actisys.userservice.dto.ReviewResponseDtos;
+
+import com.actisys.common.storage.PhotoUploadPipeline;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Public view of a visible review: only what the about-us page shows about the author.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@Builder
+public class VisibleReviewDTO {
+  private Long id;
+  private String login;
+  private String photoPath;
+  private String reviewText;
+  private LocalDateTime createdAt;
+  private int stars;
+
+  /** Thumbnails of the author's avatar by size. */
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public Map<Integer, String> getPhotoThumbnails() {
+    return PhotoUploadPipeline.thumbnailsOf(photoPath);
+  }
+}
@@ -1,11 +1,13 @@
 package com.actisys.userservice.dto.UserResponseDtos;
 
 import com.actisys.common.clientDtos.SessionStatsDTO;
+import com.actisys.common.storage.PhotoUploadPipeline;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.util.Map;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -49,4 +51,10 @@ public class UserAllProfileDTO {
     this.birthDate = birthDate;
     this.sessionStats = sessionStats;
   }
+
+  /** Profile photo thumbnails by size, empty without a photo. */
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public Map<Integer, String> getPhotoThumbnails() {
+    return PhotoUploadPipeline.thumbnailsOf(photoPath);
+  }
 }
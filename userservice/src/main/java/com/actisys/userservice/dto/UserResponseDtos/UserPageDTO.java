@@ -0,0 +1,34 @@
+package com.actisys.userservice.dto.UserResponseDtos;
+
+import com.actisys.common.user.UserDTO;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserPageDTO {
+  private final List<UserDTO> content;
+  private final int page;
+  private final int size;
+  private final long totalElements;
+  private final int totalPages;
+
+  @JsonCreator
+  public UserPageDTO(
+      @JsonProperty("content") List<UserDTO> content,
+      @JsonProperty("page") int page,
+      @JsonProperty("size") int size,
+      @JsonProperty("totalElements") long totalElements,
+      @JsonProperty("totalPages") int totalPages) {
+    this.content = content;
+    this.page = page;
+    this.size = size;
+    this.totalElements = totalElements;
+    this.totalPages = totalPages;
+  }
+}
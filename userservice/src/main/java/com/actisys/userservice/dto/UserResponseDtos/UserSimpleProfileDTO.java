@@ -1,5 +1,6 @@
 package com.actisys.userservice.dto.UserResponseDtos;
 
+import com.actisys.common.storage.PhotoUploadPipeline;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -7,6 +8,7 @@ import lombok.Builder;
 import lombok.Getter;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 @Getter
 @Builder
@@ -31,4 +33,10 @@ public class UserSimpleProfileDTO {
     this.isBanned = isBanned;
     this.role = role;
   }
+
+  /** Avatar thumbnails by size, see {@link PhotoUploadPipeline#thumbnailsOf}. */
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public Map<Integer, String> getPhotoThumbnails() {
+    return PhotoUploadPipeline.thumbnailsOf(photoPath);
+  }
 }
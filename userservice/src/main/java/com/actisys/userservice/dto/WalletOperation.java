@@ -0,0 +1,49 @@
+package com.actisys.userservice.dto;
+
+import com.actisys.common.events.PaymentType;
+import com.actisys.common.events.user.CreateWalletEvent;
+import com.actisys.common.events.user.RefundMoneyEvent;
+import com.actisys.userservice.model.WalletEntryType;
+import java.math.BigDecimal;
+
+/**
+ * Wallet change requested by a payment event, with signed wallet and bonus coin deltas.
+ * Refunds also carry the cancelled session: a group booking is paid once,
+ * so several refunds can share one payment.
+ */
+public record WalletOperation(
+    Long userId,
+    Long paymentId,
+    Long sessionId,
+    WalletEntryType type,
+    BigDecimal amount,
+    int bonusCoins
+) {
+
+  private static final BigDecimal COINS_PER_UNIT = BigDecimal.valueOf(10);
+
+  /**
+   * Payment from the wallet; bookings earn bonus coins.
+   */
+  public static WalletOperation withdrawal(CreateWalletEvent event) {
+    int bonusCoins = PaymentType.BOOKING.equals(event.getPaymentType())
+        ? event.getCost().multiply(COINS_PER_UNIT).intValue()
+        : 0;
+    return new WalletOperation(event.getUserId(), event.getPaymentId(), null,
+        WalletEntryType.WITHDRAWAL, event.getCost().negate(), bonusCoins);
+  }
+
+  public static WalletOperation replenishment(CreateWalletEvent event) {
+    return new WalletOperation(event.getUserId(), event.getPaymentId(), null,
+        WalletEntryType.REPLENISHMENT, event.getCost(), 0);
+  }
+
+  /**
+   * Money back to the wallet; the bonus coins earned with it are taken back.
+   */
+  public static WalletOperation refund(RefundMoneyEvent event) {
+    return new WalletOperation(event.getUserId(), event.getPaymentId(), event.getSessionId(),
+        WalletEntryType.REFUND, event.getAmount(),
+        -event.getAmount().multiply(COINS_PER_UNIT).intValue());
+  }
+}
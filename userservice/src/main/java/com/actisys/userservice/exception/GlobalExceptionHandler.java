@@ -2,8 +2,10 @@ package com.actisys.userservice.exception;
 
 import com.actisys.common.dto.ErrorResponse;
 import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -24,6 +26,23 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
   }
 
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  public ResponseEntity<ErrorResponse> handlePasswordHashingBusyException(
+      PasswordHashingBusyException e) {
+    ErrorResponse error = new ErrorResponse("SERVICE BUSY", e.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(error);
+  }
+
+  @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+  public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(
+      ObjectOptimisticLockingFailureException e) {
+    ErrorResponse error = new ErrorResponse("CONCURRENT UPDATE",
+        "The user was changed by another request, please reload and try again");
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException ex) {
     String errorMessage = ex.getBindingResult().getFieldErrors().stream()
@@ -34,6 +53,12 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
   }
 
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException e) {
+    ErrorResponse error = new ErrorResponse("INVALID REQUEST", e.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
   @ExceptionHandler(UserNotDeletedException.class)
   public ResponseEntity<ErrorResponse> handleUserNotDeletedException(UserNotDeletedException e) {
     ErrorResponse error = new ErrorResponse("USER_NOT_DELETED", e.getMessage());
@@ -0,0 +1,8 @@
+package com.actisys.userservice.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+
+  public PasswordHashingBusyException() {
+    super("Too many logins at the moment, please try again in a few seconds");
+  }
+}
@@ -3,6 +3,7 @@ package com.actisys.userservice.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
@@ -10,6 +11,7 @@ import java.sql.Timestamp;
 @Setter
 @Getter
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class User {
 
@@ -55,4 +57,7 @@ public class User {
 
   @Column(name = "role")
   private int role;
+
+  @Version
+  private long version;
 }
@@ -0,0 +1,7 @@
+package com.actisys.userservice.model;
+
+public enum WalletEntryType {
+  WITHDRAWAL,
+  REPLENISHMENT,
+  REFUND
+}
@@ -0,0 +1,58 @@
+package com.actisys.userservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One applied wallet change. Rows are only ever inserted; users.wallet and users.bonus_coins
+ * hold the running balance. Refunds are unique per (sessionId, entryType), everything else
+ * per (paymentId, entryType), so a redelivered payment event cannot be applied twice.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "wallet_ledger")
+@Entity
+public class WalletLedgerEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(name = "payment_id")
+  private Long paymentId;
+
+  @Column(name = "session_id")
+  private Long sessionId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "entry_type", nullable = false)
+  private WalletEntryType entryType;
+
+  @Column(nullable = false)
+  private BigDecimal amount;
+
+  @Column(name = "bonus_coins", nullable = false)
+  private int bonusCoins;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+}
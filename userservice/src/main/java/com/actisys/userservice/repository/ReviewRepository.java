@@ -1,13 +1,50 @@
 package com.actisys.userservice.repository;
 
+import com.actisys.userservice.dto.ReviewResponseDtos.VisibleReviewDTO;
 import com.actisys.userservice.model.Review;
-import java.util.Arrays;
+import jakarta.persistence.LockModeType;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
+  @Override
+  @EntityGraph(attributePaths = "user")
+  List<Review> findAll();
+
+  @EntityGraph(attributePaths = "user")
   List<Review> findAllByUserId(Long userId);
+
+  /**
+   * Newest visible reviews first; served by the partial index idx_review_visible_created_at.
+   */
+  @Query(value = "SELECT new com.actisys.userservice.dto.ReviewResponseDtos.VisibleReviewDTO("
+      + "r.id, u.login, u.photoPath, r.reviewText, r.createdAt, r.stars) "
+      + "FROM Review r JOIN r.user u WHERE r.isVisible = true "
+      + "ORDER BY r.createdAt DESC, r.id DESC",
+      countQuery = "SELECT COUNT(r) FROM Review r WHERE r.isVisible = true")
+  Page<VisibleReviewDTO> findVisible(Pageable pageable);
+
+  @Query("SELECT r.stars AS stars, COUNT(r) AS count FROM Review r "
+      + "WHERE r.isVisible = true GROUP BY r.stars")
+  List<StarsCount> countVisibleByStars();
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT r FROM Review r WHERE r.id = :id")
+  Optional<Review> findByIdForUpdate(@Param("id") Long id);
+
+  interface StarsCount {
+    int getStars();
+
+    long getCount();
+  }
 }
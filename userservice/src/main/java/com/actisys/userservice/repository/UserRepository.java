@@ -3,12 +3,17 @@ package com.actisys.userservice.repository;
 import com.actisys.userservice.model.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -24,6 +29,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
   Optional<User> findByEmail(@NotBlank(message = "Login cannot be blank") String login);
 
-  @Query("SELECT u FROM User u WHERE u.role=1 ")
-  List<User> findAllUsers();
+  @Query("SELECT u.id FROM User u WHERE u.role = 1 ORDER BY u.id")
+  List<Long> findAllUserIds();
+
+  @Query(value = "SELECT u.id FROM User u WHERE u.role = 1 ORDER BY u.id",
+      countQuery = "SELECT COUNT(u) FROM User u WHERE u.role = 1")
+  Page<Long> findUserIds(Pageable pageable);
+
+  /**
+   * Adds a signed amount to the wallet and bonus coins in one statement,
+   * unless that would make the wallet negative. Bumps the version,
+   * so concurrent entity saves of the same user fail instead of overwriting the balance.
+   *
+   * @return 1 if applied, 0 if the user doesn't exist or has insufficient funds
+   */
+  @Modifying
+  @Query(value = "UPDATE users SET wallet = wallet + :amount, " +
+      "bonus_coins = bonus_coins + :bonusCoins, version = version + 1 " +
+      "WHERE id = :id AND wallet + :amount >= 0", nativeQuery = true)
+  int applyWalletChange(
+      @Param("id") Long id,
+      @Param("amount") BigDecimal amount,
+      @Param("bonusCoins") int bonusCoins
+  );
+
+  /**
+   * Replaces the password hash unless it was changed since oldHash was read.
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+  int updatePasswordHash(
+      @Param("id") Long id,
+      @Param("oldHash") String oldHash,
+      @Param("newHash") String newHash
+  );
 }
@@ -0,0 +1,41 @@
+package com.actisys.userservice.repository;
+
+import com.actisys.userservice.model.WalletEntryType;
+import com.actisys.userservice.model.WalletLedgerEntry;
+import java.math.BigDecimal;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WalletLedgerRepository extends JpaRepository<WalletLedgerEntry, Long> {
+
+  /**
+   * Appends an entry unless one with the same key and type already exists:
+   * the session for entries that carry one (refunds), the payment otherwise.
+   *
+   * @return 1 if the entry was appended, 0 if it is a duplicate
+   */
+  @Modifying
+  @Query(value = "INSERT INTO wallet_ledger " +
+      "(user_id, payment_id, session_id, entry_type, amount, bonus_coins, created_at) " +
+      "VALUES (:userId, :paymentId, :sessionId, :entryType, :amount, :bonusCoins, now()) " +
+      "ON CONFLICT DO NOTHING", nativeQuery = true)
+  int appendIfAbsent(
+      @Param("userId") Long userId,
+      @Param("paymentId") Long paymentId,
+      @Param("sessionId") Long sessionId,
+      @Param("entryType") String entryType,
+      @Param("amount") BigDecimal amount,
+      @Param("bonusCoins") int bonusCoins
+  );
+
+  boolean existsByPaymentIdAndEntryType(Long paymentId, WalletEntryType entryType);
+
+  boolean existsBySessionIdAndEntryType(Long sessionId, WalletEntryType entryType);
+
+  List<WalletLedgerEntry> findAllByUserIdOrderByCreatedAtDesc(Long userId);
+}
@@ -22,7 +22,8 @@ public interface AuthService {
   /**
    * Authenticate user and generate JWT token.
    * Supports login by username or email.
-   * Updates last login timestamp.
+   * Read-only apart from password verification: the last login timestamp
+   * is buffered and written in batches by {@link LastLoginService}.
    *
    * @param authRequest login credentials (login/email and password)
    * @return authentication response with user data and JWT token
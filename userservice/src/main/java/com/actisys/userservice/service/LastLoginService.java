@@ -0,0 +1,21 @@
+package com.actisys.userservice.service;
+
+import java.sql.Timestamp;
+
+public interface LastLoginService {
+
+  /**
+   * Buffers the login time of a user in memory.
+   * Only the latest time per user is kept until the next flush.
+   *
+   * @param userId user identifier
+   * @param loginTime time of the successful login
+   */
+  void recordLogin(Long userId, Timestamp loginTime);
+
+  /**
+   * Writes all buffered login times to the users table in batched statements.
+   * Runs periodically and on shutdown; times that fail to be written stay buffered.
+   */
+  void flush();
+}
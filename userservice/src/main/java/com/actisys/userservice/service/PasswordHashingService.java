@@ -0,0 +1,37 @@
+package com.actisys.userservice.service;
+
+import java.util.function.Consumer;
+
+public interface PasswordHashingService {
+
+  /**
+   * Verifies a password on the bounded hashing executor, waiting for the result.
+   *
+   * @param rawPassword password entered by the user
+   * @param encodedPassword stored hash
+   * @return true if the password matches the hash
+   * @throws com.actisys.userservice.exception.PasswordHashingBusyException
+   *     if the executor queue is full or the result doesn't arrive in time
+   */
+  boolean matches(String rawPassword, String encodedPassword);
+
+  /**
+   * Hashes a password on the bounded hashing executor, waiting for the result.
+   *
+   * @param rawPassword password to hash
+   * @return hash with the configured BCrypt cost
+   * @throws com.actisys.userservice.exception.PasswordHashingBusyException
+   *     if the executor queue is full or the result doesn't arrive in time
+   */
+  String encode(String rawPassword);
+
+  /**
+   * Re-hashes a verified password in the background if its hash has a lower cost
+   * than configured. Skipped while logins are queued, so upgrades never delay them.
+   *
+   * @param rawPassword verified password
+   * @param encodedPassword its current hash
+   * @param onRehashed receives the new hash
+   */
+  void rehashIfOutdated(String rawPassword, String encodedPassword, Consumer<String> onRehashed);
+}
@@ -1,7 +1,9 @@
 package com.actisys.userservice.service;
 
 import com.actisys.userservice.dto.ReviewResponseDtos.CreateReviewDTO;
+import com.actisys.userservice.dto.ReviewResponseDtos.RatingSummaryDTO;
 import com.actisys.userservice.dto.ReviewResponseDtos.ReviewDTO;
+import com.actisys.userservice.dto.ReviewResponseDtos.ReviewPageDTO;
 import java.util.List;
 
 public interface ReviewService {
@@ -14,6 +16,24 @@ public interface ReviewService {
    */
   List<ReviewDTO> getAllReviews();
 
+  /**
+   * Retrieves a page of visible reviews, newest first, with the author's login and photo.
+   *
+   * @param page zero-based page index
+   * @param size page size, at most 100
+   * @return requested page of visible reviews
+   * @throws IllegalArgumentException if page or size is out of range
+   */
+  ReviewPageDTO getVisibleReviews(int page, int size);
+
+  /**
+   * Retrieves the rating over visible reviews: their count, average stars
+   * and number of reviews per stars. Served from cache, which review changes keep up to date.
+   *
+   * @return rating summary of visible reviews
+   */
+  RatingSummaryDTO getRatingSummary();
+
   /**
    * Creates a new review for specified user.
    * Finds user by ID, creates review with provided stars and text,
@@ -22,6 +42,7 @@ public interface ReviewService {
    * @param createReviewDTO review creation data (stars, text)
    * @param userId ID of the user creating the review
    * @return DTO of the created review
+   * @throws IllegalArgumentException if stars are not between 1 and 5
    */
   ReviewDTO addReview(CreateReviewDTO createReviewDTO, Long userId);
 
@@ -7,4 +7,10 @@ public interface UserPhotoStorageService {
      * This method go to api server for save new user photo
      * */
     String uploadUserPhoto(Long userId, MultipartFile file);
+
+    /**
+     * Deletes a photo returned by {@link #uploadUserPhoto} together with its thumbnails.
+     * Does not wait for storage, failures are logged; URLs from elsewhere are ignored.
+     */
+    void deleteUserPhoto(String photoUrl);
 }
@@ -1,14 +1,16 @@
 package com.actisys.userservice.service;
 
-import com.actisys.common.events.user.CreateWalletEvent;
-import com.actisys.common.events.user.RefundMoneyEvent;
+import com.actisys.common.events.user.WithdrawEvent;
 import com.actisys.common.user.UserDTO;
+import com.actisys.userservice.dto.WalletOperation;
 import com.actisys.userservice.dto.UserResponseDtos.UpdateUserProfileDTO;
 import com.actisys.userservice.dto.UserResponseDtos.UserAllProfileDTO;
+import com.actisys.userservice.dto.UserResponseDtos.UserPageDTO;
 import com.actisys.userservice.dto.UserResponseDtos.UserSimpleProfileDTO;
-import com.actisys.userservice.exception.InsufficientFundsException;
 import com.actisys.userservice.exception.UserNotFoundException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import reactor.core.publisher.Mono;
 
 /**
@@ -30,6 +32,7 @@ public interface UserService {
   /**
    * Updates the path to the user's profile photo stored in external storage. [web:3]
    * After update, clears admin users cache so UI reflects new avatar. [web:19]
+   * The replaced photo and its thumbnails are deleted from storage once the change commits.
    *
    * @param id user identifier
    * @param photoPath new profile photo path or key
@@ -70,7 +73,8 @@ public interface UserService {
 
   /**
    * Returns full user profile enriched with data from Billing Service. [web:3]
-   * Wraps result into a Mono and caches external stats calls for a limited time. [web:16]
+   * Served from the profile cache, which is dropped when the user changes or completes
+   * a session; concurrent misses for the same user share one load.
    *
    * @param userId user identifier
    * @return reactive Mono with complete user profile DTO
@@ -86,6 +90,27 @@ public interface UserService {
    */
   List<UserDTO> getAllUsers();
 
+  /**
+   * Returns one page of regular users ordered by id.
+   * Users are served from their cache entries, only missing ones are read from the database.
+   *
+   * @param page zero-based page number
+   * @param size page size, at most 200
+   * @return requested page with total counts
+   * @throws IllegalArgumentException if page or size is out of range
+   */
+  UserPageDTO getUsersPage(int page, int size);
+
+  /**
+   * Looks up several users at once, e.g. to enrich admin listings in other services.
+   * Cached users are served from their entries, the rest are read in one query.
+   *
+   * @param ids user ids, at most 500 distinct
+   * @return found users by id; unknown ids are absent
+   * @throws IllegalArgumentException if more than 500 distinct ids are requested
+   */
+  Map<Long, UserDTO> getUsersByIds(Collection<Long> ids);
+
   /**
    * Blocks user from accessing the system by setting ban flag. [web:3]
    * Administrators cannot be blocked and cache is cleared after update. [web:19]
@@ -119,6 +144,7 @@ public interface UserService {
   /**
    * Uploads user's profile photo file to storage and updates photo path. [web:3]
    * Combines storage upload and profile update into a single operation. [web:3]
+   * The uploaded photo is deleted again when the profile update rolls back.
    *
    * @param userId user identifier
    * @param file uploaded photo file
@@ -128,32 +154,15 @@ public interface UserService {
   UserDTO uploadAndUpdateUserPhoto(Long userId, org.springframework.web.multipart.MultipartFile file);
 
   /**
-   * Processes wallet withdrawal for a user according to incoming event. [web:9]
-   * Decreases wallet balance, may add bonus coins, and publishes Kafka status event. [web:9]
+   * Applies wallet operations of one user in the given order within one transaction.
+   * Every change is appended to the wallet ledger together with a conditional balance update;
+   * operations whose payment is already in the ledger are skipped but still reported.
+   * Withdrawals that would make the wallet negative are reported as ERROR and change nothing.
    *
-   * @param createWalletEvent event containing paymentId, userId and cost
-   * @throws UserNotFoundException if user with given id does not exist
-   * @throws InsufficientFundsException if wallet balance is too low
-   */
-  void withdrawMoney(CreateWalletEvent createWalletEvent);
-
-  /**
-   * Replenishes user's wallet by amount from the incoming event. [web:9]
-   * Persists new balance and sends success status event to Kafka topic. [web:9]
-   *
-   * @param createWalletEvent event containing userId, cost and paymentId
-   * @throws UserNotFoundException if user with given id does not exist
-   */
-  void replenishmentMoney(CreateWalletEvent createWalletEvent);
-
-  /**
-   * Refunds previously charged amount back to the user's wallet. [web:9]
-   * Updates wallet balance and emits Kafka event with refunded status. [web:9]
-   *
-   * @param refundMoneyEvent event with refund amount, paymentId and userId
-   * @throws UserNotFoundException if user with given id does not exist
+   * @param operations operations of a single user, oldest first
+   * @return one status event per operation, to be published to WALLET_EVENT
    */
-  void refundMoneys(RefundMoneyEvent refundMoneyEvent);
+  List<WithdrawEvent> applyWalletOperations(List<WalletOperation> operations);
 
   /**
    * Retrieves a single user by identifier and maps it to DTO. [web:3]
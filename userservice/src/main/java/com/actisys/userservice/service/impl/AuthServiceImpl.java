@@ -1,6 +1,7 @@
 package com.actisys.userservice.service.impl;
 
 import com.actisys.common.user.UserDTO;
+import com.actisys.userservice.cache.UserCache;
 import com.actisys.userservice.dto.AuthRequest;
 import com.actisys.userservice.dto.AuthResponse;
 import com.actisys.userservice.dto.RegisterRequest;
@@ -8,12 +9,11 @@ import com.actisys.userservice.mapper.UserMapper;
 import com.actisys.userservice.model.User;
 import com.actisys.userservice.repository.UserRepository;
 import com.actisys.userservice.service.AuthService;
+import com.actisys.userservice.service.LastLoginService;
+import com.actisys.userservice.service.PasswordHashingService;
 import com.actisys.userservice.util.JwtTokenProvider;
 import java.math.BigDecimal;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.util.List;
@@ -21,30 +21,39 @@ import java.util.Map;
 import java.util.Optional;
 
 
+/**
+ * Password hashing takes up to a hashing timeout, so none of it runs inside a transaction:
+ * the repository calls below each use their own short transaction and the connection
+ * is back in the pool while a hash is computed (open-in-view is disabled for this reason).
+ */
 @Service
 public class AuthServiceImpl implements AuthService {
 
   private final JwtTokenProvider jwtTokenProvider;
   private final UserRepository userRepository;
   private final UserMapper userMapper;
-  private final PasswordEncoder passwordEncoder;
+  private final PasswordHashingService passwordHashingService;
+  private final LastLoginService lastLoginService;
+  private final UserCache userCache;
 
   public AuthServiceImpl(
       JwtTokenProvider jwtTokenProvider,
       UserRepository userRepository,
       UserMapper userMapper,
-      PasswordEncoder passwordEncoder
+      PasswordHashingService passwordHashingService,
+      LastLoginService lastLoginService,
+      UserCache userCache
   ) {
     this.jwtTokenProvider = jwtTokenProvider;
     this.userRepository = userRepository;
     this.userMapper = userMapper;
-    this.passwordEncoder = passwordEncoder;
+    this.passwordHashingService = passwordHashingService;
+    this.lastLoginService = lastLoginService;
+    this.userCache = userCache;
   }
 
 
   @Override
-  @Transactional
-  @CacheEvict(value = "allUsers", allEntries = true)
   public AuthResponse createUser(RegisterRequest registerRequest) {
     if (userRepository.existsByLogin(registerRequest.getLogin())) {
       throw new IllegalArgumentException("Username already taken");
@@ -54,8 +63,11 @@ public class AuthServiceImpl implements AuthService {
       throw new IllegalArgumentException("Email already taken");
     }
 
+    // hashed before saving; a concurrent registration of the same login or email
+    // is still rejected by the unique constraints
+    String passwordHash = passwordHashingService.encode(registerRequest.getPassword());
     User entity = userMapper.fromRegisterRequest(registerRequest);
-    entity.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+    entity.setPassword(passwordHash);
     entity.setRegistrationDate(new Timestamp(System.currentTimeMillis()));
     entity.setBonusCoins(0);
     entity.setWallet(BigDecimal.valueOf(0.0));
@@ -75,6 +87,7 @@ public class AuthServiceImpl implements AuthService {
     );
 
     UserDTO dto = userMapper.toDTO(saved);
+    userCache.put(dto);
     dto.setRole(roleName);
 
     return new AuthResponse(dto, token);
@@ -82,7 +95,6 @@ public class AuthServiceImpl implements AuthService {
 
 
   @Override
-  @Transactional
   public AuthResponse login(AuthRequest authRequest) {
     Optional<User> opt;
     if (authRequest.getLogin().contains("@")) {
@@ -93,12 +105,16 @@ public class AuthServiceImpl implements AuthService {
 
     User user = opt.orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
 
-    if (!passwordEncoder.matches(authRequest.getPassword(), user.getPassword())) {
+    if (!passwordHashingService.matches(authRequest.getPassword(), user.getPassword())) {
       throw new IllegalArgumentException("Invalid credentials");
     }
+    Long userId = user.getId();
+    String outdatedHash = user.getPassword();
+    passwordHashingService.rehashIfOutdated(authRequest.getPassword(), outdatedHash,
+        upgradedHash -> userRepository.updatePasswordHash(userId, outdatedHash, upgradedHash));
 
-    user.setLastLogin(new Timestamp(System.currentTimeMillis()));
-    userRepository.save(user);
+    Timestamp loginTime = new Timestamp(System.currentTimeMillis());
+    lastLoginService.recordLogin(user.getId(), loginTime);
 
     String roleName = mapRole(user.getRole());
     String token = jwtTokenProvider.generate(
@@ -110,6 +126,7 @@ public class AuthServiceImpl implements AuthService {
 
     UserDTO dto = userMapper.toDTO(user);
     dto.setRole(roleName);
+    dto.setLastLogin(loginTime);
 
     return new AuthResponse(dto, token);
   }
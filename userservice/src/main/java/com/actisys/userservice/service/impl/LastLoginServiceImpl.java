@@ -0,0 +1,83 @@
+package com.actisys.userservice.service.impl;
+
+import com.actisys.userservice.cache.UserCache;
+import com.actisys.userservice.service.LastLoginService;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Write-behind buffer for users.last_login, so logins don't write the users row
+ * that wallet updates contend on.
+ * Every replica buffers its own logins; the update never moves last_login backwards,
+ * so flushes from different replicas can interleave in any order.
+ * Logins buffered by a replica that crashes before flushing are lost,
+ * which is acceptable for an informational timestamp.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginServiceImpl implements LastLoginService {
+
+  static final int BATCH_SIZE = 500;
+
+  private static final String VALUES_ROW = "(CAST(? AS bigint), CAST(? AS timestamp))";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final UserCache userCache;
+
+  private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+  @Override
+  public void recordLogin(Long userId, Timestamp loginTime) {
+    pending.merge(userId, loginTime.getTime(), Math::max);
+  }
+
+  @Override
+  @PreDestroy
+  @Scheduled(fixedDelayString = "${users.last-login.flush-interval-ms:10000}")
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Map<Long, Long> snapshot = new HashMap<>(pending);
+    List<Map.Entry<Long, Long>> entries = new ArrayList<>(snapshot.entrySet());
+    try {
+      for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+        update(entries.subList(from, Math.min(from + BATCH_SIZE, entries.size())));
+      }
+    } catch (DataAccessException e) {
+      log.warn("Failed to flush last login times, will retry: {}", e.getMessage());
+      return;
+    }
+    // keep entries that got a newer login while flushing
+    snapshot.forEach(pending::remove);
+    userCache.evictAll(snapshot.keySet());
+    log.debug("Flushed last login times of {} users", snapshot.size());
+  }
+
+  private void update(List<Map.Entry<Long, Long>> batch) {
+    StringBuilder sql = new StringBuilder(
+        "UPDATE users AS u SET last_login = v.last_login FROM (VALUES ");
+    Object[] args = new Object[batch.size() * 2];
+    for (int i = 0; i < batch.size(); i++) {
+      // PgJDBC sends timestamps untyped, which a VALUES column would resolve to text
+      sql.append(i == 0 ? "" : ", ").append(VALUES_ROW);
+      args[i * 2] = batch.get(i).getKey();
+      args[i * 2 + 1] = new Timestamp(batch.get(i).getValue());
+    }
+    sql.append(") AS v(id, last_login) WHERE u.id = v.id " +
+        "AND (u.last_login IS NULL OR u.last_login < v.last_login)");
+    jdbcTemplate.update(sql.toString(), args);
+  }
+}
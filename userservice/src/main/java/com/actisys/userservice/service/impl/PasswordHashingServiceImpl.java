@@ -0,0 +1,129 @@
+package com.actisys.userservice.service.impl;
+
+import com.actisys.userservice.exception.PasswordHashingBusyException;
+import com.actisys.userservice.service.PasswordHashingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs BCrypt on a small dedicated pool instead of Tomcat request threads.
+ * The pool has one thread per core and a bounded queue; when the queue is full
+ * requests are rejected at once with 503. A burst of logins can therefore hold
+ * at most threads + queue-capacity request threads, and the rest stay free
+ * for profile and wallet calls.
+ * Queue depth and activity are exported as executor metrics named "password-hashing".
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+  private final PasswordEncoder passwordEncoder;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${users.password-hashing.threads:0}")
+  private int threads;
+
+  @Value("${users.password-hashing.queue-capacity:64}")
+  private int queueCapacity;
+
+  @Value("${users.password-hashing.timeout-ms:5000}")
+  private long timeoutMs;
+
+  private ThreadPoolExecutor executor;
+  private Counter rejected;
+
+  @PostConstruct
+  public void init() {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        task -> {
+          Thread thread = new Thread(task, "password-hashing-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+    rejected = meterRegistry.counter("password.hashing.rejected");
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public boolean matches(String rawPassword, String encodedPassword) {
+    return await(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public String encode(String rawPassword) {
+    return await(() -> passwordEncoder.encode(rawPassword));
+  }
+
+  @Override
+  public void rehashIfOutdated(String rawPassword, String encodedPassword,
+      Consumer<String> onRehashed) {
+    if (!passwordEncoder.upgradeEncoding(encodedPassword) || !executor.getQueue().isEmpty()) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          onRehashed.accept(passwordEncoder.encode(rawPassword));
+        } catch (RuntimeException e) {
+          log.warn("Failed to upgrade password hash: {}", e.getMessage());
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // the upgrade is retried on the next login
+    }
+  }
+
+  private <T> T await(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingBusyException();
+    }
+    try {
+      return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      rejected.increment();
+      throw new PasswordHashingBusyException();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.cancel(true);
+      throw new PasswordHashingBusyException();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
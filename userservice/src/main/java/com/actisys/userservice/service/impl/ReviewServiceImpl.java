@@ -1,29 +1,41 @@
 package com.actisys.userservice.service.impl;
 
+import com.actisys.userservice.cache.ReviewRatingCache;
 import com.actisys.userservice.dto.ReviewResponseDtos.CreateReviewDTO;
+import com.actisys.userservice.dto.ReviewResponseDtos.RatingSummaryDTO;
 import com.actisys.userservice.dto.ReviewResponseDtos.ReviewDTO;
+import com.actisys.userservice.dto.ReviewResponseDtos.ReviewPageDTO;
+import com.actisys.userservice.dto.ReviewResponseDtos.VisibleReviewDTO;
 import com.actisys.userservice.exception.ReviewNotFoundException;
 import com.actisys.userservice.exception.UserNotFoundException;
 import com.actisys.userservice.mapper.ReviewMapper;
 import com.actisys.userservice.model.Review;
 import com.actisys.userservice.model.User;
 import com.actisys.userservice.repository.ReviewRepository;
+import com.actisys.userservice.repository.ReviewRepository.StarsCount;
 import com.actisys.userservice.repository.UserRepository;
 import com.actisys.userservice.service.ReviewService;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReviewServiceImpl implements ReviewService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final ReviewRepository reviewRepository;
   private final ReviewMapper reviewMapper;
   private final UserRepository userRepository;
+  private final ReviewRatingCache ratingCache;
 
   @Override
   public List<ReviewDTO> getAllReviews() {
@@ -34,22 +46,57 @@ public class ReviewServiceImpl implements ReviewService {
   }
 
   @Override
+  public ReviewPageDTO getVisibleReviews(int page, int size) {
+    if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          "Page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    Page<VisibleReviewDTO> reviews = reviewRepository.findVisible(PageRequest.of(page, size));
+    return ReviewPageDTO.builder()
+        .content(reviews.getContent())
+        .page(page)
+        .size(size)
+        .totalElements(reviews.getTotalElements())
+        .totalPages(reviews.getTotalPages())
+        .build();
+  }
+
+  @Override
+  public RatingSummaryDTO getRatingSummary() {
+    return ratingCache.get(() -> reviewRepository.countVisibleByStars().stream()
+        .collect(Collectors.toMap(StarsCount::getStars, StarsCount::getCount)));
+  }
+
+  @Override
+  @Transactional
   public ReviewDTO addReview(CreateReviewDTO createReviewDTO, Long userId) {
+    if (createReviewDTO.getStars() < RatingSummaryDTO.MIN_STARS
+        || createReviewDTO.getStars() > RatingSummaryDTO.MAX_STARS) {
+      throw new IllegalArgumentException("Stars must be between " + RatingSummaryDTO.MIN_STARS
+          + " and " + RatingSummaryDTO.MAX_STARS);
+    }
     User user = userRepository.findById(userId).orElseThrow(()-> new UserNotFoundException(userId));
     Review review = new Review();
     review.setUser(user);
     review.setStars(createReviewDTO.getStars());
     review.setReviewText(createReviewDTO.getReviewText());
-    return reviewMapper.toDTO(reviewRepository.save(review));
+    Review saved = reviewRepository.save(review);
+    if (saved.isVisible()) {
+      ratingCache.increment(saved.getStars(), 1);
+    }
+    return reviewMapper.toDTO(saved);
   }
 
   @Override
+  @Transactional
   public void editVisibility(Long reviewId) {
     log.info("reviewId:{}", reviewId);
-    Review review = reviewRepository.findById(reviewId)
+    // locked so that concurrent toggles apply their rating deltas in order
+    Review review = reviewRepository.findByIdForUpdate(reviewId)
         .orElseThrow(()-> new ReviewNotFoundException(reviewId));
     review.setVisible(!review.isVisible());
     reviewRepository.save(review);
+    ratingCache.increment(review.getStars(), review.isVisible() ? 1 : -1);
   }
 
   @Override
@@ -61,9 +108,13 @@ public class ReviewServiceImpl implements ReviewService {
   }
 
   @Override
+  @Transactional
   public void deleteReviewById(Long id) {
-    Review review = reviewRepository.findById(id)
+    Review review = reviewRepository.findByIdForUpdate(id)
         .orElseThrow(()-> new ReviewNotFoundException(id));
     reviewRepository.delete(review);
+    if (review.isVisible()) {
+      ratingCache.increment(review.getStars(), -1);
+    }
   }
 }
@@ -1,44 +1,28 @@
 package com.actisys.userservice.service.impl;
 
+import com.actisys.common.storage.PhotoUploadPipeline;
 import com.actisys.userservice.service.UserPhotoStorageService;
-import com.actisys.userservice.util.YandexS3Properties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-
-import java.io.IOException;
-import java.util.UUID;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserPhotoStorageServiceImpl implements UserPhotoStorageService {
 
-    private final S3Client s3Client;
-    private final YandexS3Properties props;
+    private final PhotoUploadPipeline photoUploadPipeline;
 
     @Override
     public String uploadUserPhoto(Long userId, MultipartFile file) {
-        String originalFilename = file.getOriginalFilename();
-        String key = "users/" + userId + "/" + UUID.randomUUID() + "-" + originalFilename;
-
-        try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(props.getBucket())
-                    .key(key)
-                    .contentType(file.getContentType())
-                    .build();
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
-            log.info("Uploaded photo for user {} to bucket {} with key {}", userId, props.getBucket(), key);
+        String url = photoUploadPipeline.upload("users/" + userId + "/", file);
+        log.info("Uploaded photo for user {}: {}", userId, url);
+        return url;
+    }
 
-            return "https://" + props.getBucket() + ".storage.yandexcloud.net/" + key;
-        }
-        catch (IOException e) {
-            throw new RuntimeException("Failed to upload user photo", e);
-        }
+    @Override
+    public void deleteUserPhoto(String photoUrl) {
+        photoUploadPipeline.deletePhoto(photoUrl);
     }
 }
@@ -1,31 +1,36 @@
 package com.actisys.userservice.service.impl;
 
 import com.actisys.common.events.OperationType;
-import com.actisys.common.events.PaymentType;
-import com.actisys.common.events.user.CreateWalletEvent;
-import com.actisys.common.events.user.RefundMoneyEvent;
 import com.actisys.common.events.user.WithdrawEvent;
 import com.actisys.common.user.UserDTO;
+import com.actisys.userservice.cache.ProfileCache;
+import com.actisys.userservice.cache.UserCache;
 import com.actisys.userservice.client.BillingServiceClient;
 import com.actisys.userservice.dto.UserResponseDtos.UpdateUserProfileDTO;
 import com.actisys.userservice.dto.UserResponseDtos.UserAllProfileDTO;
+import com.actisys.userservice.dto.UserResponseDtos.UserPageDTO;
 import com.actisys.userservice.dto.UserResponseDtos.UserSimpleProfileDTO;
-import com.actisys.userservice.exception.InsufficientFundsException;
+import com.actisys.userservice.dto.WalletOperation;
 import com.actisys.userservice.exception.UserNotFoundException;
 import com.actisys.userservice.mapper.UserMapper;
 import com.actisys.userservice.model.User;
+import com.actisys.userservice.model.WalletEntryType;
 import com.actisys.userservice.repository.UserRepository;
+import com.actisys.userservice.repository.WalletLedgerRepository;
 import com.actisys.userservice.service.UserPhotoStorageService;
 import com.actisys.userservice.service.UserService;
-import java.math.BigDecimal;
-import java.time.Duration;
+import com.actisys.userservice.util.TransactionUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -37,15 +42,19 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+  private static final int MAX_PAGE_SIZE = 200;
+  private static final int MAX_BATCH_SIZE = 500;
+
   private final UserRepository userRepository;
+  private final WalletLedgerRepository walletLedgerRepository;
   private final UserMapper userMapper;
   private final BillingServiceClient billingServiceClient;
   private final UserPhotoStorageService userPhotoStorageService;
-  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final UserCache userCache;
+  private final ProfileCache profileCache;
 
   @Override
   @Transactional
-  @CacheEvict(value = "allUsers", allEntries = true)
   public UserDTO updateUser(Long id, UpdateUserProfileDTO updated) {
     log.debug("Updating user profile: {}", id);
 
@@ -59,23 +68,23 @@ public class UserServiceImpl implements UserService {
         .orElseThrow(() -> new UserNotFoundException(id));
 
     User savedEntity = userRepository.save(updatedEntity);
-    return userMapper.toDTO(savedEntity);
+    return changed(userMapper.toDTO(savedEntity));
   }
 
   @Override
   @Transactional
-  @CacheEvict(value = "allUsers", allEntries = true)
   public void deleteUser(Long id) {
     log.debug("Deleting user: {}", id);
     if (!userRepository.existsById(id)) {
       throw new UserNotFoundException(id);
     }
     userRepository.deleteById(id);
+    userCache.evict(id);
+    profileCache.evict(id);
   }
 
   @Override
   @Transactional
-  @CacheEvict(value = "allUsers", allEntries = true)
   public UserDTO updateUserCoins(Long id, int coins) {
     log.debug("Updating coins for user {}: adding {} coins", id, coins);
     User user = userRepository.findById(id)
@@ -86,38 +95,44 @@ public class UserServiceImpl implements UserService {
     User saved = userRepository.save(user);
 
     log.debug("User {} coins updated: {} -> {}", id, oldBalance, saved.getBonusCoins());
-    return userMapper.toDTO(saved);
+    return changed(userMapper.toDTO(saved));
   }
 
   @Override
   @Transactional
-  @CacheEvict(value = "allUsers", allEntries = true)
   public UserDTO updateUserPhoto(Long userId, String photoPath) {
     log.debug("Updating photo for user {}: {}", userId, photoPath);
     User user = userRepository.findById(userId)
         .orElseThrow(() -> new UserNotFoundException(userId));
+    String previousPhoto = user.getPhotoPath();
     user.setPhotoPath(photoPath);
     User saved = userRepository.save(user);
-    return userMapper.toDTO(saved);
+    if (previousPhoto != null && !previousPhoto.equals(photoPath)) {
+      // the old photo and its thumbnails would otherwise stay in the bucket forever
+      TransactionUtils.afterCommit(() -> userPhotoStorageService.deleteUserPhoto(previousPhoto));
+    }
+    return changed(userMapper.toDTO(saved));
   }
 
   @Override
   public UserSimpleProfileDTO getProfile(Long userId) {
-    log.debug("Fetching simple profile from database: {}", userId);
-    User user = userRepository.findById(userId)
-        .orElseThrow(() -> new UserNotFoundException(userId));
+    UserDTO user = getUser(userId);
     return UserSimpleProfileDTO.builder()
         .login(user.getLogin())
         .wallet(user.getWallet())
         .photoPath(user.getPhotoPath())
-        .isBanned(user.isBanned())
-        .role(user.getRole())
+        .isBanned(Boolean.TRUE.equals(user.getBanned()))
+        .role(roleCode(user.getRole()))
         .build();
   }
 
   @Override
   public Mono<UserAllProfileDTO> getAllProfile(Long userId) {
-    log.debug("Fetching full profile for user: {}", userId);
+    return profileCache.get(userId, () -> loadAllProfile(userId));
+  }
+
+  private Mono<UserAllProfileDTO> loadAllProfile(Long userId) {
+    log.debug("Loading full profile for user: {}", userId);
     return Mono.fromSupplier(() -> {
           User user = userRepository.findById(userId)
               .orElseThrow(() -> new UserNotFoundException(userId));
@@ -133,24 +148,72 @@ public class UserServiceImpl implements UserService {
                     log.warn("Failed to fetch session stats for user {}: {}", userId, error.getMessage())
                 )
                 .onErrorReturn(dto)
-        )
-        .cache(Duration.ofMinutes(10));
+        );
   }
 
+
   @Override
-  @Cacheable(value = "allUsers")
   public List<UserDTO> getAllUsers() {
-    log.debug("Fetching all users from database");
-    List<User> users = userRepository.findAllUsers();
-    return users.stream()
-        .map(userMapper::toDTO)
+    return getUsersInOrder(userRepository.findAllUserIds());
+  }
+
+  @Override
+  public UserPageDTO getUsersPage(int page, int size) {
+    if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          "Page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    Page<Long> ids = userRepository.findUserIds(PageRequest.of(page, size));
+    return UserPageDTO.builder()
+        .content(getUsersInOrder(ids.getContent()))
+        .page(page)
+        .size(size)
+        .totalElements(ids.getTotalElements())
+        .totalPages(ids.getTotalPages())
+        .build();
+  }
+
+  @Override
+  public Map<Long, UserDTO> getUsersByIds(Collection<Long> ids) {
+    List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+    if (distinctIds.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException(
+          "At most " + MAX_BATCH_SIZE + " users can be requested at once");
+    }
+    return findUsers(distinctIds);
+  }
+
+  private List<UserDTO> getUsersInOrder(List<Long> ids) {
+    Map<Long, UserDTO> users = findUsers(ids);
+    return ids.stream()
+        .map(users::get)
+        .filter(Objects::nonNull)
         .collect(Collectors.toList());
   }
 
+  /**
+   * Reads the users from cache, loading only the missing ones from the database in one query.
+   *
+   * @return found users by id; unknown ids are absent
+   */
+  private Map<Long, UserDTO> findUsers(List<Long> ids) {
+    Map<Long, UserDTO> users = new HashMap<>(userCache.getAll(ids));
+    List<Long> missing = ids.stream().filter(id -> !users.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      log.debug("Loading {} of {} users from database", missing.size(), ids.size());
+      List<UserDTO> loaded = userRepository.findAllById(missing).stream()
+          .map(userMapper::toDTO)
+          .toList();
+      userCache.putAllIfAbsent(loaded);
+      loaded.forEach(user -> users.put(user.getId(), user));
+    }
+    return users;
+  }
+
+
 
   @Override
   @Transactional
-  @CacheEvict(value = "allUsers", allEntries = true)
   public UserDTO blockUser(Long id) {
     log.debug("Blocking user: {}", id);
     User user = userRepository.findById(id)
@@ -162,7 +225,7 @@ public class UserServiceImpl implements UserService {
 
     user.setBanned(true);
     User saved = userRepository.save(user);
-    UserDTO result = userMapper.toDTO(saved);
+    UserDTO result = changed(userMapper.toDTO(saved));
 
     log.debug("User blocked successfully: {}, isBanned={}", id, saved.isBanned());
     return result;
@@ -171,7 +234,6 @@ public class UserServiceImpl implements UserService {
 
   @Override
   @Transactional
-  @CacheEvict(value = "allUsers", allEntries = true)
   public UserDTO unBlockUser(Long id) {
     log.debug("Unblocking user: {}", id);
     User user = userRepository.findById(id)
@@ -179,7 +241,7 @@ public class UserServiceImpl implements UserService {
 
     user.setBanned(false);
     User saved = userRepository.save(user);
-    UserDTO result = userMapper.toDTO(saved);
+    UserDTO result = changed(userMapper.toDTO(saved));
 
     log.debug("User unblocked successfully: {}, isBanned={}", id, saved.isBanned());
     return result;
@@ -187,79 +249,105 @@ public class UserServiceImpl implements UserService {
 
   @Override
   public Integer myCoins(Long id) {
-    User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
-    return user.getBonusCoins();
+    return getUser(id).getBonusCoins();
   }
 
   @Override
   @Transactional
-  @CacheEvict(value = "allUsers", allEntries = true)
   public UserDTO uploadAndUpdateUserPhoto(Long userId, MultipartFile file) {
     log.debug("Uploading new photo for user {}", userId);
 
     String key = userPhotoStorageService.uploadUserPhoto(userId, file);
+    TransactionUtils.afterCompletion(committed -> {
+      if (!committed) {
+        userPhotoStorageService.deleteUserPhoto(key);
+      }
+    });
 
     return updateUserPhoto(userId, key);
   }
 
   @Override
-  public void withdrawMoney(CreateWalletEvent event) {
-    User user = userRepository.findById(event.getUserId())
-            .orElseThrow(() -> new UserNotFoundException(event.getUserId()));
-
-    WithdrawEvent withdrawEvent = new WithdrawEvent();
-    withdrawEvent.setPaymentId(event.getPaymentId());
-
-    if (user.getWallet().compareTo(event.getCost()) < 0) {
-      withdrawEvent.setStatus(OperationType.ERROR);
-      kafkaTemplate.send("WALLET_EVENT", withdrawEvent);
-      throw new InsufficientFundsException(event.getUserId());
+  @Transactional
+  public List<WithdrawEvent> applyWalletOperations(List<WalletOperation> operations) {
+    List<WithdrawEvent> results = new ArrayList<>(operations.size());
+    for (WalletOperation operation : operations) {
+      results.add(new WithdrawEvent(operation.paymentId(), applyWalletOperation(operation)));
     }
-
-    user.setWallet(user.getWallet().subtract(event.getCost()));
-
-    if (event.getPaymentType().equals(PaymentType.BOOKING)) {
-      user.setBonusCoins(user.getBonusCoins() + event.getCost().multiply(BigDecimal.valueOf(10)).intValue());
+    if (!operations.isEmpty()) {
+      Long userId = operations.get(0).userId();
+      userRepository.findById(userId)
+          .map(userMapper::toDTO)
+          .ifPresent(userCache::put);
+      profileCache.evict(userId);
     }
+    return results;
+  }
 
-    userRepository.save(user);
-
-    withdrawEvent.setStatus(OperationType.SUCCESS);
-    kafkaTemplate.send("WALLET_EVENT", withdrawEvent);
+  /**
+   * Applies the change to the balance with a conditional update and appends it to the ledger,
+   * so concurrent events for the same user never lose an update.
+   * The balance is updated first, so a rejected withdrawal leaves nothing to roll back
+   * and the other operations of the batch still commit.
+   */
+  private OperationType applyWalletOperation(WalletOperation operation) {
+    OperationType applied = operation.type() == WalletEntryType.REFUND
+        ? OperationType.REFUNDED
+        : OperationType.SUCCESS;
+    if (operation.paymentId() == null && operation.sessionId() == null) {
+      log.warn("Rejected {} for user {}: it names neither a payment nor a session",
+          operation.type(), operation.userId());
+      return OperationType.ERROR;
+    }
+    boolean duplicate = operation.sessionId() != null
+        ? walletLedgerRepository.existsBySessionIdAndEntryType(operation.sessionId(),
+            operation.type())
+        : walletLedgerRepository.existsByPaymentIdAndEntryType(operation.paymentId(),
+            operation.type());
+    if (duplicate) {
+      log.info("{} of payment {} (session {}) already applied, skipping", operation.type(),
+          operation.paymentId(), operation.sessionId());
+      return applied;
+    }
+    if (userRepository.applyWalletChange(operation.userId(), operation.amount(),
+        operation.bonusCoins()) == 0) {
+      log.info("Rejected {} of payment {}: user {} is missing or has insufficient funds",
+          operation.type(), operation.paymentId(), operation.userId());
+      return OperationType.ERROR;
+    }
+    if (walletLedgerRepository.appendIfAbsent(operation.userId(), operation.paymentId(),
+        operation.sessionId(), operation.type().name(), operation.amount(),
+        operation.bonusCoins()) == 0) {
+      // applied concurrently elsewhere: undo the balance change by failing the transaction
+      throw new IllegalStateException("Payment " + operation.paymentId()
+          + " was applied concurrently");
+    }
+    return applied;
   }
 
   @Override
-  public void replenishmentMoney(CreateWalletEvent createWalletEvent) {
-    User user = userRepository.findById(createWalletEvent.getUserId())
-        .orElseThrow(() -> new UserNotFoundException(createWalletEvent.getUserId()));
-    user.setWallet(user.getWallet().add(createWalletEvent.getCost()));
-    userRepository.save(user);
-    WithdrawEvent withdrawEvent = new WithdrawEvent();
-    withdrawEvent.setPaymentId(createWalletEvent.getPaymentId());
-    withdrawEvent.setStatus(OperationType.SUCCESS);
-    kafkaTemplate.send("WALLET_EVENT", withdrawEvent);
+  public UserDTO getUser(Long id) {
+    return userCache.get(id).orElseGet(() -> {
+      User user = userRepository.findById(id)
+          .orElseThrow(() -> new UserNotFoundException(id));
+      UserDTO dto = userMapper.toDTO(user);
+      userCache.putIfAbsent(dto);
+      return dto;
+    });
   }
 
-  @Override
-  public void refundMoneys(RefundMoneyEvent refundMoneyEvent) {
-    User user = userRepository.findById(refundMoneyEvent.getUserId())
-        .orElseThrow(() -> new UserNotFoundException(refundMoneyEvent.getUserId()));
-    user.setWallet(user.getWallet().add(refundMoneyEvent.getAmount()));
-    BigDecimal coinsToSubtractDecimal = refundMoneyEvent.getAmount().multiply(BigDecimal.valueOf(10));
-    int coinsToSubtract = coinsToSubtractDecimal.intValue();
-    user.setBonusCoins(user.getBonusCoins() - coinsToSubtract);
-    userRepository.save(user);
-    WithdrawEvent withdrawEvent = new WithdrawEvent();
-    withdrawEvent.setPaymentId(refundMoneyEvent.getPaymentId());
-    withdrawEvent.setStatus(OperationType.REFUNDED);
-    kafkaTemplate.send("WALLET_EVENT", withdrawEvent);
+  /**
+   * Writes the changed user through to the cache and drops the cached full profile,
+   * both once the current transaction commits.
+   */
+  private UserDTO changed(UserDTO user) {
+    userCache.put(user);
+    profileCache.evict(user.getId());
+    return user;
   }
 
-  @Override
-  public UserDTO getUser(Long id) {
-    User user = userRepository.findById(id)
-        .orElseThrow(() -> new UserNotFoundException(id));
-    return userMapper.toDTO(user);
+  private int roleCode(String role) {
+    return "2".equals(role) || "ADMIN".equals(role) ? 2 : 1;
   }
 
 }
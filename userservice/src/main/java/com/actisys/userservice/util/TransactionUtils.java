@@ -0,0 +1,45 @@
+package com.actisys.userservice.util;
+
+import java.util.function.Consumer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionUtils {
+
+  private TransactionUtils() {
+  }
+
+  /**
+   * Runs the action once the current transaction commits,
+   * or right away when called outside a transaction.
+   */
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  /**
+   * Runs the action once the current transaction completes, telling it whether it committed,
+   * or right away as committed when called outside a transaction.
+   */
+  public static void afterCompletion(Consumer<Boolean> action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.accept(true);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        action.accept(status == STATUS_COMMITTED);
+      }
+    });
+  }
+}
@@ -0,0 +1,200 @@
+package com.actisys.userservice.Benchmarks;
+
+import com.actisys.common.user.UserDTO;
+import com.actisys.userservice.cache.UserCache;
+import com.actisys.userservice.dto.AuthRequest;
+import com.actisys.userservice.dto.AuthResponse;
+import com.actisys.userservice.mapper.UserMapper;
+import com.actisys.userservice.mapper.UserMapperImpl;
+import com.actisys.userservice.model.User;
+import com.actisys.userservice.repository.UserRepository;
+import com.actisys.userservice.service.AuthService;
+import com.actisys.userservice.service.PasswordHashingService;
+import com.actisys.userservice.service.impl.AuthServiceImpl;
+import com.actisys.userservice.service.impl.LastLoginServiceImpl;
+import com.actisys.userservice.util.JwtTokenProvider;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Logs users in through AuthServiceImpl as it is now, with last_login buffered,
+ * and through the login it replaced, which saved the user row in a transaction.
+ * Runs against an in-process H2 database: it shows the cost the row write adds to each login,
+ * not the network round trip nor the row locks it shares with wallet updates on Postgres.
+ * Password hashing is stubbed out, it costs the same in both variants and would hide the rest.
+ * Run with -Dtest=LoginBenchmark -Dbenchmark=true.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Spring, Hibernate and H2 take close to a minute of JIT warmup to settle
+@Warmup(iterations = 20, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class LoginBenchmark {
+
+  private static final int USERS = 1024;
+  private static final String PASSWORD = "secret";
+
+  private ConfigurableApplicationContext context;
+  private AuthService authService;
+  private UserRepository userRepository;
+  private UserMapper userMapper;
+  private PasswordHashingService passwordHashingService;
+  private JwtTokenProvider jwtTokenProvider;
+  private TransactionTemplate transactionTemplate;
+  private AuthRequest[] requests;
+  private int next;
+
+  @SpringBootConfiguration
+  @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+      JdbcTemplateAutoConfiguration.class, TransactionAutoConfiguration.class})
+  @EntityScan(basePackageClasses = User.class)
+  @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+  @Import({AuthServiceImpl.class, LastLoginServiceImpl.class, UserMapperImpl.class,
+      JwtTokenProvider.class})
+  static class Config {
+
+    @Bean
+    PasswordHashingService passwordHashingService() {
+      return new PasswordHashingService() {
+        @Override
+        public boolean matches(String rawPassword, String encodedPassword) {
+          return rawPassword.equals(encodedPassword);
+        }
+
+        @Override
+        public String encode(String rawPassword) {
+          return rawPassword;
+        }
+
+        @Override
+        public void rehashIfOutdated(String rawPassword, String encodedPassword,
+            Consumer<String> onRehashed) {
+        }
+      };
+    }
+
+    @Bean
+    UserCache userCache() {
+      return mock(UserCache.class, withSettings().stubOnly());
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(Config.class)
+        .web(WebApplicationType.NONE)
+        .bannerMode(Banner.Mode.OFF)
+        // arguments, so they win over the local profile's datasource
+        .run("--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.url=jdbc:h2:mem:login;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--jwt.secret=benchmark-secret-benchmark-secret-benchmark",
+            "--logging.level.root=WARN");
+    authService = context.getBean(AuthService.class);
+    userRepository = context.getBean(UserRepository.class);
+    userMapper = context.getBean(UserMapper.class);
+    passwordHashingService = context.getBean(PasswordHashingService.class);
+    jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+    transactionTemplate = context.getBean(TransactionTemplate.class);
+
+    requests = new AuthRequest[USERS];
+    for (int i = 0; i < USERS; i++) {
+      User user = new User();
+      user.setLogin("user" + i);
+      user.setEmail("user" + i + "@example.com");
+      user.setPassword(PASSWORD);
+      user.setWallet(BigDecimal.ZERO);
+      user.setRole(1);
+      user.setRegistrationDate(new Timestamp(System.currentTimeMillis()));
+      userRepository.save(user);
+
+      AuthRequest request = new AuthRequest();
+      request.setLogin(user.getLogin());
+      request.setPassword(PASSWORD);
+      requests[i] = request;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public AuthResponse bufferedLastLogin() {
+    return authService.login(requests[next++ & (USERS - 1)]);
+  }
+
+  @Benchmark
+  public AuthResponse savedLastLogin() {
+    AuthRequest authRequest = requests[next++ & (USERS - 1)];
+    return transactionTemplate.execute(status -> {
+      User user = userRepository.findByLogin(authRequest.getLogin())
+          .orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
+      if (!passwordHashingService.matches(authRequest.getPassword(), user.getPassword())) {
+        throw new IllegalArgumentException("Invalid credentials");
+      }
+
+      user.setLastLogin(new Timestamp(System.currentTimeMillis()));
+      userRepository.save(user);
+
+      String roleName = user.getRole() == 2 ? "ADMIN" : "USER";
+      String token = jwtTokenProvider.generate(String.valueOf(user.getId()), user.getLogin(),
+          List.of(roleName), Map.of());
+      UserDTO dto = userMapper.toDTO(user);
+      dto.setRole(roleName);
+      return new AuthResponse(dto, token);
+    });
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void run() throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(LoginBenchmark.class.getName())
+        .build()).run();
+  }
+}
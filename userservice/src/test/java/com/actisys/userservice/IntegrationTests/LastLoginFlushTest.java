@@ -0,0 +1,97 @@
+package com.actisys.userservice.IntegrationTests;
+
+import com.actisys.userservice.cache.UserCache;
+import com.actisys.userservice.service.impl.LastLoginServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the batched last-login update against the real schema, where the types of the
+ * VALUES columns are inferred by Postgres rather than taken from the statement.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Import(LastLoginServiceImpl.class)
+class LastLoginFlushTest {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @SpringBootConfiguration
+  static class Config {
+  }
+
+  @MockitoBean
+  private UserCache userCache;
+
+  @Autowired
+  private LastLoginServiceImpl lastLoginService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+  @BeforeEach
+  void setUp() {
+    insertUser(1L, null);
+    insertUser(2L, base.plusHours(1));
+  }
+
+  @Test
+  void flush_shouldWriteLoginTimes() {
+    lastLoginService.recordLogin(1L, Timestamp.valueOf(base));
+    lastLoginService.recordLogin(2L, Timestamp.valueOf(base.plusHours(2)));
+
+    lastLoginService.flush();
+
+    assertEquals(base, lastLogin(1L));
+    assertEquals(base.plusHours(2), lastLogin(2L));
+  }
+
+  @Test
+  void flush_shouldNeverMoveLastLoginBackwards() {
+    lastLoginService.recordLogin(2L, Timestamp.valueOf(base));
+
+    lastLoginService.flush();
+
+    assertEquals(base.plusHours(1), lastLogin(2L));
+  }
+
+  private void insertUser(Long id, LocalDateTime lastLogin) {
+    jdbcTemplate.update("INSERT INTO users (id, login, password, full_name, email, last_login) "
+            + "VALUES (?, ?, 'hash', 'Test User', ?, ?)",
+        id, "user" + id, "user" + id + "@example.com",
+        lastLogin == null ? null : Timestamp.valueOf(lastLogin));
+  }
+
+  private LocalDateTime lastLogin(Long id) {
+    return jdbcTemplate.queryForObject("SELECT last_login FROM users WHERE id = ?",
+        Timestamp.class, id).toLocalDateTime();
+  }
+}
@@ -0,0 +1,141 @@
+package com.actisys.userservice.IntegrationTests;
+
+import com.actisys.userservice.cache.ReviewRatingCache;
+import com.actisys.userservice.dto.ReviewResponseDtos.RatingSummaryDTO;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the rating cache scripts against Redis, including changes that commit
+ * while the summary is being rebuilt from the database.
+ */
+@Testcontainers
+class ReviewRatingCacheTest {
+
+  @Container
+  static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine")
+      .withExposedPorts(6379);
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate redisTemplate;
+
+  private ReviewRatingCache ratingCache;
+  private AtomicInteger loads;
+
+  @BeforeAll
+  static void connect() {
+    connectionFactory = new LettuceConnectionFactory(
+        new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redisTemplate = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void disconnect() {
+    connectionFactory.destroy();
+  }
+
+  @BeforeEach
+  void setUp() {
+    redisTemplate.execute((RedisCallback<Object>) connection -> {
+      connection.serverCommands().flushAll();
+      return null;
+    });
+    ratingCache = new ReviewRatingCache(redisTemplate);
+    ReflectionTestUtils.setField(ratingCache, "ttlMinutes", 60L);
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  void get_shouldCacheTheRebuildAndApplyLaterChanges() {
+    ratingCache.get(loader(Map.of(5, 2L)));
+
+    ratingCache.increment(5, 1);
+    RatingSummaryDTO summary = ratingCache.get(loader(Map.of()));
+
+    assertEquals(1, loads.get());
+    assertEquals(3, summary.getCount());
+  }
+
+  @Test
+  void get_whenChangeAppliedDuringRebuild_shouldNotCacheIt() {
+    ratingCache.get(() -> {
+      loads.incrementAndGet();
+      // committed after the counts were read
+      ratingCache.increment(5, 1);
+      return Map.of(5, 2L);
+    });
+
+    RatingSummaryDTO summary = ratingCache.get(loader(Map.of(5, 3L)));
+
+    assertEquals(2, loads.get());
+    assertEquals(3, summary.getCount());
+  }
+
+  @Test
+  void get_whenChangeInFlightDuringRebuild_shouldNotCacheIt() {
+    List<TransactionSynchronization> transaction = inTransaction(() -> ratingCache.increment(4, 1));
+
+    // the change may or may not be part of these counts
+    ratingCache.get(loader(Map.of(4, 1L)));
+    commit(transaction);
+    RatingSummaryDTO summary = ratingCache.get(loader(Map.of(4, 1L)));
+
+    assertEquals(2, loads.get());
+    assertEquals(1, summary.getCount());
+    assertEquals(1, ratingCache.get(loader(Map.of())).getCount());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void increment_whenRolledBack_shouldKeepCounts() {
+    ratingCache.get(loader(Map.of(3, 1L)));
+
+    List<TransactionSynchronization> transaction = inTransaction(() -> ratingCache.increment(3, 1));
+    transaction.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    assertEquals(1, ratingCache.get(loader(Map.of())).getCount());
+    assertEquals(1, loads.get());
+    assertNull(redisTemplate.opsForValue().get("reviews:rating:in-flight"));
+  }
+
+  private Supplier<Map<Integer, Long>> loader(Map<Integer, Long> counts) {
+    return () -> {
+      loads.incrementAndGet();
+      return counts;
+    };
+  }
+
+  private List<TransactionSynchronization> inTransaction(Runnable action) {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      action.run();
+      return TransactionSynchronizationManager.getSynchronizations();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private void commit(List<TransactionSynchronization> transaction) {
+    transaction.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+  }
+}
@@ -0,0 +1,150 @@
+package com.actisys.userservice.IntegrationTests;
+
+import com.actisys.common.storage.PhotoUploadPipeline;
+import com.actisys.userservice.service.impl.UserPhotoStorageServiceImpl;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uploads, thumbnails and deletes user photos against a real S3 API served by MinIO.
+ */
+@Testcontainers
+class UserPhotoStorageMinioTest {
+
+  private static final String BUCKET = "vpclub";
+
+  @Container
+  static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2023-09-04T19-57-37Z");
+
+  private static S3AsyncClient s3Client;
+
+  private ExecutorService thumbnailExecutor;
+  private UserPhotoStorageServiceImpl storageService;
+
+  @BeforeAll
+  static void connect() {
+    s3Client = S3AsyncClient.builder()
+        .endpointOverride(URI.create(MINIO.getS3URL()))
+        .credentialsProvider(StaticCredentialsProvider.create(
+            AwsBasicCredentials.create(MINIO.getUserName(), MINIO.getPassword())))
+        .region(Region.US_EAST_1)
+        .forcePathStyle(true)
+        .build();
+    s3Client.createBucket(request -> request.bucket(BUCKET)).join();
+  }
+
+  @AfterAll
+  static void disconnect() {
+    s3Client.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    thumbnailExecutor = Executors.newSingleThreadExecutor();
+    storageService = new UserPhotoStorageServiceImpl(new PhotoUploadPipeline(s3Client, BUCKET,
+        MINIO.getS3URL() + "/" + BUCKET + "/", thumbnailExecutor));
+  }
+
+  @Test
+  void uploadUserPhoto_shouldStoreOriginalAndDownscaledThumbnails() throws Exception {
+    String url = storageService.uploadUserPhoto(1L, png("photo.png", 1600, 1200));
+    awaitObjects("users/1/", 4);
+
+    String key = key(url);
+    assertEquals(List.of(key, key + "_128.jpg", key + "_256.jpg", key + "_512.jpg"),
+        keys("users/1/"));
+    for (int size : PhotoUploadPipeline.THUMBNAIL_SIZES) {
+      BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(
+          get(PhotoUploadPipeline.thumbnailOf(key, size))));
+      assertEquals(size, thumbnail.getWidth());
+      assertEquals(size * 3 / 4, thumbnail.getHeight());
+    }
+  }
+
+  @Test
+  void deleteUserPhoto_shouldRemoveOriginalAndThumbnailsOnly() throws Exception {
+    String replaced = storageService.uploadUserPhoto(2L, png("old.png", 800, 800));
+    String current = storageService.uploadUserPhoto(2L, png("new.png", 800, 800));
+    awaitObjects("users/2/", 8);
+
+    storageService.deleteUserPhoto(replaced);
+
+    String key = key(current);
+    awaitKeys("users/2/",
+        List.of(key, key + "_128.jpg", key + "_256.jpg", key + "_512.jpg"));
+  }
+
+  @Test
+  void deleteUserPhoto_whenUrlIsForeign_shouldKeepObjects() throws Exception {
+    String url = storageService.uploadUserPhoto(3L, png("photo.png", 300, 200));
+    awaitObjects("users/3/", 4);
+
+    storageService.deleteUserPhoto("https://example.com/" + key(url));
+
+    assertEquals(4, keys("users/3/").size());
+  }
+
+  // the pipeline awaits neither thumbnail uploads nor deletes
+  private void awaitObjects(String prefix, int count) throws InterruptedException {
+    thumbnailExecutor.shutdown();
+    assertTrue(thumbnailExecutor.awaitTermination(30, TimeUnit.SECONDS));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (keys(prefix).size() < count && System.nanoTime() < deadline) {
+      Thread.sleep(100);
+    }
+    assertEquals(count, keys(prefix).size());
+  }
+
+  private void awaitKeys(String prefix, List<String> expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!keys(prefix).equals(expected) && System.nanoTime() < deadline) {
+      Thread.sleep(100);
+    }
+    assertEquals(expected, keys(prefix));
+  }
+
+  private String key(String url) {
+    return url.substring((MINIO.getS3URL() + "/" + BUCKET + "/").length());
+  }
+
+  private List<String> keys(String prefix) {
+    return s3Client.listObjectsV2(request -> request.bucket(BUCKET).prefix(prefix)).join()
+        .contents().stream().map(S3Object::key).sorted().toList();
+  }
+
+  private byte[] get(String key) {
+    return s3Client.getObject(GetObjectRequest.builder().bucket(BUCKET).key(key).build(),
+        AsyncResponseTransformer.toBytes()).join().asByteArray();
+  }
+
+  private MockMultipartFile png(String name, int width, int height) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", bytes);
+    return new MockMultipartFile("file", name, "image/png", bytes.toByteArray());
+  }
+}
@@ -0,0 +1,90 @@
+package com.actisys.userservice.UnitTests;
+
+import com.actisys.userservice.cache.UserCache;
+import com.actisys.userservice.service.impl.LastLoginServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LastLoginServiceImpl Unit Tests")
+class LastLoginServiceImplTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private UserCache userCache;
+
+  @InjectMocks
+  private LastLoginServiceImpl lastLoginService;
+
+  @Test
+  @DisplayName("flush - should write the latest login of every user in one statement")
+  void flush_ShouldWriteLatestLoginPerUserInOneStatement() {
+    // Given
+    lastLoginService.recordLogin(1L, new Timestamp(2_000));
+    lastLoginService.recordLogin(1L, new Timestamp(1_000));
+    lastLoginService.recordLogin(2L, new Timestamp(3_000));
+
+    // When
+    lastLoginService.flush();
+
+    // Then
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+    verify(jdbcTemplate).update(sql.capture(), args.capture(), args.capture(), args.capture(),
+        args.capture());
+    assertTrue(sql.getValue().contains("FROM (VALUES (CAST(? AS bigint), CAST(? AS timestamp)), "
+        + "(CAST(? AS bigint), CAST(? AS timestamp)))"));
+    assertEquals(Set.of(1L, new Timestamp(2_000), 2L, new Timestamp(3_000)),
+        new HashSet<>(args.getAllValues()));
+    verify(userCache).evictAll(Set.of(1L, 2L));
+  }
+
+  @Test
+  @DisplayName("flush - should not write again when nothing was recorded since")
+  void flush_WhenAlreadyFlushed_ShouldNotWriteAgain() {
+    // Given
+    lastLoginService.recordLogin(1L, new Timestamp(1_000));
+    lastLoginService.flush();
+
+    // When
+    lastLoginService.flush();
+
+    // Then
+    verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+  }
+
+  @Test
+  @DisplayName("flush - should keep login times buffered when the update fails")
+  void flush_WhenUpdateFails_ShouldRetryOnNextFlush() {
+    // Given
+    lastLoginService.recordLogin(1L, new Timestamp(1_000));
+    when(jdbcTemplate.update(anyString(), any(Object[].class)))
+        .thenThrow(new QueryTimeoutException("timeout"))
+        .thenReturn(1);
+
+    // When
+    lastLoginService.flush();
+    lastLoginService.flush();
+
+    // Then
+    verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+  }
+}
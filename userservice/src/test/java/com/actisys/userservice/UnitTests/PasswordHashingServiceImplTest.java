@@ -0,0 +1,118 @@
+package com.actisys.userservice.UnitTests;
+
+import com.actisys.userservice.exception.PasswordHashingBusyException;
+import com.actisys.userservice.service.impl.PasswordHashingServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("PasswordHashingServiceImpl Unit Tests")
+class PasswordHashingServiceImplTest {
+
+  private PasswordEncoder passwordEncoder;
+  private SimpleMeterRegistry meterRegistry;
+  private PasswordHashingServiceImpl passwordHashingService;
+
+  @BeforeEach
+  void setUp() {
+    passwordEncoder = mock(PasswordEncoder.class);
+    meterRegistry = new SimpleMeterRegistry();
+    passwordHashingService = new PasswordHashingServiceImpl(passwordEncoder, meterRegistry);
+    ReflectionTestUtils.setField(passwordHashingService, "threads", 1);
+    ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 1);
+    ReflectionTestUtils.setField(passwordHashingService, "timeoutMs", 5000L);
+    passwordHashingService.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    passwordHashingService.shutdown();
+  }
+
+  @Test
+  @DisplayName("matches - should return the encoder's result")
+  void matches_ShouldDelegateToEncoder() {
+    // Given
+    when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+
+    // When & Then
+    assertTrue(passwordHashingService.matches("secret", "hash"));
+    assertFalse(passwordHashingService.matches("wrong", "hash"));
+  }
+
+  @Test
+  @DisplayName("matches - should reject at once when the queue is full")
+  void matches_WhenSaturated_ShouldRejectImmediately() throws Exception {
+    // Given
+    CountDownLatch release = new CountDownLatch(1);
+    when(passwordEncoder.matches("slow", "hash")).thenAnswer(invocation -> {
+      release.await();
+      return true;
+    });
+    CompletableFuture<Boolean> running =
+        CompletableFuture.supplyAsync(() -> passwordHashingService.matches("slow", "hash"));
+    CompletableFuture<Boolean> queued =
+        CompletableFuture.supplyAsync(() -> passwordHashingService.matches("slow", "hash"));
+    ThreadPoolExecutor executor =
+        (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordHashingService, "executor");
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (executor.getQueue().size() < 1 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+
+    // When & Then
+    assertThrows(PasswordHashingBusyException.class,
+        () -> passwordHashingService.matches("slow", "hash"));
+    assertEquals(1.0, meterRegistry.counter("password.hashing.rejected").count());
+
+    release.countDown();
+    assertTrue(running.get(5, TimeUnit.SECONDS));
+    assertTrue(queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("rehashIfOutdated - should hand over a new hash when the cost is outdated")
+  void rehashIfOutdated_WhenCostOutdated_ShouldRehash() throws Exception {
+    // Given
+    when(passwordEncoder.upgradeEncoding("old-hash")).thenReturn(true);
+    when(passwordEncoder.encode("secret")).thenReturn("new-hash");
+    AtomicReference<String> rehashed = new AtomicReference<>();
+    CountDownLatch done = new CountDownLatch(1);
+
+    // When
+    passwordHashingService.rehashIfOutdated("secret", "old-hash", hash -> {
+      rehashed.set(hash);
+      done.countDown();
+    });
+
+    // Then
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals("new-hash", rehashed.get());
+  }
+
+  @Test
+  @DisplayName("rehashIfOutdated - should do nothing when the cost is current")
+  void rehashIfOutdated_WhenCostCurrent_ShouldSkip() {
+    // Given
+    when(passwordEncoder.upgradeEncoding("hash")).thenReturn(false);
+
+    // When
+    passwordHashingService.rehashIfOutdated("secret", "hash", hash -> fail("unexpected rehash"));
+
+    // Then
+    verify(passwordEncoder, never()).encode(any());
+  }
+}
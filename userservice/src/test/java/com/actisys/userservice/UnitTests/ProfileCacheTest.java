@@ -0,0 +1,116 @@
+package com.actisys.userservice.UnitTests;
+
+import com.actisys.common.clientDtos.SessionStatsDTO;
+import com.actisys.userservice.cache.ProfileCache;
+import com.actisys.userservice.dto.UserResponseDtos.UserAllProfileDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProfileCache Unit Tests")
+class ProfileCacheTest {
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  @Mock
+  private ValueOperations<String, String> valueOperations;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private ProfileCache profileCache;
+
+  private Sinks.One<UserAllProfileDTO> billingResponse;
+  private AtomicInteger loads;
+  private Supplier<Mono<UserAllProfileDTO>> loader;
+
+  @BeforeEach
+  void setUp() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    billingResponse = Sinks.one();
+    loads = new AtomicInteger();
+    loader = () -> {
+      loads.incrementAndGet();
+      return billingResponse.asMono();
+    };
+  }
+
+  @Test
+  @DisplayName("get - concurrent misses for the same user should share one load")
+  void get_WhenConcurrentMisses_ShouldLoadOnce() {
+    // Given
+    UserAllProfileDTO profile = profile(new SessionStatsDTO(3, 4.5));
+    CompletableFuture<UserAllProfileDTO> first = profileCache.get(1L, loader).toFuture();
+    CompletableFuture<UserAllProfileDTO> second = profileCache.get(1L, loader).toFuture();
+
+    // When
+    billingResponse.tryEmitValue(profile);
+
+    // Then
+    assertEquals(1, loads.get());
+    assertSame(profile, first.join());
+    assertSame(profile, second.join());
+    verify(valueOperations).set(eq("users:profile:1"), anyString(), any(Duration.class));
+  }
+
+  @Test
+  @DisplayName("get - a load overtaken by an eviction should be returned but not cached")
+  void get_WhenEvictedDuringLoad_ShouldNotCacheResult() {
+    // Given
+    UserAllProfileDTO profile = profile(new SessionStatsDTO(3, 4.5));
+    CompletableFuture<UserAllProfileDTO> result = profileCache.get(1L, loader).toFuture();
+
+    // When
+    profileCache.evict(1L);
+    billingResponse.tryEmitValue(profile);
+
+    // Then
+    assertSame(profile, result.join());
+    verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+  }
+
+  @Test
+  @DisplayName("get - a profile loaded without session stats should not be cached")
+  void get_WhenStatsMissing_ShouldNotCacheResult() {
+    // Given
+    CompletableFuture<UserAllProfileDTO> result = profileCache.get(1L, loader).toFuture();
+
+    // When
+    billingResponse.tryEmitValue(profile(null));
+
+    // Then
+    assertNull(result.join().getSessionStats());
+    verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+  }
+
+  private UserAllProfileDTO profile(SessionStatsDTO stats) {
+    return UserAllProfileDTO.builder()
+        .login("testuser")
+        .bonusCoins(50)
+        .sessionStats(stats)
+        .build();
+  }
+}
@@ -0,0 +1,185 @@
+package com.actisys.userservice.UnitTests;
+
+import com.actisys.userservice.cache.ReviewRatingCache;
+import com.actisys.userservice.dto.ReviewResponseDtos.CreateReviewDTO;
+import com.actisys.userservice.dto.ReviewResponseDtos.RatingSummaryDTO;
+import com.actisys.userservice.mapper.ReviewMapper;
+import com.actisys.userservice.model.Review;
+import com.actisys.userservice.model.User;
+import com.actisys.userservice.repository.ReviewRepository;
+import com.actisys.userservice.repository.ReviewRepository.StarsCount;
+import com.actisys.userservice.repository.UserRepository;
+import com.actisys.userservice.service.impl.ReviewServiceImpl;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReviewServiceImpl Unit Tests")
+class ReviewServiceImplTest {
+
+  @Mock
+  private ReviewRepository reviewRepository;
+
+  @Mock
+  private ReviewMapper reviewMapper;
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private ReviewRatingCache ratingCache;
+
+  @InjectMocks
+  private ReviewServiceImpl reviewService;
+
+  private Review testReview;
+
+  @BeforeEach
+  void setUp() {
+    testReview = new Review();
+    testReview.setId(1L);
+    testReview.setStars(4);
+    testReview.setReviewText("Great club");
+    testReview.setVisible(true);
+  }
+
+  @Test
+  @DisplayName("addReview - should count the new visible review in the rating")
+  void addReview_ShouldIncrementRating() {
+    // Given
+    User user = new User();
+    user.setId(1L);
+    when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // When
+    reviewService.addReview(new CreateReviewDTO("Great club", 5), 1L);
+
+    // Then
+    verify(ratingCache).increment(5, 1);
+  }
+
+  @Test
+  @DisplayName("addReview - should reject stars outside 1..5")
+  void addReview_WhenStarsOutOfRange_ShouldThrow() {
+    // When / Then
+    assertThrows(IllegalArgumentException.class,
+        () -> reviewService.addReview(new CreateReviewDTO("Great club", 6), 1L));
+    verify(reviewRepository, never()).save(any());
+    verify(ratingCache, never()).increment(anyInt(), anyLong());
+  }
+
+  @Test
+  @DisplayName("editVisibility - hiding a review should remove it from the rating")
+  void editVisibility_WhenHidden_ShouldDecrementRating() {
+    // Given
+    when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testReview));
+
+    // When
+    reviewService.editVisibility(1L);
+
+    // Then
+    assertFalse(testReview.isVisible());
+    verify(ratingCache).increment(4, -1);
+  }
+
+  @Test
+  @DisplayName("editVisibility - showing a review should add it to the rating")
+  void editVisibility_WhenShown_ShouldIncrementRating() {
+    // Given
+    testReview.setVisible(false);
+    when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testReview));
+
+    // When
+    reviewService.editVisibility(1L);
+
+    // Then
+    assertTrue(testReview.isVisible());
+    verify(ratingCache).increment(4, 1);
+  }
+
+  @Test
+  @DisplayName("deleteReviewById - deleting a hidden review should not change the rating")
+  void deleteReviewById_WhenHidden_ShouldKeepRating() {
+    // Given
+    testReview.setVisible(false);
+    when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testReview));
+
+    // When
+    reviewService.deleteReviewById(1L);
+
+    // Then
+    verify(reviewRepository).delete(testReview);
+    verify(ratingCache, never()).increment(anyInt(), anyLong());
+  }
+
+  @Test
+  @DisplayName("deleteReviewById - deleting a visible review should remove it from the rating")
+  void deleteReviewById_WhenVisible_ShouldDecrementRating() {
+    // Given
+    when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testReview));
+
+    // When
+    reviewService.deleteReviewById(1L);
+
+    // Then
+    verify(reviewRepository).delete(testReview);
+    verify(ratingCache).increment(4, -1);
+  }
+
+  @Test
+  @DisplayName("getRatingSummary - should build the summary from visible review counts on a miss")
+  @SuppressWarnings("unchecked")
+  void getRatingSummary_WhenNotCached_ShouldCountVisibleReviews() {
+    // Given
+    when(ratingCache.get(any())).thenAnswer(invocation ->
+        RatingSummaryDTO.of(((Supplier<Map<Integer, Long>>) invocation.getArgument(0)).get()));
+    when(reviewRepository.countVisibleByStars())
+        .thenReturn(List.of(starsCount(5, 3), starsCount(2, 1)));
+
+    // When
+    RatingSummaryDTO summary = reviewService.getRatingSummary();
+
+    // Then
+    assertEquals(4, summary.getCount());
+    assertEquals(4.25, summary.getAverage());
+    assertEquals(Map.of(1, 0L, 2, 1L, 3, 0L, 4, 0L, 5, 3L), summary.getHistogram());
+  }
+
+  @Test
+  @DisplayName("getVisibleReviews - should reject a page size above the limit")
+  void getVisibleReviews_WhenSizeTooLarge_ShouldThrow() {
+    // When / Then
+    assertThrows(IllegalArgumentException.class, () -> reviewService.getVisibleReviews(0, 101));
+    verify(reviewRepository, never()).findVisible(any());
+  }
+
+  private StarsCount starsCount(int stars, long count) {
+    return new StarsCount() {
+      @Override
+      public int getStars() {
+        return stars;
+      }
+
+      @Override
+      public long getCount() {
+        return count;
+      }
+    };
+  }
+}
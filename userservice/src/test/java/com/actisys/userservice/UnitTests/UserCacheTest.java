@@ -0,0 +1,105 @@
+package com.actisys.userservice.UnitTests;
+
+import com.actisys.common.user.UserDTO;
+import com.actisys.userservice.cache.UserCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserCache Unit Tests")
+class UserCacheTest {
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  @Mock
+  private RedisOperations<String, String> pipeline;
+
+  @Mock
+  private ValueOperations<String, String> valueOperations;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private UserCache userCache;
+
+  private UserDTO user;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(userCache, "ttlMinutes", 30L);
+    when(pipeline.opsForValue()).thenReturn(valueOperations);
+    user = new UserDTO();
+    user.setId(1L);
+    user.setLogin("testuser");
+  }
+
+  @Test
+  @DisplayName("put - a committed change should replace the cached entry")
+  void put_ShouldOverwriteEntry() {
+    // When
+    userCache.put(user);
+
+    // Then
+    runPipeline();
+    verify(valueOperations).set(eq("users:user:1"), anyString(), eq(Duration.ofMinutes(30)));
+    verify(valueOperations, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+  }
+
+  @Test
+  @DisplayName("putIfAbsent - a read-through fill should not replace an entry written meanwhile")
+  void putIfAbsent_ShouldOnlySetMissingEntry() {
+    // When
+    userCache.putIfAbsent(user);
+
+    // Then
+    runPipeline();
+    verify(valueOperations).setIfAbsent(eq("users:user:1"), anyString(),
+        eq(Duration.ofMinutes(30)));
+    verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+  }
+
+  @Test
+  @DisplayName("putAllIfAbsent - should fill every loaded user only if absent")
+  void putAllIfAbsent_ShouldOnlySetMissingEntries() {
+    // Given
+    UserDTO other = new UserDTO();
+    other.setId(2L);
+
+    // When
+    userCache.putAllIfAbsent(List.of(user, other));
+
+    // Then
+    runPipeline();
+    verify(valueOperations).setIfAbsent(eq("users:user:1"), anyString(), any(Duration.class));
+    verify(valueOperations).setIfAbsent(eq("users:user:2"), anyString(), any(Duration.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void runPipeline() {
+    ArgumentCaptor<SessionCallback<Object>> callback = ArgumentCaptor.forClass(SessionCallback.class);
+    verify(redisTemplate).executePipelined(callback.capture());
+    callback.getValue().execute(pipeline);
+  }
+}
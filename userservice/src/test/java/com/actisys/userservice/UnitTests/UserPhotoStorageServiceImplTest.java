@@ -0,0 +1,128 @@
+package com.actisys.userservice.UnitTests;
+
+import com.actisys.common.storage.PhotoUploadPipeline;
+import com.actisys.userservice.service.impl.UserPhotoStorageServiceImpl;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserPhotoStorageServiceImpl Unit Tests")
+class UserPhotoStorageServiceImplTest {
+
+  private static final String BASE_URL = "http://localhost:9000/vpclub/";
+
+  @Mock
+  private S3AsyncClient s3AsyncClient;
+
+  private ExecutorService thumbnailExecutor;
+  private UserPhotoStorageServiceImpl storageService;
+
+  @BeforeEach
+  void setUp() {
+    thumbnailExecutor = Executors.newSingleThreadExecutor();
+    storageService = new UserPhotoStorageServiceImpl(
+        new PhotoUploadPipeline(s3AsyncClient, "vpclub", BASE_URL, thumbnailExecutor));
+  }
+
+  @Test
+  @DisplayName("uploadUserPhoto - should store the original and a JPEG thumbnail per size")
+  void uploadUserPhoto_ShouldStoreOriginalAndThumbnails() throws Exception {
+    // Given
+    acceptUploads();
+    MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png",
+        png(1600, 1200));
+
+    // When
+    String url = storageService.uploadUserPhoto(1L, file);
+    awaitThumbnails();
+
+    // Then
+    assertTrue(url.startsWith(BASE_URL + "users/1/"));
+    assertTrue(url.endsWith("-photo.png"));
+    String key = url.substring(BASE_URL.length());
+
+    List<PutObjectRequest> requests = capturePuts(4);
+    assertEquals(key, requests.get(0).key());
+    assertEquals("image/png", requests.get(0).contentType());
+    assertEquals(List.of(key + "_512.jpg", key + "_256.jpg", key + "_128.jpg"),
+        requests.subList(1, 4).stream().map(PutObjectRequest::key).toList());
+    requests.subList(1, 4).forEach(request ->
+        assertEquals("image/jpeg", request.contentType()));
+  }
+
+  @Test
+  @DisplayName("uploadUserPhoto - should store only the original when it is not an image")
+  void uploadUserPhoto_WhenNotAnImage_ShouldSkipThumbnails() throws Exception {
+    // Given
+    acceptUploads();
+    MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png",
+        "not an image".getBytes());
+
+    // When
+    storageService.uploadUserPhoto(1L, file);
+    awaitThumbnails();
+
+    // Then
+    capturePuts(1);
+  }
+
+  @Test
+  @DisplayName("uploadUserPhoto - should fail and skip thumbnails when the original upload fails")
+  void uploadUserPhoto_WhenUploadFails_ShouldThrow() throws Exception {
+    // Given
+    when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("S3 down")));
+    MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png",
+        png(100, 100));
+
+    // When / Then
+    assertThrows(IllegalStateException.class, () -> storageService.uploadUserPhoto(1L, file));
+    awaitThumbnails();
+    capturePuts(1);
+  }
+
+  private void acceptUploads() {
+    when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+        .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+  }
+
+  private void awaitThumbnails() throws InterruptedException {
+    thumbnailExecutor.shutdown();
+    assertTrue(thumbnailExecutor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  private List<PutObjectRequest> capturePuts(int count) {
+    ArgumentCaptor<PutObjectRequest> requests = ArgumentCaptor.forClass(PutObjectRequest.class);
+    verify(s3AsyncClient, times(count)).putObject(requests.capture(), any(AsyncRequestBody.class));
+    return requests.getAllValues();
+  }
+
+  private byte[] png(int width, int height) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", bytes);
+    return bytes.toByteArray();
+  }
+}
@@ -1,14 +1,26 @@
 package com.actisys.userservice.UnitTests;
 
+import com.actisys.common.events.OperationType;
+import com.actisys.common.events.PaymentType;
+import com.actisys.common.events.user.CreateWalletEvent;
+import com.actisys.common.events.user.RefundMoneyEvent;
+import com.actisys.common.events.user.WithdrawEvent;
 import com.actisys.common.user.UserDTO;
+import com.actisys.userservice.cache.ProfileCache;
+import com.actisys.userservice.cache.UserCache;
 import com.actisys.userservice.client.BillingServiceClient;
 import com.actisys.userservice.dto.UserResponseDtos.UpdateUserProfileDTO;
 import com.actisys.userservice.dto.UserResponseDtos.UserAllProfileDTO;
+import com.actisys.userservice.dto.UserResponseDtos.UserPageDTO;
 import com.actisys.userservice.dto.UserResponseDtos.UserSimpleProfileDTO;
+import com.actisys.userservice.dto.WalletOperation;
 import com.actisys.userservice.exception.UserNotFoundException;
 import com.actisys.userservice.mapper.UserMapper;
 import com.actisys.userservice.model.User;
+import com.actisys.userservice.model.WalletEntryType;
 import com.actisys.userservice.repository.UserRepository;
+import com.actisys.userservice.repository.WalletLedgerRepository;
+import com.actisys.userservice.service.UserPhotoStorageService;
 import com.actisys.userservice.service.impl.UserServiceImpl;
 import java.math.BigDecimal;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,14 +30,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockMultipartFile;
 import reactor.core.publisher.Mono;
 
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +61,18 @@ class UserServiceImplTest {
   @Mock
   private BillingServiceClient billingServiceClient;
 
+  @Mock
+  private WalletLedgerRepository walletLedgerRepository;
+
+  @Mock
+  private UserCache userCache;
+
+  @Mock
+  private ProfileCache profileCache;
+
+  @Mock
+  private UserPhotoStorageService userPhotoStorageService;
+
   @InjectMocks
   private UserServiceImpl userService;
 
@@ -99,6 +131,7 @@ class UserServiceImplTest {
     verify(userRepository, times(1)).findById(1L);
     verify(userRepository, times(1)).save(any(User.class));
     verify(userMapper, times(1)).toDTO(testUser);
+    verify(userCache).put(testUserDTO);
   }
 
   @Test
@@ -142,6 +175,7 @@ class UserServiceImplTest {
 
     verify(userRepository, times(1)).existsById(1L);
     verify(userRepository, times(1)).deleteById(1L);
+    verify(userCache).evict(1L);
   }
 
   @Test
@@ -225,6 +259,40 @@ class UserServiceImplTest {
     assertEquals("/new/photo.jpg", userForPhoto.getPhotoPath());
     assertNotNull(result);
     verify(userRepository, times(1)).save(any(User.class));
+    verify(userPhotoStorageService).deleteUserPhoto("/old/photo.jpg");
+  }
+
+  @Test
+  @DisplayName("Should keep the photo when it is set again or there was none")
+  void testUpdateUserPhotoWithoutReplacedPhoto() {
+    User userForPhoto = new User();
+    userForPhoto.setId(1L);
+
+    when(userRepository.findById(1L)).thenReturn(Optional.of(userForPhoto));
+    when(userRepository.save(any(User.class))).thenReturn(userForPhoto);
+    when(userMapper.toDTO(userForPhoto)).thenReturn(testUserDTO);
+
+    userService.updateUserPhoto(1L, "/new/photo.jpg");
+    userService.updateUserPhoto(1L, "/new/photo.jpg");
+
+    verify(userPhotoStorageService, never()).deleteUserPhoto(any());
+  }
+
+  @Test
+  @DisplayName("Should delete the replaced photo after uploading a new one")
+  void testUploadAndUpdateUserPhotoDeletesReplacedPhoto() {
+    MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png",
+        new byte[]{1});
+    when(userPhotoStorageService.uploadUserPhoto(1L, file)).thenReturn("/users/1/new.png");
+    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    when(userRepository.save(any(User.class))).thenReturn(testUser);
+    when(userMapper.toDTO(testUser)).thenReturn(testUserDTO);
+
+    userService.uploadAndUpdateUserPhoto(1L, file);
+
+    assertEquals("/users/1/new.png", testUser.getPhotoPath());
+    verify(userPhotoStorageService).deleteUserPhoto("/photos/test.jpg");
+    verify(userPhotoStorageService, never()).deleteUserPhoto("/users/1/new.png");
   }
 
   @Test
@@ -249,6 +317,7 @@ class UserServiceImplTest {
         .build();
 
     when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    when(userMapper.toDTO(testUser)).thenReturn(testUserDTO);
 
     UserSimpleProfileDTO result = userService.getProfile(1L);
 
@@ -256,7 +325,21 @@ class UserServiceImplTest {
     assertEquals("testuser", result.getLogin());
     assertEquals(BigDecimal.valueOf(100.0), result.getWallet());
     assertFalse(result.isBanned());
+    assertEquals(simpleProfile.getRole(), result.getRole());
     verify(userRepository, times(1)).findById(1L);
+    verify(userCache).putIfAbsent(testUserDTO);
+    verify(userCache, never()).put(any());
+  }
+
+  @Test
+  @DisplayName("Should serve user from cache without querying the database")
+  void testGetUserFromCache() {
+    when(userCache.get(1L)).thenReturn(Optional.of(testUserDTO));
+
+    UserDTO result = userService.getUser(1L);
+
+    assertSame(testUserDTO, result);
+    verifyNoInteractions(userRepository);
   }
 
   @Test
@@ -270,6 +353,7 @@ class UserServiceImplTest {
   @Test
   @DisplayName("Should throw UserNotFoundException when getting full profile for non-existent user")
   void testGetAllProfileUserNotFound() {
+    loadProfilesThroughCache();
     when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
     Mono<UserAllProfileDTO> result = userService.getAllProfile(1L);
@@ -292,6 +376,7 @@ class UserServiceImplTest {
         .sessionStats(null)
         .build();
 
+    loadProfilesThroughCache();
     when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
     when(userMapper.toAllProfileDTO(testUser)).thenReturn(fullProfile);
     when(billingServiceClient.getUserSessionStats(1L))
@@ -305,13 +390,38 @@ class UserServiceImplTest {
     verify(billingServiceClient, times(1)).getUserSessionStats(1L);
   }
 
+  @Test
+  @DisplayName("Should serve full profile from cache without querying the database")
+  void testGetAllProfileFromCache() {
+    UserAllProfileDTO cachedProfile = UserAllProfileDTO.builder().login("testuser").build();
+    when(profileCache.get(eq(1L), any())).thenReturn(Mono.just(cachedProfile));
+
+    UserAllProfileDTO result = userService.getAllProfile(1L).block();
+
+    assertSame(cachedProfile, result);
+    verifyNoInteractions(userRepository, billingServiceClient);
+  }
+
+  @Test
+  @DisplayName("Should drop cached full profile when user is updated")
+  void testUpdateUserEvictsProfile() {
+    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    when(userRepository.save(any(User.class))).thenReturn(testUser);
+    when(userMapper.toDTO(testUser)).thenReturn(testUserDTO);
+
+    userService.updateUser(1L, updateDTO);
+
+    verify(profileCache).evict(1L);
+  }
+
 
   @Test
   @DisplayName("Should return list of all users")
   void testGetAllUsersSuccess() {
     List<User> userList = List.of(testUser);
 
-    when(userRepository.findAllUsers()).thenReturn(userList);
+    when(userRepository.findAllUserIds()).thenReturn(List.of(1L));
+    when(userRepository.findAllById(List.of(1L))).thenReturn(userList);
     when(userMapper.toDTO(testUser)).thenReturn(testUserDTO);
 
     List<UserDTO> result = userService.getAllUsers();
@@ -319,19 +429,21 @@ class UserServiceImplTest {
     assertNotNull(result);
     assertEquals(1, result.size());
     assertEquals("testuser", result.get(0).getLogin());
-    verify(userRepository, times(1)).findAllUsers();
+    verify(userRepository, times(1)).findAllUserIds();
+    verify(userCache).putAllIfAbsent(List.of(testUserDTO));
   }
 
   @Test
   @DisplayName("Should return empty list when no users exist")
   void testGetAllUsersEmpty() {
-    when(userRepository.findAllUsers()).thenReturn(List.of());
+    when(userRepository.findAllUserIds()).thenReturn(List.of());
 
     List<UserDTO> result = userService.getAllUsers();
 
     assertNotNull(result);
     assertTrue(result.isEmpty());
-    verify(userRepository, times(1)).findAllUsers();
+    verify(userRepository, times(1)).findAllUserIds();
+    verify(userRepository, never()).findAllById(any());
   }
 
   @Test
@@ -347,9 +459,10 @@ class UserServiceImplTest {
     userDTO2.setLogin("testuser2");
     userDTO2.setEmail("test2@example.com");
 
-    List<User> userList = List.of(testUser, user2);
+    List<User> userList = List.of(user2, testUser);
 
-    when(userRepository.findAllUsers()).thenReturn(userList);
+    when(userRepository.findAllUserIds()).thenReturn(List.of(1L, 2L));
+    when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(userList);
     when(userMapper.toDTO(testUser)).thenReturn(testUserDTO);
     when(userMapper.toDTO(user2)).thenReturn(userDTO2);
 
@@ -358,7 +471,58 @@ class UserServiceImplTest {
     assertEquals(2, result.size());
     assertEquals("testuser", result.get(0).getLogin());
     assertEquals("testuser2", result.get(1).getLogin());
-    verify(userRepository, times(1)).findAllUsers();
+    verify(userRepository, times(1)).findAllUserIds();
+  }
+
+  @Test
+  @DisplayName("Should load only users missing from cache for a page")
+  void testGetUsersPageLoadsOnlyCacheMisses() {
+    // Given
+    UserDTO userDTO2 = new UserDTO();
+    userDTO2.setId(2L);
+    userDTO2.setLogin("testuser2");
+    when(userRepository.findUserIds(PageRequest.of(0, 2)))
+        .thenReturn(new PageImpl<>(List.of(1L, 2L), PageRequest.of(0, 2), 5));
+    when(userCache.getAll(List.of(1L, 2L))).thenReturn(Map.of(2L, userDTO2));
+    when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(testUser));
+    when(userMapper.toDTO(testUser)).thenReturn(testUserDTO);
+
+    // When
+    UserPageDTO result = userService.getUsersPage(0, 2);
+
+    // Then
+    assertEquals(List.of(testUserDTO, userDTO2), result.getContent());
+    assertEquals(5, result.getTotalElements());
+    assertEquals(3, result.getTotalPages());
+    verify(userCache).putAllIfAbsent(List.of(testUserDTO));
+  }
+
+  @Test
+  @DisplayName("Should look up distinct users in one batch")
+  void testGetUsersByIds() {
+    when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(testUser));
+    when(userMapper.toDTO(testUser)).thenReturn(testUserDTO);
+
+    Map<Long, UserDTO> result = userService.getUsersByIds(List.of(1L, 2L, 1L));
+
+    assertEquals(Map.of(1L, testUserDTO), result);
+    verify(userRepository, times(1)).findAllById(any());
+  }
+
+  @Test
+  @DisplayName("Should reject batches above the limit")
+  void testGetUsersByIdsRejectsLargeBatch() {
+    List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+    assertThrows(IllegalArgumentException.class, () -> userService.getUsersByIds(ids));
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  @DisplayName("Should reject page size above the limit")
+  void testGetUsersPageRejectsLargePage() {
+    assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage(0, 1000));
+    verifyNoInteractions(userRepository);
   }
 
 
@@ -449,4 +613,106 @@ class UserServiceImplTest {
     assertNotNull(result);
     verify(userRepository, times(1)).save(any(User.class));
   }
+
+  @Test
+  @DisplayName("Should withdraw through the ledger and award booking coins")
+  void testApplyWalletOperationsWithdrawal() {
+    WalletOperation withdrawal = WalletOperation.withdrawal(
+        new CreateWalletEvent(1L, 10L, BigDecimal.valueOf(5), PaymentType.BOOKING));
+    when(userRepository.applyWalletChange(1L, BigDecimal.valueOf(-5), 50)).thenReturn(1);
+    when(walletLedgerRepository.appendIfAbsent(1L, 10L, null, "WITHDRAWAL", BigDecimal.valueOf(-5), 50))
+        .thenReturn(1);
+
+    List<WithdrawEvent> result = userService.applyWalletOperations(List.of(withdrawal));
+
+    assertEquals(10L, result.get(0).getPaymentId());
+    assertEquals(OperationType.SUCCESS, result.get(0).getStatus());
+  }
+
+  @Test
+  @DisplayName("Should report an error without touching the ledger when funds are insufficient")
+  void testApplyWalletOperationsInsufficientFunds() {
+    WalletOperation withdrawal = WalletOperation.withdrawal(
+        new CreateWalletEvent(1L, 10L, BigDecimal.valueOf(500), PaymentType.BOOKING));
+    WalletOperation replenishment = WalletOperation.replenishment(
+        new CreateWalletEvent(1L, 11L, BigDecimal.valueOf(20), PaymentType.REPLENISHMENT));
+    when(userRepository.applyWalletChange(1L, BigDecimal.valueOf(-500), 5000)).thenReturn(0);
+    when(userRepository.applyWalletChange(1L, BigDecimal.valueOf(20), 0)).thenReturn(1);
+    when(walletLedgerRepository.appendIfAbsent(1L, 11L, null, "REPLENISHMENT", BigDecimal.valueOf(20), 0))
+        .thenReturn(1);
+
+    List<WithdrawEvent> result =
+        userService.applyWalletOperations(List.of(withdrawal, replenishment));
+
+    assertEquals(OperationType.ERROR, result.get(0).getStatus());
+    assertEquals(OperationType.SUCCESS, result.get(1).getStatus());
+    verify(walletLedgerRepository, never())
+        .appendIfAbsent(eq(1L), eq(10L), any(), any(), any(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Should not apply a payment twice")
+  void testApplyWalletOperationsDuplicatePayment() {
+    WalletOperation replenishment = WalletOperation.replenishment(
+        new CreateWalletEvent(1L, 10L, BigDecimal.valueOf(20), PaymentType.REPLENISHMENT));
+    when(walletLedgerRepository.existsByPaymentIdAndEntryType(10L, WalletEntryType.REPLENISHMENT))
+        .thenReturn(true);
+
+    List<WithdrawEvent> result = userService.applyWalletOperations(List.of(replenishment));
+
+    verify(userRepository, never()).applyWalletChange(any(), any(), anyInt());
+    assertEquals(OperationType.SUCCESS, result.get(0).getStatus());
+  }
+
+  @Test
+  @DisplayName("Should refund money and take back booking coins")
+  void testApplyWalletOperationsRefund() {
+    WalletOperation refund =
+        WalletOperation.refund(new RefundMoneyEvent(1L, 10L, BigDecimal.valueOf(5), 100L));
+    when(userRepository.applyWalletChange(1L, BigDecimal.valueOf(5), -50)).thenReturn(1);
+    when(walletLedgerRepository.appendIfAbsent(1L, 10L, 100L, "REFUND", BigDecimal.valueOf(5), -50))
+        .thenReturn(1);
+
+    List<WithdrawEvent> result = userService.applyWalletOperations(List.of(refund));
+
+    assertEquals(OperationType.REFUNDED, result.get(0).getStatus());
+  }
+
+  @Test
+  @DisplayName("Should refund every session of a group booking that shares one payment")
+  void testApplyWalletOperationsRefundsPerSession() {
+    WalletOperation first =
+        WalletOperation.refund(new RefundMoneyEvent(1L, 10L, BigDecimal.valueOf(5), 100L));
+    WalletOperation second =
+        WalletOperation.refund(new RefundMoneyEvent(1L, 10L, BigDecimal.valueOf(5), 101L));
+    when(walletLedgerRepository.existsBySessionIdAndEntryType(100L, WalletEntryType.REFUND))
+        .thenReturn(true);
+    when(userRepository.applyWalletChange(1L, BigDecimal.valueOf(5), -50)).thenReturn(1);
+    when(walletLedgerRepository.appendIfAbsent(1L, 10L, 101L, "REFUND", BigDecimal.valueOf(5), -50))
+        .thenReturn(1);
+
+    List<WithdrawEvent> result = userService.applyWalletOperations(List.of(first, second));
+
+    assertEquals(OperationType.REFUNDED, result.get(0).getStatus());
+    assertEquals(OperationType.REFUNDED, result.get(1).getStatus());
+    verify(userRepository, times(1)).applyWalletChange(any(), any(), anyInt());
+    verify(walletLedgerRepository, never()).existsByPaymentIdAndEntryType(any(), any());
+  }
+
+  @Test
+  @DisplayName("Should reject a refund that names neither a payment nor a session")
+  void testApplyWalletOperationsRefundWithoutKey() {
+    WalletOperation refund =
+        WalletOperation.refund(new RefundMoneyEvent(1L, null, BigDecimal.valueOf(5), null));
+
+    List<WithdrawEvent> result = userService.applyWalletOperations(List.of(refund));
+
+    assertEquals(OperationType.ERROR, result.get(0).getStatus());
+    verify(userRepository, never()).applyWalletChange(any(), any(), anyInt());
+  }
+
+  private void loadProfilesThroughCache() {
+    when(profileCache.get(eq(1L), any())).thenAnswer(invocation ->
+        invocation.<Supplier<Mono<UserAllProfileDTO>>>getArgument(1).get());
+  }
 }
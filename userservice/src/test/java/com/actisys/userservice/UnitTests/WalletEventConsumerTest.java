@@ -0,0 +1,111 @@
+package com.actisys.userservice.UnitTests;
+
+import com.actisys.common.events.OperationType;
+import com.actisys.common.events.PaymentType;
+import com.actisys.common.events.user.CreateWalletEvent;
+import com.actisys.common.events.user.RefundMoneyEvent;
+import com.actisys.common.events.user.WithdrawEvent;
+import com.actisys.userservice.consumer.WalletEventConsumer;
+import com.actisys.userservice.dto.WalletOperation;
+import com.actisys.userservice.model.WalletEntryType;
+import com.actisys.userservice.service.UserService;
+import java.math.BigDecimal;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WalletEventConsumer Unit Tests")
+class WalletEventConsumerTest {
+
+  @Mock
+  private UserService userService;
+
+  @Mock
+  private KafkaTemplate<String, Object> kafkaTemplate;
+
+  @InjectMocks
+  private WalletEventConsumer walletEventConsumer;
+
+  @Test
+  @DisplayName("Should apply each user's events in order as one group and publish keyed statuses")
+  void testHandleWalletEventsGroupsByUser() {
+    List<ConsumerRecord<String, Object>> records = List.of(
+        record("CREATE_WALLET_EVENT", new CreateWalletEvent(1L, 10L, BigDecimal.ONE, PaymentType.BAR_BUY)),
+        record("REFUND_MONEYS_EVENT", new RefundMoneyEvent(2L, 20L, BigDecimal.TEN, 200L)),
+        record("CREATE_WALLET_REPLENISHMENT_EVENT", new CreateWalletEvent(1L, 11L, BigDecimal.TEN, null)));
+    when(userService.applyWalletOperations(forUser(1L)))
+        .thenReturn(List.of(new WithdrawEvent(10L, OperationType.SUCCESS),
+            new WithdrawEvent(11L, OperationType.SUCCESS)));
+    when(userService.applyWalletOperations(forUser(2L)))
+        .thenReturn(List.of(new WithdrawEvent(20L, OperationType.REFUNDED)));
+    when(kafkaTemplate.send(eq("WALLET_EVENT"), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    walletEventConsumer.handleWalletEvents(records);
+
+    verify(userService).applyWalletOperations(argThat(operations -> operations.size() == 2
+        && operations.get(0).type() == WalletEntryType.WITHDRAWAL
+        && operations.get(1).type() == WalletEntryType.REPLENISHMENT));
+    verify(kafkaTemplate, times(2)).send(eq("WALLET_EVENT"), eq("1"), any());
+    verify(kafkaTemplate).send(eq("WALLET_EVENT"), eq("2"), any());
+  }
+
+  @Test
+  @DisplayName("Should answer only the failing operation with ERROR when a user's group fails")
+  void testHandleWalletEventsIsolatesFailingGroup() {
+    List<ConsumerRecord<String, Object>> records = List.of(
+        record("CREATE_WALLET_EVENT", new CreateWalletEvent(1L, 10L, BigDecimal.ONE, PaymentType.BAR_BUY)),
+        record("REFUND_MONEYS_EVENT", new RefundMoneyEvent(2L, 20L, BigDecimal.TEN, 200L)),
+        record("CREATE_WALLET_EVENT", new CreateWalletEvent(1L, 11L, BigDecimal.ONE, PaymentType.BAR_BUY)),
+        record("CREATE_WALLET_REPLENISHMENT_EVENT", new CreateWalletEvent(3L, 30L, BigDecimal.TEN, null)));
+    when(userService.applyWalletOperations(anyList())).thenAnswer(invocation -> {
+      List<WalletOperation> operations = invocation.getArgument(0);
+      if (operations.stream().anyMatch(operation -> operation.paymentId() == 11L)) {
+        throw new IllegalStateException("Payment 11 was applied concurrently");
+      }
+      return operations.stream()
+          .map(operation -> new WithdrawEvent(operation.paymentId(), OperationType.SUCCESS))
+          .toList();
+    });
+    when(kafkaTemplate.send(eq("WALLET_EVENT"), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    walletEventConsumer.handleWalletEvents(records);
+
+    ArgumentCaptor<Object> statuses = ArgumentCaptor.forClass(Object.class);
+    verify(kafkaTemplate, times(4)).send(eq("WALLET_EVENT"), anyString(), statuses.capture());
+    Map<Long, OperationType> byPayment = statuses.getAllValues().stream()
+        .map(WithdrawEvent.class::cast)
+        .collect(Collectors.toMap(WithdrawEvent::getPaymentId, WithdrawEvent::getStatus));
+    assertEquals(Map.of(10L, OperationType.SUCCESS, 11L, OperationType.ERROR,
+        20L, OperationType.SUCCESS, 30L, OperationType.SUCCESS), byPayment);
+  }
+
+  private List<WalletOperation> forUser(long userId) {
+    return argThat(operations -> operations != null && operations.get(0).userId() == userId);
+  }
+
+  private ConsumerRecord<String, Object> record(String topic, Object value) {
+    return new ConsumerRecord<>(topic, 0, 0, null, value);
+  }
+}